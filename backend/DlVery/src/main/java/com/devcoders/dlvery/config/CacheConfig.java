@@ -1,22 +1,33 @@
 package com.devcoders.dlvery.config;
 
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new MeteredConcurrentMapCache(name, isAllowNullValues());
+            }
+        };
+        cacheManager.setCacheNames(List.of(
                 "users",
                 "products",
                 "deliveries",
-                "inventoryTransactions"
-        );
+                "inventoryTransactions",
+                "routeSheets"
+        ));
+        return cacheManager;
     }
 }
\ No newline at end of file
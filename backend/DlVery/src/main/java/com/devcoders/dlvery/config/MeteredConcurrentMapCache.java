@@ -0,0 +1,63 @@
+package com.devcoders.dlvery.config;
+
+import com.devcoders.dlvery.jfr.CacheLookupEvent;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A ConcurrentMapCache that counts hits, misses and puts, which the plain one does not track,
+ * so the cache.gets and cache.puts metrics can be reported for it.
+ */
+public class MeteredConcurrentMapCache extends ConcurrentMapCache {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+
+    public MeteredConcurrentMapCache(String name, boolean allowNullValues) {
+        super(name, new ConcurrentHashMap<>(256), allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Object value = super.lookup(key);
+        (value != null ? hits : misses).increment();
+        event.complete(getName(), value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        // The loading get does not go through lookup, so count it here
+        boolean hit = super.lookup(key) != null;
+        (hit ? hits : misses).increment();
+        T value = super.get(key, valueLoader);
+        event.complete(getName(), hit);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        puts.increment();
+        super.put(key, value);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+}
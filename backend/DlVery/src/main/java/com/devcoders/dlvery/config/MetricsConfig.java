@@ -0,0 +1,72 @@
+package com.devcoders.dlvery.config;
+
+import com.devcoders.dlvery.web.RoleTaggingObservationConvention;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Application-specific metrics on top of what Actuator registers by itself (JVM, GC, Mongo
+ * driver command timings and HTTP server requests). All of it is scraped from /actuator/prometheus
+ * on the local management port.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Tags http.server.requests with the caller's role alongside the route
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new RoleTaggingObservationConvention();
+    }
+
+    // Picked up by Actuator to bind cache.gets (hit/miss), cache.puts and cache.size for every cache
+    @Bean
+    public CacheMeterBinderProvider<MeteredConcurrentMapCache> meteredCacheMeterBinderProvider() {
+        return MeteredCacheMetrics::new;
+    }
+
+    static class MeteredCacheMetrics extends CacheMeterBinder<MeteredConcurrentMapCache> {
+
+        MeteredCacheMetrics(MeteredConcurrentMapCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        @Override
+        protected Long size() {
+            MeteredConcurrentMapCache cache = getCache();
+            return cache != null ? (long) cache.getNativeCache().size() : null;
+        }
+
+        @Override
+        protected long hitCount() {
+            MeteredConcurrentMapCache cache = getCache();
+            return cache != null ? cache.getHitCount() : 0;
+        }
+
+        @Override
+        protected Long missCount() {
+            MeteredConcurrentMapCache cache = getCache();
+            return cache != null ? cache.getMissCount() : null;
+        }
+
+        // Entries are only ever evicted explicitly
+        @Override
+        protected Long evictionCount() {
+            return null;
+        }
+
+        @Override
+        protected long putCount() {
+            MeteredConcurrentMapCache cache = getCache();
+            return cache != null ? cache.getPutCount() : 0;
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.devcoders.dlvery.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool sizing. With virtual threads the number of requests in flight is no longer
+ * capped by Tomcat's thread pool, so the pool is what bounds the load on Mongo; a request that
+ * cannot get a connection within the wait time fails instead of queueing behind thousands of
+ * others. The mongodb.driver.pool metrics show whether the size fits. These settings take
+ * precedence over pool options in spring.data.mongodb.uri.
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${app.mongo.pool.max-size:100}") int maxSize,
+            @Value("${app.mongo.pool.min-size:10}") int minSize,
+            @Value("${app.mongo.pool.max-connecting:4}") int maxConnecting,
+            @Value("${app.mongo.pool.max-wait-ms:5000}") long maxWaitMs) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+}
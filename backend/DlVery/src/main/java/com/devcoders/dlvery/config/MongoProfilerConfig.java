@@ -0,0 +1,16 @@
+package com.devcoders.dlvery.config;
+
+import com.devcoders.dlvery.service.SlowCommandProfiler;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoProfilerConfig {
+
+    // Added next to the listener Actuator registers for the mongodb.driver.commands timer
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowCommandProfilerCustomizer(SlowCommandProfiler profiler) {
+        return settings -> settings.addCommandListener(profiler);
+    }
+}
@@ -0,0 +1,48 @@
+package com.devcoders.dlvery.config;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.web.NdjsonHttpMessageConverter;
+import com.devcoders.dlvery.web.ReadStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+/**
+ * Functional routes for the streamed reads. They sit outside the controllers, so access is
+ * checked by the URL rules in {@link SecurityConfig} rather than by @PreAuthorize.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadStreamRouterConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    // Last, so a handler returning a plain list still answers */* with JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new NdjsonHttpMessageConverter(objectMapper));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> readStreamRoutes(ReadStreamHandler handler) {
+        return route()
+                .GET("/api/dlteam/stream/deliveries/my", handler::myDeliveries)
+                .GET("/api/dlteam/stream/deliveries/my/today", handler::myTodayDeliveries)
+                .GET("/api/invteam/stream/deliveries", handler::deliveries)
+                .GET("/api/stream/products", handler::products)
+                // Unknown status or category names and malformed dates
+                .onError(e -> e instanceof IllegalArgumentException || e instanceof DateTimeParseException,
+                        (e, request) -> ServerResponse.badRequest().body(ApiResponse.error(e.getMessage())))
+                .build();
+    }
+}
@@ -3,6 +3,11 @@ package com.devcoders.dlvery.config;
 import com.devcoders.dlvery.security.JwtAuthenticationFilter;
 import com.devcoders.dlvery.security.JwtAuthenticationEntryPoint;
 import com.devcoders.dlvery.security.CustomUserDetailsService;
+import com.devcoders.dlvery.service.IdempotencyService;
+import com.devcoders.dlvery.web.IdempotencyFilter;
+import com.devcoders.dlvery.web.RoleAttributeFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -34,6 +39,8 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @Value("${app.cors.allowed-origins}")
     private String[] allowedOrigins;
@@ -64,16 +71,24 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streamed responses finish on an async dispatch, after the JWT filter has run for
+                // the request; access was already checked on the original dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .requestMatchers("/api/invteam/**").hasRole("INVTEAM")
                 .requestMatchers("/api/dlteam/**").hasRole("DLTEAM")
+                .requestMatchers("/api/stream/products").hasAnyRole("INVTEAM", "DLTEAM")
+                .requestMatchers("/ws/location").hasRole("DLTEAM")
                 .anyRequest().authenticated()
             );
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(new IdempotencyFilter(idempotencyService, objectMapper), JwtAuthenticationFilter.class);
+        http.addFilterAfter(new RoleAttributeFilter(), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -83,8 +98,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-        configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "idempotency-key"));
+        configuration.setExposedHeaders(Arrays.asList("x-auth-token", "idempotent-replayed"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
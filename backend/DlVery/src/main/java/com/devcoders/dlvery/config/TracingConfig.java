@@ -0,0 +1,91 @@
+package com.devcoders.dlvery.config;
+
+import com.devcoders.dlvery.tracing.LayerTracingAspect;
+import com.devcoders.dlvery.tracing.RequestPathFilter;
+import com.devcoders.dlvery.tracing.RouteSampler;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Tracing on top of Actuator's OpenTelemetry bridge. HTTP requests are observed by Spring MVC;
+ * this adds spans for controller and service methods and for Mongo commands, a per-route head
+ * sampler, and an exporter writing OTLP-JSON lines to a local file. Spans also go to a
+ * collector over OTLP when management.otlp.tracing.endpoint is set.
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final int SPAN_FILE_LIMIT_BYTES = 50 * 1024 * 1024;
+    private static final int SPAN_FILE_COUNT = 5;
+
+    // Kept so the JUL logger, which the LogManager only references weakly, keeps its file handler
+    private Logger spanFileLogger;
+
+    @Bean
+    public LayerTracingAspect layerTracingAspect(ObservationRegistry observationRegistry) {
+        return new LayerTracingAspect(observationRegistry);
+    }
+
+    // Replaces the sampler Actuator derives from management.tracing.sampling.probability
+    @Bean
+    public Sampler routeSampler(@Value("${app.tracing.sampling.default:0.1}") double defaultProbability,
+                                @Value("${app.tracing.sampling.routes:}") String routes) {
+        return Sampler.parentBased(new RouteSampler(defaultProbability, RouteSampler.parseRoutes(routes)));
+    }
+
+    // Ahead of the filter that starts the HTTP server span
+    @Bean
+    public FilterRegistrationBean<RequestPathFilter> requestPathFilter() {
+        FilterRegistrationBean<RequestPathFilter> registration = new FilterRegistrationBean<>(new RequestPathFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Command spans are parented to the span current on the calling thread
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings.contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    // One ExportTraceServiceRequest per line, the format of the collector's otlpjsonfile receiver
+    @Bean
+    @ConditionalOnExpression("!'${app.tracing.file:}'.isEmpty()")
+    public SpanExporter otlpJsonFileSpanExporter(@Value("${app.tracing.file}") String file) throws IOException {
+        Path path = Path.of(file).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        FileHandler handler = new FileHandler(path.toString(), SPAN_FILE_LIMIT_BYTES, SPAN_FILE_COUNT, true);
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+
+        spanFileLogger = Logger.getLogger(OtlpJsonLoggingSpanExporter.class.getName());
+        spanFileLogger.setUseParentHandlers(false);
+        spanFileLogger.setLevel(Level.INFO);
+        spanFileLogger.addHandler(handler);
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
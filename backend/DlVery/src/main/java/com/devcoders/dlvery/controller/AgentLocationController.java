@@ -0,0 +1,56 @@
+package com.devcoders.dlvery.controller;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.model.AgentLocation;
+import com.devcoders.dlvery.service.AgentLocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class AgentLocationController {
+
+    private final AgentLocationService agentLocationService;
+
+    @PostMapping("/api/dlteam/location")
+    @PreAuthorize("hasRole('DLTEAM')")
+    public ResponseEntity<ApiResponse<Integer>> recordLocations(@RequestBody List<AgentLocation> pings) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        int accepted = agentLocationService.record(auth.getName(), pings);
+        return ResponseEntity.ok(ApiResponse.success("Accepted " + accepted + " of " + pings.size() + " pings", accepted));
+    }
+
+    @GetMapping("/api/invteam/agents/locations")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<AgentLocation>>> getAgentLocations() {
+        return ResponseEntity.ok(ApiResponse.success(agentLocationService.getLatestAll()));
+    }
+
+    @GetMapping("/api/invteam/agents/{agentId}/location")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<AgentLocation>> getAgentLocation(@PathVariable String agentId) {
+        return ResponseEntity.ok(ApiResponse.success(agentLocationService.getLatest(agentId)));
+    }
+
+    @GetMapping("/api/invteam/agents/{agentId}/track")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<AgentLocation>>> getAgentTrack(
+            @PathVariable String agentId,
+            @RequestParam(defaultValue = "30") int minutes) {
+        Instant since = Instant.now().minus(Duration.ofMinutes(minutes));
+        return ResponseEntity.ok(ApiResponse.success(agentLocationService.getTrack(agentId, since)));
+    }
+}
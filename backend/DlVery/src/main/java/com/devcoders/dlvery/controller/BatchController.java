@@ -0,0 +1,35 @@
+package com.devcoders.dlvery.controller;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.dto.BatchRequestItem;
+import com.devcoders.dlvery.dto.BatchResponseItem;
+import com.devcoders.dlvery.web.BatchRequestDispatcher;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class BatchController {
+
+    private final BatchRequestDispatcher batchRequestDispatcher;
+
+    @PostMapping(BatchRequestDispatcher.BATCH_PATH)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<BatchResponseItem>>> batch(@RequestBody List<BatchRequestItem> requests,
+                                                                      HttpServletRequest request,
+                                                                      HttpServletResponse response) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(batchRequestDispatcher.dispatch(request, response, requests)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -1,10 +1,26 @@
 package com.devcoders.dlvery.controller;
 
+import com.devcoders.dlvery.dto.AgentWorkload;
 import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.dto.BatchAssignmentResult;
+import com.devcoders.dlvery.dto.DeliveryCluster;
+import com.devcoders.dlvery.dto.DeliveryDetails;
+import com.devcoders.dlvery.dto.NearbyDelivery;
+import com.devcoders.dlvery.dto.SyncDelta;
+import com.devcoders.dlvery.dto.SyncOperation;
+import com.devcoders.dlvery.dto.SyncResult;
 import com.devcoders.dlvery.model.Delivery;
 import com.devcoders.dlvery.model.DeliveryItem;
 import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.RouteSheet;
+import com.devcoders.dlvery.model.RouteStop;
+import com.devcoders.dlvery.service.AgentWorkloadService;
+import com.devcoders.dlvery.service.DeliveryDetailsService;
+import com.devcoders.dlvery.service.DeliveryGeoService;
 import com.devcoders.dlvery.service.DeliveryService;
+import com.devcoders.dlvery.service.DeliverySyncService;
+import com.devcoders.dlvery.service.DispatchQueue;
+import com.devcoders.dlvery.service.RouteSheetService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -13,6 +29,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -23,6 +40,12 @@ import java.util.Map;
 public class DeliveryController {
 
     private final DeliveryService deliveryService;
+    private final DeliveryDetailsService deliveryDetailsService;
+    private final DispatchQueue dispatchQueue;
+    private final AgentWorkloadService agentWorkloadService;
+    private final DeliveryGeoService deliveryGeoService;
+    private final RouteSheetService routeSheetService;
+    private final DeliverySyncService deliverySyncService;
 
     // Inventory Team Endpoints
     @PostMapping("/api/invteam/deliveries")
@@ -32,6 +55,31 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success("Delivery created and assigned successfully", createdDelivery));
     }
 
+    @PostMapping("/api/invteam/deliveries/auto-assign")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Delivery>> autoAssignDelivery(@Valid @RequestBody Delivery delivery) {
+        Delivery createdDelivery = agentWorkloadService.autoAssign(delivery);
+        return ResponseEntity.ok(ApiResponse.success("Delivery created and assigned to "
+                + createdDelivery.getDeliveryAgentId(), createdDelivery));
+    }
+
+    @PostMapping("/api/invteam/deliveries/auto-assign/batch")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<BatchAssignmentResult>> autoAssignDeliveries(
+            @Valid @RequestBody List<Delivery> deliveries) {
+        BatchAssignmentResult result = agentWorkloadService.autoAssignAll(deliveries);
+        return ResponseEntity.ok(ApiResponse.success(result.getAssigned().size() + " deliveries assigned, "
+                + result.getFailures().size() + " failed", result));
+    }
+
+    @GetMapping("/api/invteam/agents/workload")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<AgentWorkload>>> getAgentWorkload(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<AgentWorkload> workload = agentWorkloadService.getWorkload(date != null ? date : LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success(workload));
+    }
+
     @GetMapping("/api/invteam/deliveries")
     @PreAuthorize("hasRole('INVTEAM')")
     public ResponseEntity<ApiResponse<List<Delivery>>> getAllDeliveries() {
@@ -46,6 +94,13 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success(delivery));
     }
 
+    @GetMapping("/api/invteam/deliveries/{id}/full")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<DeliveryDetails>> getDeliveryDetails(@PathVariable String id) {
+        DeliveryDetails details = deliveryDetailsService.getDeliveryDetails(id);
+        return ResponseEntity.ok(ApiResponse.success(details));
+    }
+
     @GetMapping("/api/invteam/deliveries/agent/{agentId}")
     @PreAuthorize("hasRole('INVTEAM')")
     public ResponseEntity<ApiResponse<List<Delivery>>> getDeliveriesByAgentId(@PathVariable String agentId) {
@@ -91,6 +146,67 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success(deliveries));
     }
 
+    @GetMapping("/api/invteam/deliveries/nearby")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<NearbyDelivery>>> getNearbyPendingDeliveries(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<NearbyDelivery> deliveries = deliveryGeoService.findNearbyPending(latitude, longitude, radiusKm,
+                Math.max(1, Math.min(limit, 500)), null);
+        return ResponseEntity.ok(ApiResponse.success(deliveries));
+    }
+
+    @GetMapping("/api/invteam/deliveries/clusters")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<DeliveryCluster>>> getDeliveryClusters(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "25") int batchSize) {
+        List<DeliveryCluster> clusters = deliveryGeoService.clusterDeliveries(date, batchSize);
+        return ResponseEntity.ok(ApiResponse.success(clusters));
+    }
+
+    @PostMapping("/api/invteam/route-sheets/build")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Integer>> buildRouteSheets(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        int built = routeSheetService.buildAll(date != null ? date : LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success(built + " route sheets built", built));
+    }
+
+    @GetMapping("/api/invteam/route-sheets/{agentId}")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<RouteSheet>> getRouteSheet(
+            @PathVariable String agentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
+        RouteSheet sheet = routeSheetService.getSheet(agentId, date != null ? date : LocalDate.now());
+        if (request.checkNotModified(sheet.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(sheet.getEtag()).body(ApiResponse.success(sheet));
+    }
+
+    @GetMapping("/api/invteam/dispatch/next")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<Delivery>>> getNextDeliveriesToDispatch(
+            @RequestParam(required = false) String agentId,
+            @RequestParam(defaultValue = "1") int limit) {
+        List<Delivery> deliveries = dispatchQueue.peek(agentId, Math.max(1, Math.min(limit, 100)));
+        return ResponseEntity.ok(ApiResponse.success(deliveries));
+    }
+
+    @PostMapping("/api/invteam/dispatch/claim")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Delivery>> claimNextDelivery(@RequestParam(required = false) String agentId) {
+        Delivery delivery = dispatchQueue.claimNext(agentId);
+        if (delivery == null) {
+            return ResponseEntity.ok(ApiResponse.error("No pending deliveries to dispatch"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Delivery dispatched successfully", delivery));
+    }
+
     // Delivery Team Endpoints
     @GetMapping("/api/dlteam/deliveries/my")
     @PreAuthorize("hasRole('DLTEAM')")
@@ -103,11 +219,16 @@ public class DeliveryController {
 
     @GetMapping("/api/dlteam/deliveries/my/today")
     @PreAuthorize("hasRole('DLTEAM')")
-    public ResponseEntity<ApiResponse<List<Delivery>>> getMyTodayDeliveries() {
+    public ResponseEntity<ApiResponse<List<RouteStop>>> getMyTodayDeliveries(WebRequest request) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String agentId = auth.getName(); // Assuming username is the user ID
-        List<Delivery> deliveries = deliveryService.getTodayDeliveriesForAgent(agentId);
-        return ResponseEntity.ok(ApiResponse.success(deliveries));
+        
+        // Served from the precomputed route sheet; unchanged sheets answer 304
+        RouteSheet sheet = routeSheetService.getSheet(agentId, LocalDate.now());
+        if (request.checkNotModified(sheet.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(sheet.getEtag()).body(ApiResponse.success(sheet.getStops()));
     }
 
     @GetMapping("/api/dlteam/deliveries/my/pending")
@@ -119,6 +240,20 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success(deliveries));
     }
 
+    @GetMapping("/api/dlteam/deliveries/my/nearby")
+    @PreAuthorize("hasRole('DLTEAM')")
+    public ResponseEntity<ApiResponse<List<NearbyDelivery>>> getMyNearbyPendingDeliveries(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "50") int limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String agentId = auth.getName(); // Assuming username is the user ID
+        List<NearbyDelivery> deliveries = deliveryGeoService.findNearbyPending(latitude, longitude, radiusKm,
+                Math.max(1, Math.min(limit, 500)), agentId);
+        return ResponseEntity.ok(ApiResponse.success(deliveries));
+    }
+
     @GetMapping("/api/dlteam/deliveries/{id}")
     @PreAuthorize("hasRole('DLTEAM')")
     public ResponseEntity<ApiResponse<Delivery>> getDeliveryForAgent(@PathVariable String id) {
@@ -194,6 +329,32 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success("Delivery status updated successfully", updatedDelivery));
     }
 
+    @GetMapping("/api/dlteam/sync")
+    @PreAuthorize("hasRole('DLTEAM')")
+    public ResponseEntity<ApiResponse<SyncDelta>> syncChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String agentId = auth.getName(); // Assuming username is the user ID
+
+        try {
+            SyncDelta delta = deliverySyncService.getChanges(agentId, since, Math.max(1, Math.min(limit, 1000)));
+            return ResponseEntity.ok(ApiResponse.success(delta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/api/dlteam/sync")
+    @PreAuthorize("hasRole('DLTEAM')")
+    public ResponseEntity<ApiResponse<List<SyncResult>>> syncOperations(@RequestBody List<SyncOperation> operations) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String agentId = auth.getName(); // Assuming username is the user ID
+
+        List<SyncResult> results = deliverySyncService.apply(agentId, operations);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
     @PutMapping("/api/dlteam/deliveries/{id}/items")
     @PreAuthorize("hasRole('DLTEAM')")
     public ResponseEntity<ApiResponse<Delivery>> updateDeliveryItems(
@@ -0,0 +1,98 @@
+package com.devcoders.dlvery.controller;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.dto.PinningSite;
+import com.devcoders.dlvery.dto.RecordingInfo;
+import com.devcoders.dlvery.service.FlightRecorderService;
+import com.devcoders.dlvery.service.PinningMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorderService;
+    private final PinningMonitor pinningMonitor;
+
+    @PostMapping("/api/invteam/jfr/recordings")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<RecordingInfo>> startRecording(
+            @RequestParam(defaultValue = "profile") String settings,
+            @RequestParam(defaultValue = "60") long durationSeconds,
+            @RequestParam(defaultValue = "false") boolean includeCacheLookups) throws IOException, ParseException {
+        try {
+            RecordingInfo recording = flightRecorderService.start(settings, durationSeconds, includeCacheLookups);
+            return ResponseEntity.ok(ApiResponse.success("Recording started", recording));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/invteam/jfr/recordings")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<RecordingInfo>>> getRecordings() {
+        return ResponseEntity.ok(ApiResponse.success(flightRecorderService.getRecordings()));
+    }
+
+    // The dump is streamed from a temporary file that is deleted once sent
+    @GetMapping("/api/invteam/jfr/recordings/{id}/dump")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<Resource> dumpRecording(@PathVariable long id) throws IOException {
+        Path file = flightRecorderService.dump(id);
+        long size = Files.size(file);
+        Resource body = new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("recording-" + id + ".jfr").build().toString())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(size)
+                .body(body);
+    }
+
+    @DeleteMapping("/api/invteam/jfr/recordings/{id}")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Void>> closeRecording(@PathVariable long id) {
+        flightRecorderService.close(id);
+        return ResponseEntity.ok(ApiResponse.success("Recording closed", null));
+    }
+
+    @GetMapping("/api/invteam/jfr/pinning")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<PinningSite>>> getPinningSites() {
+        if (!pinningMonitor.isEnabled()) {
+            return ResponseEntity.ok(ApiResponse.success("Pinning detection is off, see app.threads.pinning.enabled",
+                    List.of()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(pinningMonitor.getSites()));
+    }
+
+    @DeleteMapping("/api/invteam/jfr/pinning")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Void>> clearPinningSites() {
+        pinningMonitor.clear();
+        return ResponseEntity.ok(ApiResponse.success("Pinning sites cleared", null));
+    }
+}
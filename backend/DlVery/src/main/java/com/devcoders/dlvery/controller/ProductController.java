@@ -1,9 +1,13 @@
 package com.devcoders.dlvery.controller;
 
 import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.dto.ProductAvailability;
 import com.devcoders.dlvery.model.Product;
 import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.service.LotService;
 import com.devcoders.dlvery.service.ProductService;
+import com.devcoders.dlvery.service.ReservationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -20,6 +24,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ReservationService reservationService;
+    private final LotService lotService;
 
     @PostMapping
     @PreAuthorize("hasRole('INVTEAM')")
@@ -44,6 +50,21 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(product));
     }
 
+    @GetMapping("/{id}/availability")
+    @PreAuthorize("hasAnyRole('INVTEAM', 'DLTEAM')")
+    public ResponseEntity<ApiResponse<ProductAvailability>> getProductAvailability(@PathVariable String id) {
+        ProductAvailability availability = reservationService.getAvailability(id);
+        return ResponseEntity.ok(ApiResponse.success(availability));
+    }
+
+    @GetMapping("/{id}/lots")
+    @PreAuthorize("hasAnyRole('INVTEAM', 'DLTEAM')")
+    public ResponseEntity<ApiResponse<List<StockLot>>> getProductLots(@PathVariable String id) {
+        Product product = productService.getProductById(id);
+        List<StockLot> lots = lotService.getOpenLots(product.getSku());
+        return ResponseEntity.ok(ApiResponse.success(lots));
+    }
+
     @GetMapping("/sku/{sku}")
     @PreAuthorize("hasAnyRole('INVTEAM', 'DLTEAM')")
     public ResponseEntity<ApiResponse<Product>> getProductBySku(@PathVariable String sku) {
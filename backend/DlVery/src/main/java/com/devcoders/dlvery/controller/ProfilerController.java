@@ -0,0 +1,42 @@
+package com.devcoders.dlvery.controller;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.dto.SlowCommand;
+import com.devcoders.dlvery.dto.SlowCommandShape;
+import com.devcoders.dlvery.service.SlowCommandProfiler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ProfilerController {
+
+    private final SlowCommandProfiler slowCommandProfiler;
+
+    @GetMapping("/api/invteam/profiler/slow-commands")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<SlowCommand>>> getSlowCommands(
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(slowCommandProfiler.getRecent(limit)));
+    }
+
+    @GetMapping("/api/invteam/profiler/slow-commands/shapes")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<List<SlowCommandShape>>> getSlowCommandShapes() {
+        return ResponseEntity.ok(ApiResponse.success(slowCommandProfiler.getShapes()));
+    }
+
+    @DeleteMapping("/api/invteam/profiler/slow-commands")
+    @PreAuthorize("hasRole('INVTEAM')")
+    public ResponseEntity<ApiResponse<Void>> clearSlowCommands() {
+        slowCommandProfiler.clear();
+        return ResponseEntity.ok(ApiResponse.success("Slow command log cleared", null));
+    }
+}
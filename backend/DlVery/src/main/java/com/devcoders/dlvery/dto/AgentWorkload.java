@@ -0,0 +1,18 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentWorkload {
+    private String agentId;
+    private LocalDate date;
+    private int deliveries;
+    private int items;
+    private int priorityWeight;  // URGENT 4, PERISHABLE 3, HIGH 2, otherwise 1 per delivery
+}
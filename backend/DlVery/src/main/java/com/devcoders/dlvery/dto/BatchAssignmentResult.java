@@ -0,0 +1,17 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAssignmentResult {
+    private List<Delivery> assigned;
+    private Map<Integer, String> failures;  // Position in the request -> reason
+}
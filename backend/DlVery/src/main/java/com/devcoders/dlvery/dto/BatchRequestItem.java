@@ -0,0 +1,19 @@
+package com.devcoders.dlvery.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestItem {
+    private String id;  // Client-side id, echoed in the response item
+    private String method;  // GET if not set
+    private String path;  // Route under this API, with an optional query string, e.g. /api/products/sku/ABC
+    private Map<String, String> headers;  // Extra headers, e.g. Idempotency-Key
+    private JsonNode body;  // JSON request body, if any
+}
@@ -0,0 +1,18 @@
+package com.devcoders.dlvery.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponseItem {
+    private String id;
+    private int status;
+    private Map<String, String> headers;
+    private JsonNode body;  // The sub-response body; a JSON string when it was not JSON
+}
@@ -0,0 +1,21 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryCluster {
+    private int cluster;
+    private double centroidLatitude;
+    private double centroidLongitude;
+    private double radiusKm;  // Distance from the centroid to the furthest delivery
+    private int size;
+    private List<String> deliveryIds;
+}
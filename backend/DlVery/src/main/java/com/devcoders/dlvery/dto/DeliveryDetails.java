@@ -0,0 +1,49 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryDetails {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductState {
+        private String id;
+        private String sku;
+        private String name;
+        private ProductCategory category;
+        private int quantity;  // Current stock on hand
+        private boolean damaged;
+        private boolean perishable;
+        private LocalDate expiryDate;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TransactionEntry {
+        private String id;
+        private String sku;
+        private TransactionType type;
+        private int quantity;
+        private String userId;
+        private String notes;
+        private LocalDateTime timestamp;
+    }
+
+    private Delivery delivery;  // Without lot allocations
+    private List<ProductState> products;  // One per distinct item SKU that still exists
+    private List<TransactionEntry> transactions;  // Oldest first
+}
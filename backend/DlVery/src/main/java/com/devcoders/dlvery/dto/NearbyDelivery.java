@@ -0,0 +1,14 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDelivery {
+    private Delivery delivery;
+    private double distanceKm;
+}
@@ -0,0 +1,24 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PinningSite {
+
+    private String site;            // First application frame, or the top frame outside the JDK
+    private long count;
+    private double totalMs;
+    private double maxMs;
+    private double avgMs;
+    private Instant lastSeen;
+    private boolean nativeFrame;    // A native method was on the stack while pinned
+    private String reason;          // Reported by the JVM from JDK 24 on, e.g. "Native or VM frame on stack"
+    private List<String> stack;     // Top frames of the latest occurrence
+}
@@ -0,0 +1,19 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailability {
+    private String productId;
+    private String sku;
+    private int onHand;
+    private int held;       // Reserved by pending deliveries, still in the warehouse
+    private int committed;  // On open (PENDING or IN_TRANSIT) deliveries
+    private int available;  // On hand minus held
+}
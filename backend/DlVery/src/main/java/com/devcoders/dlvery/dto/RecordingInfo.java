@@ -0,0 +1,21 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingInfo {
+
+    private long id;
+    private String name;
+    private String state;          // NEW, DELAYED, RUNNING, STOPPED or CLOSED
+    private Instant startTime;
+    private Long durationSeconds;  // Stops by itself after this long
+    private long maxSizeBytes;
+    private long sizeBytes;
+}
@@ -0,0 +1,24 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowCommand {
+
+    private Instant startedAt;
+    private String database;
+    private String collection;
+    private String commandName;
+    private String shape;             // The command with its literal values replaced by "?"
+    private long durationMs;
+    private long docsReturned;        // Returned, counted or modified, depending on the command
+    private String repositoryMethod;  // e.g. DeliveryRepository.findByStatus, when called through a repository
+    private String caller;            // First application frame below the driver
+    private String error;             // Set when the command failed
+}
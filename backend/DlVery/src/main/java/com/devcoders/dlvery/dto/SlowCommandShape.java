@@ -0,0 +1,28 @@
+package com.devcoders.dlvery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowCommandShape {
+
+    private String shape;
+    private String collection;
+    private String commandName;
+    private long count;
+    private long totalMs;
+    private long maxMs;
+    private double avgMs;
+    private long totalDocsReturned;
+    private Instant lastSeen;
+    private String repositoryMethod;
+    private String caller;
+    private String plan;                    // Winning plan stages, e.g. "FETCH > IXSCAN(status_1)"
+    private Map<String, Object> explain;    // queryPlanner section of the explain output
+}
@@ -0,0 +1,17 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDelta {
+    private List<Delivery> changes;  // Oldest change first, without customer signatures
+    private String cursor;  // Pass back as since= on the next sync
+    private boolean hasMore;  // More changes are waiting; sync again right away
+}
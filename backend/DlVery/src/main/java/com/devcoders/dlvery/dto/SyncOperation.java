@@ -0,0 +1,29 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncOperation {
+
+    public enum Action {
+        STATUS,
+        COMPLETE,
+        DOOR_LOCK
+    }
+
+    private String opId;  // Client-side id, echoed in the result
+    private String deliveryId;
+    private Action action;
+    private DeliveryStatus status;  // For STATUS
+    private String notes;  // For STATUS and DOOR_LOCK
+    private String customerName;  // For COMPLETE
+    private String customerSignature;  // For COMPLETE
+    private LocalDateTime baseUpdatedAt;  // updatedAt of the delivery as the client last saw it
+}
@@ -0,0 +1,24 @@
+package com.devcoders.dlvery.dto;
+
+import com.devcoders.dlvery.model.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+
+    public enum Outcome {
+        APPLIED,
+        CONFLICT,  // Changed on the server since the client's copy; delivery holds the server version
+        REJECTED
+    }
+
+    private String opId;
+    private String deliveryId;
+    private Outcome outcome;
+    private String message;
+    private Delivery delivery;  // Current server version, when known
+}
@@ -0,0 +1,17 @@
+package com.devcoders.dlvery.event;
+
+import com.devcoders.dlvery.model.Delivery;
+
+/**
+ * Published by DeliveryService after a delivery is saved or removed.
+ */
+public record DeliveryChangedEvent(Delivery delivery, boolean deleted) {
+
+    public static DeliveryChangedEvent saved(Delivery delivery) {
+        return new DeliveryChangedEvent(delivery, false);
+    }
+
+    public static DeliveryChangedEvent deleted(Delivery delivery) {
+        return new DeliveryChangedEvent(delivery, true);
+    }
+}
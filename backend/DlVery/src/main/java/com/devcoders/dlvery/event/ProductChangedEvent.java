@@ -0,0 +1,18 @@
+package com.devcoders.dlvery.event;
+
+import com.devcoders.dlvery.model.Product;
+
+/**
+ * Published by ProductService after a product is created, updated or deleted, so components
+ * that index products can follow writes instead of rescanning the collection.
+ */
+public record ProductChangedEvent(Product product, boolean deleted) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product, false);
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(product, true);
+    }
+}
@@ -0,0 +1,11 @@
+package com.devcoders.dlvery.event;
+
+import java.time.LocalDate;
+
+/**
+ * Raised when a lot of a perishable product with units left enters its expiry warning window.
+ * The quantity is what is left of the lot.
+ */
+public record ProductExpiryWarningEvent(String productId, String sku, String name, LocalDate expiryDate,
+                                        int quantity) {
+}
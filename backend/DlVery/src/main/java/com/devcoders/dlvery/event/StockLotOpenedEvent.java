@@ -0,0 +1,10 @@
+package com.devcoders.dlvery.event;
+
+import com.devcoders.dlvery.model.StockLot;
+
+/**
+ * Published by LotService when a lot is opened by a receipt, or reopened by returned units, in
+ * either stock mode.
+ */
+public record StockLotOpenedEvent(StockLot lot) {
+}
@@ -0,0 +1,17 @@
+package com.devcoders.dlvery.event;
+
+import com.devcoders.dlvery.model.User;
+
+/**
+ * Published by UserService after a user is registered, updated or deleted.
+ */
+public record UserChangedEvent(User user, boolean deleted) {
+
+    public static UserChangedEvent saved(User user) {
+        return new UserChangedEvent(user, false);
+    }
+
+    public static UserChangedEvent deleted(User user) {
+        return new UserChangedEvent(user, true);
+    }
+}
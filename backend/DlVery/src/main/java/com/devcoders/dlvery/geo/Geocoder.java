@@ -0,0 +1,14 @@
+package com.devcoders.dlvery.geo;
+
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.Optional;
+
+/**
+ * Resolves a free-text delivery address to a point. Implementations must work offline; the
+ * default is {@link LookupTableGeocoder}, and another bean can replace it.
+ */
+public interface Geocoder {
+
+    Optional<GeoJsonPoint> geocode(String address);
+}
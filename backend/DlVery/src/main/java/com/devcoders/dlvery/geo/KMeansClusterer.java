@@ -0,0 +1,155 @@
+package com.devcoders.dlvery.geo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * k-means over latitude/longitude points, used to batch a day's deliveries into areas.
+ * Points are projected onto a local equirectangular plane (longitude scaled by the cosine of
+ * the mean latitude), which is accurate enough at city scale. Seeding is k-means++; the
+ * assignment and centroid steps run over all cores with parallel streams.
+ */
+public final class KMeansClusterer {
+
+    public record Result(double[] centroidLatitudes, double[] centroidLongitudes, int[] assignments,
+                         int iterations) {
+
+        public int clusterCount() {
+            return centroidLatitudes.length;
+        }
+    }
+
+    private final int maxIterations;
+    private final long seed;
+
+    public KMeansClusterer(int maxIterations, long seed) {
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    public Result cluster(double[] latitudes, double[] longitudes, int k) {
+        int n = latitudes.length;
+        if (n != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays differ in length");
+        }
+        if (n == 0) {
+            return new Result(new double[0], new double[0], new int[0], 0);
+        }
+        k = Math.max(1, Math.min(k, n));
+
+        double scale = Math.cos(Math.toRadians(Arrays.stream(latitudes).average().orElse(0)));
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = longitudes[i] * scale;
+        }
+        double[] ys = latitudes;
+
+        double[] cx = new double[k];
+        double[] cy = new double[k];
+        seed(xs, ys, cx, cy);
+
+        int[] assignments = new int[n];
+        Arrays.fill(assignments, -1);
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            int changed = assign(xs, ys, cx, cy, assignments);
+            if (changed == 0) {
+                break;
+            }
+            updateCentroids(xs, ys, cx, cy, assignments);
+        }
+
+        double[] centroidLongitudes = new double[k];
+        for (int c = 0; c < k; c++) {
+            centroidLongitudes[c] = cx[c] / scale;
+        }
+        return new Result(cy.clone(), centroidLongitudes, assignments, iterations);
+    }
+
+    private void seed(double[] xs, double[] ys, double[] cx, double[] cy) {
+        int n = xs.length;
+        Random random = new Random(seed);
+        int first = random.nextInt(n);
+        cx[0] = xs[first];
+        cy[0] = ys[first];
+
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.MAX_VALUE);
+        for (int c = 1; c < cx.length; c++) {
+            double px = cx[c - 1];
+            double py = cy[c - 1];
+            IntStream.range(0, n).parallel().forEach(i ->
+                    nearest[i] = Math.min(nearest[i], squaredDistance(xs[i], ys[i], px, py)));
+            double total = Arrays.stream(nearest).parallel().sum();
+
+            int chosen = n - 1;
+            if (total > 0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < n; i++) {
+                    target -= nearest[i];
+                    if (target <= 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            } else {
+                chosen = random.nextInt(n);
+            }
+            cx[c] = xs[chosen];
+            cy[c] = ys[chosen];
+        }
+    }
+
+    private static int assign(double[] xs, double[] ys, double[] cx, double[] cy, int[] assignments) {
+        return IntStream.range(0, xs.length).parallel().map(i -> {
+            int best = 0;
+            double bestDistance = Double.MAX_VALUE;
+            for (int c = 0; c < cx.length; c++) {
+                double distance = squaredDistance(xs[i], ys[i], cx[c], cy[c]);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = c;
+                }
+            }
+            if (assignments[i] != best) {
+                assignments[i] = best;
+                return 1;
+            }
+            return 0;
+        }).sum();
+    }
+
+    private static void updateCentroids(double[] xs, double[] ys, double[] cx, double[] cy, int[] assignments) {
+        int k = cx.length;
+        // Per-thread partial sums laid out as [sumX, sumY, count] per cluster
+        double[] sums = IntStream.range(0, xs.length).parallel().collect(
+                () -> new double[k * 3],
+                (acc, i) -> {
+                    int c = assignments[i] * 3;
+                    acc[c] += xs[i];
+                    acc[c + 1] += ys[i];
+                    acc[c + 2]++;
+                },
+                (left, right) -> {
+                    for (int j = 0; j < left.length; j++) {
+                        left[j] += right[j];
+                    }
+                });
+        for (int c = 0; c < k; c++) {
+            double count = sums[c * 3 + 2];
+            // An empty cluster keeps its previous centroid
+            if (count > 0) {
+                cx[c] = sums[c * 3] / count;
+                cy[c] = sums[c * 3 + 1] / count;
+            }
+        }
+    }
+
+    private static double squaredDistance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+}
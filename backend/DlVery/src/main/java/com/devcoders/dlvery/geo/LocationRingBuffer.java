@@ -0,0 +1,106 @@
+package com.devcoders.dlvery.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size track of the most recent position fixes of one agent, stored column-wise in
+ * primitive arrays so memory per agent is constant and appending allocates nothing. Fixes must
+ * arrive in time order; older ones are rejected so the track stays sorted. Not thread-safe.
+ */
+public final class LocationRingBuffer {
+
+    public record Fix(long timeMillis, double latitude, double longitude, float accuracyMeters,
+                      float speedMetersPerSecond) {
+    }
+
+    private final long[] times;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final float[] accuracies;
+    private final float[] speeds;
+    private int next;
+    private int size;
+
+    public LocationRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        times = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        accuracies = new float[capacity];
+        speeds = new float[capacity];
+    }
+
+    /**
+     * Appends a fix, overwriting the oldest one when full. Accuracy and speed are NaN when
+     * not known.
+     *
+     * @return false if the fix is older than the latest one held
+     */
+    public boolean add(long timeMillis, double latitude, double longitude, float accuracyMeters,
+                       float speedMetersPerSecond) {
+        if (size > 0 && timeMillis < times[index(size - 1)]) {
+            return false;
+        }
+        times[next] = timeMillis;
+        latitudes[next] = latitude;
+        longitudes[next] = longitude;
+        accuracies[next] = accuracyMeters;
+        speeds[next] = speedMetersPerSecond;
+        next = (next + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+        return true;
+    }
+
+    public Fix latest() {
+        return size == 0 ? null : fix(index(size - 1));
+    }
+
+    /**
+     * Time of the oldest fix held, or Long.MAX_VALUE when empty.
+     */
+    public long oldestTime() {
+        return size == 0 ? Long.MAX_VALUE : times[index(0)];
+    }
+
+    /**
+     * The fixes at or after the time, oldest first.
+     */
+    public List<Fix> since(long fromMillis) {
+        // Binary search for the first fix at or after the time, in logical order
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[index(mid)] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<Fix> fixes = new ArrayList<>(size - low);
+        for (int i = low; i < size; i++) {
+            fixes.add(fix(index(i)));
+        }
+        return fixes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    private int index(int logical) {
+        int oldest = size < times.length ? 0 : next;
+        return (oldest + logical) % times.length;
+    }
+
+    private Fix fix(int i) {
+        return new Fix(times[i], latitudes[i], longitudes[i], accuracies[i], speeds[i]);
+    }
+}
@@ -0,0 +1,102 @@
+package com.devcoders.dlvery.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Geocodes from a CSV table of {@code address,latitude,longitude} rows (addresses may be quoted).
+ * An address matches its exact normalised form first, then ever shorter trailing parts of it,
+ * so a table of streets, suburbs or postcodes can each resolve the addresses under them.
+ */
+@Slf4j
+@Component
+public class LookupTableGeocoder implements Geocoder {
+
+    private final Map<String, GeoJsonPoint> table = new HashMap<>();
+
+    @Autowired
+    public LookupTableGeocoder(@Value("${app.geo.lookup-table:classpath:geo/address-points.csv}") Resource resource) {
+        if (!resource.exists()) {
+            log.warn("Geocoding lookup table {} not found, deliveries will not be geocoded", resource);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parse(line);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read geocoding lookup table " + resource, e);
+        }
+        log.info("Loaded {} geocoding entries", table.size());
+    }
+
+    LookupTableGeocoder(Map<String, GeoJsonPoint> entries) {
+        entries.forEach((address, point) -> table.put(normalise(address), point));
+    }
+
+    @Override
+    public Optional<GeoJsonPoint> geocode(String address) {
+        if (address == null || table.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = normalise(address);
+        while (!key.isEmpty()) {
+            GeoJsonPoint point = table.get(key);
+            if (point != null) {
+                return Optional.of(point);
+            }
+            int comma = key.indexOf(',');
+            key = comma < 0 ? "" : key.substring(comma + 1).trim();
+        }
+        return Optional.empty();
+    }
+
+    private void parse(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("address,")) {
+            return;
+        }
+        int lngComma = trimmed.lastIndexOf(',');
+        int latComma = lngComma > 0 ? trimmed.lastIndexOf(',', lngComma - 1) : -1;
+        if (latComma <= 0) {
+            log.warn("Skipping malformed geocoding entry: {}", line);
+            return;
+        }
+        try {
+            double latitude = Double.parseDouble(trimmed.substring(latComma + 1, lngComma).trim());
+            double longitude = Double.parseDouble(trimmed.substring(lngComma + 1).trim());
+            String address = trimmed.substring(0, latComma).trim();
+            if (address.length() > 1 && address.startsWith("\"") && address.endsWith("\"")) {
+                address = address.substring(1, address.length() - 1);
+            }
+            table.put(normalise(address), new GeoJsonPoint(longitude, latitude));
+        } catch (NumberFormatException e) {
+            log.warn("Skipping malformed geocoding entry: {}", line);
+        }
+    }
+
+    static String normalise(String address) {
+        return address.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N},]+", " ")
+                .replaceAll("\\s*,\\s*", ",")
+                .replaceAll(",+", ",")
+                .replaceAll("\\s+", " ")
+                .replaceAll("^[ ,]+|[ ,]+$", "")
+                .replace(",", ", ");
+    }
+}
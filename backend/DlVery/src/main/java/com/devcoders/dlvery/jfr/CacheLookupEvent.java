@@ -0,0 +1,37 @@
+package com.devcoders.dlvery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Off by default as lookups are far more frequent than anything else recorded; enable it for a
+ * recording with includeCacheLookups, or with com.devcoders.dlvery.CacheLookup#enabled=true.
+ */
+@Name("com.devcoders.dlvery.CacheLookup")
+@Label("Cache Lookup")
+@Description("A lookup in an application cache; a loading lookup includes the time to load the value")
+@Category({"DlVery", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache Name")
+    String cacheName;
+
+    @Label("Hit")
+    boolean hit;
+
+    public void complete(String cacheName, boolean hit) {
+        end();
+        if (shouldCommit()) {
+            this.cacheName = cacheName;
+            this.hit = hit;
+            commit();
+        }
+    }
+}
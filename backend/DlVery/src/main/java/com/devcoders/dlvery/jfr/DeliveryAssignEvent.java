@@ -0,0 +1,44 @@
+package com.devcoders.dlvery.jfr;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.devcoders.dlvery.DeliveryAssign")
+@Label("Delivery Assign")
+@Description("DeliveryService.assignDelivery: saving a delivery and reserving stock for its items")
+@Category({"DlVery", "Delivery"})
+@StackTrace(false)
+public class DeliveryAssignEvent extends Event {
+
+    @Label("Delivery Id")
+    String deliveryId;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Total Quantity")
+    int totalQuantity;
+
+    @Label("Reserved")
+    @Description("False when the stock reservation failed and the delivery was removed again")
+    boolean reserved;
+
+    public void complete(Delivery delivery, boolean reserved) {
+        end();
+        if (shouldCommit()) {
+            deliveryId = delivery.getId();
+            if (delivery.getItems() != null) {
+                itemCount = delivery.getItems().size();
+                totalQuantity = delivery.getItems().stream().mapToInt(DeliveryItem::getQuantity).sum();
+            }
+            this.reserved = reserved;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.devcoders.dlvery.jfr;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.devcoders.dlvery.DeliveryStatus")
+@Label("Delivery Status Update")
+@Description("DeliveryService.updateDeliveryStatus, including the stock movements it causes")
+@Category({"DlVery", "Delivery"})
+@StackTrace(false)
+public class DeliveryStatusEvent extends Event {
+
+    @Label("Delivery Id")
+    String deliveryId;
+
+    @Label("From Status")
+    String fromStatus;
+
+    @Label("To Status")
+    String toStatus;
+
+    @Label("Item Count")
+    int itemCount;
+
+    public void complete(Delivery delivery, DeliveryStatus from) {
+        end();
+        if (shouldCommit()) {
+            deliveryId = delivery.getId();
+            fromStatus = from != null ? from.name() : null;
+            toStatus = delivery.getStatus() != null ? delivery.getStatus().name() : null;
+            itemCount = delivery.getItems() != null ? delivery.getItems().size() : 0;
+            commit();
+        }
+    }
+}
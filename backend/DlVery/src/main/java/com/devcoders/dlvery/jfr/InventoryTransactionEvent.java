@@ -0,0 +1,45 @@
+package com.devcoders.dlvery.jfr;
+
+import com.devcoders.dlvery.model.InventoryTransaction;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.devcoders.dlvery.InventoryTransaction")
+@Label("Inventory Transaction")
+@Description("InventoryTransactionService.createTransaction: stock update, transaction write and lot tracking")
+@Category({"DlVery", "Inventory"})
+@StackTrace(false)
+public class InventoryTransactionEvent extends Event {
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Product Id")
+    String productId;
+
+    @Label("Quantity")
+    int quantity;
+
+    @Label("Delivery Id")
+    String deliveryId;
+
+    @Label("Ledger")
+    @Description("Applied to the in-memory stock ledger and written behind")
+    boolean ledger;
+
+    public void complete(InventoryTransaction transaction, boolean ledger) {
+        end();
+        if (shouldCommit()) {
+            transactionType = transaction.getType() != null ? transaction.getType().name() : null;
+            productId = transaction.getProductId();
+            quantity = transaction.getQuantity();
+            deliveryId = transaction.getDeliveryId();
+            this.ledger = ledger;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.devcoders.dlvery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.devcoders.dlvery.JwtValidation")
+@Label("JWT Validation")
+@Description("Token validation and user lookup in JwtAuthenticationFilter")
+@Category({"DlVery", "Security"})
+@StackTrace(false)
+public class JwtValidationEvent extends Event {
+
+    @Label("Valid")
+    boolean valid;
+
+    @Label("Authenticated")
+    @Description("The token was valid and its user was loaded")
+    boolean authenticated;
+
+    public void complete(boolean valid, boolean authenticated) {
+        end();
+        if (shouldCommit()) {
+            this.valid = valid;
+            this.authenticated = authenticated;
+            commit();
+        }
+    }
+}
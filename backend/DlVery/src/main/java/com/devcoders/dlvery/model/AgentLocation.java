@@ -0,0 +1,27 @@
+package com.devcoders.dlvery.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TimeSeries(collection = "agent_locations", timeField = "recordedAt", metaField = "agentId",
+        granularity = Granularity.SECONDS, expireAfter = "30d")
+public class AgentLocation {
+
+    @Id
+    private String id;
+    private String agentId;  // Username of the delivery agent
+    private Instant recordedAt;  // Device time of the fix; server time if not sent
+    private double latitude;
+    private double longitude;
+    private Float accuracyMeters;  // null if not reported
+    private Float speedMetersPerSecond;  // null if not reported
+}
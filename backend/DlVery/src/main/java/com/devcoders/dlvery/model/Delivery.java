@@ -4,6 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -14,6 +18,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "deliveries")
+@CompoundIndex(name = "status_schedule", def = "{'status': 1, 'scheduledDate': 1, 'createdAt': 1}")
+@CompoundIndex(name = "schedule_agent", def = "{'scheduledDate': 1, 'deliveryAgentId': 1}")
+@CompoundIndex(name = "agent_updated", def = "{'deliveryAgentId': 1, 'updatedAt': 1, '_id': 1}")
 public class Delivery {
     
     @Id
@@ -22,6 +29,8 @@ public class Delivery {
     private List<DeliveryItem> items;
     private String customerName;
     private String customerAddress;
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;  // Optional, geocoded from customerAddress when not supplied
     private String customerPhone;
     private DeliveryStatus status;
     private DeliveryPriority priority;
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,4 +16,5 @@ public class DeliveryItem {
     private int quantity;
     private boolean damaged;  // Whether item was damaged during delivery
     private boolean returned;  // Whether item was returned to warehouse
+    private List<LotAllocation> lotAllocations;  // Lots picked first-expired-first-out at assignment
 }
\ No newline at end of file
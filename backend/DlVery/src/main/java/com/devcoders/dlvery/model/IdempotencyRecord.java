@@ -0,0 +1,29 @@
+package com.devcoders.dlvery.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_records")
+public class IdempotencyRecord {
+
+    public static final int TTL_SECONDS = 24 * 60 * 60;
+
+    @Id
+    private String id;  // Principal name and Idempotency-Key header value
+    private String requestHash;  // SHA-256 of method, path, query and body
+    private boolean completed;
+    private int responseStatus;
+    private String responseContentType;
+    private String responseBody;
+    @Indexed(expireAfter = TTL_SECONDS + "s")
+    private LocalDateTime createdAt;
+}
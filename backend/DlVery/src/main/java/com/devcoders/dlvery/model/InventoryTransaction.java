@@ -1,12 +1,16 @@
 package com.devcoders.dlvery.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -21,7 +25,15 @@ public class InventoryTransaction {
     private TransactionType type;
     private int quantity;
     private String userId;  // Reference to User who performed the transaction
+    @Indexed(sparse = true)
     private String deliveryId;  // Reference to Delivery if applicable
     private String notes;
     private LocalDateTime timestamp;
+    private LocalDate expiryDate;  // Expiry of the received lot, defaults to the product's expiry date
+    private List<LotAllocation> lotAllocations;  // Lots a stock out takes from, or in stock ledger mode the lot a receipt opened
+    @JsonIgnore
+    @Indexed(partialFilter = "{ 'pendingApply': true }")
+    private boolean pendingApply;  // Logged by the stock ledger but not yet applied to the product
+    @JsonIgnore
+    private long ledgerSequence;  // Stock ledger flush batch this movement was written in
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.devcoders.dlvery.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotAllocation {
+    private String lotId;  // Reference to StockLot
+    private int quantity;
+    private LocalDate expiryDate;  // Duplicate from StockLot for quick reference
+}
@@ -1,9 +1,11 @@
 package com.devcoders.dlvery.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -16,6 +18,7 @@ public class Product {
     
     @Id
     private String id;
+    @Indexed(unique = true)
     private String sku;  // Stock Keeping Unit - unique identifier for product
     private String name;
     private String description;
@@ -26,4 +29,6 @@ public class Product {
     private int quantity;
     private LocalDate createdAt;
     private LocalDate updatedAt;
+    @JsonIgnore
+    private long ledgerSequence;  // Last stock ledger flush batch applied to quantity
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.devcoders.dlvery.model;
+
+public enum ReservationStatus {
+    ACTIVE,     // Stock held for a pending delivery
+    COMMITTED,  // Converted into a STOCK_OUT when the delivery left the warehouse
+    RELEASED,   // Hold given back before the delivery left
+    EXPIRED     // Hold lapsed before the delivery left
+}
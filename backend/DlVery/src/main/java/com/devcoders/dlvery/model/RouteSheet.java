@@ -0,0 +1,36 @@
+package com.devcoders.dlvery.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "route_sheets")
+public class RouteSheet {
+
+    @Id
+    private String id;  // agentId:date
+    private String agentId;
+    @Indexed
+    private LocalDate date;
+    private long version;  // Build time in millis, part of the ETag
+    private List<RouteStop> stops;  // In dispatch order
+    private LocalDateTime builtAt;
+
+    public static String idOf(String agentId, LocalDate date) {
+        return agentId + ":" + date;
+    }
+
+    public String getEtag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
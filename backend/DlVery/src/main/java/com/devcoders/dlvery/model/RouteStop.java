@@ -0,0 +1,37 @@
+package com.devcoders.dlvery.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A delivery as it appears on an agent's route sheet: the Delivery fields without the
+ * customer signature image. Field names match Delivery so clients can read either.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop {
+    @JsonProperty("id")
+    private String deliveryId;  // Reference to Delivery
+    private int rank;  // Dispatch priority rank, lower is earlier
+    private String deliveryAgentId;
+    private List<DeliveryItem> items;
+    private String customerName;
+    private String customerAddress;
+    private String customerPhone;
+    private GeoJsonPoint location;
+    private DeliveryStatus status;
+    private DeliveryPriority priority;
+    private LocalDate scheduledDate;
+    private LocalDateTime deliveredAt;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.devcoders.dlvery.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_lots")
+@CompoundIndex(name = "sku_remaining", def = "{'sku': 1, 'remaining': 1}")
+public class StockLot {
+
+    @Id
+    private String id;
+    private String productId;  // Reference to Product
+    private String sku;  // Duplicate from Product for quick reference
+    private String transactionId;  // Reference to the InventoryTransaction that received the lot
+    private int quantity;  // Units received
+    private int remaining;  // Units still in the warehouse and not allocated to a delivery
+    private LocalDate expiryDate;  // null if not applicable
+    private LocalDateTime receivedAt;
+    @JsonIgnore
+    private long ledgerSequence;  // Last stock ledger flush batch applied to remaining
+}
@@ -0,0 +1,32 @@
+package com.devcoders.dlvery.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_reservations")
+public class StockReservation {
+
+    @Id
+    private String id;
+    @Indexed
+    private String deliveryId;  // Reference to Delivery holding the stock
+    private String productId;  // Reference to Product
+    private String sku;  // Duplicate from Product for quick reference
+    private int quantity;
+    private List<LotAllocation> lotAllocations;  // Lots set aside for the hold
+    @Indexed
+    private ReservationStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
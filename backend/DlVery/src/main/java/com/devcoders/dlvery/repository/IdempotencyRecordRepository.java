@@ -0,0 +1,7 @@
+package com.devcoders.dlvery.repository;
+
+import com.devcoders.dlvery.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
@@ -5,11 +5,13 @@ import com.devcoders.dlvery.model.ProductCategory;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends MongoRepository<Product, String> {
     Optional<Product> findBySku(String sku);
+    List<Product> findBySkuIn(Collection<String> skus);
     boolean existsBySku(String sku);
     List<Product> findByCategory(ProductCategory category);
     List<Product> findByDamaged(boolean damaged);
@@ -0,0 +1,45 @@
+package com.devcoders.dlvery.repository;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+/**
+ * Reads behind the streamed delivery routes. They leave out the customer's signature image,
+ * which is most of a delivered document and is only shown one delivery at a time.
+ */
+public interface ReactiveDeliveryRepository extends ReactiveMongoRepository<Delivery, String> {
+
+    String WITHOUT_SIGNATURE = "{\"customerSignature\": 0}";
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByDeliveryAgentId(String deliveryAgentId);
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByStatus(DeliveryStatus status);
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByDeliveryAgentIdAndStatus(String deliveryAgentId, DeliveryStatus status);
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByScheduledDate(LocalDate scheduledDate);
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByScheduledDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query(value = "{\"items.sku\": ?0}", fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByItemSku(String sku);
+
+    @Query(value = "{\"items.damaged\": true}", fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByDamagedItems();
+
+    @Query(fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findByDeliveryAgentIdAndScheduledDate(String deliveryAgentId, LocalDate scheduledDate);
+
+    @Query(value = "{}", fields = WITHOUT_SIGNATURE)
+    Flux<Delivery> findAllWithoutSignature();
+}
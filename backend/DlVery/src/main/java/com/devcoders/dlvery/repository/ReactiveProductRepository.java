@@ -0,0 +1,19 @@
+package com.devcoders.dlvery.repository;
+
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+    Mono<Product> findBySku(String sku);
+    Mono<Boolean> existsBySku(String sku);
+    Flux<Product> findByCategory(ProductCategory category);
+    Flux<Product> findByDamaged(boolean damaged);
+    Flux<Product> findByPerishable(boolean perishable);
+    Flux<Product> findByExpiryDateBefore(LocalDate date);
+    Flux<Product> findByExpiryDateBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,11 @@
+package com.devcoders.dlvery.repository;
+
+import com.devcoders.dlvery.model.StockLot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface StockLotRepository extends MongoRepository<StockLot, String> {
+    List<StockLot> findByRemainingGreaterThan(int remaining);
+    List<StockLot> findBySkuAndRemainingGreaterThan(String sku, int remaining);
+}
@@ -0,0 +1,13 @@
+package com.devcoders.dlvery.repository;
+
+import com.devcoders.dlvery.model.ReservationStatus;
+import com.devcoders.dlvery.model.StockReservation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface StockReservationRepository extends MongoRepository<StockReservation, String> {
+    List<StockReservation> findByStatus(ReservationStatus status);
+    List<StockReservation> findByDeliveryId(String deliveryId);
+    boolean existsByDeliveryIdAndStatus(String deliveryId, ReservationStatus status);
+}
@@ -0,0 +1,227 @@
+package com.devcoders.dlvery.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical hashed timing wheel for large numbers of deadlines. Scheduling and cancelling
+ * are O(1); a single worker thread advances one bucket per tick and hands everything that
+ * expired in that tick to the handler as one batch, so expiry never requires scanning or
+ * polling the database. Deadlines further out than one revolution go to coarser overflow
+ * wheels (each tick spanning a full revolution of the wheel below) and cascade down as they
+ * come due, so even deadlines months away cost nothing per tick. Deadlines are accurate to
+ * one tick.
+ */
+@Slf4j
+public class TimingWheel<T> implements AutoCloseable {
+
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public Instant getDeadline() {
+            return Instant.ofEpochMilli(deadlineMillis);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final String name;
+    private final long tickMillis;
+    private final int wheelSize;
+    // levels.get(0) is the finest wheel; level n ticks once every wheelSize^n base ticks
+    private final List<List<LinkedList<Timeout<T>>>> levels = new ArrayList<>();
+    private final Queue<Timeout<T>> additions = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<T>> expiryHandler;
+    private final LongSupplier clock;
+    private final long startMillis;
+    private long currentTick;
+    private Thread worker;
+    private volatile boolean running;
+
+    public TimingWheel(String name, Duration tick, int wheelSize, Consumer<List<T>> expiryHandler) {
+        this(name, tick, wheelSize, expiryHandler, System::currentTimeMillis);
+    }
+
+    TimingWheel(String name, Duration tick, int wheelSize, Consumer<List<T>> expiryHandler, LongSupplier clock) {
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("Timing wheel needs at least two buckets");
+        }
+        this.name = name;
+        this.tickMillis = tick.toMillis();
+        this.wheelSize = wheelSize;
+        addLevel();
+        this.expiryHandler = expiryHandler;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, name + "-timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public Timeout<T> schedule(T payload, Instant deadline) {
+        Timeout<T> timeout = new Timeout<>(payload, deadline.toEpochMilli());
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes every tick that has elapsed up to the given time. Called by the worker thread;
+     * exposed so tests can drive the wheel with a fake clock.
+     */
+    void advanceTo(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick <= targetTick) {
+            transferAdditions();
+            cascade(currentTick);
+            expireBucket(currentTick);
+            currentTick++;
+        }
+    }
+
+    int getLevelCount() {
+        return levels.size();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long nextTickAt = startMillis + currentTick * tickMillis;
+                long sleepMillis = nextTickAt - clock.getAsLong();
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+                advanceTo(clock.getAsLong());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Timing wheel {} failed to process expirations", name, e);
+            }
+        }
+    }
+
+    private void transferAdditions() {
+        Timeout<T> timeout;
+        while ((timeout = additions.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            timeout.deadlineTick = Math.max(Math.floorDiv(timeout.deadlineMillis - startMillis, tickMillis), currentTick);
+            place(timeout);
+        }
+    }
+
+    /**
+     * Puts a timeout in the finest wheel whose revolution still reaches its deadline.
+     */
+    private void place(Timeout<T> timeout) {
+        long deadline = timeout.deadlineTick;
+        long now = currentTick;
+        int level = 0;
+        while (deadline - now >= wheelSize) {
+            deadline /= wheelSize;
+            now /= wheelSize;
+            level++;
+        }
+        while (levels.size() <= level) {
+            addLevel();
+        }
+        levels.get(level).get((int) (deadline % wheelSize)).add(timeout);
+    }
+
+    /**
+     * At the start of each revolution of a wheel, the bucket of the wheel above that covers the
+     * revolution is emptied back down, coarsest level first.
+     */
+    private void cascade(long tick) {
+        int level = 0;
+        long slot = tick;
+        while (level + 1 < levels.size() && slot % wheelSize == 0) {
+            slot /= wheelSize;
+            level++;
+        }
+        for (; level > 0; level--) {
+            long levelSlot = tick;
+            for (int i = 0; i < level; i++) {
+                levelSlot /= wheelSize;
+            }
+            LinkedList<Timeout<T>> bucket = levels.get(level).get((int) (levelSlot % wheelSize));
+            List<Timeout<T>> due = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Timeout<T> timeout : due) {
+                if (!timeout.cancelled) {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void expireBucket(long tick) {
+        LinkedList<Timeout<T>> bucket = levels.get(0).get((int) (tick % wheelSize));
+        List<T> expired = new ArrayList<>();
+        Iterator<Timeout<T>> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout<T> timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.deadlineTick <= tick) {
+                iterator.remove();
+                expired.add(timeout.payload);
+            }
+        }
+        if (!expired.isEmpty()) {
+            expiryHandler.accept(expired);
+        }
+    }
+
+    private void addLevel() {
+        List<LinkedList<Timeout<T>>> buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        levels.add(buckets);
+    }
+}
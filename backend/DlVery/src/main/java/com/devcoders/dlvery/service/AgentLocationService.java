@@ -0,0 +1,237 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.geo.LocationRingBuffer;
+import com.devcoders.dlvery.model.AgentLocation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live agent positions. Every accepted ping goes into the agent's in-memory ring buffer, which
+ * answers the latest-position and recent-track queries; nothing is written per ping. A
+ * downsampled subset (one fix per interval, or sooner after moving far enough) is queued and
+ * inserted into the agent_locations time-series collection in batches. The queue is bounded,
+ * and when Mongo falls behind the newest fixes are dropped rather than growing the heap.
+ */
+@Slf4j
+@Service
+public class AgentLocationService implements InitializingBean {
+
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(2);
+
+    private static final class Track {
+        private final LocationRingBuffer buffer;
+        private long storedAt = Long.MIN_VALUE;
+        private double storedLatitude;
+        private double storedLongitude;
+
+        private Track(int capacity) {
+            this.buffer = new LocationRingBuffer(capacity);
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final int bufferSize;
+    private final long storeIntervalMillis;
+    private final double storeDistanceKm;
+    private final int maxBatchSize;
+
+    private final Map<String, Track> tracks = new ConcurrentHashMap<>();
+    private final BlockingQueue<AgentLocation> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public AgentLocationService(MongoTemplate mongoTemplate,
+                                @Value("${app.tracking.buffer-size:512}") int bufferSize,
+                                @Value("${app.tracking.store-interval-seconds:30}") int storeIntervalSeconds,
+                                @Value("${app.tracking.store-distance-meters:100}") int storeDistanceMeters,
+                                @Value("${app.tracking.max-pending:100000}") int maxPending,
+                                @Value("${app.tracking.max-batch-size:1000}") int maxBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bufferSize = bufferSize;
+        this.storeIntervalMillis = storeIntervalSeconds * 1000L;
+        this.storeDistanceKm = storeDistanceMeters / 1000.0;
+        this.maxBatchSize = maxBatchSize;
+        this.pending = new ArrayBlockingQueue<>(maxPending);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Created explicitly so the collection gets its time-series options
+        if (!mongoTemplate.collectionExists(AgentLocation.class)) {
+            mongoTemplate.createCollection(AgentLocation.class);
+        }
+    }
+
+    /**
+     * Records a batch of pings from one agent, in device time order.
+     *
+     * @return the number of pings accepted; invalid or out-of-order pings are skipped
+     */
+    public int record(String agentId, List<AgentLocation> pings) {
+        Track track = tracks.computeIfAbsent(agentId, id -> new Track(bufferSize));
+        Instant now = Instant.now();
+        int accepted = 0;
+        synchronized (track) {
+            for (AgentLocation ping : pings) {
+                if (!isValid(ping, now)) {
+                    continue;
+                }
+                long time = ping.getRecordedAt() != null ? ping.getRecordedAt().toEpochMilli() : now.toEpochMilli();
+                if (!track.buffer.add(time, ping.getLatitude(), ping.getLongitude(), orNaN(ping.getAccuracyMeters()),
+                        orNaN(ping.getSpeedMetersPerSecond()))) {
+                    continue;
+                }
+                accepted++;
+                if (shouldStore(track, time, ping.getLatitude(), ping.getLongitude())) {
+                    track.storedAt = time;
+                    track.storedLatitude = ping.getLatitude();
+                    track.storedLongitude = ping.getLongitude();
+                    AgentLocation stored = new AgentLocation(null, agentId, Instant.ofEpochMilli(time),
+                            ping.getLatitude(), ping.getLongitude(), ping.getAccuracyMeters(),
+                            ping.getSpeedMetersPerSecond());
+                    if (!pending.offer(stored)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        }
+        return accepted;
+    }
+
+    public AgentLocation getLatest(String agentId) {
+        Track track = tracks.get(agentId);
+        if (track != null) {
+            synchronized (track) {
+                LocationRingBuffer.Fix fix = track.buffer.latest();
+                if (fix != null) {
+                    return toLocation(agentId, fix);
+                }
+            }
+        }
+        // Not seen since startup, fall back to the last stored position
+        Query query = new Query(Criteria.where("agentId").is(agentId))
+                .with(Sort.by(Sort.Direction.DESC, "recordedAt"))
+                .limit(1);
+        AgentLocation location = mongoTemplate.findOne(query, AgentLocation.class);
+        if (location == null) {
+            throw new ResourceNotFoundException("AgentLocation", "agentId", agentId);
+        }
+        return location;
+    }
+
+    public List<AgentLocation> getLatestAll() {
+        List<AgentLocation> locations = new ArrayList<>(tracks.size());
+        tracks.forEach((agentId, track) -> {
+            synchronized (track) {
+                LocationRingBuffer.Fix fix = track.buffer.latest();
+                if (fix != null) {
+                    locations.add(toLocation(agentId, fix));
+                }
+            }
+        });
+        return locations;
+    }
+
+    /**
+     * The agent's track since the time, oldest first. Served at full resolution from memory when
+     * the ring buffer reaches back far enough, otherwise from the downsampled stored track.
+     */
+    public List<AgentLocation> getTrack(String agentId, Instant since) {
+        long from = since.toEpochMilli();
+        Track track = tracks.get(agentId);
+        if (track != null) {
+            synchronized (track) {
+                boolean covered = track.buffer.size() < track.buffer.capacity() || track.buffer.oldestTime() <= from;
+                if (covered && track.buffer.size() > 0) {
+                    return track.buffer.since(from).stream().map(fix -> toLocation(agentId, fix)).toList();
+                }
+            }
+        }
+        Query query = new Query(Criteria.where("agentId").is(agentId).and("recordedAt").gte(since))
+                .with(Sort.by("recordedAt"));
+        return mongoTemplate.find(query, AgentLocation.class);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracking.flush-interval-ms:5000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            while (true) {
+                List<AgentLocation> batch = new ArrayList<>(maxBatchSize);
+                if (pending.drainTo(batch, maxBatchSize) == 0) {
+                    break;
+                }
+                try {
+                    mongoTemplate.insert(batch, AgentLocation.class);
+                } catch (RuntimeException e) {
+                    // Positions are best-effort history; a failed batch is not retried
+                    log.error("Could not store {} agent locations: {}", batch.size(), e.getMessage());
+                }
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                log.warn("Dropped {} agent locations because the store queue was full", lost);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private boolean shouldStore(Track track, long time, double latitude, double longitude) {
+        return track.storedAt == Long.MIN_VALUE
+                || time - track.storedAt >= storeIntervalMillis
+                || DeliveryGeoService.haversineKm(track.storedLatitude, track.storedLongitude, latitude, longitude)
+                        >= storeDistanceKm;
+    }
+
+    private static boolean isValid(AgentLocation ping, Instant now) {
+        return ping != null
+                && ping.getLatitude() >= -90 && ping.getLatitude() <= 90
+                && ping.getLongitude() >= -180 && ping.getLongitude() <= 180
+                && (ping.getRecordedAt() == null || !ping.getRecordedAt().isAfter(now.plus(MAX_CLOCK_SKEW)));
+    }
+
+    private static float orNaN(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+
+    private static Float orNull(float value) {
+        return Float.isNaN(value) ? null : value;
+    }
+
+    private static AgentLocation toLocation(String agentId, LocationRingBuffer.Fix fix) {
+        return new AgentLocation(null, agentId, Instant.ofEpochMilli(fix.timeMillis()), fix.latitude(),
+                fix.longitude(), orNull(fix.accuracyMeters()), orNull(fix.speedMetersPerSecond()));
+    }
+}
@@ -0,0 +1,311 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.AgentWorkload;
+import com.devcoders.dlvery.dto.BatchAssignmentResult;
+import com.devcoders.dlvery.event.DeliveryChangedEvent;
+import com.devcoders.dlvery.event.UserChangedEvent;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.User;
+import com.devcoders.dlvery.model.UserRole;
+import com.devcoders.dlvery.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Live per-agent, per-date workload of open deliveries, used to assign new deliveries to the
+ * least-loaded delivery agent. Each date keeps its agents in a tree ordered by load, so the
+ * least-loaded agent is found in O(log agents) and a load change is a remove and re-insert.
+ * Only eligible agents are in the trees; an agent that stops being eligible keeps its loads,
+ * out of the trees, until it is eligible again. All changes go through one lock; each is a
+ * handful of tree operations.
+ * Loads follow {@link DeliveryChangedEvent}s and eligible agents (enabled DLTEAM users)
+ * follow {@link UserChangedEvent}s; Mongo is only read on startup.
+ */
+@Slf4j
+@Service
+public class AgentWorkloadService implements InitializingBean {
+
+    record Load(String agentId, int weight, int items, int deliveries) {
+    }
+
+    private record Contribution(String agentId, LocalDate date, int weight, int items) {
+    }
+
+    private static final Comparator<Load> LEAST_LOADED = Comparator
+            .comparingInt(Load::weight)
+            .thenComparingInt(Load::items)
+            .thenComparingInt(Load::deliveries)
+            .thenComparing(Load::agentId);
+
+    private static final class DayBoard {
+        // Eligible agents only
+        private final TreeSet<Load> order = new TreeSet<>(LEAST_LOADED);
+        private final Map<String, Load> byAgent = new HashMap<>();
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final DeliveryService deliveryService;
+
+    private final Object lock = new Object();
+    private final Set<String> agents = new HashSet<>();
+    private final Map<LocalDate, DayBoard> boards = new HashMap<>();
+    private final Map<String, Contribution> contributions = new HashMap<>();
+
+    public AgentWorkloadService(MongoTemplate mongoTemplate, UserRepository userRepository,
+                                DeliveryService deliveryService) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.deliveryService = deliveryService;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        userRepository.findByRole(UserRole.DLTEAM).stream()
+                .filter(User::isEnabled)
+                .forEach(user -> addAgent(user.getUsername()));
+
+        Query query = new Query(Criteria.where("status").in(CommittedStockIndex.OPEN_STATUSES)
+                .and("scheduledDate").gte(LocalDate.now()));
+        query.fields().include("deliveryAgentId").include("status").include("priority")
+                .include("scheduledDate").include("items");
+        List<Delivery> open = mongoTemplate.find(query, Delivery.class);
+        open.forEach(this::track);
+        log.info("Loaded workload of {} agents from {} open deliveries", getAgentCount(), open.size());
+    }
+
+    @EventListener
+    public void onDeliveryChanged(DeliveryChangedEvent event) {
+        if (event.deleted()) {
+            untrack(event.delivery().getId());
+        } else {
+            track(event.delivery());
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        if (!event.deleted() && user.getRole() == UserRole.DLTEAM && user.isEnabled()) {
+            addAgent(user.getUsername());
+        } else {
+            removeAgent(user.getUsername());
+        }
+    }
+
+    /**
+     * Assigns the delivery to the least-loaded agent for its scheduled date (today if unset)
+     * and creates it.
+     */
+    public Delivery autoAssign(Delivery delivery) {
+        if (delivery.getScheduledDate() == null) {
+            delivery.setScheduledDate(LocalDate.now());
+        }
+        if (delivery.getStatus() == null) {
+            delivery.setStatus(DeliveryStatus.PENDING);
+        }
+        // The id is chosen up front so the load can be counted before the delivery is saved
+        if (delivery.getId() == null) {
+            delivery.setId(new ObjectId().toHexString());
+        }
+
+        synchronized (lock) {
+            delivery.setDeliveryAgentId(leastLoaded(boardFor(delivery.getScheduledDate())));
+            track(delivery);
+        }
+        try {
+            return deliveryService.assignDelivery(delivery);
+        } catch (RuntimeException e) {
+            untrack(delivery.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Auto-assigns a batch, heaviest deliveries first so the loads even out. A delivery that
+     * cannot be assigned (e.g. stock is short) is reported without failing the rest.
+     */
+    public BatchAssignmentResult autoAssignAll(List<Delivery> deliveries) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < deliveries.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt((Integer i) -> weightOf(deliveries.get(i))).reversed()
+                .thenComparing(i -> -itemCount(deliveries.get(i))));
+
+        BatchAssignmentResult result = new BatchAssignmentResult(new ArrayList<>(), new HashMap<>());
+        for (int index : order) {
+            try {
+                result.getAssigned().add(autoAssign(deliveries.get(index)));
+            } catch (RuntimeException e) {
+                result.getFailures().put(index, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    public List<AgentWorkload> getWorkload(LocalDate date) {
+        List<AgentWorkload> workload = new ArrayList<>();
+        synchronized (lock) {
+            for (Load load : boardFor(date).order) {
+                workload.add(new AgentWorkload(load.agentId(), date, load.deliveries(), load.items(), load.weight()));
+            }
+        }
+        return workload;
+    }
+
+    public void track(Delivery delivery) {
+        Contribution current = contributionOf(delivery);
+        synchronized (lock) {
+            Contribution previous = current != null
+                    ? contributions.put(delivery.getId(), current)
+                    : contributions.remove(delivery.getId());
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            if (current != null) {
+                apply(current, 1);
+            }
+        }
+    }
+
+    public void untrack(String deliveryId) {
+        synchronized (lock) {
+            Contribution previous = contributions.remove(deliveryId);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+        }
+    }
+
+    public void addAgent(String agentId) {
+        synchronized (lock) {
+            if (agents.add(agentId)) {
+                boards.values().forEach(board -> seed(board, agentId));
+            }
+        }
+    }
+
+    public void removeAgent(String agentId) {
+        synchronized (lock) {
+            if (agents.remove(agentId)) {
+                boards.values().forEach(board -> unseed(board, agentId));
+            }
+        }
+    }
+
+    public int getAgentCount() {
+        synchronized (lock) {
+            return agents.size();
+        }
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void dropPastDates() {
+        LocalDate today = LocalDate.now();
+        synchronized (lock) {
+            boards.keySet().removeIf(date -> date.isBefore(today));
+            contributions.values().removeIf(contribution -> contribution.date().isBefore(today));
+        }
+    }
+
+    static int weightOf(Delivery delivery) {
+        DeliveryPriority priority = delivery.getPriority() != null ? delivery.getPriority() : DeliveryPriority.NORMAL;
+        switch (priority) {
+            case URGENT:
+                return 4;
+            case PERISHABLE:
+                return 3;
+            case HIGH:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private String leastLoaded(DayBoard board) {
+        if (board.order.isEmpty()) {
+            throw new RuntimeException("No delivery agents available for assignment");
+        }
+        return board.order.first().agentId();
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        DayBoard board = boardFor(contribution.date());
+        Load load = board.byAgent.get(contribution.agentId());
+        if (load == null) {
+            load = new Load(contribution.agentId(), 0, 0, 0);
+        } else {
+            board.order.remove(load);
+        }
+        Load updated = new Load(load.agentId(), load.weight() + sign * contribution.weight(),
+                load.items() + sign * contribution.items(), load.deliveries() + sign);
+        if (agents.contains(updated.agentId())) {
+            board.byAgent.put(updated.agentId(), updated);
+            board.order.add(updated);
+        } else if (updated.deliveries() == 0) {
+            board.byAgent.remove(updated.agentId());
+        } else {
+            board.byAgent.put(updated.agentId(), updated);
+        }
+    }
+
+    private DayBoard boardFor(LocalDate date) {
+        return boards.computeIfAbsent(date, key -> {
+            DayBoard board = new DayBoard();
+            agents.forEach(agentId -> seed(board, agentId));
+            return board;
+        });
+    }
+
+    private static void seed(DayBoard board, String agentId) {
+        Load load = board.byAgent.computeIfAbsent(agentId, id -> new Load(id, 0, 0, 0));
+        board.order.add(load);
+    }
+
+    private static void unseed(DayBoard board, String agentId) {
+        Load load = board.byAgent.get(agentId);
+        if (load != null) {
+            board.order.remove(load);
+            if (load.deliveries() == 0) {
+                board.byAgent.remove(agentId);
+            }
+        }
+    }
+
+    private static Contribution contributionOf(Delivery delivery) {
+        if (!CommittedStockIndex.OPEN_STATUSES.contains(delivery.getStatus())
+                || delivery.getDeliveryAgentId() == null || delivery.getScheduledDate() == null) {
+            return null;
+        }
+        return new Contribution(delivery.getDeliveryAgentId(), delivery.getScheduledDate(), weightOf(delivery),
+                itemCount(delivery));
+    }
+
+    private static int itemCount(Delivery delivery) {
+        if (delivery.getItems() == null) {
+            return 0;
+        }
+        return delivery.getItems().stream().mapToInt(DeliveryItem::getQuantity).sum();
+    }
+}
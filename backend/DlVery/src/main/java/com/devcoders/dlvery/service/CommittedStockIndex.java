@@ -0,0 +1,214 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Units of each SKU committed to open (PENDING or IN_TRANSIT) deliveries, kept up to date
+ * incrementally from {@link DeliveryService} writes. Each delivery's contribution is
+ * remembered so a change only applies the difference to the per-SKU totals. A periodic
+ * aggregation over the deliveries collection verifies the totals and rebuilds on drift;
+ * changes tracked while a rebuild reads the deliveries are replayed onto the rebuilt index.
+ */
+@Slf4j
+@Service
+public class CommittedStockIndex implements InitializingBean {
+
+    static final Set<DeliveryStatus> OPEN_STATUSES = EnumSet.of(DeliveryStatus.PENDING, DeliveryStatus.IN_TRANSIT);
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Map<String, Map<String, Integer>> contributions = new ConcurrentHashMap<>();
+    private volatile Map<String, AtomicInteger> committedBySku = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Latest contribution of each delivery changed since the running rebuild started, or null
+    private volatile Map<String, Map<String, Integer>> changedDuringRebuild;
+
+    public CommittedStockIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Records the delivery's current state; deliveries that are no longer open drop out.
+     */
+    public void track(Delivery delivery) {
+        Map<String, Integer> current = OPEN_STATUSES.contains(delivery.getStatus())
+                ? quantitiesBySku(delivery.getItems())
+                : Collections.emptyMap();
+
+        rebuildLock.readLock().lock();
+        try {
+            contributions.compute(delivery.getId(), (id, previous) -> {
+                applyDifference(committedBySku, previous != null ? previous : Collections.emptyMap(), current);
+                recordForRebuild(id, current);
+                return current.isEmpty() ? null : current;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void remove(String deliveryId) {
+        rebuildLock.readLock().lock();
+        try {
+            // Recorded even if untracked here: the running rebuild may have read it
+            contributions.compute(deliveryId, (id, previous) -> {
+                if (previous != null) {
+                    applyDifference(committedBySku, previous, Collections.emptyMap());
+                }
+                recordForRebuild(id, Collections.emptyMap());
+                return null;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public int getCommittedQuantity(String sku) {
+        AtomicInteger committed = committedBySku.get(sku);
+        return committed != null ? committed.get() : 0;
+    }
+
+    /**
+     * Reloads the index from the open deliveries.
+     */
+    public synchronized void rebuild() {
+        changedDuringRebuild = new ConcurrentHashMap<>();
+        Query query = new Query(Criteria.where("status").in(OPEN_STATUSES));
+        query.fields().include("status").include("items");
+        List<Delivery> open = mongoTemplate.find(query, Delivery.class);
+
+        Map<String, Map<String, Integer>> rebuiltContributions = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> rebuiltTotals = new ConcurrentHashMap<>();
+        for (Delivery delivery : open) {
+            Map<String, Integer> quantities = quantitiesBySku(delivery.getItems());
+            if (quantities.isEmpty()) {
+                continue;
+            }
+            rebuiltContributions.put(delivery.getId(), quantities);
+            quantities.forEach((sku, quantity) ->
+                    rebuiltTotals.computeIfAbsent(sku, key -> new AtomicInteger()).addAndGet(quantity));
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach((id, current) -> {
+                Map<String, Integer> previous = rebuiltContributions.getOrDefault(id, Collections.emptyMap());
+                applyDifference(rebuiltTotals, previous, current);
+                if (current.isEmpty()) {
+                    rebuiltContributions.remove(id);
+                } else {
+                    rebuiltContributions.put(id, current);
+                }
+            });
+            changedDuringRebuild = null;
+            contributions = rebuiltContributions;
+            committedBySku = rebuiltTotals;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.info("Rebuilt committed stock index from {} open deliveries", rebuiltContributions.size());
+    }
+
+    /**
+     * Compares the in-memory totals with an aggregation over the open deliveries and
+     * rebuilds if they disagree.
+     *
+     * @return the number of SKUs whose totals differed
+     */
+    @Scheduled(initialDelayString = "${app.inventory.committed.verify-interval-ms:3600000}",
+            fixedDelayString = "${app.inventory.committed.verify-interval-ms:3600000}")
+    public int verify() {
+        TypedAggregation<Delivery> aggregation = Aggregation.newAggregation(Delivery.class,
+                Aggregation.match(Criteria.where("status").in(OPEN_STATUSES)),
+                Aggregation.unwind("items"),
+                Aggregation.group("items.sku").sum("items.quantity").as("quantity"));
+        Map<String, Integer> expected = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            int quantity = ((Number) row.get("quantity")).intValue();
+            if (row.getString("_id") != null && quantity != 0) {
+                expected.put(row.getString("_id"), quantity);
+            }
+        }
+
+        int mismatches = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            if (getCommittedQuantity(entry.getKey()) != entry.getValue()) {
+                mismatches++;
+            }
+        }
+        for (Map.Entry<String, AtomicInteger> entry : committedBySku.entrySet()) {
+            if (entry.getValue().get() != 0 && !expected.containsKey(entry.getKey())) {
+                mismatches++;
+            }
+        }
+
+        if (mismatches > 0) {
+            log.warn("Committed stock index disagreed with deliveries for {} SKUs, rebuilding", mismatches);
+            rebuild();
+        }
+        return mismatches;
+    }
+
+    private void recordForRebuild(String deliveryId, Map<String, Integer> current) {
+        Map<String, Map<String, Integer>> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.put(deliveryId, current);
+        }
+    }
+
+    private static void applyDifference(Map<String, AtomicInteger> totals, Map<String, Integer> previous,
+                                        Map<String, Integer> current) {
+        previous.forEach((sku, quantity) -> {
+            int delta = current.getOrDefault(sku, 0) - quantity;
+            if (delta != 0) {
+                totals.computeIfAbsent(sku, key -> new AtomicInteger()).addAndGet(delta);
+            }
+        });
+        current.forEach((sku, quantity) -> {
+            if (!previous.containsKey(sku)) {
+                totals.computeIfAbsent(sku, key -> new AtomicInteger()).addAndGet(quantity);
+            }
+        });
+    }
+
+    private static Map<String, Integer> quantitiesBySku(List<DeliveryItem> items) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> quantities = new HashMap<>();
+        for (DeliveryItem item : items) {
+            if (item.getSku() != null && item.getQuantity() > 0) {
+                quantities.merge(item.getSku(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,72 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.DeliveryDetails;
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.model.Delivery;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Builds the delivery detail view in one round trip: the delivery, the current state of the
+ * products on it and its inventory transactions, joined server-side with $lookup and trimmed
+ * to the fields the view shows.
+ */
+@Service
+@RequiredArgsConstructor
+public class DeliveryDetailsService {
+
+    private static final AggregationOperation LOOKUP_PRODUCTS = context -> new Document("$lookup", new Document()
+            .append("from", "products")
+            .append("localField", "items.sku")
+            .append("foreignField", "sku")
+            .append("pipeline", List.of(new Document("$project", new Document()
+                    .append("sku", 1).append("name", 1).append("category", 1).append("quantity", 1)
+                    .append("damaged", 1).append("perishable", 1).append("expiryDate", 1))))
+            .append("as", "products"));
+
+    // Transactions reference the delivery by its id as a string
+    private static final AggregationOperation LOOKUP_TRANSACTIONS = context -> new Document("$lookup", new Document()
+            .append("from", "inventory_transactions")
+            .append("let", new Document("deliveryId", new Document("$toString", "$_id")))
+            .append("pipeline", List.of(
+                    new Document("$match", new Document("$expr",
+                            new Document("$eq", List.of("$deliveryId", "$$deliveryId")))),
+                    new Document("$sort", new Document("timestamp", 1)),
+                    new Document("$project", new Document()
+                            .append("sku", 1).append("type", 1).append("quantity", 1).append("userId", 1)
+                            .append("notes", 1).append("timestamp", 1))))
+            .append("as", "transactions"));
+
+    private static final AggregationOperation SHAPE = context -> new Document("$project", new Document()
+            .append("_id", 0)
+            .append("delivery", "$$ROOT")
+            .append("products", 1)
+            .append("transactions", 1));
+
+    private static final AggregationOperation TRIM = context -> new Document("$unset",
+            List.of("delivery.products", "delivery.transactions", "delivery.items.lotAllocations"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public DeliveryDetails getDeliveryDetails(String id) {
+        TypedAggregation<Delivery> aggregation = Aggregation.newAggregation(Delivery.class,
+                Aggregation.match(Criteria.where("id").is(id)),
+                LOOKUP_PRODUCTS,
+                LOOKUP_TRANSACTIONS,
+                SHAPE,
+                TRIM);
+        DeliveryDetails details = mongoTemplate.aggregate(aggregation, DeliveryDetails.class).getUniqueMappedResult();
+        if (details == null) {
+            throw new ResourceNotFoundException("Delivery", "id", id);
+        }
+        return details;
+    }
+}
@@ -0,0 +1,128 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.DeliveryCluster;
+import com.devcoders.dlvery.dto.NearbyDelivery;
+import com.devcoders.dlvery.geo.KMeansClusterer;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proximity queries and area batching over Delivery.location, served by the 2dsphere index.
+ */
+@Slf4j
+@Service
+public class DeliveryGeoService {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final MongoTemplate mongoTemplate;
+    private final KMeansClusterer clusterer;
+
+    public DeliveryGeoService(MongoTemplate mongoTemplate,
+                              @Value("${app.geo.clustering.max-iterations:50}") int maxIterations) {
+        this.mongoTemplate = mongoTemplate;
+        this.clusterer = new KMeansClusterer(maxIterations, 42L);
+    }
+
+    /**
+     * Pending deliveries within the radius, nearest first, optionally only those of one agent.
+     */
+    public List<NearbyDelivery> findNearbyPending(double latitude, double longitude, double radiusKm, int limit,
+                                                  String agentId) {
+        Criteria criteria = Criteria.where("status").is(DeliveryStatus.PENDING);
+        if (agentId != null) {
+            criteria = criteria.and("deliveryAgentId").is(agentId);
+        }
+        NearQuery nearQuery = NearQuery.near(new GeoJsonPoint(longitude, latitude))
+                .spherical(true)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .query(new Query(criteria))
+                .limit(limit);
+
+        GeoResults<Delivery> results = mongoTemplate.geoNear(nearQuery, Delivery.class);
+        return results.getContent().stream()
+                .map(result -> new NearbyDelivery(result.getContent(),
+                        result.getDistance().in(Metrics.KILOMETERS).getValue()))
+                .toList();
+    }
+
+    /**
+     * Splits the located open deliveries scheduled for the date into geographic batches of
+     * roughly the target size.
+     */
+    public List<DeliveryCluster> clusterDeliveries(LocalDate date, int targetSize) {
+        Query query = new Query(Criteria.where("scheduledDate").is(date)
+                .and("status").in(CommittedStockIndex.OPEN_STATUSES)
+                .and("location").ne(null));
+        query.fields().include("location");
+        List<Delivery> deliveries = mongoTemplate.find(query, Delivery.class);
+        int k = (int) Math.ceil(deliveries.size() / (double) Math.max(1, targetSize));
+        return cluster(deliveries, k);
+    }
+
+    List<DeliveryCluster> cluster(List<Delivery> deliveries, int k) {
+        int n = deliveries.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            GeoJsonPoint location = deliveries.get(i).getLocation();
+            latitudes[i] = location.getY();
+            longitudes[i] = location.getX();
+        }
+
+        KMeansClusterer.Result result = clusterer.cluster(latitudes, longitudes, k);
+        List<List<String>> members = new ArrayList<>();
+        double[] radii = new double[result.clusterCount()];
+        for (int c = 0; c < result.clusterCount(); c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            int c = result.assignments()[i];
+            members.get(c).add(deliveries.get(i).getId());
+            radii[c] = Math.max(radii[c], haversineKm(latitudes[i], longitudes[i],
+                    result.centroidLatitudes()[c], result.centroidLongitudes()[c]));
+        }
+
+        List<DeliveryCluster> clusters = new ArrayList<>();
+        for (int c = 0; c < result.clusterCount(); c++) {
+            if (members.get(c).isEmpty()) {
+                continue;
+            }
+            clusters.add(DeliveryCluster.builder()
+                    .cluster(clusters.size())
+                    .centroidLatitude(result.centroidLatitudes()[c])
+                    .centroidLongitude(result.centroidLongitudes()[c])
+                    .radiusKm(radii[c])
+                    .size(members.get(c).size())
+                    .deliveryIds(members.get(c))
+                    .build());
+        }
+        log.debug("Clustered {} deliveries into {} batches in {} iterations", n, clusters.size(),
+                result.iterations());
+        return clusters;
+    }
+
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
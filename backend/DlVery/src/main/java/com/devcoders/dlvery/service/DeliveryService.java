@@ -1,14 +1,20 @@
 package com.devcoders.dlvery.service;
 
+import com.devcoders.dlvery.event.DeliveryChangedEvent;
 import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.geo.Geocoder;
+import com.devcoders.dlvery.jfr.DeliveryAssignEvent;
+import com.devcoders.dlvery.jfr.DeliveryStatusEvent;
 import com.devcoders.dlvery.model.*;
 import com.devcoders.dlvery.repository.DeliveryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -18,6 +24,11 @@ public class DeliveryService {
     private final DeliveryRepository deliveryRepository;
     private final InventoryTransactionService inventoryTransactionService;
     private final ProductService productService;
+    private final ReservationService reservationService;
+    private final CommittedStockIndex committedStockIndex;
+    private final LotService lotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Geocoder geocoder;
 
     public Delivery createDelivery(Delivery delivery) {
         delivery.setCreatedAt(LocalDateTime.now());
@@ -27,32 +38,36 @@ public class DeliveryService {
             delivery.setStatus(DeliveryStatus.PENDING);
         }
         
-        return deliveryRepository.save(delivery);
+        if (delivery.getLocation() == null) {
+            geocoder.geocode(delivery.getCustomerAddress()).ifPresent(delivery::setLocation);
+        }
+        
+        return save(delivery);
     }
 
     @Transactional
     public Delivery assignDelivery(Delivery delivery) {
+        DeliveryAssignEvent event = new DeliveryAssignEvent();
+        event.begin();
+
         // Save the delivery first
         Delivery savedDelivery = createDelivery(delivery);
         
-        // Create inventory transactions for each item (STOCK_OUT)
-        for (DeliveryItem item : delivery.getItems()) {
-            Product product = productService.getProductBySku(item.getSku());
-            
-            InventoryTransaction transaction = new InventoryTransaction();
-            transaction.setProductId(product.getId());
-            transaction.setSku(product.getSku());
-            transaction.setType(TransactionType.STOCK_OUT);
-            transaction.setQuantity(item.getQuantity());
-            transaction.setUserId(delivery.getDeliveryAgentId()); // The delivery agent
-            transaction.setDeliveryId(savedDelivery.getId());
-            transaction.setNotes("Assigned for delivery #" + savedDelivery.getId());
-            transaction.setTimestamp(LocalDateTime.now());
-            
-            inventoryTransactionService.createTransaction(transaction);
+        // Hold stock for each item; it is taken out (STOCK_OUT) when the delivery leaves
+        try {
+            reservationService.reserve(savedDelivery);
+        } catch (RuntimeException e) {
+            deliveryRepository.delete(savedDelivery);
+            committedStockIndex.remove(savedDelivery.getId());
+            eventPublisher.publishEvent(DeliveryChangedEvent.deleted(savedDelivery));
+            event.complete(savedDelivery, false);
+            throw e;
         }
         
-        return savedDelivery;
+        // Keep the lot allocations picked for the items
+        Delivery assigned = save(savedDelivery);
+        event.complete(assigned, true);
+        return assigned;
     }
 
     public Delivery getDeliveryById(String id) {
@@ -60,6 +75,13 @@ public class DeliveryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery", "id", id));
     }
 
+    /**
+     * The deliveries with the given ids, in one query and in no particular order. Unknown ids are skipped.
+     */
+    public List<Delivery> getDeliveriesByIds(List<String> ids) {
+        return deliveryRepository.findAllById(ids);
+    }
+
     public List<Delivery> getAllDeliveries() {
         return deliveryRepository.findAll();
     }
@@ -98,19 +120,48 @@ public class DeliveryService {
 
     @Transactional
     public Delivery updateDeliveryStatus(String id, DeliveryStatus status, String notes) {
+        return changeStatus(id, status, true, notes);
+    }
+
+    /**
+     * Changes the status and keeps the notes already on the delivery.
+     */
+    @Transactional
+    public Delivery updateDeliveryStatus(String id, DeliveryStatus status) {
+        return changeStatus(id, status, false, null);
+    }
+
+    private Delivery changeStatus(String id, DeliveryStatus status, boolean replaceNotes, String notes) {
+        DeliveryStatusEvent event = new DeliveryStatusEvent();
+        event.begin();
+
         Delivery delivery = getDeliveryById(id);
         DeliveryStatus oldStatus = delivery.getStatus();
         delivery.setStatus(status);
-        delivery.setNotes(notes);
+        if (replaceNotes) {
+            delivery.setNotes(notes);
+        }
         delivery.setUpdatedAt(LocalDateTime.now());
         
         if (status == DeliveryStatus.DELIVERED) {
             delivery.setDeliveredAt(LocalDateTime.now());
         }
         
+        boolean stockTaken = oldStatus != DeliveryStatus.PENDING;
+        if (oldStatus == DeliveryStatus.PENDING && status != DeliveryStatus.PENDING) {
+            if (status == DeliveryStatus.RETURNED) {
+                // Never left the warehouse, so there is nothing to return
+                reservationService.release(delivery.getId());
+                delivery.getItems().forEach(item -> item.setLotAllocations(null));
+            } else {
+                reservationService.commit(delivery);
+                stockTaken = true;
+            }
+        }
+        
         // Handle inventory updates for returns or damaged items
-        if (status == DeliveryStatus.RETURNED || status == DeliveryStatus.DAMAGED || 
-            status == DeliveryStatus.PARTIALLY_DELIVERED) {
+        if (stockTaken && (status == DeliveryStatus.RETURNED || status == DeliveryStatus.DAMAGED || 
+            status == DeliveryStatus.PARTIALLY_DELIVERED)) {
             for (DeliveryItem item : delivery.getItems()) {
                 if (item.isReturned() || item.isDamaged()) {
                     Product product = productService.getProductBySku(item.getSku());
@@ -130,6 +181,10 @@ public class DeliveryService {
                     transaction.setTimestamp(LocalDateTime.now());
                     
                     inventoryTransactionService.createTransaction(transaction);
+                    if (!item.isDamaged()) {
+                        // Returned units go back to the lots they were picked from
+                        lotService.restore(item.getLotAllocations());
+                    }
                     
                     // Update product damage status if needed
                     if (item.isDamaged() && !product.isDamaged()) {
@@ -140,19 +195,24 @@ public class DeliveryService {
             }
         }
         
-        return deliveryRepository.save(delivery);
+        Delivery updated = save(delivery);
+        event.complete(updated, oldStatus);
+        return updated;
     }
 
     @Transactional
     public Delivery completeDelivery(String id, String customerName, String customerSignature) {
         Delivery delivery = getDeliveryById(id);
+        if (delivery.getStatus() == DeliveryStatus.PENDING) {
+            reservationService.commit(delivery);
+        }
         delivery.setStatus(DeliveryStatus.DELIVERED);
         delivery.setCustomerName(customerName);
         delivery.setCustomerSignature(customerSignature);
         delivery.setDeliveredAt(LocalDateTime.now());
         delivery.setUpdatedAt(LocalDateTime.now());
         
-        return deliveryRepository.save(delivery);
+        return save(delivery);
     }
 
     @Transactional
@@ -163,9 +223,26 @@ public class DeliveryService {
     @Transactional
     public Delivery updateDeliveryItems(String id, List<DeliveryItem> items) {
         Delivery delivery = getDeliveryById(id);
+        List<DeliveryItem> previousItems = delivery.getItems();
         delivery.setItems(items);
+        
+        // Holds follow the items until the delivery leaves the warehouse
+        if (delivery.getStatus() == DeliveryStatus.PENDING) {
+            reservationService.replace(delivery, previousItems);
+        }
         delivery.setUpdatedAt(LocalDateTime.now());
         
-        return deliveryRepository.save(delivery);
+        return save(delivery);
+    }
+
+    private Delivery save(Delivery delivery) {
+        // Stored at the precision Mongo keeps, so clients see the exact value sync compares and pages by
+        if (delivery.getUpdatedAt() != null) {
+            delivery.setUpdatedAt(delivery.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS));
+        }
+        Delivery saved = deliveryRepository.save(delivery);
+        committedStockIndex.track(saved);
+        eventPublisher.publishEvent(DeliveryChangedEvent.saved(saved));
+        return saved;
     }
 }
\ No newline at end of file
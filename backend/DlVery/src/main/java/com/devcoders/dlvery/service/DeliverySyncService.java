@@ -0,0 +1,213 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.SyncDelta;
+import com.devcoders.dlvery.dto.SyncOperation;
+import com.devcoders.dlvery.dto.SyncResult;
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.model.Delivery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Offline-first sync for delivery agents. Pulls return the agent's deliveries changed after an
+ * opaque cursor of (updatedAt, id), read in that order from the agent_updated index, so a
+ * reconnect transfers only the delta. Pushes replay the changes an agent queued offline, in
+ * order, each checked against the updatedAt the client based it on.
+ */
+@Service
+public class DeliverySyncService {
+
+    record Cursor(LocalDateTime updatedAt, String deliveryId) {
+    }
+
+    private record Rebase(LocalDateTime clientBase, LocalDateTime serverUpdatedAt) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final DeliveryService deliveryService;
+    private final long settleMillis;
+
+    public DeliverySyncService(MongoTemplate mongoTemplate, DeliveryService deliveryService,
+                               @Value("${app.sync.settle-ms:2000}") long settleMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.deliveryService = deliveryService;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * The agent's deliveries changed after the cursor, oldest change first; all of them when the
+     * cursor is null.
+     *
+     * @throws IllegalArgumentException if the cursor cannot be read
+     */
+    public SyncDelta getChanges(String agentId, String cursor, int limit) {
+        // Changes from the last moments may still be committing out of updatedAt order, so they
+        // wait for the next sync rather than risk being skipped by the cursor
+        LocalDateTime settled = LocalDateTime.now().minus(settleMillis, ChronoUnit.MILLIS);
+        Criteria criteria = Criteria.where("deliveryAgentId").is(agentId);
+        if (cursor != null) {
+            Cursor position = decode(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("updatedAt").gt(position.updatedAt()).lte(settled),
+                    Criteria.where("updatedAt").is(position.updatedAt()).and("_id").gt(position.deliveryId()));
+        } else {
+            criteria = criteria.and("updatedAt").lte(settled);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by("updatedAt", "_id"))
+                .limit(limit + 1);
+        query.fields().exclude("customerSignature");
+
+        List<Delivery> changes = new ArrayList<>(mongoTemplate.find(query, Delivery.class));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        String next = changes.isEmpty() ? cursor : encode(changes.get(changes.size() - 1));
+        return new SyncDelta(changes, next, hasMore);
+    }
+
+    /**
+     * Applies queued changes in order. A change whose base no longer matches the server copy is
+     * a conflict and is not applied; once a change to a delivery fails, later changes to the
+     * same delivery in the batch are skipped so they are never applied out of order.
+     */
+    public List<SyncResult> apply(String agentId, List<SyncOperation> operations) {
+        List<SyncResult> results = new ArrayList<>(operations.size());
+        Map<String, Rebase> applied = new HashMap<>();
+        Set<String> failed = new HashSet<>();
+
+        for (SyncOperation operation : operations) {
+            String deliveryId = operation.getDeliveryId();
+            if (failed.contains(deliveryId)) {
+                results.add(result(operation, SyncResult.Outcome.REJECTED,
+                        "Skipped after an earlier change to this delivery failed", null));
+                continue;
+            }
+
+            Delivery current;
+            try {
+                current = deliveryService.getDeliveryById(deliveryId);
+            } catch (ResourceNotFoundException e) {
+                failed.add(deliveryId);
+                results.add(result(operation, SyncResult.Outcome.REJECTED, e.getMessage(), null));
+                continue;
+            }
+            if (!agentId.equals(current.getDeliveryAgentId())) {
+                failed.add(deliveryId);
+                results.add(result(operation, SyncResult.Outcome.REJECTED,
+                        "You are not authorized to update this delivery", null));
+                continue;
+            }
+
+            String invalid = validate(operation);
+            if (invalid != null) {
+                failed.add(deliveryId);
+                results.add(result(operation, SyncResult.Outcome.REJECTED, invalid, current));
+                continue;
+            }
+
+            // A later change built on the same copy as one applied earlier in this batch is
+            // based on the version that change produced
+            LocalDateTime base = operation.getBaseUpdatedAt();
+            Rebase rebase = applied.get(deliveryId);
+            if (rebase != null && sameInstant(base, rebase.clientBase())) {
+                base = rebase.serverUpdatedAt();
+            }
+            if (!sameInstant(base, current.getUpdatedAt())) {
+                failed.add(deliveryId);
+                results.add(result(operation, SyncResult.Outcome.CONFLICT,
+                        "Delivery was changed on the server", current));
+                continue;
+            }
+
+            try {
+                Delivery updated = execute(operation);
+                applied.put(deliveryId, new Rebase(operation.getBaseUpdatedAt(), updated.getUpdatedAt()));
+                results.add(result(operation, SyncResult.Outcome.APPLIED, null, updated));
+            } catch (RuntimeException e) {
+                failed.add(deliveryId);
+                results.add(result(operation, SyncResult.Outcome.REJECTED, e.getMessage(), null));
+            }
+        }
+        return results;
+    }
+
+    private Delivery execute(SyncOperation operation) {
+        switch (operation.getAction()) {
+            case COMPLETE:
+                return deliveryService.completeDelivery(operation.getDeliveryId(), operation.getCustomerName(),
+                        operation.getCustomerSignature());
+            case DOOR_LOCK:
+                return deliveryService.markDeliveryAsDoorLock(operation.getDeliveryId(), operation.getNotes());
+            default:
+                return deliveryService.updateDeliveryStatus(operation.getDeliveryId(), operation.getStatus(),
+                        operation.getNotes());
+        }
+    }
+
+    private static String validate(SyncOperation operation) {
+        if (operation.getAction() == null) {
+            return "Action is required";
+        }
+        if (operation.getBaseUpdatedAt() == null) {
+            return "baseUpdatedAt is required";
+        }
+        if (operation.getAction() == SyncOperation.Action.STATUS && operation.getStatus() == null) {
+            return "Status is required";
+        }
+        if (operation.getAction() == SyncOperation.Action.COMPLETE
+                && (operation.getCustomerName() == null || operation.getCustomerSignature() == null)) {
+            return "Customer name and signature are required";
+        }
+        return null;
+    }
+
+    // Mongo keeps millisecond precision, so copies read back may have lost the nanoseconds
+    private static boolean sameInstant(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return Objects.equals(a, b);
+        }
+        return a.truncatedTo(ChronoUnit.MILLIS).equals(b.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private static SyncResult result(SyncOperation operation, SyncResult.Outcome outcome, String message,
+                                     Delivery delivery) {
+        return new SyncResult(operation.getOpId(), operation.getDeliveryId(), outcome, message, delivery);
+    }
+
+    static String encode(Delivery delivery) {
+        String raw = delivery.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS) + "|" + delivery.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid sync cursor");
+            }
+            return new Cursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync cursor", e);
+        }
+    }
+}
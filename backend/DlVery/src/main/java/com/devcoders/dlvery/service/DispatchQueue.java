@@ -0,0 +1,243 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.DeliveryChangedEvent;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Pending deliveries in dispatch order: priority first, then scheduled date, then age. The
+ * order is held in concurrent skip lists, one across all agents and one per agent, so peeking
+ * and claiming the next delivery are O(log n) and never sort the PENDING set. The queue
+ * follows {@link DeliveryChangedEvent}s and is only loaded from Mongo on startup. A delivery
+ * that fails to dispatch is parked for a retry interval so it does not block the ones behind it.
+ */
+@Slf4j
+@Service
+public class DispatchQueue implements InitializingBean {
+
+    record Entry(String deliveryId, String agentId, int rank, LocalDate scheduledDate, LocalDateTime createdAt) {
+    }
+
+    private record Parked(Entry entry, Instant retryAt) {
+    }
+
+    static final Comparator<Entry> DISPATCH_ORDER = Comparator
+            .comparingInt(Entry::rank)
+            .thenComparing(Entry::scheduledDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::deliveryId);
+
+    private final MongoTemplate mongoTemplate;
+    private final DeliveryService deliveryService;
+    private final Duration claimRetry;
+
+    private final NavigableSet<Entry> queue = new ConcurrentSkipListSet<>(DISPATCH_ORDER);
+    private final Map<String, NavigableSet<Entry>> queueByAgent = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Still in entries, so still pending, but out of the ordered sets until the retry time
+    private final Map<String, Parked> parked = new ConcurrentHashMap<>();
+
+    public DispatchQueue(MongoTemplate mongoTemplate, DeliveryService deliveryService,
+                         @Value("${app.dispatch.claim-retry-seconds:30}") long claimRetrySeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.deliveryService = deliveryService;
+        this.claimRetry = Duration.ofSeconds(claimRetrySeconds);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Served by the status_schedule index on deliveries
+        Query query = new Query(Criteria.where("status").is(DeliveryStatus.PENDING))
+                .with(Sort.by("scheduledDate", "createdAt"));
+        query.fields().include("deliveryAgentId").include("status").include("priority")
+                .include("scheduledDate").include("createdAt");
+        List<Delivery> pending = mongoTemplate.find(query, Delivery.class);
+        pending.forEach(this::track);
+        log.info("Loaded {} pending deliveries into the dispatch queue", pending.size());
+    }
+
+    @EventListener
+    public void onDeliveryChanged(DeliveryChangedEvent event) {
+        if (event.deleted()) {
+            untrack(event.delivery().getId());
+        } else {
+            track(event.delivery());
+        }
+    }
+
+    public void track(Delivery delivery) {
+        if (delivery.getStatus() != DeliveryStatus.PENDING) {
+            untrack(delivery.getId());
+            return;
+        }
+        Entry entry = new Entry(delivery.getId(), delivery.getDeliveryAgentId(), rank(delivery.getPriority()),
+                delivery.getScheduledDate(), delivery.getCreatedAt());
+        entries.compute(delivery.getId(), (id, previous) -> {
+            if (previous != null) {
+                remove(previous);
+            }
+            // A changed delivery gets a fresh chance to dispatch
+            parked.remove(id);
+            add(entry);
+            return entry;
+        });
+    }
+
+    public void untrack(String deliveryId) {
+        entries.computeIfPresent(deliveryId, (id, previous) -> {
+            remove(previous);
+            parked.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * The next deliveries in dispatch order, across all agents when agentId is null.
+     */
+    public List<Delivery> peek(String agentId, int limit) {
+        unparkDue();
+        List<String> ids = new ArrayList<>(limit);
+        for (Entry entry : entriesFor(agentId)) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.add(entry.deliveryId());
+        }
+        Map<String, Delivery> byId = new HashMap<>();
+        deliveryService.getDeliveriesByIds(ids).forEach(delivery -> byId.put(delivery.getId(), delivery));
+        // Deliveries deleted since they were queued are skipped
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Takes the next delivery off the queue and dispatches it (PENDING to IN_TRANSIT). Each
+     * delivery can only be claimed once, even by concurrent callers. A delivery that fails to
+     * dispatch is parked and the next one is tried.
+     *
+     * @return the dispatched delivery, or null if nothing is pending
+     * @throws RuntimeException the last dispatch failure, if every candidate failed
+     */
+    public Delivery claimNext(String agentId) {
+        unparkDue();
+        NavigableSet<Entry> candidates = entriesFor(agentId);
+        RuntimeException failure = null;
+        Entry entry;
+        while ((entry = candidates.pollFirst()) != null) {
+            if (entries.remove(entry.deliveryId(), entry)) {
+                remove(entry);
+                try {
+                    // The dispatcher's notes stay on the delivery
+                    return deliveryService.updateDeliveryStatus(entry.deliveryId(), DeliveryStatus.IN_TRANSIT);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to dispatch delivery {}, retrying it in {}s", entry.deliveryId(),
+                            claimRetry.toSeconds(), e);
+                    park(entry);
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private NavigableSet<Entry> entriesFor(String agentId) {
+        if (agentId == null) {
+            return queue;
+        }
+        NavigableSet<Entry> agentQueue = queueByAgent.get(agentId);
+        return agentQueue != null ? agentQueue : new ConcurrentSkipListSet<>(DISPATCH_ORDER);
+    }
+
+    private void add(Entry entry) {
+        queue.add(entry);
+        if (entry.agentId() != null) {
+            queueByAgent.computeIfAbsent(entry.agentId(), agent -> new ConcurrentSkipListSet<>(DISPATCH_ORDER))
+                    .add(entry);
+        }
+    }
+
+    // Unless the delivery changed while it was being dispatched
+    private void park(Entry claimed) {
+        entries.computeIfAbsent(claimed.deliveryId(), id -> {
+            parked.put(id, new Parked(claimed, Instant.now().plus(claimRetry)));
+            return claimed;
+        });
+    }
+
+    private void unparkDue() {
+        if (parked.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (Parked due : parked.values()) {
+            if (due.retryAt().isAfter(now)) {
+                continue;
+            }
+            Entry entry = due.entry();
+            entries.computeIfPresent(entry.deliveryId(), (id, current) -> {
+                if (current == entry && parked.remove(id, due)) {
+                    add(entry);
+                }
+                return current;
+            });
+        }
+    }
+
+    private void remove(Entry entry) {
+        queue.remove(entry);
+        if (entry.agentId() != null) {
+            NavigableSet<Entry> agentQueue = queueByAgent.get(entry.agentId());
+            if (agentQueue != null) {
+                agentQueue.remove(entry);
+            }
+        }
+    }
+
+    static int rank(DeliveryPriority priority) {
+        if (priority == null) {
+            return rank(DeliveryPriority.NORMAL);
+        }
+        switch (priority) {
+            case URGENT:
+                return 0;
+            case PERISHABLE:
+                return 1;
+            case HIGH:
+                return 2;
+            case NORMAL:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.RecordingInfo;
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.jfr.CacheLookupEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-demand Flight Recorder recordings. Every recording is bounded in duration and size, and
+ * only a few may run at once. They include the application events in the jfr package next to
+ * the JDK's own; the cache lookup event only when asked for. A stopped recording is kept for
+ * download for the retention period, and only the newest few are kept, since each holds its
+ * chunks on disk until closed.
+ */
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final int maxRunning;
+    private final Duration retention;
+    private final int maxKept;
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+    public FlightRecorderService(@Value("${app.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+                                 @Value("${app.jfr.max-size-mb:100}") long maxSizeMb,
+                                 @Value("${app.jfr.max-running:2}") int maxRunning,
+                                 @Value("${app.jfr.retention-minutes:60}") long retentionMinutes,
+                                 @Value("${app.jfr.max-kept:5}") int maxKept) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxRunning = maxRunning;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.maxKept = maxKept;
+    }
+
+    /**
+     * Starts a recording that stops by itself after the duration, capped at the configured maximum.
+     *
+     * @throws IllegalArgumentException for unknown settings or a non-positive duration
+     * @throws IllegalStateException if the maximum number of recordings is already running
+     */
+    public synchronized RecordingInfo start(String settings, long durationSeconds, boolean includeCacheLookups)
+            throws IOException, ParseException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Settings must be one of " + SETTINGS);
+        }
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        closeExpired();
+        long running = recordings.values().stream()
+                .filter(recording -> recording.getState() == RecordingState.RUNNING)
+                .count();
+        if (running >= maxRunning) {
+            throw new IllegalStateException("At most " + maxRunning + " recordings may run at once");
+        }
+
+        Recording recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("dlvery-" + settings + "-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDuration(Duration.ofSeconds(durationSeconds).compareTo(maxDuration) > 0
+                ? maxDuration : Duration.ofSeconds(durationSeconds));
+        if (includeCacheLookups) {
+            recording.enable(CacheLookupEvent.class);
+        }
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        log.info("Started flight recording {} ({}, {})", recording.getId(), settings, recording.getDuration());
+        return toInfo(recording);
+    }
+
+    public List<RecordingInfo> getRecordings() {
+        return recordings.values().stream()
+                .sorted(Comparator.comparingLong(Recording::getId))
+                .map(this::toInfo)
+                .toList();
+    }
+
+    /**
+     * Writes what the recording holds so far to a temporary file, which the caller deletes.
+     */
+    public Path dump(long id) throws IOException {
+        Recording recording = getRecording(id);
+        Path file = Files.createTempFile("dlvery-recording-" + id + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    public void close(long id) {
+        getRecording(id).close();
+        recordings.remove(id);
+    }
+
+    /**
+     * Closes, and so deletes the chunks of, the recordings that stopped longer than the retention
+     * period ago and the stopped ones beyond the newest few.
+     */
+    @Scheduled(fixedDelayString = "${app.jfr.prune-interval-ms:60000}")
+    public synchronized void closeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        List<Recording> stopped = recordings.values().stream()
+                .filter(recording -> recording.getState() == RecordingState.STOPPED
+                        || recording.getState() == RecordingState.CLOSED)
+                .sorted(Comparator.comparing(Recording::getStopTime, Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+        for (int i = 0; i < stopped.size(); i++) {
+            Recording recording = stopped.get(i);
+            Instant stopTime = recording.getStopTime();
+            if (i >= maxKept || stopTime == null || stopTime.isBefore(cutoff)) {
+                recording.close();
+                recordings.remove(recording.getId());
+                log.info("Closed stopped flight recording {}", recording.getId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    private Recording getRecording(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            throw new ResourceNotFoundException("Recording", "id", String.valueOf(id));
+        }
+        return recording;
+    }
+
+    private RecordingInfo toInfo(Recording recording) {
+        Duration duration = recording.getDuration();
+        return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime(), duration != null ? duration.toSeconds() : null, recording.getMaxSize(),
+                recording.getSize());
+    }
+}
@@ -0,0 +1,193 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.IdempotencyRecord;
+import com.devcoders.dlvery.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stores the outcome of mutating requests sent with an Idempotency-Key header so that
+ * client retries replay the first response instead of re-running service logic.
+ * Completed records live in a bounded in-memory LRU in front of the TTL-indexed
+ * idempotency_records collection; the collection's unique _id doubles as the claim
+ * that serializes duplicates arriving on different nodes.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public enum Outcome {
+        ACQUIRED,     // First request for this key, caller must execute and then complete or abandon
+        REPLAY,       // A completed response exists for the same request
+        MISMATCH,     // The key was already used with a different request
+        IN_PROGRESS   // Another request with the same key has not finished yet
+    }
+
+    public record Acquisition(Outcome outcome, IdempotencyRecord record) {
+    }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final MongoTemplate mongoTemplate;
+    private final long waitTimeoutMs;
+    private final long staleClaimSeconds;
+    private final Map<String, IdempotencyRecord> completedCache;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository, MongoTemplate mongoTemplate,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                              @Value("${app.idempotency.stale-claim-seconds:120}") long staleClaimSeconds) {
+        this.recordRepository = recordRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.staleClaimSeconds = staleClaimSeconds;
+        this.completedCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public Acquisition begin(String key, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyRecord cached = getCached(key);
+            if (cached != null) {
+                return matchOrMismatch(cached, requestHash);
+            }
+
+            CompletableFuture<IdempotencyRecord> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> existing = inFlight.putIfAbsent(key, claim);
+            if (existing != null) {
+                IdempotencyRecord leaderResult;
+                try {
+                    leaderResult = existing.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    return new Acquisition(Outcome.IN_PROGRESS, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Acquisition(Outcome.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    leaderResult = null;
+                }
+                if (leaderResult != null) {
+                    return matchOrMismatch(leaderResult, requestHash);
+                }
+                // The leader abandoned its attempt, try to take over
+                continue;
+            }
+
+            return claim(key, requestHash, claim);
+        }
+        return new Acquisition(Outcome.IN_PROGRESS, null);
+    }
+
+    public void complete(IdempotencyRecord record, int status, String contentType, String body) {
+        record.setCompleted(true);
+        record.setResponseStatus(status);
+        record.setResponseContentType(contentType);
+        record.setResponseBody(body);
+        try {
+            recordRepository.save(record);
+            completedCache.put(record.getId(), record);
+        } finally {
+            CompletableFuture<IdempotencyRecord> claim = inFlight.remove(record.getId());
+            if (claim != null) {
+                claim.complete(record);
+            }
+        }
+    }
+
+    public void abandon(String key) {
+        CompletableFuture<IdempotencyRecord> claim = inFlight.remove(key);
+        try {
+            recordRepository.deleteById(key);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency claim {}: {}", key, e.getMessage());
+        }
+        if (claim != null) {
+            claim.complete(null);
+        }
+    }
+
+    private Acquisition claim(String key, String requestHash, CompletableFuture<IdempotencyRecord> claim) {
+        IdempotencyRecord pending = new IdempotencyRecord();
+        pending.setId(key);
+        pending.setRequestHash(requestHash);
+        pending.setCreatedAt(LocalDateTime.now());
+        try {
+            recordRepository.insert(pending);
+            return new Acquisition(Outcome.ACQUIRED, pending);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord stored = recordRepository.findById(key).orElse(null);
+            if (stored != null && stored.isCompleted()) {
+                inFlight.remove(key);
+                completedCache.put(key, stored);
+                claim.complete(stored);
+                return matchOrMismatch(stored, requestHash);
+            }
+            if (stored != null && stored.getCreatedAt() != null
+                    && stored.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(staleClaimSeconds))
+                    && takeOver(stored, pending)) {
+                // The node holding the claim never finished
+                log.warn("Took over stale idempotency claim {}", key);
+                return new Acquisition(Outcome.ACQUIRED, pending);
+            }
+            // Claimed by another node that is still working on it
+            inFlight.remove(key);
+            claim.complete(null);
+            return new Acquisition(Outcome.IN_PROGRESS, null);
+        } catch (RuntimeException e) {
+            inFlight.remove(key);
+            claim.complete(null);
+            throw e;
+        }
+    }
+
+    // Only replaces the claim as it was read, so when several nodes find the same stale claim
+    // exactly one of them gets to run the request
+    private boolean takeOver(IdempotencyRecord stale, IdempotencyRecord pending) {
+        Query query = Query.query(Criteria.where("_id").is(stale.getId())
+                .and("completed").is(false)
+                .and("createdAt").is(stale.getCreatedAt()));
+        Update update = new Update()
+                .set("requestHash", pending.getRequestHash())
+                .set("createdAt", pending.getCreatedAt());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecord.class) != null;
+    }
+
+    private IdempotencyRecord getCached(String key) {
+        IdempotencyRecord record = completedCache.get(key);
+        if (record != null && record.getCreatedAt() != null
+                && record.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(IdempotencyRecord.TTL_SECONDS))) {
+            completedCache.remove(key);
+            return null;
+        }
+        return record;
+    }
+
+    private Acquisition matchOrMismatch(IdempotencyRecord record, String requestHash) {
+        if (record.getRequestHash() != null && !record.getRequestHash().equals(requestHash)) {
+            return new Acquisition(Outcome.MISMATCH, record);
+        }
+        return new Acquisition(Outcome.REPLAY, record);
+    }
+}
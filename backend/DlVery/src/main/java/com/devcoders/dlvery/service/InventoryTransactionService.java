@@ -1,13 +1,18 @@
 package com.devcoders.dlvery.service;
 
+import com.devcoders.dlvery.jfr.InventoryTransactionEvent;
 import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
 import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockLot;
 import com.devcoders.dlvery.model.TransactionType;
 import com.devcoders.dlvery.repository.InventoryTransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,48 +22,116 @@ public class InventoryTransactionService {
 
     private final InventoryTransactionRepository transactionRepository;
     private final ProductService productService;
+    private final StockLedger stockLedger;
+    private final LotService lotService;
 
     @Transactional
     public InventoryTransaction createTransaction(InventoryTransaction transaction) {
+        InventoryTransactionEvent event = new InventoryTransactionEvent();
+        event.begin();
+
         // Set timestamp if not already set
         if (transaction.getTimestamp() == null) {
             transaction.setTimestamp(LocalDateTime.now());
         }
         
+        int quantityChange = quantityChangeOf(transaction);
+
+        if (stockLedger.isEnabled()) {
+            // High-throughput mode: validate against the in-memory counter and write behind
+            prepareLedgerLots(transaction, quantityChange);
+            InventoryTransaction appended = stockLedger.record(transaction, quantityChange,
+                    transaction.getType() == TransactionType.DAMAGED,
+                    () -> trackLedgerLots(transaction, quantityChange));
+            event.complete(appended, true);
+            return appended;
+        }
+
         // Update product quantity based on transaction type
         Product product = productService.getProductById(transaction.getProductId());
-        int quantityChange = 0;
+        if (transaction.getType() == TransactionType.DAMAGED) {
+            // Mark product as damaged
+            product.setDamaged(true);
+        }
+        
+        // Update product quantity
+        productService.updateProductQuantity(product.getId(), quantityChange);
         
+        // Save transaction
+        InventoryTransaction saved = transactionRepository.save(transaction);
+        trackLots(saved, quantityChange, product);
+        event.complete(saved, false);
+        return saved;
+    }
+
+    // Delivery movements are matched to lots when the delivery is assigned; the rest open or draw
+    // down lots here, the given lots if the transaction names them and the earliest expiring otherwise
+    private void trackLots(InventoryTransaction transaction, int quantityChange, Product product) {
+        if (transaction.getDeliveryId() != null || quantityChange == 0) {
+            return;
+        }
+        if (quantityChange > 0) {
+            LocalDate expiryDate = transaction.getExpiryDate() != null
+                    ? transaction.getExpiryDate() : product.getExpiryDate();
+            transaction.setSku(product.getSku());
+            lotService.receive(transaction, expiryDate, quantityChange);
+        } else if (transaction.getLotAllocations() != null) {
+            lotService.allocate(transaction.getLotAllocations());
+        } else {
+            lotService.allocate(product.getSku(), -quantityChange);
+        }
+    }
+
+    // Runs before the movement is recorded: only a transaction without its SKU, or a receipt
+    // without the lot's expiry date, needs the product
+    private void prepareLedgerLots(InventoryTransaction transaction, int quantityChange) {
+        if (transaction.getDeliveryId() != null || quantityChange == 0) {
+            return;
+        }
+        if (transaction.getSku() == null || (quantityChange > 0 && transaction.getExpiryDate() == null)) {
+            Product product = productService.getProductById(transaction.getProductId());
+            transaction.setSku(product.getSku());
+            if (quantityChange > 0 && transaction.getExpiryDate() == null) {
+                transaction.setExpiryDate(product.getExpiryDate());
+            }
+        }
+        if (transaction.getId() == null) {
+            // The opened lot refers to the receipt
+            transaction.setId(new ObjectId().toHexString());
+        }
+    }
+
+    // Lot changes in ledger mode are made in memory and written by the ledger's flush
+    private void trackLedgerLots(InventoryTransaction transaction, int quantityChange) {
+        if (transaction.getDeliveryId() != null || quantityChange == 0) {
+            return;
+        }
+        if (quantityChange > 0) {
+            StockLot lot = lotService.open(transaction, transaction.getExpiryDate(), quantityChange);
+            transaction.setLotAllocations(List.of(new LotAllocation(lot.getId(), quantityChange, lot.getExpiryDate())));
+        } else if (transaction.getLotAllocations() != null) {
+            transaction.setLotAllocations(lotService.drawDown(transaction.getLotAllocations()));
+        } else {
+            transaction.setLotAllocations(lotService.drawDown(transaction.getSku(), -quantityChange));
+        }
+    }
+
+    static int quantityChangeOf(InventoryTransaction transaction) {
         switch (transaction.getType()) {
             case STOCK_IN:
-                quantityChange = transaction.getQuantity();
-                break;
-            case STOCK_OUT:
-                quantityChange = -transaction.getQuantity();
-                break;
             case RETURN:
-                quantityChange = transaction.getQuantity();
-                break;
+                return transaction.getQuantity();
             case ADJUSTMENT:
                 // For adjustment, the quantity field directly represents the change
-                quantityChange = transaction.getQuantity();
-                break;
+                return transaction.getQuantity();
+            case STOCK_OUT:
             case DAMAGED:
-                // Mark product as damaged and reduce quantity
-                product.setDamaged(true);
-                quantityChange = -transaction.getQuantity();
-                break;
             case EXPIRED:
-                // Reduce quantity for expired products
-                quantityChange = -transaction.getQuantity();
-                break;
+                // Stock leaving inventory, including damaged and expired products
+                return -transaction.getQuantity();
+            default:
+                return 0;
         }
-        
-        // Update product quantity
-        productService.updateProductQuantity(product.getId(), quantityChange);
-        
-        // Save transaction
-        return transactionRepository.save(transaction);
     }
 
     public InventoryTransaction getTransactionById(String id) {
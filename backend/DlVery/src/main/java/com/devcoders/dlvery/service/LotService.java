@@ -0,0 +1,319 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.StockLotOpenedEvent;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.repository.StockLotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks stock per received lot so perishable units from different receipts keep their own
+ * expiry. Each SKU's lots with stock left sit in a priority queue ordered by expiry date
+ * (undated lots last, then by receipt), so deliveries are allocated first-expired-first-out
+ * by popping the head in O(log n) instead of sorting the SKU's lots on every assignment.
+ * Lots only cover stock received after they were introduced; older stock is simply not
+ * allocated to a lot. In stock ledger mode the lots change in memory only and the ledger
+ * writes the changes with the movements that caused them; holds still write theirs directly,
+ * inserting a lot the ledger has not written yet before changing it.
+ */
+@Slf4j
+@Service
+@DependsOn("stockLedger")  // Lot changes in the ledger's log are replayed before the lots are loaded
+public class LotService implements InitializingBean {
+
+    static final Comparator<StockLot> FEFO = Comparator
+            .comparing(StockLot::getExpiryDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(StockLot::getReceivedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(StockLot::getId);
+
+    private final StockLotRepository lotRepository;
+    private final MongoTemplate mongoTemplate;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, PriorityQueue<StockLot>> lotsBySku = new ConcurrentHashMap<>();
+    private final Map<String, StockLot> openLots = new ConcurrentHashMap<>();
+
+    public LotService(StockLotRepository lotRepository, MongoTemplate mongoTemplate, StockLedger stockLedger,
+                      ApplicationEventPublisher eventPublisher) {
+        this.lotRepository = lotRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.stockLedger = stockLedger;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<StockLot> lots = lotRepository.findByRemainingGreaterThan(0);
+        lots.forEach(this::enqueue);
+        log.info("Loaded {} stock lots for {} SKUs", lots.size(), lotsBySku.size());
+    }
+
+    /**
+     * Opens a lot for stock that came into the warehouse.
+     */
+    public StockLot receive(InventoryTransaction transaction, LocalDate expiryDate, int quantity) {
+        StockLot lot = new StockLot();
+        lot.setProductId(transaction.getProductId());
+        lot.setSku(transaction.getSku());
+        lot.setTransactionId(transaction.getId());
+        lot.setQuantity(quantity);
+        lot.setRemaining(quantity);
+        lot.setExpiryDate(expiryDate);
+        lot.setReceivedAt(transaction.getTimestamp() != null ? transaction.getTimestamp() : LocalDateTime.now());
+
+        StockLot saved = lotRepository.insert(lot);
+        enqueue(saved);
+        eventPublisher.publishEvent(new StockLotOpenedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Opens a lot in memory only, for the stock ledger to write with the receipt.
+     */
+    public StockLot open(InventoryTransaction transaction, LocalDate expiryDate, int quantity) {
+        StockLot lot = new StockLot();
+        lot.setId(new ObjectId().toHexString());
+        lot.setProductId(transaction.getProductId());
+        lot.setSku(transaction.getSku());
+        lot.setTransactionId(transaction.getId());
+        lot.setQuantity(quantity);
+        lot.setRemaining(quantity);
+        lot.setExpiryDate(expiryDate);
+        lot.setReceivedAt(transaction.getTimestamp() != null ? transaction.getTimestamp() : LocalDateTime.now());
+        enqueue(lot);
+        eventPublisher.publishEvent(new StockLotOpenedEvent(lot));
+        return lot;
+    }
+
+    /**
+     * Takes up to the requested quantity from the SKU's lots, earliest expiry first. Returns
+     * less than requested if the lots run out.
+     */
+    public List<LotAllocation> allocate(String sku, int quantity) {
+        Map<String, StockLot> touched = new HashMap<>();
+        List<LotAllocation> allocations = drawDown(sku, quantity, touched);
+        persist(allocations, -1, touched);
+        return allocations;
+    }
+
+    /**
+     * Same as {@link #allocate(String, int)} for each item, in item order, written together.
+     */
+    public List<List<LotAllocation>> allocateItems(List<DeliveryItem> items) {
+        Map<String, StockLot> touched = new HashMap<>();
+        List<List<LotAllocation>> allocations = new ArrayList<>(items.size());
+        List<LotAllocation> all = new ArrayList<>();
+        for (DeliveryItem item : items) {
+            List<LotAllocation> itemAllocations = drawDown(item.getSku(), item.getQuantity(), touched);
+            allocations.add(itemAllocations);
+            all.addAll(itemAllocations);
+        }
+        persist(all, -1, touched);
+        return allocations;
+    }
+
+    /**
+     * Same as {@link #allocate}, in memory only, for the stock ledger to write with the movement.
+     */
+    public List<LotAllocation> drawDown(String sku, int quantity) {
+        return drawDown(sku, quantity, null);
+    }
+
+    private List<LotAllocation> drawDown(String sku, int quantity, Map<String, StockLot> touched) {
+        PriorityQueue<StockLot> lots = lotsBySku.get(sku);
+        if (lots == null || quantity <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<LotAllocation> allocations = new ArrayList<>();
+        synchronized (lots) {
+            int needed = quantity;
+            while (needed > 0 && !lots.isEmpty()) {
+                StockLot lot = lots.peek();
+                int taken = Math.min(lot.getRemaining(), needed);
+                lot.setRemaining(lot.getRemaining() - taken);
+                needed -= taken;
+                allocations.add(new LotAllocation(lot.getId(), taken, lot.getExpiryDate()));
+                if (touched != null) {
+                    touched.put(lot.getId(), lot);
+                }
+                if (lot.getRemaining() == 0) {
+                    lots.poll();
+                    openLots.remove(lot.getId());
+                }
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * Takes units from the given lots instead of the earliest expiring ones, e.g. when a lot
+     * expires. Returns what the lots still had.
+     */
+    public List<LotAllocation> allocate(List<LotAllocation> requested) {
+        Map<String, StockLot> touched = new HashMap<>();
+        List<LotAllocation> allocations = drawDown(requested, touched);
+        persist(allocations, -1, touched);
+        return allocations;
+    }
+
+    /**
+     * Same as {@link #allocate(List)}, in memory only, for the stock ledger to write with the movement.
+     */
+    public List<LotAllocation> drawDown(List<LotAllocation> requested) {
+        return drawDown(requested, null);
+    }
+
+    private List<LotAllocation> drawDown(List<LotAllocation> requested, Map<String, StockLot> touched) {
+        List<LotAllocation> allocations = new ArrayList<>();
+        for (LotAllocation request : requested) {
+            StockLot lot = openLots.get(request.getLotId());
+            if (lot == null) {
+                continue;
+            }
+            PriorityQueue<StockLot> lots = lotsBySku.get(lot.getSku());
+            synchronized (lots) {
+                int taken = Math.min(lot.getRemaining(), request.getQuantity());
+                if (taken <= 0) {
+                    continue;
+                }
+                lot.setRemaining(lot.getRemaining() - taken);
+                allocations.add(new LotAllocation(lot.getId(), taken, lot.getExpiryDate()));
+                if (touched != null) {
+                    touched.put(lot.getId(), lot);
+                }
+                if (lot.getRemaining() == 0) {
+                    lots.remove(lot);
+                    openLots.remove(lot.getId());
+                }
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * Puts allocated units back into their lots, e.g. when a hold is released.
+     */
+    public void restore(List<LotAllocation> allocations) {
+        if (allocations == null || allocations.isEmpty()) {
+            return;
+        }
+        Map<String, StockLot> touched = new HashMap<>();
+        for (LotAllocation allocation : allocations) {
+            StockLot lot = openLots.get(allocation.getLotId());
+            if (lot == null) {
+                lot = lotRepository.findById(allocation.getLotId()).orElse(null);
+                if (lot == null) {
+                    continue;
+                }
+                lot.setRemaining(0);
+            }
+            PriorityQueue<StockLot> lots = lotsBySku.computeIfAbsent(lot.getSku(), sku -> new PriorityQueue<>(FEFO));
+            synchronized (lots) {
+                StockLot open = openLots.putIfAbsent(lot.getId(), lot);
+                if (open == null) {
+                    lot.setRemaining(allocation.getQuantity());
+                    lots.add(lot);
+                    eventPublisher.publishEvent(new StockLotOpenedEvent(lot));
+                } else {
+                    open.setRemaining(open.getRemaining() + allocation.getQuantity());
+                }
+            }
+            touched.put(lot.getId(), lot);
+        }
+        persist(allocations, 1, touched);
+    }
+
+    /**
+     * Lots of the SKU that still have stock, in allocation order.
+     */
+    public List<StockLot> getOpenLots(String sku) {
+        PriorityQueue<StockLot> lots = lotsBySku.get(sku);
+        if (lots == null) {
+            return List.of();
+        }
+        List<StockLot> open;
+        synchronized (lots) {
+            open = new ArrayList<>(lots);
+        }
+        open.sort(FEFO);
+        return open;
+    }
+
+    public StockLot getOpenLot(String lotId) {
+        return openLots.get(lotId);
+    }
+
+    /**
+     * Lots with stock left that carry an expiry date, of all SKUs.
+     */
+    public List<StockLot> getDatedLots() {
+        return openLots.values().stream().filter(lot -> lot.getExpiryDate() != null).toList();
+    }
+
+    private void enqueue(StockLot lot) {
+        PriorityQueue<StockLot> lots = lotsBySku.computeIfAbsent(lot.getSku(), sku -> new PriorityQueue<>(FEFO));
+        synchronized (lots) {
+            lots.add(lot);
+            openLots.put(lot.getId(), lot);
+        }
+    }
+
+    /**
+     * The fields of a lot as it was opened, for an upsert that leaves a lot already stored alone.
+     */
+    static Update openingFields(StockLot lot) {
+        return new Update()
+                .setOnInsert("productId", lot.getProductId())
+                .setOnInsert("sku", lot.getSku())
+                .setOnInsert("transactionId", lot.getTransactionId())
+                .setOnInsert("quantity", lot.getQuantity())
+                .setOnInsert("remaining", lot.getQuantity())
+                .setOnInsert("expiryDate", lot.getExpiryDate())
+                .setOnInsert("receivedAt", lot.getReceivedAt())
+                .setOnInsert("ledgerSequence", 0L);
+    }
+
+    // In ledger mode a lot opened since the last flush is not stored yet and the $inc would
+    // match nothing, so the lot is first inserted as opened, the same way the ledger writes it
+    private void persist(List<LotAllocation> allocations, int sign, Map<String, StockLot> lots) {
+        if (allocations.isEmpty()) {
+            return;
+        }
+        boolean ledger = stockLedger.isEnabled();
+        BulkOperations bulk = mongoTemplate.bulkOps(ledger
+                ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, StockLot.class);
+        for (LotAllocation allocation : allocations) {
+            StockLot lot = lots.get(allocation.getLotId());
+            if (ledger && lot != null) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(lot.getId())), openingFields(lot));
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(allocation.getLotId())),
+                    new Update().inc("remaining", sign * allocation.getQuantity()));
+        }
+        bulk.execute();
+    }
+}
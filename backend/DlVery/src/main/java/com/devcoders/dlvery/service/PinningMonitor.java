@@ -0,0 +1,174 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.PinningSite;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reports virtual threads that blocked while pinned to their carrier thread, which happens
+ * when they park inside a synchronized block or with a native frame on the stack. The JVM's
+ * jdk.VirtualThreadPinned events are streamed in-process and aggregated by the first
+ * application frame on the stack, so a site shows up once however often it pins. A new site
+ * is logged as a warning.
+ * <p>
+ * Counts and durations without the sites are also exported as jvm.threads.virtual.pinned.
+ */
+@Slf4j
+@Service
+public class PinningMonitor implements InitializingBean {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final String APP_PACKAGE = "com.devcoders.dlvery.";
+    private static final int STACK_FRAMES = 20;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final int maxSites;
+
+    private final ConcurrentMap<String, SiteStats> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public PinningMonitor(@Value("${app.threads.pinning.enabled:false}") boolean enabled,
+                          @Value("${app.threads.pinning.threshold-ms:20}") long thresholdMs,
+                          @Value("${app.threads.pinning.max-sites:100}") int maxSites) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.maxSites = maxSites;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pinning aggregated by site, the most total time first.
+     */
+    public List<PinningSite> getSites() {
+        return sites.values().stream()
+                .map(SiteStats::snapshot)
+                .sorted(Comparator.comparingDouble(PinningSite::getTotalMs).reversed())
+                .toList();
+    }
+
+    public void clear() {
+        sites.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = siteOf(frames);
+
+        SiteStats stats = sites.get(site);
+        if (stats == null) {
+            if (sites.size() >= maxSites) {
+                log.debug("Pinning site limit of {} reached, not aggregating {}", maxSites, site);
+                return;
+            }
+            SiteStats created = new SiteStats(site);
+            stats = sites.putIfAbsent(site, created);
+            if (stats == null) {
+                stats = created;
+                log.warn("Virtual thread {} pinned its carrier for {} ms at {}", event.getThread() != null
+                        ? event.getThread().getJavaName() : "?", event.getDuration().toMillis(), site);
+            }
+        }
+        // pinnedReason only exists from JDK 24 on; on 21 a native frame on the stack is the only hint
+        stats.add(event.getEndTime(), event.getDuration(),
+                frames.stream().anyMatch(frame -> "Native".equals(frame.getType())),
+                event.hasField("pinnedReason") ? event.getString("pinnedReason") : null,
+                frames.stream().limit(STACK_FRAMES).map(PinningMonitor::format).toList());
+    }
+
+    private static String siteOf(List<RecordedFrame> frames) {
+        RecordedFrame outsideJdk = null;
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return format(frame);
+            }
+            if (outsideJdk == null && !type.startsWith("java.") && !type.startsWith("jdk.")
+                    && !type.startsWith("sun.")) {
+                outsideJdk = frame;
+            }
+        }
+        if (outsideJdk != null) {
+            return format(outsideJdk);
+        }
+        return frames.isEmpty() ? "unknown" : format(frames.get(0));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+
+    private static class SiteStats {
+
+        private final String site;
+        private long count;
+        private Duration total = Duration.ZERO;
+        private Duration max = Duration.ZERO;
+        private Instant lastSeen;
+        private boolean nativeFrame;
+        private String reason;
+        private List<String> stack;
+
+        SiteStats(String site) {
+            this.site = site;
+        }
+
+        synchronized void add(Instant at, Duration duration, boolean nativeFrame, String reason, List<String> stack) {
+            count++;
+            total = total.plus(duration);
+            max = duration.compareTo(max) > 0 ? duration : max;
+            lastSeen = at;
+            this.nativeFrame |= nativeFrame;
+            this.reason = reason;
+            this.stack = stack;
+        }
+
+        synchronized PinningSite snapshot() {
+            double totalMs = total.toNanos() / 1e6;
+            return new PinningSite(site, count, totalMs, max.toNanos() / 1e6, count > 0 ? totalMs / count : 0,
+                    lastSeen, nativeFrame, reason, stack);
+        }
+    }
+}
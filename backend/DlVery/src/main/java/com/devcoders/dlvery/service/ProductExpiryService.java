@@ -0,0 +1,286 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.ProductChangedEvent;
+import com.devcoders.dlvery.event.ProductExpiryWarningEvent;
+import com.devcoders.dlvery.event.StockLotOpenedEvent;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.model.TransactionType;
+import com.devcoders.dlvery.scheduling.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes perishable stock out of inventory when it expires instead of waiting for someone to
+ * query the expiring endpoints. Every stock lot with an expiry date has a warning and an expiry
+ * timer on a hierarchical timing wheel, scheduled from {@link StockLotOpenedEvent} in both stock
+ * modes. A lot expires at the end of its expiry date, taking out only the units left in that lot.
+ * Stock set on the product itself (at creation or by an update) is in no lot, so each perishable
+ * product also has timers for its own expiry date, kept in step by {@link ProductChangedEvent},
+ * that take out whatever its lots do not cover.
+ */
+@Slf4j
+@Service
+public class ProductExpiryService implements InitializingBean {
+
+    static final String SYSTEM_USER = "system";
+
+    enum Kind { WARNING, EXPIRY }
+
+    // A lot's timer, or without a lot the product's timer for its stock outside lots
+    record ExpiryTimer(String lotId, String productId, Kind kind) {
+    }
+
+    private record ScheduledExpiry(String productId, LocalDate expiryDate, TimingWheel.Timeout<ExpiryTimer> warning,
+                                   TimingWheel.Timeout<ExpiryTimer> expiry) {
+        void cancel() {
+            if (warning != null) {
+                warning.cancel();
+            }
+            expiry.cancel();
+        }
+    }
+
+    private final ProductService productService;
+    private final InventoryTransactionService inventoryTransactionService;
+    private final LotService lotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int warningDays;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Map<String, ScheduledExpiry> scheduled = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledExpiry> scheduledProducts = new ConcurrentHashMap<>();
+    private final TimingWheel<ExpiryTimer> wheel;
+
+    public ProductExpiryService(ProductService productService,
+                                InventoryTransactionService inventoryTransactionService,
+                                LotService lotService,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.inventory.expiry.warning-days:3}") int warningDays,
+                                @Value("${app.inventory.expiry.tick-seconds:60}") long tickSeconds) {
+        this.productService = productService;
+        this.inventoryTransactionService = inventoryTransactionService;
+        this.lotService = lotService;
+        this.eventPublisher = eventPublisher;
+        this.warningDays = warningDays;
+        this.wheel = new TimingWheel<>("product-expiry", Duration.ofSeconds(tickSeconds), 64, this::onTimers);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<StockLot> lots = lotService.getDatedLots();
+        lots.forEach(this::track);
+        productService.getPerishableProducts().forEach(this::trackProduct);
+        wheel.start();
+        log.info("Scheduled expiry for {} stock lots and {} products", lots.size(), scheduledProducts.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+    }
+
+    @EventListener
+    public void onLotOpened(StockLotOpenedEvent event) {
+        track(event.lot());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            untrackProduct(event.product().getId());
+        } else {
+            trackProduct(event.product());
+        }
+    }
+
+    /**
+     * Schedules the lot's timers once. A lot's expiry date never changes, and a lot that runs
+     * out before then is skipped when its timers fire.
+     */
+    public void track(StockLot lot) {
+        if (lot.getExpiryDate() == null || lot.getRemaining() <= 0) {
+            return;
+        }
+
+        scheduled.computeIfAbsent(lot.getId(),
+                id -> schedule(id, lot.getProductId(), lot.getExpiryDate()));
+    }
+
+    /**
+     * Schedules the timers for a perishable product's own expiry date, moving them when the
+     * date changes. Once they fired they are scheduled again only while stock is left.
+     */
+    public void trackProduct(Product product) {
+        if (!product.isPerishable() || product.getExpiryDate() == null) {
+            ScheduledExpiry previous = scheduledProducts.remove(product.getId());
+            if (previous != null) {
+                previous.cancel();
+            }
+            return;
+        }
+
+        LocalDate expiryDate = product.getExpiryDate();
+        scheduledProducts.compute(product.getId(), (id, previous) -> {
+            if (previous != null) {
+                if (previous.expiryDate().equals(expiryDate)) {
+                    return previous;
+                }
+                previous.cancel();
+            } else if (product.getQuantity() <= 0 && !Instant.now().isBefore(startOfDay(expiryDate.plusDays(1)))) {
+                return null;
+            }
+            return schedule(null, id, expiryDate);
+        });
+    }
+
+    public void untrackProduct(String productId) {
+        ScheduledExpiry own = scheduledProducts.remove(productId);
+        if (own != null) {
+            own.cancel();
+        }
+        scheduled.values().removeIf(expiry -> {
+            if (!productId.equals(expiry.productId())) {
+                return false;
+            }
+            expiry.cancel();
+            return true;
+        });
+    }
+
+    public int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    public boolean isProductScheduled(String productId) {
+        return scheduledProducts.containsKey(productId);
+    }
+
+    /**
+     * Handles everything that came due in one wheel tick.
+     */
+    void onTimers(List<ExpiryTimer> timers) {
+        int expired = 0;
+        for (ExpiryTimer timer : timers) {
+            try {
+                if (timer.lotId() == null) {
+                    if (onProductTimer(timer)) {
+                        expired++;
+                    }
+                    continue;
+                }
+                if (timer.kind() == Kind.EXPIRY) {
+                    scheduled.remove(timer.lotId());
+                }
+                StockLot lot = lotService.getOpenLot(timer.lotId());
+                if (lot == null) {
+                    // Ran out before it expired
+                    continue;
+                }
+                Product product = productService.getProductById(lot.getProductId());
+                // Stock taken out without going through the lots can leave a lot ahead of the product
+                int quantity = Math.min(lot.getRemaining(), product.getQuantity());
+                if (!product.isPerishable() || quantity <= 0) {
+                    continue;
+                }
+                if (timer.kind() == Kind.WARNING) {
+                    log.warn("Lot {} of product {} ({} units) expires on {}", lot.getId(), product.getSku(), quantity,
+                            lot.getExpiryDate());
+                    eventPublisher.publishEvent(new ProductExpiryWarningEvent(product.getId(), product.getSku(),
+                            product.getName(), lot.getExpiryDate(), quantity));
+                } else {
+                    expire(lot, quantity);
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to process {} timer for {}", timer.kind(),
+                        timer.lotId() != null ? "lot " + timer.lotId() : "product " + timer.productId(), e);
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired stock of {} lots and products", expired);
+        }
+    }
+
+    // Only the units no open lot accounts for belong to the product's own expiry date
+    private boolean onProductTimer(ExpiryTimer timer) {
+        if (timer.kind() == Kind.EXPIRY) {
+            scheduledProducts.remove(timer.productId());
+        }
+        Product product = productService.getProductById(timer.productId());
+        if (!product.isPerishable()) {
+            return false;
+        }
+        int inLots = lotService.getOpenLots(product.getSku()).stream().mapToInt(StockLot::getRemaining).sum();
+        int quantity = product.getQuantity() - inLots;
+        if (quantity <= 0) {
+            return false;
+        }
+        if (timer.kind() == Kind.WARNING) {
+            log.warn("Product {} has {} units outside lots that expire on {}", product.getSku(), quantity,
+                    product.getExpiryDate());
+            eventPublisher.publishEvent(new ProductExpiryWarningEvent(product.getId(), product.getSku(),
+                    product.getName(), product.getExpiryDate(), quantity));
+            return false;
+        }
+
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId(product.getId());
+        transaction.setSku(product.getSku());
+        transaction.setType(TransactionType.EXPIRED);
+        transaction.setQuantity(quantity);
+        // Empty rather than null, so the movement does not draw down the SKU's lots
+        transaction.setLotAllocations(List.of());
+        transaction.setUserId(SYSTEM_USER);
+        transaction.setNotes("Stock of product " + product.getSku() + " expired on " + product.getExpiryDate());
+        transaction.setTimestamp(LocalDateTime.now());
+
+        inventoryTransactionService.createTransaction(transaction);
+        return true;
+    }
+
+    private ScheduledExpiry schedule(String lotId, String productId, LocalDate expiryDate) {
+        Instant expiresAt = startOfDay(expiryDate.plusDays(1));
+        Instant warnAt = startOfDay(expiryDate.minusDays(warningDays - 1L));
+        TimingWheel.Timeout<ExpiryTimer> warning = warnAt.isBefore(expiresAt) && Instant.now().isBefore(expiresAt)
+                ? wheel.schedule(new ExpiryTimer(lotId, productId, Kind.WARNING), warnAt)
+                : null;
+        TimingWheel.Timeout<ExpiryTimer> expiry = wheel.schedule(new ExpiryTimer(lotId, productId, Kind.EXPIRY),
+                expiresAt);
+        return new ScheduledExpiry(productId, expiryDate, warning, expiry);
+    }
+
+    private void expire(StockLot lot, int quantity) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId(lot.getProductId());
+        transaction.setSku(lot.getSku());
+        transaction.setType(TransactionType.EXPIRED);
+        transaction.setQuantity(quantity);
+        transaction.setLotAllocations(List.of(new LotAllocation(lot.getId(), quantity, lot.getExpiryDate())));
+        transaction.setUserId(SYSTEM_USER);
+        transaction.setNotes("Lot " + lot.getId() + " expired on " + lot.getExpiryDate());
+        transaction.setTimestamp(LocalDateTime.now());
+
+        inventoryTransactionService.createTransaction(transaction);
+    }
+
+    private Instant startOfDay(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant();
+    }
+}
@@ -1,12 +1,16 @@
 package com.devcoders.dlvery.service;
 
+import com.devcoders.dlvery.event.ProductChangedEvent;
 import com.devcoders.dlvery.model.Product;
 import com.devcoders.dlvery.model.ProductCategory;
 import com.devcoders.dlvery.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -14,16 +18,19 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Product createProduct(Product product) {
-        if (productRepository.existsBySku(product.getSku())) {
-            throw new RuntimeException("Product with SKU " + product.getSku() + " already exists");
-        }
-        
         product.setCreatedAt(LocalDate.now());
         product.setUpdatedAt(LocalDate.now());
         
-        return productRepository.save(product);
+        // The unique index on sku rejects duplicates, so no existsBySku round trip is needed
+        try {
+            return published(productRepository.insert(product));
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Product with SKU " + product.getSku() + " already exists");
+        }
     }
 
     public Product updateProduct(String id, Product productDetails) {
@@ -38,49 +45,69 @@ public class ProductService {
         product.setQuantity(productDetails.getQuantity());
         product.setUpdatedAt(LocalDate.now());
         
-        return productRepository.save(product);
+        if (stockLedger.isEnabled()) {
+            return published(stockLedger.overwrite(product.getId(), () -> productRepository.save(product)));
+        }
+        
+        return published(productRepository.save(product));
     }
 
     public Product getProductById(String id) {
         return productRepository.findById(id)
+                .map(this::withLedgerQuantity)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
     public Product getProductBySku(String sku) {
         return productRepository.findBySku(sku)
+                .map(this::withLedgerQuantity)
                 .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
     }
 
+    /**
+     * The products with the given SKUs in one query. SKUs without a product are left out.
+     */
+    public List<Product> getProductsBySkus(Collection<String> skus) {
+        return withLedgerQuantities(productRepository.findBySkuIn(skus));
+    }
+
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return withLedgerQuantities(productRepository.findAll());
     }
 
     public List<Product> getProductsByCategory(ProductCategory category) {
-        return productRepository.findByCategory(category);
+        return withLedgerQuantities(productRepository.findByCategory(category));
     }
 
     public List<Product> getDamagedProducts() {
-        return productRepository.findByDamaged(true);
+        return withLedgerQuantities(productRepository.findByDamaged(true));
     }
 
     public List<Product> getPerishableProducts() {
-        return productRepository.findByPerishable(true);
+        return withLedgerQuantities(productRepository.findByPerishable(true));
     }
 
     public List<Product> getProductsExpiringBefore(LocalDate date) {
-        return productRepository.findByExpiryDateBefore(date);
+        return withLedgerQuantities(productRepository.findByExpiryDateBefore(date));
     }
 
     public List<Product> getProductsExpiringBetween(LocalDate startDate, LocalDate endDate) {
-        return productRepository.findByExpiryDateBetween(startDate, endDate);
+        return withLedgerQuantities(productRepository.findByExpiryDateBetween(startDate, endDate));
     }
 
     public void deleteProduct(String id) {
         Product product = getProductById(id);
         productRepository.delete(product);
+        stockLedger.forget(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
     }
 
     public Product updateProductQuantity(String id, int quantityChange) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.applyImmediately(id, quantityChange);
+            return published(getProductById(id));
+        }
+        
         Product product = getProductById(id);
         int newQuantity = product.getQuantity() + quantityChange;
         
@@ -91,6 +118,29 @@ public class ProductService {
         product.setQuantity(newQuantity);
         product.setUpdatedAt(LocalDate.now());
         
-        return productRepository.save(product);
+        return published(productRepository.save(product));
+    }
+
+    private Product published(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        return product;
+    }
+
+    // In ledger mode the in-memory counter is ahead of the stored quantity until the next flush
+    private Product withLedgerQuantity(Product product) {
+        if (stockLedger.isEnabled()) {
+            Integer quantity = stockLedger.getQuantity(product.getId());
+            if (quantity != null) {
+                product.setQuantity(quantity);
+            }
+        }
+        return product;
+    }
+
+    private List<Product> withLedgerQuantities(List<Product> products) {
+        if (stockLedger.isEnabled()) {
+            products.forEach(this::withLedgerQuantity);
+        }
+        return products;
     }
 }
\ No newline at end of file
@@ -0,0 +1,394 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.ProductAvailability;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ReservationStatus;
+import com.devcoders.dlvery.model.StockReservation;
+import com.devcoders.dlvery.model.TransactionType;
+import com.devcoders.dlvery.repository.StockReservationRepository;
+import com.devcoders.dlvery.scheduling.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds stock against pending deliveries instead of taking it out at assignment. A hold
+ * reduces available-to-promise (on hand minus active holds, tracked in memory per SKU) and
+ * becomes a STOCK_OUT when the delivery leaves the warehouse. Holds that are never used
+ * lapse through a timing wheel rather than a polling job.
+ */
+@Slf4j
+@Service
+public class ReservationService implements InitializingBean {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductService productService;
+    private final InventoryTransactionService inventoryTransactionService;
+    private final MongoTemplate mongoTemplate;
+    private final CommittedStockIndex committedStockIndex;
+    private final LotService lotService;
+    private final Duration holdTtl;
+
+    private final Map<String, AtomicInteger> heldBySku = new ConcurrentHashMap<>();
+    private final Map<String, StockReservation> activeReservations = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> activeByDelivery = new ConcurrentHashMap<>();
+    private final Map<String, TimingWheel.Timeout<String>> expiryTimers = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel;
+
+    public ReservationService(StockReservationRepository reservationRepository,
+                              ProductService productService,
+                              InventoryTransactionService inventoryTransactionService,
+                              MongoTemplate mongoTemplate,
+                              CommittedStockIndex committedStockIndex,
+                              LotService lotService,
+                              @Value("${app.inventory.reservation.ttl-minutes:240}") long ttlMinutes) {
+        this.reservationRepository = reservationRepository;
+        this.productService = productService;
+        this.inventoryTransactionService = inventoryTransactionService;
+        this.mongoTemplate = mongoTemplate;
+        this.committedStockIndex = committedStockIndex;
+        this.lotService = lotService;
+        this.holdTtl = Duration.ofMinutes(ttlMinutes);
+        this.expiryWheel = new TimingWheel<>("reservation-expiry", Duration.ofSeconds(1), 512, this::expire);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<StockReservation> active = reservationRepository.findByStatus(ReservationStatus.ACTIVE);
+        active.forEach(this::track);
+        expiryWheel.start();
+        log.info("Rebuilt {} active stock reservations", active.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.close();
+    }
+
+    /**
+     * Places holds for every item of the delivery, or none of them if any SKU is short. Each
+     * item is allocated to lots first-expired-first-out and the allocation recorded on it.
+     * The products are read, and the lot changes written, once for the whole delivery.
+     */
+    public List<StockReservation> reserve(Delivery delivery) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DeliveryItem> items = delivery.getItems();
+        Map<String, Product> products = new HashMap<>();
+        productService.getProductsBySkus(items.stream().map(DeliveryItem::getSku).distinct().toList())
+                .forEach(product -> products.put(product.getSku(), product));
+
+        List<DeliveryItem> held = new ArrayList<>();
+        try {
+            for (DeliveryItem item : items) {
+                Product product = products.get(item.getSku());
+                if (product == null) {
+                    throw new RuntimeException("Product not found with SKU: " + item.getSku());
+                }
+                hold(product, item.getQuantity());
+                held.add(item);
+            }
+        } catch (RuntimeException e) {
+            held.forEach(item -> unhold(item.getSku(), item.getQuantity()));
+            throw e;
+        }
+
+        List<List<LotAllocation>> allocations;
+        try {
+            allocations = lotService.allocateItems(items);
+        } catch (RuntimeException e) {
+            held.forEach(item -> unhold(item.getSku(), item.getQuantity()));
+            throw e;
+        }
+        List<StockReservation> reservations = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            DeliveryItem item = items.get(i);
+            Product product = products.get(item.getSku());
+            item.setLotAllocations(allocations.get(i));
+
+            StockReservation reservation = new StockReservation();
+            reservation.setDeliveryId(delivery.getId());
+            reservation.setProductId(product.getId());
+            reservation.setSku(product.getSku());
+            reservation.setQuantity(item.getQuantity());
+            reservation.setLotAllocations(allocations.get(i));
+            reservation.setStatus(ReservationStatus.ACTIVE);
+            reservation.setExpiresAt(now.plus(holdTtl));
+            reservation.setCreatedAt(now);
+            reservation.setUpdatedAt(now);
+            reservations.add(reservation);
+        }
+
+        List<StockReservation> saved;
+        try {
+            saved = reservationRepository.insert(reservations);
+        } catch (RuntimeException e) {
+            reservations.forEach(this::unholdAndRestore);
+            throw e;
+        }
+        saved.forEach(this::schedule);
+        return saved;
+    }
+
+    /**
+     * Turns the delivery's holds into STOCK_OUT movements. Items whose holds already lapsed
+     * are taken directly. Stock this delivery already took out (by an earlier attempt that
+     * failed part way, or at assignment before reservations existed) is not taken again, and
+     * if a step fails the holds are tracked again so the commit can be retried.
+     */
+    public void commit(Delivery delivery) {
+        List<StockReservation> active = untrackDelivery(delivery.getId());
+        if (active.isEmpty() && reservationRepository.existsByDeliveryIdAndStatus(delivery.getId(),
+                ReservationStatus.COMMITTED)) {
+            return;
+        }
+
+        Map<String, Integer> takenOut = stockedOut(delivery.getId());
+        Map<String, Integer> covered = new HashMap<>();
+        int unheld = 0;
+        try {
+            for (StockReservation reservation : active) {
+                if (!consume(takenOut, reservation.getSku(), reservation.getQuantity())) {
+                    stockOut(delivery, reservation.getProductId(), reservation.getSku(), reservation.getQuantity());
+                }
+                unhold(reservation.getSku(), reservation.getQuantity());
+                unheld++;
+                covered.merge(reservation.getSku(), reservation.getQuantity(), Integer::sum);
+            }
+            for (DeliveryItem item : delivery.getItems()) {
+                int fromHolds = Math.min(covered.getOrDefault(item.getSku(), 0), item.getQuantity());
+                covered.merge(item.getSku(), -fromHolds, Integer::sum);
+                int direct = item.getQuantity() - fromHolds;
+                if (direct > 0 && !consume(takenOut, item.getSku(), direct)) {
+                    takeDirectly(delivery, item, fromHolds, direct);
+                }
+            }
+            if (!active.isEmpty()) {
+                updateStatus(ids(active), ReservationStatus.ACTIVE, ReservationStatus.COMMITTED);
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < active.size(); i++) {
+                if (i < unheld) {
+                    track(active.get(i));
+                } else {
+                    schedule(active.get(i));
+                }
+            }
+            throw e;
+        }
+    }
+
+    public void release(String deliveryId) {
+        List<StockReservation> active = untrackDelivery(deliveryId);
+        if (active.isEmpty()) {
+            return;
+        }
+        active.forEach(this::unholdAndRestore);
+        updateStatus(ids(active), ReservationStatus.ACTIVE, ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Re-reserves a pending delivery after its items changed, keeping the old holds if the
+     * new quantities cannot be covered.
+     */
+    public void replace(Delivery delivery, List<DeliveryItem> previousItems) {
+        release(delivery.getId());
+        try {
+            reserve(delivery);
+        } catch (RuntimeException e) {
+            List<DeliveryItem> requested = delivery.getItems();
+            delivery.setItems(previousItems);
+            try {
+                reserve(delivery);
+            } finally {
+                delivery.setItems(requested);
+            }
+            throw e;
+        }
+    }
+
+    public int getHeldQuantity(String sku) {
+        AtomicInteger held = heldBySku.get(sku);
+        return held != null ? held.get() : 0;
+    }
+
+    public int getAvailableToPromise(String sku) {
+        Product product = productService.getProductBySku(sku);
+        return product.getQuantity() - getHeldQuantity(sku);
+    }
+
+    public ProductAvailability getAvailability(String productId) {
+        Product product = productService.getProductById(productId);
+        int held = getHeldQuantity(product.getSku());
+        return ProductAvailability.builder()
+                .productId(product.getId())
+                .sku(product.getSku())
+                .onHand(product.getQuantity())
+                .held(held)
+                .committed(committedStockIndex.getCommittedQuantity(product.getSku()))
+                .available(product.getQuantity() - held)
+                .build();
+    }
+
+    private void hold(Product product, int quantity) {
+        AtomicInteger held = heldBySku.computeIfAbsent(product.getSku(), sku -> new AtomicInteger());
+        int current;
+        do {
+            current = held.get();
+            int available = product.getQuantity() - current;
+            if (quantity > available) {
+                throw new RuntimeException("Insufficient stock for SKU " + product.getSku()
+                        + ": requested " + quantity + ", available " + Math.max(available, 0));
+            }
+        } while (!held.compareAndSet(current, current + quantity));
+    }
+
+    private void unhold(String sku, int quantity) {
+        AtomicInteger held = heldBySku.get(sku);
+        if (held != null) {
+            held.addAndGet(-quantity);
+        }
+    }
+
+    private void unholdAndRestore(StockReservation reservation) {
+        unhold(reservation.getSku(), reservation.getQuantity());
+        lotService.restore(reservation.getLotAllocations());
+    }
+
+    private void track(StockReservation reservation) {
+        heldBySku.computeIfAbsent(reservation.getSku(), sku -> new AtomicInteger()).addAndGet(reservation.getQuantity());
+        schedule(reservation);
+    }
+
+    private void schedule(StockReservation reservation) {
+        activeReservations.put(reservation.getId(), reservation);
+        activeByDelivery.computeIfAbsent(reservation.getDeliveryId(), id -> ConcurrentHashMap.newKeySet())
+                .add(reservation.getId());
+        expiryTimers.put(reservation.getId(), expiryWheel.schedule(reservation.getId(),
+                reservation.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    private List<StockReservation> untrackDelivery(String deliveryId) {
+        Set<String> reservationIds = activeByDelivery.remove(deliveryId);
+        if (reservationIds == null) {
+            return List.of();
+        }
+        List<StockReservation> untracked = new ArrayList<>();
+        for (String reservationId : reservationIds) {
+            StockReservation reservation = untrack(reservationId);
+            if (reservation != null) {
+                untracked.add(reservation);
+            }
+        }
+        return untracked;
+    }
+
+    private StockReservation untrack(String reservationId) {
+        // Whoever removes the reservation first (commit, release or expiry) owns the transition
+        StockReservation reservation = activeReservations.remove(reservationId);
+        TimingWheel.Timeout<String> timer = expiryTimers.remove(reservationId);
+        if (timer != null) {
+            timer.cancel();
+        }
+        return reservation;
+    }
+
+    private void expire(List<String> reservationIds) {
+        List<String> expired = new ArrayList<>();
+        for (String reservationId : reservationIds) {
+            StockReservation reservation = untrack(reservationId);
+            if (reservation != null) {
+                unholdAndRestore(reservation);
+                activeByDelivery.computeIfPresent(reservation.getDeliveryId(), (deliveryId, siblings) -> {
+                    siblings.remove(reservationId);
+                    return siblings.isEmpty() ? null : siblings;
+                });
+                expired.add(reservationId);
+            }
+        }
+        if (!expired.isEmpty()) {
+            updateStatus(expired, ReservationStatus.ACTIVE, ReservationStatus.EXPIRED);
+            log.info("Expired {} stock reservations", expired.size());
+        }
+    }
+
+    private void updateStatus(Collection<String> reservationIds, ReservationStatus from, ReservationStatus to) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(reservationIds).and("status").is(from)),
+                new Update().set("status", to).set("updatedAt", LocalDateTime.now()),
+                StockReservation.class);
+    }
+
+    private Map<String, Integer> stockedOut(String deliveryId) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (InventoryTransaction transaction : inventoryTransactionService.getTransactionsByDeliveryId(deliveryId)) {
+            if (transaction.getType() == TransactionType.STOCK_OUT) {
+                quantities.merge(transaction.getSku(), transaction.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+
+    private static boolean consume(Map<String, Integer> takenOut, String sku, int quantity) {
+        int available = takenOut.getOrDefault(sku, 0);
+        if (available < quantity) {
+            return false;
+        }
+        takenOut.put(sku, available - quantity);
+        return true;
+    }
+
+    private void takeDirectly(Delivery delivery, DeliveryItem item, int fromHolds, int quantity) {
+        Product product = productService.getProductBySku(item.getSku());
+        List<LotAllocation> taken = lotService.allocate(product.getSku(), quantity);
+        try {
+            stockOut(delivery, product.getId(), product.getSku(), quantity);
+        } catch (RuntimeException e) {
+            lotService.restore(taken);
+            throw e;
+        }
+        List<LotAllocation> allocations = new ArrayList<>(fromHolds > 0 && item.getLotAllocations() != null
+                ? item.getLotAllocations() : List.of());
+        allocations.addAll(taken);
+        item.setLotAllocations(allocations);
+    }
+
+    private void stockOut(Delivery delivery, String productId, String sku, int quantity) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId(productId);
+        transaction.setSku(sku);
+        transaction.setType(TransactionType.STOCK_OUT);
+        transaction.setQuantity(quantity);
+        transaction.setUserId(delivery.getDeliveryAgentId()); // The delivery agent
+        transaction.setDeliveryId(delivery.getId());
+        transaction.setNotes("Dispatched for delivery #" + delivery.getId());
+        transaction.setTimestamp(LocalDateTime.now());
+
+        inventoryTransactionService.createTransaction(transaction);
+    }
+
+    private static List<String> ids(List<StockReservation> reservations) {
+        return reservations.stream().map(StockReservation::getId).toList();
+    }
+}
@@ -0,0 +1,225 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.DeliveryChangedEvent;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.RouteSheet;
+import com.devcoders.dlvery.model.RouteStop;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputed daily manifests, one document per agent and date in route_sheets, so the
+ * shift-start refresh of every agent is a cache hit instead of a deliveries query each.
+ * Sheets are built nightly or on demand. A DeliveryChangedEvent costs no Mongo commands: it
+ * marks the sheets that carried and now carry the delivery dirty, and a dirty sheet is rebuilt,
+ * with a new version and so a new ETag, the next time it is read.
+ *
+ * <p>Dirty marks are stamped from one sequence. A build clears a mark only if it was made
+ * before the build started reading, so a change that lands during a build leaves the sheet
+ * dirty. Like the cache, the marks live on this node, so sheets written by an earlier run are
+ * rebuilt on first read instead of trusted.
+ */
+@Slf4j
+@Service
+public class RouteSheetService {
+
+    static final String CACHE_NAME = "routeSheets";
+
+    private static final Comparator<RouteStop> STOP_ORDER = Comparator
+            .comparingInt(RouteStop::getRank)
+            .thenComparing(RouteStop::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RouteStop::getDeliveryId);
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache cache;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> dirty = new HashMap<>();  // Sheet id to when it was marked
+    private final Map<String, String> sheetOfDelivery = new HashMap<>();  // Delivery id to sheet id
+
+    public RouteSheetService(MongoTemplate mongoTemplate, CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * The agent's sheet for the date, built on first use and rebuilt once dirty.
+     */
+    public RouteSheet getSheet(String agentId, LocalDate date) {
+        String id = RouteSheet.idOf(agentId, date);
+        if (!isDirty(id)) {
+            RouteSheet cached = cache.get(id, RouteSheet.class);
+            if (cached != null) {
+                return cached;
+            }
+            RouteSheet stored = mongoTemplate.findById(id, RouteSheet.class);
+            if (stored != null && !stored.getBuiltAt().isBefore(startedAt)) {
+                cache.put(id, stored);
+                return stored;
+            }
+        }
+        return build(agentId, date);
+    }
+
+    /**
+     * Builds the sheets of every agent with deliveries on the date.
+     *
+     * @return the number of sheets written
+     */
+    public int buildAll(LocalDate date) {
+        long buildStarted = sequence.get();
+        Query query = new Query(Criteria.where("scheduledDate").is(date).and("deliveryAgentId").ne(null));
+        query.fields().exclude("customerSignature");
+        Map<String, List<RouteStop>> stopsByAgent = new HashMap<>();
+        for (Delivery delivery : mongoTemplate.find(query, Delivery.class)) {
+            stopsByAgent.computeIfAbsent(delivery.getDeliveryAgentId(), agent -> new ArrayList<>())
+                    .add(toStop(delivery));
+        }
+        if (stopsByAgent.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RouteSheet.class);
+        List<RouteSheet> sheets = new ArrayList<>();
+        stopsByAgent.forEach((agentId, stops) -> {
+            RouteSheet sheet = newSheet(agentId, date, stops);
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(sheet.getId())), sheet,
+                    FindAndReplaceOptions.options().upsert());
+            sheets.add(sheet);
+        });
+        bulk.execute();
+        sheets.forEach(sheet -> settle(sheet, buildStarted));
+        log.info("Built {} route sheets for {}", sheets.size(), date);
+        return sheets.size();
+    }
+
+    @Scheduled(cron = "${app.routes.build-cron:0 30 4 * * *}")
+    public void buildToday() {
+        buildAll(LocalDate.now());
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void dropPastSheets() {
+        LocalDate today = LocalDate.now();
+        mongoTemplate.remove(Query.query(Criteria.where("date").lt(today)), RouteSheet.class);
+        synchronized (this) {
+            dirty.keySet().removeIf(id -> dateOf(id).isBefore(today));
+            sheetOfDelivery.values().removeIf(id -> dateOf(id).isBefore(today));
+        }
+        cache.clear();
+    }
+
+    @EventListener
+    public void onDeliveryChanged(DeliveryChangedEvent event) {
+        Delivery delivery = event.delivery();
+        String current = event.deleted() || delivery.getDeliveryAgentId() == null
+                || delivery.getScheduledDate() == null
+                ? null
+                : RouteSheet.idOf(delivery.getDeliveryAgentId(), delivery.getScheduledDate());
+
+        String previous;
+        synchronized (this) {
+            // The sheet that carried the stop, e.g. before a reassignment
+            previous = current != null
+                    ? sheetOfDelivery.put(delivery.getId(), current)
+                    : sheetOfDelivery.remove(delivery.getId());
+            if (previous != null) {
+                markDirty(previous);
+            }
+            if (current != null) {
+                markDirty(current);
+            }
+        }
+        if (previous != null) {
+            cache.evict(previous);
+        }
+        if (current != null && !current.equals(previous)) {
+            cache.evict(current);
+        }
+    }
+
+    private RouteSheet build(String agentId, LocalDate date) {
+        long buildStarted = sequence.get();
+        Query query = new Query(Criteria.where("scheduledDate").is(date).and("deliveryAgentId").is(agentId));
+        query.fields().exclude("customerSignature");
+        List<RouteStop> stops = mongoTemplate.find(query, Delivery.class).stream().map(this::toStop).toList();
+        RouteSheet sheet = mongoTemplate.save(newSheet(agentId, date, stops));
+        settle(sheet, buildStarted);
+        return sheet;
+    }
+
+    /**
+     * Clears the sheet's dirty mark and caches it, unless a delivery changed since the build
+     * started reading. A stop already known to be on another sheet means the delivery moved
+     * after it was read, so the sheet stays dirty then too.
+     */
+    private void settle(RouteSheet sheet, long buildStarted) {
+        synchronized (this) {
+            Long markedAt = dirty.get(sheet.getId());
+            boolean moved = sheet.getStops().stream().anyMatch(stop -> {
+                String known = sheetOfDelivery.get(stop.getDeliveryId());
+                return known != null && !known.equals(sheet.getId());
+            });
+            if ((markedAt != null && markedAt > buildStarted) || moved) {
+                markDirty(sheet.getId());
+                return;
+            }
+            dirty.remove(sheet.getId());
+            sheet.getStops().forEach(stop -> sheetOfDelivery.put(stop.getDeliveryId(), sheet.getId()));
+        }
+        cache.put(sheet.getId(), sheet);
+    }
+
+    private void markDirty(String id) {
+        dirty.put(id, sequence.incrementAndGet());
+    }
+
+    private synchronized boolean isDirty(String id) {
+        return dirty.containsKey(id);
+    }
+
+    private static LocalDate dateOf(String id) {
+        return LocalDate.parse(id.substring(id.lastIndexOf(':') + 1));
+    }
+
+    private RouteSheet newSheet(String agentId, LocalDate date, List<RouteStop> stops) {
+        List<RouteStop> ordered = new ArrayList<>(stops);
+        ordered.sort(STOP_ORDER);
+        RouteSheet sheet = new RouteSheet();
+        sheet.setId(RouteSheet.idOf(agentId, date));
+        sheet.setAgentId(agentId);
+        sheet.setDate(date);
+        // A rebuilt sheet must never reuse an ETag, so versions start from the build time
+        sheet.setVersion(System.currentTimeMillis());
+        sheet.setStops(ordered);
+        sheet.setBuiltAt(LocalDateTime.now());
+        return sheet;
+    }
+
+    private RouteStop toStop(Delivery delivery) {
+        return new RouteStop(delivery.getId(), DispatchQueue.rank(delivery.getPriority()),
+                delivery.getDeliveryAgentId(), delivery.getItems(), delivery.getCustomerName(),
+                delivery.getCustomerAddress(), delivery.getCustomerPhone(), delivery.getLocation(),
+                delivery.getStatus(), delivery.getPriority(), delivery.getScheduledDate(), delivery.getDeliveredAt(),
+                delivery.getNotes(), delivery.getCreatedAt(), delivery.getUpdatedAt());
+    }
+}
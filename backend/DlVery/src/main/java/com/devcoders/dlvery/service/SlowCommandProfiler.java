@@ -0,0 +1,466 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.SlowCommand;
+import com.devcoders.dlvery.dto.SlowCommandShape;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-app slow query log fed by the Mongo driver's command events. Commands slower than the
+ * threshold are kept in a bounded ring with their normalized shape, duration, result size and
+ * the repository method and application frame that issued them, and are aggregated by shape.
+ * The first time a query shape turns up slow, its plan is captured with explain.
+ * <p>
+ * The driver's command document is only valid during commandStarted, and copying every query
+ * would cost each command an allocation before its duration is known. At start only the command
+ * name and collection are kept. A slow command is first recorded under that coarse shape,
+ * {@code {"find": "deliveries"}}, and its command and collection are then sampled: the next few
+ * query commands on them are copied, so the following slow ones carry their full shape.
+ * <p>
+ * The sync driver raises command events on the calling thread, so the caller is read from the
+ * stack when a command completes; it is only walked for slow commands.
+ */
+@Slf4j
+@Service
+public class SlowCommandProfiler implements CommandListener {
+
+    private static final String APP_PACKAGE = "com.devcoders.dlvery.";
+
+    // Commands whose filter decides the plan; their text is kept until they complete while sampled
+    private static final Set<String> QUERY_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+
+    // Session, transaction and routing fields added by the driver; explain rejects some of them
+    private static final Set<String> DRIVER_FIELDS = Set.of("$db", "lsid", "$clusterTime", "txnNumber",
+            "autocommit", "startTransaction", "$readPreference", "readConcern", "writeConcern", "apiVersion",
+            "apiStrict", "apiDeprecationErrors", "maxTimeMS", "comment");
+
+    // Field names and sort/projection specs are part of the shape, not values
+    private static final Set<String> LITERAL_KEYS = Set.of("sort", "projection", "key", "$sort", "$project",
+            "$unset", "$count", "from", "localField", "foreignField", "as");
+
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final long thresholdMs;
+    private final int bufferSize;
+    private final int maxShapes;
+    private final int sampleSize;
+    private final boolean explain;
+    private final Executor explainExecutor;
+
+    private final ConcurrentMap<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> recent = new ArrayDeque<>();
+    private final ConcurrentMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> samples = new ConcurrentHashMap<>();  // Copies left
+
+    @Autowired
+    public SlowCommandProfiler(ObjectProvider<MongoTemplate> mongoTemplate,
+                               @Value("${app.mongo.profiler.threshold-ms:100}") long thresholdMs,
+                               @Value("${app.mongo.profiler.buffer-size:500}") int bufferSize,
+                               @Value("${app.mongo.profiler.max-shapes:200}") int maxShapes,
+                               @Value("${app.mongo.profiler.sample-size:20}") int sampleSize,
+                               @Value("${app.mongo.profiler.explain:true}") boolean explain) {
+        this(mongoTemplate, thresholdMs, bufferSize, maxShapes, sampleSize, explain, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mongo-explain");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    SlowCommandProfiler(ObjectProvider<MongoTemplate> mongoTemplate, long thresholdMs, int bufferSize,
+                        int maxShapes, int sampleSize, boolean explain, Executor explainExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.thresholdMs = thresholdMs;
+        this.bufferSize = bufferSize;
+        this.maxShapes = maxShapes;
+        this.sampleSize = sampleSize;
+        this.explain = explain;
+        this.explainExecutor = explainExecutor;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (commandName.equals("explain")) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        String collection = collectionOf(commandName, command);
+        // The event's document is only valid during the callback, so sampled query commands are copied
+        BsonDocument query = QUERY_COMMANDS.contains(commandName) && takeSample(commandName, collection)
+                ? copyWithoutDriverFields(command)
+                : null;
+        pending.put(event.getRequestId(), new Pending(Instant.now(), collection, query));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Pending started = pending.remove(event.getRequestId());
+        long durationMs = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (started == null || durationMs < thresholdMs) {
+            return;
+        }
+        record(event.getDatabaseName(), event.getCommandName(), started, durationMs,
+                docsReturned(event.getResponse()), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Pending started = pending.remove(event.getRequestId());
+        long durationMs = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (started == null || durationMs < thresholdMs) {
+            return;
+        }
+        record(event.getDatabaseName(), event.getCommandName(), started, durationMs, 0,
+                event.getThrowable().getMessage());
+    }
+
+    /**
+     * The most recent slow commands, newest first.
+     */
+    public List<SlowCommand> getRecent(int limit) {
+        synchronized (recent) {
+            return recent.stream().limit(Math.max(0, limit)).toList();
+        }
+    }
+
+    /**
+     * Slow commands aggregated by shape, the most total time first.
+     */
+    public List<SlowCommandShape> getShapes() {
+        return shapes.values().stream()
+                .map(ShapeStats::snapshot)
+                .sorted(Comparator.comparingLong(SlowCommandShape::getTotalMs).reversed())
+                .toList();
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        shapes.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (explainExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void record(String database, String commandName, Pending started, long durationMs,
+                        long docsReturned, String error) {
+        if (QUERY_COMMANDS.contains(commandName)) {
+            samples.computeIfAbsent(sampleKey(commandName, started.collection()), key -> new AtomicInteger())
+                    .set(sampleSize);
+        }
+        String shape = shapeOf(commandName, started.collection(), started.query());
+        String[] caller = callerOf();
+        SlowCommand slow = new SlowCommand(started.startedAt(), database, started.collection(), commandName, shape,
+                durationMs, docsReturned, caller[0], caller[1], error);
+        synchronized (recent) {
+            if (recent.size() >= bufferSize) {
+                recent.removeLast();
+            }
+            recent.addFirst(slow);
+        }
+
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                log.debug("Slow command shape limit of {} reached, not aggregating {}", maxShapes, shape);
+                return;
+            }
+            ShapeStats created = new ShapeStats(shape, started.collection(), commandName);
+            stats = shapes.putIfAbsent(shape, created);
+            if (stats == null) {
+                stats = created;
+                if (explain && started.query() != null) {
+                    explainLater(database, started.query(), created);
+                }
+            }
+        }
+        stats.add(slow);
+    }
+
+    private void explainLater(String database, BsonDocument query, ShapeStats stats) {
+        explainExecutor.execute(() -> {
+            try {
+                MongoTemplate template = mongoTemplate.getObject();
+                BsonDocument command = new BsonDocument("explain", query)
+                        .append("verbosity", new BsonString("queryPlanner"));
+                Document result = template.getMongoDatabaseFactory().getMongoDatabase(database).runCommand(command);
+                Document queryPlanner = result.get("queryPlanner", Document.class);
+                if (queryPlanner == null) {
+                    // Aggregations report the plan of their leading $cursor stage
+                    queryPlanner = findQueryPlanner(result);
+                }
+                stats.setExplain(queryPlanner, queryPlanner != null ? describePlan(queryPlanner) : null);
+            } catch (Exception e) {
+                log.warn("Could not explain slow command shape {}: {}", stats.shape, e.getMessage());
+            }
+        });
+    }
+
+    static String shapeOf(String commandName, String collection, BsonDocument query) {
+        BsonDocument shape = new BsonDocument(commandName, collection != null ? new BsonString(collection) : PLACEHOLDER);
+        if (query == null) {
+            return shape.toJson();
+        }
+        switch (commandName) {
+            case "find" -> copyShaped(query, shape, "filter", "sort", "projection");
+            case "aggregate" -> copyShaped(query, shape, "pipeline");
+            case "count", "findAndModify" -> copyShaped(query, shape, "query", "sort", "update");
+            case "distinct" -> copyShaped(query, shape, "key", "query");
+            case "update", "delete" -> {
+                // Only the first statement of a bulk write, so the batch size does not change the shape
+                String statements = commandName.equals("update") ? "updates" : "deletes";
+                BsonArray array = query.getArray(statements, new BsonArray());
+                if (!array.isEmpty() && array.get(0).isDocument()) {
+                    BsonDocument statement = new BsonDocument();
+                    copyShaped(array.get(0).asDocument(), statement, "q", "u", "multi", "upsert");
+                    shape.append(statements, new BsonArray(List.of(statement)));
+                }
+            }
+            default -> {
+            }
+        }
+        return shape.toJson();
+    }
+
+    private static void copyShaped(BsonDocument source, BsonDocument target, String... keys) {
+        for (String key : keys) {
+            BsonValue value = source.get(key);
+            if (value != null) {
+                target.append(key, LITERAL_KEYS.contains(key) ? value : normalize(value));
+            }
+        }
+    }
+
+    static BsonValue normalize(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shaped = new BsonDocument();
+            value.asDocument().forEach((key, child) ->
+                    shaped.append(key, LITERAL_KEYS.contains(key) ? child : normalize(child)));
+            return shaped;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            // A list of values ($in, $all) is one placeholder whatever its length
+            if (array.stream().noneMatch(item -> item.isDocument() || item.isArray())) {
+                return new BsonArray(List.of(PLACEHOLDER));
+            }
+            BsonArray shaped = new BsonArray();
+            array.forEach(item -> shaped.add(normalize(item)));
+            return shaped;
+        }
+        // "$field" paths and "$$variables" are structure
+        if (value.isString() && value.asString().getValue().startsWith("$")) {
+            return value;
+        }
+        return PLACEHOLDER;
+    }
+
+    static String describePlan(Document queryPlanner) {
+        Document plan = queryPlanner.get("winningPlan", Document.class);
+        if (plan == null) {
+            return null;
+        }
+        // Slot-based engine plans wrap the classic plan tree
+        if (plan.get("queryPlan") instanceof Document queryPlan) {
+            plan = queryPlan;
+        }
+        List<String> stages = new ArrayList<>();
+        describeStage(plan, stages);
+        return String.join(" > ", stages);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void describeStage(Document stage, List<String> stages) {
+        String name = stage.getString("stage");
+        String index = stage.getString("indexName");
+        stages.add(index != null ? name + "(" + index + ")" : name);
+        if (stage.get("inputStage") instanceof Document input) {
+            describeStage(input, stages);
+        } else if (stage.get("inputStages") instanceof List<?> inputs) {
+            List<String> branches = new ArrayList<>();
+            for (Object input : (List<Object>) inputs) {
+                if (input instanceof Document document) {
+                    List<String> branch = new ArrayList<>();
+                    describeStage(document, branch);
+                    branches.add(String.join(" > ", branch));
+                }
+            }
+            stages.add("[" + String.join(" | ", branches) + "]");
+        }
+    }
+
+    private static Document findQueryPlanner(Object value) {
+        if (value instanceof Document document) {
+            if (document.get("queryPlanner") instanceof Document queryPlanner) {
+                return queryPlanner;
+            }
+            for (Object child : document.values()) {
+                Document found = findQueryPlanner(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (value instanceof List<?> list) {
+            for (Object child : list) {
+                Document found = findQueryPlanner(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean takeSample(String commandName, String collection) {
+        AtomicInteger left = samples.get(sampleKey(commandName, collection));
+        return left != null && left.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+    }
+
+    private static String sampleKey(String commandName, String collection) {
+        return commandName + " " + collection;
+    }
+
+    private static BsonDocument copyWithoutDriverFields(BsonDocument command) {
+        BsonDocument filtered = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!DRIVER_FIELDS.contains(key)) {
+                filtered.append(key, value);
+            }
+        });
+        // Decoding through a reader makes a deep copy that no longer refers to the driver's buffer
+        return CODEC.decode(new BsonDocumentReader(filtered), DecoderContext.builder().build());
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName.equals("getMore") ? "collection" : commandName);
+        return target != null && target.isString() ? target.asString().getValue() : null;
+    }
+
+    private static long docsReturned(BsonDocument response) {
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray batch = cursor.getArray("firstBatch", cursor.getArray("nextBatch", new BsonArray()));
+            return batch.size();
+        }
+        if (response.isArray("values")) {
+            return response.getArray("values").size();
+        }
+        if (response.containsKey("value")) {
+            return response.get("value").isNull() ? 0 : 1;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    // [repository method, application frame]
+    private static String[] callerOf() {
+        return STACK_WALKER.walk(frames -> {
+            String repositoryMethod = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (Proxy.isProxyClass(type)) {
+                    Optional<Class<?>> repository = List.of(type.getInterfaces()).stream()
+                            .filter(candidate -> candidate.getName().startsWith(APP_PACKAGE))
+                            .findFirst();
+                    if (repository.isPresent()) {
+                        repositoryMethod = repository.get().getSimpleName() + "." + frame.getMethodName();
+                    }
+                } else if (type.getName().startsWith(APP_PACKAGE) && type != SlowCommandProfiler.class) {
+                    return new String[]{repositoryMethod, type.getSimpleName() + "." + frame.getMethodName()
+                            + ":" + frame.getLineNumber()};
+                }
+            }
+            return new String[]{repositoryMethod, null};
+        });
+    }
+
+    private record Pending(Instant startedAt, String collection, BsonDocument query) {
+    }
+
+    private static class ShapeStats {
+
+        private final String shape;
+        private final String collection;
+        private final String commandName;
+        private long count;
+        private long totalMs;
+        private long maxMs;
+        private long totalDocsReturned;
+        private Instant lastSeen;
+        private String repositoryMethod;
+        private String caller;
+        private String plan;
+        private Map<String, Object> explain;
+
+        ShapeStats(String shape, String collection, String commandName) {
+            this.shape = shape;
+            this.collection = collection;
+            this.commandName = commandName;
+        }
+
+        synchronized void add(SlowCommand command) {
+            count++;
+            totalMs += command.getDurationMs();
+            maxMs = Math.max(maxMs, command.getDurationMs());
+            totalDocsReturned += command.getDocsReturned();
+            lastSeen = command.getStartedAt();
+            repositoryMethod = command.getRepositoryMethod();
+            caller = command.getCaller();
+        }
+
+        synchronized void setExplain(Map<String, Object> explain, String plan) {
+            this.explain = explain;
+            this.plan = plan;
+        }
+
+        synchronized SlowCommandShape snapshot() {
+            return new SlowCommandShape(shape, collection, commandName, count, totalMs, maxMs,
+                    count > 0 ? (double) totalMs / count : 0, totalDocsReturned, lastSeen, repositoryMethod, caller,
+                    plan, explain);
+        }
+    }
+}
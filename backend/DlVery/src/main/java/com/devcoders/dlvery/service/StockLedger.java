@@ -0,0 +1,455 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.model.TransactionType;
+import com.mongodb.ErrorCategory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional high-throughput stock mode. Each product's on-hand quantity is held in its own
+ * atomic counter and movements are validated with a non-negative compare-and-set, so hot
+ * SKUs never contend on a Mongo read-modify-write. Movements share the product's lock in read
+ * mode; only a direct overwrite of the quantity takes it exclusively. Movements are
+ * acknowledged once queued and written behind in periodic batches: the transactions are
+ * inserted first as a log (pendingApply = true), then the quantity changes are applied
+ * as one coalesced $inc per product, guarded by a flush sequence so a replay is idempotent.
+ * Lots opened or drawn down by the movements travel in the log too and are written the same way.
+ * Only suitable for a single application node owning the inventory.
+ */
+@Slf4j
+@Component
+public class StockLedger implements InitializingBean {
+
+    private record PendingMovement(InventoryTransaction transaction, String productId, int quantityChange,
+                                   boolean damaged) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+
+    private final Map<String, AtomicInteger> onHand = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantReadWriteLock> productLocks = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingMovement> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean replayRequired;
+
+    public StockLedger(MongoTemplate mongoTemplate,
+                       @Value("${app.inventory.ledger.enabled:false}") boolean enabled,
+                       @Value("${app.inventory.ledger.max-batch-size:1000}") int maxBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        recover();
+    }
+
+    /**
+     * Applies a quantity change to the in-memory counter, rejecting it if stock would go negative.
+     */
+    public int apply(String productId, int quantityChange) {
+        AtomicInteger counter = counterFor(productId);
+        int current;
+        int next;
+        do {
+            current = counter.get();
+            next = current + quantityChange;
+            if (next < 0) {
+                throw new RuntimeException("Cannot reduce quantity below zero");
+            }
+        } while (!counter.compareAndSet(current, next));
+        return next;
+    }
+
+    /**
+     * Applies a movement to the counter and queues it for the next write-behind flush, as one
+     * step with respect to {@link #overwrite}.
+     */
+    public InventoryTransaction record(InventoryTransaction transaction, int quantityChange, boolean damaged) {
+        return record(transaction, quantityChange, damaged, () -> {
+        });
+    }
+
+    /**
+     * Same as {@link #record(InventoryTransaction, int, boolean)}, running onApplied once the
+     * counter has accepted the movement and before it is queued, e.g. to attach its lot changes.
+     */
+    public InventoryTransaction record(InventoryTransaction transaction, int quantityChange, boolean damaged,
+                                       Runnable onApplied) {
+        Lock lock = lockFor(transaction.getProductId()).readLock();
+        lock.lock();
+        try {
+            apply(transaction.getProductId(), quantityChange);
+            try {
+                onApplied.run();
+            } catch (RuntimeException e) {
+                onHand.get(transaction.getProductId()).addAndGet(-quantityChange);
+                throw e;
+            }
+            return append(transaction, quantityChange, damaged);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a movement already applied with {@link #apply} for the next write-behind flush.
+     */
+    public InventoryTransaction append(InventoryTransaction transaction, int quantityChange, boolean damaged) {
+        if (transaction.getId() == null) {
+            transaction.setId(new ObjectId().toHexString());
+        }
+        transaction.setPendingApply(true);
+        pending.add(new PendingMovement(transaction, transaction.getProductId(), quantityChange, damaged));
+        pendingCount.incrementAndGet();
+        return transaction;
+    }
+
+    /**
+     * Applies a change that has no transaction record straight to Mongo, keeping the counter in step.
+     */
+    public int applyImmediately(String productId, int quantityChange) {
+        Lock lock = lockFor(productId).readLock();
+        lock.lock();
+        try {
+            int quantity = apply(productId, quantityChange);
+            try {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(productId)),
+                        new Update().inc("quantity", quantityChange).set("updatedAt", LocalDate.now()),
+                        Product.class);
+            } catch (RuntimeException e) {
+                onHand.get(productId).addAndGet(-quantityChange);
+                throw e;
+            }
+            return quantity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Overwrites a product's stored quantity. Queued movements are flushed first so they are not
+     * applied on top of the new value, and no movement for the product is accepted until the
+     * counter has been reset to what was saved.
+     */
+    public <T extends Product> T overwrite(String productId, Supplier<T> save) {
+        Lock lock = lockFor(productId).writeLock();
+        lock.lock();
+        try {
+            flush();
+            T saved = save.get();
+            reset(productId, saved.getQuantity());
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Integer getQuantity(String productId) {
+        AtomicInteger counter = onHand.get(productId);
+        return counter != null ? counter.get() : null;
+    }
+
+    /**
+     * Replaces the counter. Outside of {@link #overwrite} only for seeding counters.
+     */
+    public void reset(String productId, int quantity) {
+        onHand.computeIfAbsent(productId, id -> new AtomicInteger()).set(quantity);
+    }
+
+    public void forget(String productId) {
+        onHand.remove(productId);
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (replayRequired) {
+                replayPendingLog();
+                replayRequired = false;
+            }
+            while (!pending.isEmpty()) {
+                List<PendingMovement> batch = drain();
+                if (!writeBatch(batch)) {
+                    break;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<PendingMovement> drain() {
+        List<PendingMovement> batch = new ArrayList<>(Math.min(maxBatchSize, pendingCount.get()));
+        PendingMovement movement;
+        while (batch.size() < maxBatchSize && (movement = pending.poll()) != null) {
+            batch.add(movement);
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private boolean writeBatch(List<PendingMovement> batch) {
+        long batchSequence = sequence.incrementAndGet();
+        List<InventoryTransaction> transactions = new ArrayList<>(batch.size());
+        for (PendingMovement movement : batch) {
+            movement.transaction().setLedgerSequence(batchSequence);
+            transactions.add(movement.transaction());
+        }
+
+        try {
+            logTransactions(transactions);
+        } catch (RuntimeException e) {
+            // Not all of them were logged, keep the movements for the next flush
+            log.error("Stock ledger flush failed, {} movements will be retried: {}", batch.size(), e.getMessage());
+            pending.addAll(batch);
+            pendingCount.addAndGet(batch.size());
+            return false;
+        }
+
+        try {
+            Map<String, Integer> deltas = new LinkedHashMap<>();
+            Set<String> damaged = new HashSet<>();
+            for (PendingMovement movement : batch) {
+                deltas.merge(movement.productId(), movement.quantityChange(), Integer::sum);
+                if (movement.damaged()) {
+                    damaged.add(movement.productId());
+                }
+            }
+            applyToProducts(batchSequence, deltas, damaged);
+            applyToLots(batchSequence, transactions);
+            markApplied(transactions.stream().map(InventoryTransaction::getId).toList());
+        } catch (RuntimeException e) {
+            // The movements are in the log, the sequence guard makes replaying them safe
+            log.error("Stock ledger could not apply batch {}, replaying from the log on next flush: {}",
+                    batchSequence, e.getMessage());
+            replayRequired = true;
+            return false;
+        }
+        return true;
+    }
+
+    // Unordered, so a movement left in the log by a failed attempt does not stop the rest, and
+    // one already there is only a duplicate key
+    private void logTransactions(List<InventoryTransaction> transactions) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryTransaction.class)
+                    .insert(transactions)
+                    .execute();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            log.info("Stock ledger found {} movements already logged by an earlier attempt", e.getErrors().size());
+        }
+    }
+
+    // Products and lots stored before the ledger wrote to them have no ledgerSequence at all
+    private static Criteria notYetApplied(String id, long batchSequence) {
+        return Criteria.where("_id").is(id).orOperator(
+                Criteria.where("ledgerSequence").lt(batchSequence),
+                Criteria.where("ledgerSequence").exists(false));
+    }
+
+    private void applyToProducts(long batchSequence, Map<String, Integer> deltas, Set<String> damaged) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        LocalDate today = LocalDate.now();
+        deltas.forEach((productId, delta) -> {
+            Update update = new Update()
+                    .inc("quantity", delta)
+                    .set("ledgerSequence", batchSequence)
+                    .set("updatedAt", today);
+            if (damaged.contains(productId)) {
+                update.set("damaged", true);
+            }
+            bulk.updateOne(Query.query(notYetApplied(productId, batchSequence)), update);
+        });
+        bulk.execute();
+    }
+
+    // Opened lots are upserted so a replay does not insert them twice; draw-downs are one
+    // coalesced $inc per lot behind the same sequence guard as the products. Ordered, so a lot
+    // opened and drawn down in the same batch exists before its $inc
+    private void applyToLots(long batchSequence, List<InventoryTransaction> transactions) {
+        List<StockLot> opened = new ArrayList<>();
+        Map<String, Integer> drawnDown = new LinkedHashMap<>();
+        for (InventoryTransaction transaction : transactions) {
+            if (transaction.getLotAllocations() == null) {
+                continue;
+            }
+            boolean receipt = InventoryTransactionService.quantityChangeOf(transaction) > 0;
+            for (LotAllocation allocation : transaction.getLotAllocations()) {
+                if (receipt) {
+                    opened.add(openedLot(transaction, allocation));
+                } else {
+                    drawnDown.merge(allocation.getLotId(), -allocation.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        if (opened.isEmpty() && drawnDown.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, StockLot.class);
+        for (StockLot lot : opened) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(lot.getId())), LotService.openingFields(lot));
+        }
+        drawnDown.forEach((lotId, delta) -> bulk.updateOne(Query.query(notYetApplied(lotId, batchSequence)),
+                new Update().inc("remaining", delta).set("ledgerSequence", batchSequence)));
+        bulk.execute();
+    }
+
+    private static StockLot openedLot(InventoryTransaction receipt, LotAllocation allocation) {
+        StockLot lot = new StockLot();
+        lot.setId(allocation.getLotId());
+        lot.setProductId(receipt.getProductId());
+        lot.setSku(receipt.getSku());
+        lot.setTransactionId(receipt.getId());
+        lot.setQuantity(allocation.getQuantity());
+        lot.setRemaining(allocation.getQuantity());
+        lot.setExpiryDate(allocation.getExpiryDate());
+        lot.setReceivedAt(receipt.getTimestamp());
+        return lot;
+    }
+
+    private void markApplied(List<String> transactionIds) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(transactionIds)),
+                new Update().set("pendingApply", false), InventoryTransaction.class);
+    }
+
+    /**
+     * Rebuilds state after a restart: movements logged but not applied are replayed batch by
+     * batch, then every product's quantity is loaded into its counter.
+     */
+    private void recover() {
+        sequence.set(maxAppliedSequence());
+        int replayed = replayPendingLog();
+
+        Query quantities = new Query();
+        quantities.fields().include("_id").include("quantity");
+        List<Document> products = mongoTemplate.find(quantities, Document.class,
+                mongoTemplate.getCollectionName(Product.class));
+        for (Document product : products) {
+            onHand.put(String.valueOf(product.get("_id")), new AtomicInteger(product.getInteger("quantity", 0)));
+        }
+        log.info("Stock ledger recovered {} products, replayed {} logged movements", products.size(), replayed);
+    }
+
+    private int replayPendingLog() {
+        Query query = Query.query(Criteria.where("pendingApply").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "ledgerSequence"));
+        List<InventoryTransaction> logged = mongoTemplate.find(query, InventoryTransaction.class);
+        if (!logged.isEmpty()) {
+            long lastLogged = logged.get(logged.size() - 1).getLedgerSequence();
+            sequence.accumulateAndGet(lastLogged, Math::max);
+        }
+
+        Map<Long, List<InventoryTransaction>> bySequence = new LinkedHashMap<>();
+        for (InventoryTransaction transaction : logged) {
+            bySequence.computeIfAbsent(transaction.getLedgerSequence(), s -> new ArrayList<>()).add(transaction);
+        }
+        bySequence.forEach((batchSequence, transactions) -> {
+            Map<String, Integer> deltas = new HashMap<>();
+            Set<String> damaged = new HashSet<>();
+            for (InventoryTransaction transaction : transactions) {
+                deltas.merge(transaction.getProductId(), InventoryTransactionService.quantityChangeOf(transaction),
+                        Integer::sum);
+                if (transaction.getType() == TransactionType.DAMAGED) {
+                    damaged.add(transaction.getProductId());
+                }
+            }
+            applyToProducts(batchSequence, deltas, damaged);
+            applyToLots(batchSequence, transactions);
+            markApplied(transactions.stream().map(InventoryTransaction::getId).toList());
+        });
+        return logged.size();
+    }
+
+    private long maxAppliedSequence() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "ledgerSequence")).limit(1);
+        query.fields().include("ledgerSequence");
+        Document top = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Product.class));
+        if (top == null || top.get("ledgerSequence") == null) {
+            return 0;
+        }
+        return ((Number) top.get("ledgerSequence")).longValue();
+    }
+
+    private ReentrantReadWriteLock lockFor(String productId) {
+        return productLocks.computeIfAbsent(productId, id -> new ReentrantReadWriteLock());
+    }
+
+    private AtomicInteger counterFor(String productId) {
+        AtomicInteger counter = onHand.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        Product product = mongoTemplate.findById(productId, Product.class);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return onHand.computeIfAbsent(productId, id -> new AtomicInteger(product.getQuantity()));
+    }
+}
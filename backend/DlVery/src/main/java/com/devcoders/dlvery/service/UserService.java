@@ -1,6 +1,7 @@
 package com.devcoders.dlvery.service;
 
 import com.devcoders.dlvery.dto.RegisterRequest;
+import com.devcoders.dlvery.event.UserChangedEvent;
 import com.devcoders.dlvery.exception.ResourceNotFoundException;
 import com.devcoders.dlvery.model.User;
 import com.devcoders.dlvery.model.UserRole;
@@ -9,6 +10,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,17 +25,10 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @CacheEvict(value = "users", allEntries = true)
     public User registerUser(RegisterRequest registerRequest) {
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new IllegalArgumentException("Username is already taken");
-        }
-
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new IllegalArgumentException("Email is already in use");
-        }
-
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
@@ -41,7 +37,19 @@ public class UserService {
         user.setRole(registerRequest.getRole());
         user.setPhoneNumber(registerRequest.getPhoneNumber());
 
-        return userRepository.save(user);
+        // Uniqueness is enforced by the username and email indexes in a single insert
+        User registered;
+        try {
+            registered = userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            String message = String.valueOf(e.getMessage());
+            if (message.contains("index: email")) {
+                throw new IllegalArgumentException("Email is already in use");
+            }
+            throw new IllegalArgumentException("Username is already taken");
+        }
+        eventPublisher.publishEvent(UserChangedEvent.saved(registered));
+        return registered;
     }
 
     @Cacheable(value = "users", key = "'allUsers'")
@@ -97,12 +105,15 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.saved(saved));
+        return saved;
     }
     
     @CacheEvict(value = "users", allEntries = true)
     public void deleteUser(String id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(user));
     }
 }
\ No newline at end of file
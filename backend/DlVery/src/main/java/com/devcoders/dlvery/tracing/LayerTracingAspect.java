@@ -0,0 +1,81 @@
+package com.devcoders.dlvery.tracing;
+
+import com.devcoders.dlvery.model.Delivery;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Wraps every public controller and service method in an observation, which becomes a span
+ * nested under the HTTP server span and above the Mongo command spans it causes. Spans carry
+ * the principal and, where the method takes one, the delivery id.
+ */
+@Aspect
+public class LayerTracingAspect {
+
+    static final String OBSERVATION_NAME = "dlvery.method";
+
+    private final ObservationRegistry observationRegistry;
+
+    public LayerTracingAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    // The profiler is a Mongo command listener; tracing it would trace every command twice
+    @Around("within(com.devcoders.dlvery..*) && execution(public * *(..))"
+            + " && (@within(org.springframework.web.bind.annotation.RestController)"
+            + " || @within(org.springframework.stereotype.Service))"
+            + " && !within(com.devcoders.dlvery.service.SlowCommandProfiler)")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Class<?> type = signature.getDeclaringType();
+        String layer = AnnotatedElementUtils.hasAnnotation(type, RestController.class) ? "controller" : "service";
+
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .contextualName(type.getSimpleName() + "." + signature.getName())
+                .lowCardinalityKeyValue("layer", layer)
+                .lowCardinalityKeyValue("class", type.getSimpleName())
+                .lowCardinalityKeyValue("method", signature.getName());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+            observation.highCardinalityKeyValue("enduser.id", authentication.getName());
+        }
+        String deliveryId = deliveryIdOf(type, signature.getParameterNames(), joinPoint.getArgs());
+        if (deliveryId != null) {
+            observation.highCardinalityKeyValue("delivery.id", deliveryId);
+        }
+
+        observation.start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    static String deliveryIdOf(Class<?> type, String[] parameterNames, Object[] args) {
+        boolean deliveryType = type.getSimpleName().startsWith("Delivery");
+        for (int i = 0; i < args.length; i++) {
+            String name = parameterNames != null && i < parameterNames.length ? parameterNames[i] : null;
+            if (args[i] instanceof String value
+                    && ("deliveryId".equals(name) || (deliveryType && "id".equals(name)))) {
+                return value;
+            }
+            if (args[i] instanceof Delivery delivery && delivery.getId() != null) {
+                return delivery.getId();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.devcoders.dlvery.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the request path for {@link RouteSampler}. Must run before the filter that starts the
+ * http.server.requests observation, as the sampling decision is made when the server span starts.
+ */
+public class RequestPathFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteSampler.bindPath(request.getRequestURI().substring(request.getContextPath().length()));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RouteSampler.clearPath();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.devcoders.dlvery.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Head-based sampler for root spans with a probability per route. The request path is bound to
+ * the thread by {@link RequestPathFilter} before the server span starts; spans started outside a
+ * request (scheduled jobs, background flushes) use the default probability. Meant to be wrapped
+ * in {@link Sampler#parentBased(Sampler)} so child spans follow their root.
+ */
+public class RouteSampler implements Sampler {
+
+    private static final ThreadLocal<String> CURRENT_PATH = new ThreadLocal<>();
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Sampler defaultSampler;
+    private final List<Route> routes;
+
+    public RouteSampler(double defaultProbability, List<Route> routes) {
+        this.defaultSampler = Sampler.traceIdRatioBased(defaultProbability);
+        this.routes = List.copyOf(routes);
+    }
+
+    /**
+     * Parses "pattern=probability" pairs separated by commas, e.g.
+     * "/api/dlteam/location/**=0.01,/api/batch=1".
+     */
+    public static List<Route> parseRoutes(String routes) {
+        List<Route> parsed = new ArrayList<>();
+        for (String entry : StringUtils.commaDelimitedListToStringArray(routes)) {
+            if (!StringUtils.hasText(entry)) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected pattern=probability but got '" + entry.trim() + "'");
+            }
+            parsed.add(new Route(entry.substring(0, separator).trim(),
+                    Double.parseDouble(entry.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+
+    static void bindPath(String path) {
+        CURRENT_PATH.set(path);
+    }
+
+    static void clearPath() {
+        CURRENT_PATH.remove();
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        return samplerFor(CURRENT_PATH.get()).shouldSample(parentContext, traceId, name, spanKind, attributes,
+                parentLinks);
+    }
+
+    @Override
+    public String getDescription() {
+        return "RouteSampler{default=" + defaultSampler.getDescription() + ", routes=" + routes + "}";
+    }
+
+    Sampler samplerFor(String path) {
+        if (path != null) {
+            for (Route route : routes) {
+                if (PATH_MATCHER.match(route.pattern(), path)) {
+                    return route.sampler();
+                }
+            }
+        }
+        return defaultSampler;
+    }
+
+    /**
+     * Routes are tried in order, so more specific patterns go first.
+     */
+    public record Route(String pattern, double probability, Sampler sampler) {
+
+        public Route(String pattern, double probability) {
+            this(pattern, probability, Sampler.traceIdRatioBased(probability));
+        }
+
+        @Override
+        public String toString() {
+            return pattern + "=" + probability;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.dto.BatchRequestItem;
+import com.devcoders.dlvery.dto.BatchResponseItem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the sub-requests of POST /api/batch in-process. Each one goes through the Spring
+ * Security filter chain and the DispatcherServlet exactly like a request of its own, so URL
+ * rules, @PreAuthorize checks, idempotency keys and exception handlers all apply; only the
+ * network round trip is saved. The caller's authentication is handed over instead of
+ * re-validating the token for every sub-request.
+ * <p>
+ * Consecutive GET and HEAD requests are independent and run in parallel. Any other method is
+ * a barrier: it runs alone, after everything before it and before anything after it.
+ */
+@Slf4j
+@Component
+public class BatchRequestDispatcher {
+
+    public static final String BATCH_PATH = "/api/batch";
+
+    private static final Set<String> PARALLEL_METHODS = Set.of("GET", "HEAD");
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE");
+
+    private final Filter securityFilterChain;
+    private final Servlet dispatcherServlet;
+    private final ObjectMapper objectMapper;
+    private final String authorizationHeader;
+    private final int maxRequests;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BatchRequestDispatcher(@Qualifier("springSecurityFilterChain") Filter securityFilterChain,
+                                  @Qualifier("dispatcherServlet") Servlet dispatcherServlet,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.jwt.header}") String authorizationHeader,
+                                  @Value("${app.batch.max-requests:20}") int maxRequests,
+                                  @Value("${app.batch.parallelism:8}") int parallelism,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.securityFilterChain = securityFilterChain;
+        this.dispatcherServlet = dispatcherServlet;
+        this.objectMapper = objectMapper;
+        this.authorizationHeader = authorizationHeader;
+        this.maxRequests = maxRequests;
+        if (virtualThreads) {
+            // A sub-request mostly waits on Mongo, so it gets a thread of its own instead of a place in a queue
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 1).factory());
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "batch-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    BatchRequestDispatcher(Filter securityFilterChain, Servlet dispatcherServlet, ObjectMapper objectMapper,
+                           String authorizationHeader, int maxRequests, int parallelism) {
+        this(securityFilterChain, dispatcherServlet, objectMapper, authorizationHeader, maxRequests, parallelism,
+                false);
+    }
+
+    /**
+     * Dispatches the items and returns their responses in request order.
+     *
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public List<BatchResponseItem> dispatch(HttpServletRequest request, HttpServletResponse response,
+                                            List<BatchRequestItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one request");
+        }
+        if (items.size() > maxRequests) {
+            throw new IllegalArgumentException("A batch may hold at most " + maxRequests + " requests");
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Map<String, List<String>> inherited = inheritedHeaders(request);
+        BatchResponseItem[] responses = new BatchResponseItem[items.size()];
+
+        List<Integer> parallel = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (PARALLEL_METHODS.contains(methodOf(items.get(i)))) {
+                parallel.add(i);
+                continue;
+            }
+            runAll(parallel, request, response, items, inherited, authentication, responses);
+            parallel.clear();
+            runAll(List.of(i), request, response, items, inherited, authentication, responses);
+        }
+        runAll(parallel, request, response, items, inherited, authentication, responses);
+        return List.of(responses);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Even a lone request runs on a worker, as the security filter chain clears the thread's context
+    private void runAll(List<Integer> indexes, HttpServletRequest request, HttpServletResponse response,
+                        List<BatchRequestItem> items, Map<String, List<String>> inherited,
+                        Authentication authentication, BatchResponseItem[] responses) {
+        List<CompletableFuture<Void>> running = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            running.add(CompletableFuture.runAsync(() ->
+                    responses[index] = execute(request, response, items.get(index), inherited, authentication),
+                    executor));
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private BatchResponseItem execute(HttpServletRequest request, HttpServletResponse response,
+                                      BatchRequestItem item, Map<String, List<String>> inherited,
+                                      Authentication authentication) {
+        String method = methodOf(item);
+        String path = item.getPath();
+        if (!METHODS.contains(method)) {
+            return error(item, HttpStatus.METHOD_NOT_ALLOWED, "Unsupported method " + method);
+        }
+        if (path == null || !path.startsWith("/") || path.startsWith("//")) {
+            return error(item, HttpStatus.BAD_REQUEST, "Path must be an absolute path on this API");
+        }
+        if (path.equals(BATCH_PATH) || path.startsWith(BATCH_PATH + "?") || path.startsWith(BATCH_PATH + "/")) {
+            return error(item, HttpStatus.BAD_REQUEST, "Batches cannot be nested");
+        }
+
+        try {
+            Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+            headers.putAll(inherited);
+            byte[] body = new byte[0];
+            if (item.getBody() != null && !item.getBody().isNull()) {
+                body = objectMapper.writeValueAsBytes(item.getBody());
+                headers.put("Content-Type", List.of(MediaType.APPLICATION_JSON_VALUE));
+            }
+            if (item.getHeaders() != null) {
+                item.getHeaders().forEach((name, value) -> headers.put(name, List.of(value)));
+            }
+
+            BatchSubRequest subRequest = new BatchSubRequest(request, method, path, headers, body);
+            if (authentication != null) {
+                subRequest.setAttribute(RequestAttributeSecurityContextRepository.DEFAULT_REQUEST_ATTR_NAME,
+                        new SecurityContextImpl(authentication));
+            }
+            BatchSubResponse subResponse = new BatchSubResponse(response);
+            securityFilterChain.doFilter(subRequest, subResponse,
+                    (filteredRequest, filteredResponse) -> dispatcherServlet.service(filteredRequest, filteredResponse));
+            return toItem(item, subResponse);
+        } catch (Exception e) {
+            log.error("Batch request {} {} failed", method, path, e);
+            return error(item, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private BatchResponseItem toItem(BatchRequestItem item, BatchSubResponse response) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        response.getHeaderMap().forEach((name, values) -> headers.put(name, String.join(", ", values)));
+
+        byte[] bytes = response.getBody();
+        JsonNode body = null;
+        if (bytes.length > 0) {
+            String contentType = response.getContentType();
+            if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                body = objectMapper.readTree(bytes);
+            } else {
+                body = TextNode.valueOf(new String(bytes, Charset.forName(response.getCharacterEncoding())));
+            }
+        } else if (response.getErrorMessage() != null) {
+            body = TextNode.valueOf(response.getErrorMessage());
+        }
+        return new BatchResponseItem(item.getId(), response.getStatus(), headers, body);
+    }
+
+    private Map<String, List<String>> inheritedHeaders(HttpServletRequest request) {
+        Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        // The body and the idempotency key belong to the batch, and the caller is already authenticated
+        headers.remove("Content-Type");
+        headers.remove("Content-Length");
+        headers.remove("Transfer-Encoding");
+        headers.remove(IdempotencyFilter.HEADER);
+        headers.remove(authorizationHeader);
+        return headers;
+    }
+
+    private static String methodOf(BatchRequestItem item) {
+        return StringUtils.hasText(item.getMethod()) ? item.getMethod().toUpperCase() : "GET";
+    }
+
+    private static BatchResponseItem error(BatchRequestItem item, HttpStatus status, String message) {
+        return new BatchResponseItem(item.getId(), status.value(), Map.of(),
+                TextNode.valueOf(message != null ? message : status.getReasonPhrase()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.model.AgentLocation;
+import com.devcoders.dlvery.service.AgentLocationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams location pings from a delivery agent's app. Each text frame is one ping or an array
+ * of pings, in the same JSON shape as the HTTP ingest endpoint; the agent is the authenticated
+ * user of the handshake. Frames are not acknowledged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationWebSocketHandler extends TextWebSocketHandler {
+
+    private final AgentLocationService agentLocationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        if (session.getPrincipal() == null) {
+            session.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        List<AgentLocation> pings = new ArrayList<>();
+        try {
+            JsonNode payload = objectMapper.readTree(message.getPayload());
+            if (payload.isArray()) {
+                for (JsonNode node : payload) {
+                    pings.add(objectMapper.treeToValue(node, AgentLocation.class));
+                }
+            } else {
+                pings.add(objectMapper.treeToValue(payload, AgentLocation.class));
+            }
+        } catch (JsonProcessingException e) {
+            log.debug("Closing location stream of {} after an unreadable frame: {}",
+                    session.getPrincipal().getName(), e.getOriginalMessage());
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        agentLocationService.record(session.getPrincipal().getName(), pings);
+    }
+}
@@ -0,0 +1,53 @@
+package com.devcoders.dlvery.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a list as newline-delimited JSON, one element per line, straight to the response. A
+ * streamed response writes its chunks through this one after another, so the lines join up
+ * into a single NDJSON body. Write only.
+ */
+public class NdjsonHttpMessageConverter extends AbstractHttpMessageConverter<List<?>> {
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_NDJSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("NDJSON request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(List<?> lines, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            for (Object line : lines) {
+                objectMapper.writeValue(generator, line);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.repository.ReactiveDeliveryRepository;
+import com.devcoders.dlvery.repository.ReactiveProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Streams the large delivery and product reads as newline-delimited JSON, one document per line,
+ * straight from the reactive Mongo driver. The request thread is released once the query is
+ * issued, and documents are pulled from the cursor only as fast as they are written, about one
+ * cursor batch ahead at most, so a slow client holds back the cursor instead of the whole
+ * result piling up in the heap.
+ * <p>
+ * The MVC controllers keep serving the same reads as one ApiResponse body, and all writes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadStreamHandler {
+
+    private static final int CURSOR_BATCH = 128;
+    private static final int DOCUMENTS_PER_WRITE = 16;
+    private static final int PREFETCH = 2;
+
+    private final ReactiveDeliveryRepository deliveryRepository;
+    private final ReactiveProductRepository productRepository;
+
+    public ServerResponse myDeliveries(ServerRequest request) {
+        String agentId = agentId(request);
+        Optional<DeliveryStatus> status = request.param("status").map(DeliveryStatus::valueOf);
+        return stream(status.isPresent()
+                ? deliveryRepository.findByDeliveryAgentIdAndStatus(agentId, status.get())
+                : deliveryRepository.findByDeliveryAgentId(agentId));
+    }
+
+    public ServerResponse myTodayDeliveries(ServerRequest request) {
+        return stream(deliveryRepository.findByDeliveryAgentIdAndScheduledDate(agentId(request), LocalDate.now()));
+    }
+
+    public ServerResponse deliveries(ServerRequest request) {
+        Optional<String> date = request.param("date");
+        Optional<String> status = request.param("status");
+        Optional<String> sku = request.param("sku");
+        Flux<Delivery> deliveries;
+        if (date.isPresent()) {
+            deliveries = deliveryRepository.findByScheduledDate(LocalDate.parse(date.get()));
+        } else if (status.isPresent()) {
+            deliveries = deliveryRepository.findByStatus(DeliveryStatus.valueOf(status.get()));
+        } else if (sku.isPresent()) {
+            deliveries = deliveryRepository.findByItemSku(sku.get());
+        } else {
+            deliveries = deliveryRepository.findAllWithoutSignature();
+        }
+        return stream(deliveries);
+    }
+
+    public ServerResponse products(ServerRequest request) {
+        Optional<String> category = request.param("category");
+        Flux<Product> products;
+        if (category.isPresent()) {
+            products = productRepository.findByCategory(ProductCategory.valueOf(category.get()));
+        } else if (request.param("damaged").map(Boolean::parseBoolean).orElse(false)) {
+            products = productRepository.findByDamaged(true);
+        } else if (request.param("perishable").map(Boolean::parseBoolean).orElse(false)) {
+            products = productRepository.findByPerishable(true);
+        } else {
+            products = productRepository.findAll();
+        }
+        return stream(products);
+    }
+
+    // The security rules only let authenticated requests through to these routes
+    private static String agentId(ServerRequest request) {
+        return request.principal().map(Principal::getName).orElseThrow();
+    }
+
+    // The driver sizes each getMore to the demand, so it is requested a cursor batch at a time
+    // rather than per write. Servlet writes block, so they happen on boundedElastic instead of
+    // the driver's I/O threads. Each write is one chunk of lines for NdjsonHttpMessageConverter,
+    // and is flushed
+    private ServerResponse stream(Flux<?> documents) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(documents.limitRate(CURSOR_BATCH)
+                        .buffer(DOCUMENTS_PER_WRITE)
+                        .publishOn(Schedulers.boundedElastic(), PREFETCH));
+    }
+}
@@ -0,0 +1,39 @@
+package com.devcoders.dlvery.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the authenticated caller's role on the request for request metrics. Registered in
+ * the security filter chain after JWT authentication.
+ */
+public class RoleAttributeFilter extends OncePerRequestFilter {
+
+    public static final String ROLE_ATTRIBUTE = RoleAttributeFilter.class.getName() + ".role";
+    public static final String NO_ROLE = "none";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .filter(authority -> authority != null && authority.startsWith(ROLE_PREFIX))
+                    .findFirst()
+                    .ifPresent(authority -> request.setAttribute(ROLE_ATTRIBUTE,
+                            authority.substring(ROLE_PREFIX.length())));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
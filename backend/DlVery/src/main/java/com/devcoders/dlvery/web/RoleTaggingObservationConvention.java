@@ -0,0 +1,21 @@
+package com.devcoders.dlvery.web;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Adds a low-cardinality role tag (INVTEAM, DLTEAM or none) to http.server.requests. The
+ * observation ends after Spring Security has cleared the context, so the role is read from the
+ * request attribute {@link RoleAttributeFilter} sets while the caller is authenticated.
+ */
+public class RoleTaggingObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object role = context.getCarrier().getAttribute(RoleAttributeFilter.ROLE_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("role", role != null ? role.toString() : RoleAttributeFilter.NO_ROLE));
+    }
+}
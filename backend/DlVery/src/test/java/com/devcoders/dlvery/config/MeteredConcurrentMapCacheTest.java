@@ -0,0 +1,36 @@
+package com.devcoders.dlvery.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MeteredConcurrentMapCacheTest {
+
+    @Test
+    @DisplayName("Test hits, misses and puts are reported as cache metrics")
+    void testCacheMetrics() {
+        // Given
+        MeteredConcurrentMapCache cache = new MeteredConcurrentMapCache("products", true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MetricsConfig.MeteredCacheMetrics(cache, List.of()).bindTo(registry);
+
+        // When
+        cache.get("a");
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("b", () -> 2);
+        cache.get("b", () -> 3);
+
+        // Then
+        assertThat(registry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("cache.puts").tag("cache", "products").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "products").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,207 @@
+package com.devcoders.dlvery.controller;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.model.TransactionType;
+import com.devcoders.dlvery.service.DeliveryService;
+import com.devcoders.dlvery.service.InventoryTransactionService;
+import com.devcoders.dlvery.service.ProductService;
+import com.devcoders.dlvery.support.MaxMongoCommands;
+import com.devcoders.dlvery.support.MongoCommandTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budgets for the Mongo commands behind the busiest endpoints. A budget that starts failing
+ * usually means a new per-item or per-row lookup; fix the loop rather than raising the budget.
+ */
+@MongoCommandTest
+public class ControllerCommandBudgetTest {
+
+    private static final String AGENT = "budget-agent";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryTransactionService inventoryTransactionService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ArrayList<>();
+        String batch = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setSku("BUDGET-" + batch + "-" + i);
+            product.setName("Budget product " + i);
+            product.setCategory(ProductCategory.OTHER);
+            product = productService.createProduct(product);
+
+            InventoryTransaction received = new InventoryTransaction();
+            received.setProductId(product.getId());
+            received.setSku(product.getSku());
+            received.setType(TransactionType.STOCK_IN);
+            received.setQuantity(100);
+            received.setUserId("budget-dispatcher");
+            inventoryTransactionService.createTransaction(received);
+            products.add(product);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} items")
+    @ValueSource(ints = {1, 10})
+    @WithMockUser(roles = "INVTEAM")
+    @MaxMongoCommands(9)
+    @DisplayName("Test creating a delivery stays within the same command budget whatever its item count")
+    void testCreateDelivery(int itemCount) throws Exception {
+        // Given
+        Delivery delivery = delivery(itemCount);
+
+        // When / Then
+        mockMvc.perform(post("/api/invteam/deliveries")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(delivery)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)));
+    }
+
+    @Test
+    @WithMockUser(username = AGENT, roles = "DLTEAM")
+    @MaxMongoCommands(18)
+    @DisplayName("Test a partial return of two items stays within its command budget")
+    void testPartialReturn() throws Exception {
+        // Given
+        Delivery delivery = deliveryService.assignDelivery(delivery());
+        deliveryService.updateDeliveryStatus(delivery.getId(), DeliveryStatus.IN_TRANSIT, null);
+        List<DeliveryItem> items = delivery.getItems();
+        items.get(0).setReturned(true);
+        items.get(1).setReturned(true);
+        deliveryService.updateDeliveryItems(delivery.getId(), items);
+
+        // When / Then
+        mockMvc.perform(put("/api/dlteam/deliveries/{id}/status", delivery.getId())
+                        .with(csrf())
+                        .param("status", "PARTIALLY_DELIVERED")
+                        .param("notes", "Two items refused"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status", is("PARTIALLY_DELIVERED")));
+    }
+
+    @Test
+    @WithMockUser(username = AGENT, roles = "DLTEAM")
+    @MaxMongoCommands(6)
+    @DisplayName("Test completing a delivery with a signature stays within its command budget")
+    void testCompleteDelivery() throws Exception {
+        // Given
+        Delivery delivery = deliveryService.assignDelivery(delivery());
+        deliveryService.updateDeliveryStatus(delivery.getId(), DeliveryStatus.IN_TRANSIT, null);
+
+        // When / Then
+        mockMvc.perform(put("/api/dlteam/deliveries/{id}/complete", delivery.getId())
+                        .with(csrf())
+                        .param("customerName", "Budget Customer")
+                        .param("customerSignature", "data:image/png;base64,iVBORw0KGgo="))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status", is("DELIVERED")));
+    }
+
+    @Test
+    @WithMockUser(username = AGENT, roles = "DLTEAM")
+    @MaxMongoCommands(3)
+    @DisplayName("Test polling today's route sheet stays within its command budget")
+    void testTodayRouteSheet() throws Exception {
+        // Given
+        deliveryService.assignDelivery(delivery());
+        deliveryService.assignDelivery(delivery());
+
+        // When / Then
+        mockMvc.perform(get("/api/dlteam/deliveries/my/today"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)));
+    }
+
+    @Test
+    @WithMockUser(roles = "INVTEAM")
+    @MaxMongoCommands(6)
+    @DisplayName("Test posting a stock receipt stays within its command budget")
+    void testCreateTransaction() throws Exception {
+        // Given
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId(products.get(0).getId());
+        transaction.setSku(products.get(0).getSku());
+        transaction.setType(TransactionType.STOCK_IN);
+        transaction.setQuantity(25);
+        transaction.setUserId("budget-dispatcher");
+
+        // When / Then
+        mockMvc.perform(post("/api/inventory/transactions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transaction)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)));
+    }
+
+    private Delivery delivery() {
+        return delivery(3);
+    }
+
+    private Delivery delivery(int itemCount) {
+        Delivery delivery = new Delivery();
+        delivery.setDeliveryAgentId(AGENT);
+        delivery.setCustomerName("Budget Customer");
+        delivery.setCustomerAddress("12 Galle Road, Colombo 3");
+        delivery.setCustomerPhone("+94771234567");
+        delivery.setPriority(DeliveryPriority.NORMAL);
+        delivery.setScheduledDate(LocalDate.now());
+        List<DeliveryItem> items = new ArrayList<>();
+        for (Product product : products.subList(0, itemCount)) {
+            DeliveryItem item = new DeliveryItem();
+            item.setProductId(product.getId());
+            item.setSku(product.getSku());
+            item.setProductName(product.getName());
+            item.setQuantity(2);
+            items.add(item);
+        }
+        delivery.setItems(items);
+        return delivery;
+    }
+}
@@ -0,0 +1,67 @@
+package com.devcoders.dlvery.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class KMeansClustererTest {
+
+    private final KMeansClusterer clusterer = new KMeansClusterer(100, 42L);
+
+    @Test
+    @DisplayName("Test well-separated areas end up in separate clusters")
+    void testSeparatesAreas() {
+        // Given
+        double[][] centres = {{51.50, -0.12}, {51.60, -0.30}, {51.40, 0.05}};
+        Random random = new Random(1);
+        int perArea = 200;
+        double[] latitudes = new double[centres.length * perArea];
+        double[] longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            double[] centre = centres[i / perArea];
+            latitudes[i] = centre[0] + random.nextGaussian() * 0.005;
+            longitudes[i] = centre[1] + random.nextGaussian() * 0.005;
+        }
+
+        // When
+        KMeansClusterer.Result result = clusterer.cluster(latitudes, longitudes, 3);
+
+        // Then
+        for (int area = 0; area < centres.length; area++) {
+            int cluster = result.assignments()[area * perArea];
+            for (int i = area * perArea; i < (area + 1) * perArea; i++) {
+                assertThat(result.assignments()[i]).isEqualTo(cluster);
+            }
+            assertThat(result.centroidLatitudes()[cluster]).isCloseTo(centres[area][0], within(0.002));
+            assertThat(result.centroidLongitudes()[cluster]).isCloseTo(centres[area][1], within(0.002));
+        }
+    }
+
+    @Test
+    @DisplayName("Test clustering 20k deliveries assigns every point to a non-empty cluster")
+    void testClustersTwentyThousandPoints() {
+        // Given
+        Random random = new Random(7);
+        double[] latitudes = new double[20_000];
+        double[] longitudes = new double[20_000];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = 40.6 + random.nextDouble() * 0.3;
+            longitudes[i] = -74.1 + random.nextDouble() * 0.3;
+        }
+
+        // When
+        KMeansClusterer.Result result = clusterer.cluster(latitudes, longitudes, 800);
+
+        // Then
+        int[] sizes = new int[result.clusterCount()];
+        Arrays.stream(result.assignments()).forEach(cluster -> sizes[cluster]++);
+        assertThat(result.clusterCount()).isEqualTo(800);
+        assertThat(Arrays.stream(sizes).sum()).isEqualTo(20_000);
+        assertThat(Arrays.stream(sizes).filter(size -> size == 0).count()).isZero();
+    }
+}
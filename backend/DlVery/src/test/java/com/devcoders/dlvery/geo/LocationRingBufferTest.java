@@ -0,0 +1,45 @@
+package com.devcoders.dlvery.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocationRingBufferTest {
+
+    @Test
+    @DisplayName("Test the buffer keeps only the newest fixes once it wraps around")
+    void testWrapsAround() {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(4);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i * 1000L, 6.9 + i * 0.001, 79.8, 5f, Float.NaN);
+        }
+
+        // Then
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.oldestTime()).isEqualTo(6000L);
+        assertThat(buffer.latest().timeMillis()).isEqualTo(9000L);
+        assertThat(buffer.since(7500L)).extracting(LocationRingBuffer.Fix::timeMillis)
+                .containsExactly(8000L, 9000L);
+        assertThat(buffer.since(0L)).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Test a fix older than the latest one is rejected")
+    void testRejectsOutOfOrderFix() {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(4);
+        buffer.add(2000L, 6.9, 79.8, 5f, 1f);
+
+        // When
+        boolean added = buffer.add(1000L, 6.8, 79.7, 5f, 1f);
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.latest().latitude()).isEqualTo(6.9);
+    }
+}
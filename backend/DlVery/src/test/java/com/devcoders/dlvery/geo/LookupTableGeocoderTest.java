@@ -0,0 +1,42 @@
+package com.devcoders.dlvery.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LookupTableGeocoderTest {
+
+    @Test
+    @DisplayName("Test addresses resolve by exact match, then by their trailing parts")
+    void testGeocodeFallsBackToTrailingParts() {
+        // Given
+        Geocoder geocoder = new LookupTableGeocoder(Map.of(
+                "12 Main Street, Springfield", new GeoJsonPoint(-89.65, 39.78),
+                "Springfield", new GeoJsonPoint(-89.64, 39.80)));
+
+        // Then
+        assertThat(geocoder.geocode("12  main street,Springfield.")).contains(new GeoJsonPoint(-89.65, 39.78));
+        assertThat(geocoder.geocode("99 Elm Road, Springfield")).contains(new GeoJsonPoint(-89.64, 39.80));
+        assertThat(geocoder.geocode("1 Other Place, Shelbyville")).isEmpty();
+        assertThat(geocoder.geocode(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test the CSV table is parsed, skipping comments and malformed rows")
+    void testLoadsCsvTable() {
+        // Given
+        String csv = "# comment\naddress,latitude,longitude\n\"5 Low St, Capital City\",10.5,20.25\nbroken row\n";
+
+        // When
+        Geocoder geocoder = new LookupTableGeocoder(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(geocoder.geocode("5 Low St, Capital City")).contains(new GeoJsonPoint(20.25, 10.5));
+    }
+}
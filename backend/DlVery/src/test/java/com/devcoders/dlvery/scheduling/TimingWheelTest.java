@@ -0,0 +1,122 @@
+package com.devcoders.dlvery.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final List<List<String>> batches = new ArrayList<>();
+    private TimingWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>("test", Duration.ofSeconds(1), 8, batches::add, now::get);
+    }
+
+    @Test
+    @DisplayName("Test timeouts fire in the tick of their deadline as one batch")
+    void testExpiresInBatches() {
+        // Given
+        wheel.schedule("a", Instant.ofEpochMilli(now.get() + 3_000));
+        wheel.schedule("b", Instant.ofEpochMilli(now.get() + 3_400));
+        wheel.schedule("c", Instant.ofEpochMilli(now.get() + 5_000));
+
+        // When
+        wheel.advanceTo(now.get() + 2_000);
+
+        // Then
+        assertThat(batches).isEmpty();
+
+        // When
+        wheel.advanceTo(now.get() + 3_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    @DisplayName("Test deadlines beyond one revolution wait for the right round")
+    void testDeadlineBeyondWheelSize() {
+        // Given
+        wheel.schedule("late", Instant.ofEpochMilli(now.get() + 20_000));
+
+        // When
+        wheel.advanceTo(now.get() + 19_000);
+
+        // Then
+        assertThat(batches).isEmpty();
+
+        // When
+        wheel.advanceTo(now.get() + 20_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("late"));
+    }
+
+    @Test
+    @DisplayName("Test cancelled timeouts never fire")
+    void testCancel() {
+        // Given
+        TimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", Instant.ofEpochMilli(now.get() + 2_000));
+        wheel.schedule("kept", Instant.ofEpochMilli(now.get() + 2_000));
+
+        // When
+        timeout.cancel();
+        wheel.advanceTo(now.get() + 5_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("kept"));
+    }
+
+    @Test
+    @DisplayName("Test deadlines in the past fire on the next tick")
+    void testPastDeadline() {
+        // Given
+        wheel.advanceTo(now.get() + 4_000);
+        wheel.schedule("overdue", Instant.ofEpochMilli(now.get() - 60_000));
+
+        // When
+        wheel.advanceTo(now.get() + 5_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("overdue"));
+    }
+
+    @Test
+    @DisplayName("Test far deadlines cascade down through overflow wheels and fire on time")
+    void testHierarchicalCascade() {
+        // Given
+        wheel.schedule("minute", Instant.ofEpochMilli(now.get() + 60_000));
+        wheel.schedule("hour", Instant.ofEpochMilli(now.get() + 3_600_000));
+
+        // When
+        wheel.advanceTo(now.get() + 59_000);
+
+        // Then
+        assertThat(wheel.getLevelCount()).isGreaterThan(2);
+        assertThat(batches).isEmpty();
+
+        // When
+        wheel.advanceTo(now.get() + 60_000);
+        wheel.advanceTo(now.get() + 3_599_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("minute"));
+
+        // When
+        wheel.advanceTo(now.get() + 3_600_000);
+
+        // Then
+        assertThat(batches).containsExactly(List.of("minute"), List.of("hour"));
+    }
+}
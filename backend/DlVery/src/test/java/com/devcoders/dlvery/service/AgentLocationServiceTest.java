@@ -0,0 +1,103 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.AgentLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class AgentLocationServiceTest {
+
+    private static final Instant START = Instant.now().minusSeconds(3600).truncatedTo(ChronoUnit.MILLIS);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AgentLocationService agentLocationService;
+
+    @BeforeEach
+    void setUp() {
+        agentLocationService = new AgentLocationService(mongoTemplate, 100, 30, 100, 1000, 50);
+    }
+
+    @Test
+    @DisplayName("Test every ping is kept in memory but only a downsampled track is stored")
+    void testDownsamplesStoredTrack() {
+        // Given - one ping a second for two minutes, standing still
+        List<AgentLocation> pings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            pings.add(ping(i, 6.9271, 79.8612));
+        }
+
+        // When
+        int accepted = agentLocationService.record("agent1", pings);
+
+        // Then
+        assertThat(accepted).isEqualTo(120);
+        assertThat(agentLocationService.getPendingCount()).isEqualTo(4);
+        assertThat(agentLocationService.getLatest("agent1").getRecordedAt()).isEqualTo(START.plusSeconds(119));
+        assertThat(agentLocationService.getTrack("agent1", START.plusSeconds(100))).hasSize(20);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Test moving far enough stores a fix before the interval elapses")
+    void testStoresOnDistance() {
+        // When - about 1 km north after 5 seconds
+        agentLocationService.record("agent1", List.of(ping(0, 6.9271, 79.8612), ping(5, 6.9361, 79.8612)));
+
+        // Then
+        assertThat(agentLocationService.getPendingCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Test invalid and out-of-order pings are skipped")
+    void testSkipsInvalidPings() {
+        // When
+        int accepted = agentLocationService.record("agent1",
+                List.of(ping(10, 6.9, 79.8), ping(5, 6.9, 79.8), ping(11, 91.0, 79.8), ping(12, 6.9, Double.NaN)));
+
+        // Then
+        assertThat(accepted).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test the flush inserts queued fixes in bounded batches")
+    @SuppressWarnings("unchecked")
+    void testFlushInBatches() {
+        // Given - 120 agents with one stored fix each
+        for (int i = 0; i < 120; i++) {
+            agentLocationService.record("agent" + i, List.of(ping(0, 6.9, 79.8)));
+        }
+
+        // When
+        agentLocationService.flush();
+
+        // Then
+        ArgumentCaptor<Collection<AgentLocation>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate, times(3)).insert(batches.capture(), eq(AgentLocation.class));
+        assertThat(batches.getAllValues()).extracting(Collection::size).containsExactly(50, 50, 20);
+        assertThat(agentLocationService.getPendingCount()).isZero();
+    }
+
+    private static AgentLocation ping(int second, double latitude, double longitude) {
+        return new AgentLocation(null, null, START.plusSeconds(second), latitude, longitude, 5f, null);
+    }
+}
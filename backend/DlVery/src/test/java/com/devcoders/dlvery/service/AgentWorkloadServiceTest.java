@@ -0,0 +1,143 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.AgentWorkload;
+import com.devcoders.dlvery.dto.BatchAssignmentResult;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+public class AgentWorkloadServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 4, 1);
+
+    private DeliveryService deliveryService;
+    private AgentWorkloadService workloadService;
+
+    @BeforeEach
+    void setUp() {
+        deliveryService = mock(DeliveryService.class, withSettings().stubOnly());
+        given(deliveryService.assignDelivery(any(Delivery.class))).willAnswer(invocation -> invocation.getArgument(0));
+        workloadService = new AgentWorkloadService(mock(MongoTemplate.class), mock(UserRepository.class),
+                deliveryService);
+    }
+
+    @Test
+    @DisplayName("Test deliveries go to the least-loaded agent for the date")
+    void testAutoAssignPicksLeastLoaded() {
+        // Given
+        workloadService.addAgent("alice");
+        workloadService.addAgent("bob");
+        workloadService.track(existing("d1", "alice", DeliveryPriority.URGENT));
+
+        // When
+        Delivery first = workloadService.autoAssign(newDelivery(DeliveryPriority.NORMAL, 2));
+        Delivery second = workloadService.autoAssign(newDelivery(DeliveryPriority.NORMAL, 2));
+
+        // Then
+        assertThat(first.getDeliveryAgentId()).isEqualTo("bob");
+        assertThat(second.getDeliveryAgentId()).isEqualTo("bob");
+        assertThat(workloadService.getWorkload(DATE)).extracting(AgentWorkload::getPriorityWeight)
+                .containsExactly(2, 4);
+    }
+
+    @Test
+    @DisplayName("Test a failed assignment does not count towards the agent's load")
+    void testFailedAssignmentIsRolledBack() {
+        // Given
+        workloadService.addAgent("alice");
+        given(deliveryService.assignDelivery(any(Delivery.class))).willThrow(new RuntimeException("Insufficient stock"));
+
+        // When
+        BatchAssignmentResult result = workloadService.autoAssignAll(List.of(newDelivery(DeliveryPriority.HIGH, 1)));
+
+        // Then
+        assertThat(result.getFailures()).containsEntry(0, "Insufficient stock");
+        assertThat(workloadService.getWorkload(DATE).get(0).getDeliveries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test an agent that is no longer eligible gets nothing and keeps its load for later")
+    void testRemovedAgentLeavesBoards() {
+        // Given
+        workloadService.addAgent("alice");
+        workloadService.addAgent("bob");
+        workloadService.track(existing("d1", "bob", DeliveryPriority.URGENT));
+        workloadService.removeAgent("alice");
+
+        // When
+        Delivery assigned = workloadService.autoAssign(newDelivery(DeliveryPriority.NORMAL, 1));
+
+        // Then
+        assertThat(assigned.getDeliveryAgentId()).isEqualTo("bob");
+        assertThat(workloadService.getWorkload(DATE)).extracting(AgentWorkload::getAgentId).containsExactly("bob");
+
+        // When
+        workloadService.removeAgent("bob");
+        workloadService.addAgent("bob");
+
+        // Then
+        assertThat(workloadService.getWorkload(DATE)).extracting(AgentWorkload::getPriorityWeight).containsExactly(5);
+    }
+
+    @Test
+    @DisplayName("Test a batch of 50k deliveries over 500 agents ends up balanced")
+    void testBalancesLargeBatch() {
+        // Given
+        for (int i = 0; i < 500; i++) {
+            workloadService.addAgent(String.format("agent-%03d", i));
+        }
+        Random random = new Random(7);
+        DeliveryPriority[] priorities = DeliveryPriority.values();
+        List<Delivery> batch = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            batch.add(newDelivery(priorities[random.nextInt(priorities.length)], 1 + random.nextInt(10)));
+        }
+
+        // When
+        BatchAssignmentResult result = workloadService.autoAssignAll(batch);
+
+        // Then
+        IntSummaryStatistics weights = workloadService.getWorkload(DATE).stream()
+                .mapToInt(AgentWorkload::getPriorityWeight).summaryStatistics();
+        assertThat(result.getAssigned()).hasSize(50_000);
+        assertThat(weights.getCount()).isEqualTo(500);
+        assertThat(weights.getMax() - weights.getMin()).isLessThanOrEqualTo(1);
+    }
+
+    private static Delivery existing(String id, String agentId, DeliveryPriority priority) {
+        Delivery delivery = newDelivery(priority, 1);
+        delivery.setId(id);
+        delivery.setDeliveryAgentId(agentId);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        return delivery;
+    }
+
+    private static Delivery newDelivery(DeliveryPriority priority, int quantity) {
+        DeliveryItem item = new DeliveryItem();
+        item.setSku("SKU-1");
+        item.setQuantity(quantity);
+        Delivery delivery = new Delivery();
+        delivery.setPriority(priority);
+        delivery.setScheduledDate(DATE);
+        delivery.setItems(List.of(item));
+        return delivery;
+    }
+}
@@ -0,0 +1,104 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class CommittedStockIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CommittedStockIndex committedStockIndex;
+
+    @BeforeEach
+    void setUp() {
+        committedStockIndex = new CommittedStockIndex(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Test item and status changes only apply the difference per SKU")
+    void testTrackAppliesDifference() {
+        // Given
+        Delivery first = delivery("d1", DeliveryStatus.PENDING, item("A", 3), item("B", 2));
+        Delivery second = delivery("d2", DeliveryStatus.IN_TRANSIT, item("A", 5));
+        committedStockIndex.track(first);
+        committedStockIndex.track(second);
+
+        // When
+        first.setItems(List.of(item("A", 1), item("C", 4)));
+        committedStockIndex.track(first);
+        second.setStatus(DeliveryStatus.DELIVERED);
+        committedStockIndex.track(second);
+
+        // Then
+        assertThat(committedStockIndex.getCommittedQuantity("A")).isEqualTo(1);
+        assertThat(committedStockIndex.getCommittedQuantity("B")).isZero();
+        assertThat(committedStockIndex.getCommittedQuantity("C")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Test removing a delivery drops its contribution")
+    void testRemove() {
+        // Given
+        committedStockIndex.track(delivery("d1", DeliveryStatus.PENDING, item("A", 3), item("A", 2)));
+
+        // When
+        committedStockIndex.remove("d1");
+
+        // Then
+        assertThat(committedStockIndex.getCommittedQuantity("A")).isZero();
+    }
+
+    @Test
+    @DisplayName("Test changes tracked while a rebuild reads the deliveries are kept")
+    void testRebuildKeepsConcurrentChanges() {
+        // Given
+        committedStockIndex.track(delivery("d2", DeliveryStatus.PENDING, item("B", 2)));
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willAnswer(invocation -> {
+            // Saved after the query read the collection
+            committedStockIndex.track(delivery("d3", DeliveryStatus.PENDING, item("A", 4)));
+            committedStockIndex.remove("d2");
+            return List.of(delivery("d1", DeliveryStatus.PENDING, item("A", 3)),
+                    delivery("d2", DeliveryStatus.PENDING, item("B", 2)));
+        });
+
+        // When
+        committedStockIndex.rebuild();
+
+        // Then
+        assertThat(committedStockIndex.getCommittedQuantity("A")).isEqualTo(7);
+        assertThat(committedStockIndex.getCommittedQuantity("B")).isZero();
+    }
+
+    private static Delivery delivery(String id, DeliveryStatus status, DeliveryItem... items) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setStatus(status);
+        delivery.setItems(List.of(items));
+        return delivery;
+    }
+
+    private static DeliveryItem item(String sku, int quantity) {
+        DeliveryItem item = new DeliveryItem();
+        item.setSku(sku);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
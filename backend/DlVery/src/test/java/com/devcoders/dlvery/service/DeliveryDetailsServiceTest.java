@@ -0,0 +1,70 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.DeliveryDetails;
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryDetailsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private DeliveryDetailsService deliveryDetailsService;
+
+    @Test
+    @DisplayName("Test details are read with one aggregation joining products and transactions")
+    @SuppressWarnings("unchecked")
+    void testSingleAggregation() {
+        // Given
+        DeliveryDetails details = new DeliveryDetails();
+        given(mongoTemplate.aggregate(any(TypedAggregation.class), eq(DeliveryDetails.class)))
+                .willReturn(new AggregationResults<>(List.of(details), new Document()));
+
+        // When
+        DeliveryDetails result = deliveryDetailsService.getDeliveryDetails("d1");
+
+        // Then
+        ArgumentCaptor<TypedAggregation<?>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(DeliveryDetails.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next())
+                .containsExactly("$match", "$lookup", "$lookup", "$project", "$unset");
+        assertThat(pipeline).filteredOn(stage -> stage.containsKey("$lookup"))
+                .extracting(stage -> stage.get("$lookup", Document.class).getString("from"))
+                .containsExactly("products", "inventory_transactions");
+        assertThat(result).isSameAs(details);
+    }
+
+    @Test
+    @DisplayName("Test an unknown delivery is reported as not found")
+    @SuppressWarnings("unchecked")
+    void testNotFound() {
+        given(mongoTemplate.aggregate(any(TypedAggregation.class), eq(DeliveryDetails.class)))
+                .willReturn(new AggregationResults<>(List.of(), new Document()));
+
+        assertThatThrownBy(() -> deliveryDetailsService.getDeliveryDetails("missing"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
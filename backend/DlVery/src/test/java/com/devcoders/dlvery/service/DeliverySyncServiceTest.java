@@ -0,0 +1,132 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.SyncDelta;
+import com.devcoders.dlvery.dto.SyncOperation;
+import com.devcoders.dlvery.dto.SyncResult;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliverySyncServiceTest {
+
+    private static final LocalDateTime SEEN = LocalDateTime.of(2026, 6, 1, 9, 0, 0, 123_000_000);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DeliveryService deliveryService;
+
+    private DeliverySyncService deliverySyncService;
+
+    @BeforeEach
+    void setUp() {
+        deliverySyncService = new DeliverySyncService(mongoTemplate, deliveryService, 2000);
+    }
+
+    @Test
+    @DisplayName("Test queued changes built on the same copy are applied in order")
+    void testAppliesQueuedChangesInOrder() {
+        // Given
+        Delivery pending = delivery("d1", DeliveryStatus.PENDING, SEEN);
+        Delivery inTransit = delivery("d1", DeliveryStatus.IN_TRANSIT, SEEN.plusMinutes(5));
+        Delivery delivered = delivery("d1", DeliveryStatus.DELIVERED, SEEN.plusMinutes(6));
+        given(deliveryService.getDeliveryById("d1")).willReturn(pending, inTransit);
+        given(deliveryService.updateDeliveryStatus("d1", DeliveryStatus.IN_TRANSIT, null)).willReturn(inTransit);
+        given(deliveryService.completeDelivery("d1", "Nimal", "sig")).willReturn(delivered);
+
+        // When
+        List<SyncResult> results = deliverySyncService.apply("agent1", List.of(
+                status("op1", "d1", DeliveryStatus.IN_TRANSIT, SEEN),
+                new SyncOperation("op2", "d1", SyncOperation.Action.COMPLETE, null, null, "Nimal", "sig", SEEN)));
+
+        // Then
+        assertThat(results).extracting(SyncResult::getOutcome)
+                .containsExactly(SyncResult.Outcome.APPLIED, SyncResult.Outcome.APPLIED);
+        assertThat(results.get(1).getDelivery().getStatus()).isEqualTo(DeliveryStatus.DELIVERED);
+    }
+
+    @Test
+    @DisplayName("Test a change on a stale copy is a conflict and later changes to it are skipped")
+    void testDetectsConflict() {
+        // Given
+        given(deliveryService.getDeliveryById("d1"))
+                .willReturn(delivery("d1", DeliveryStatus.RETURNED, SEEN.plusMinutes(1)));
+        given(deliveryService.getDeliveryById("d2")).willReturn(delivery("d2", DeliveryStatus.PENDING, SEEN));
+        given(deliveryService.updateDeliveryStatus("d2", DeliveryStatus.DOOR_LOCK, null))
+                .willReturn(delivery("d2", DeliveryStatus.DOOR_LOCK, SEEN.plusMinutes(2)));
+
+        // When
+        List<SyncResult> results = deliverySyncService.apply("agent1", List.of(
+                status("op1", "d1", DeliveryStatus.IN_TRANSIT, SEEN),
+                status("op2", "d1", DeliveryStatus.DELIVERED, SEEN),
+                status("op3", "d2", DeliveryStatus.DOOR_LOCK, SEEN.withNano(123_456_789))));
+
+        // Then
+        assertThat(results).extracting(SyncResult::getOutcome).containsExactly(
+                SyncResult.Outcome.CONFLICT, SyncResult.Outcome.REJECTED, SyncResult.Outcome.APPLIED);
+        assertThat(results.get(0).getDelivery().getStatus()).isEqualTo(DeliveryStatus.RETURNED);
+        verify(deliveryService, never()).updateDeliveryStatus(eq("d1"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test a pull returns at most the limit and a cursor after the last change")
+    void testPagesChanges() {
+        // Given
+        List<Delivery> found = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            found.add(delivery("d" + i, DeliveryStatus.PENDING, SEEN.plusSeconds(i)));
+        }
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willReturn(found);
+
+        // When
+        SyncDelta delta = deliverySyncService.getChanges("agent1", null, 2);
+
+        // Then
+        assertThat(delta.isHasMore()).isTrue();
+        assertThat(delta.getChanges()).extracting(Delivery::getId).containsExactly("d0", "d1");
+        DeliverySyncService.Cursor cursor = DeliverySyncService.decode(delta.getCursor());
+        assertThat(cursor.deliveryId()).isEqualTo("d1");
+        assertThat(cursor.updatedAt()).isEqualTo(SEEN.plusSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Test an unreadable cursor is rejected")
+    void testRejectsInvalidCursor() {
+        assertThatThrownBy(() -> deliverySyncService.getChanges("agent1", "bm90LWEtY3Vyc29y", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SyncOperation status(String opId, String deliveryId, DeliveryStatus status, LocalDateTime base) {
+        return new SyncOperation(opId, deliveryId, SyncOperation.Action.STATUS, status, null, null, null, base);
+    }
+
+    private static Delivery delivery(String id, DeliveryStatus status, LocalDateTime updatedAt) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setDeliveryAgentId("agent1");
+        delivery.setStatus(status);
+        delivery.setUpdatedAt(updatedAt);
+        return delivery;
+    }
+}
@@ -0,0 +1,137 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DispatchQueueTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DeliveryService deliveryService;
+
+    private DispatchQueue dispatchQueue;
+    private final Map<String, Delivery> deliveries = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        dispatchQueue = new DispatchQueue(mongoTemplate, deliveryService, 30);
+    }
+
+    @Test
+    @DisplayName("Test deliveries are ordered by priority, scheduled date and age")
+    void testDispatchOrder() {
+        // Given
+        LocalDate today = LocalDate.of(2026, 3, 2);
+        track("normal-old", "agent1", DeliveryPriority.NORMAL, today, 1);
+        track("urgent", "agent2", DeliveryPriority.URGENT, today.plusDays(1), 5);
+        track("normal-new", "agent1", DeliveryPriority.NORMAL, today, 3);
+        track("perishable", "agent1", DeliveryPriority.PERISHABLE, today, 4);
+        track("normal-earlier", "agent2", null, today.minusDays(1), 9);
+        given(deliveryService.getDeliveriesByIds(anyList())).willAnswer(invocation -> {
+            // Returned out of order, as from the database
+            List<String> ids = invocation.getArgument(0);
+            return ids.reversed().stream().map(deliveries::get).toList();
+        });
+
+        // When
+        List<Delivery> all = dispatchQueue.peek(null, 10);
+        List<Delivery> agent1 = dispatchQueue.peek("agent1", 10);
+
+        // Then
+        assertThat(all).extracting(Delivery::getId)
+                .containsExactly("urgent", "perishable", "normal-earlier", "normal-old", "normal-new");
+        assertThat(agent1).extracting(Delivery::getId).containsExactly("perishable", "normal-old", "normal-new");
+    }
+
+    @Test
+    @DisplayName("Test deliveries leave the queue when they are no longer pending")
+    void testStatusChangeRemovesDelivery() {
+        // Given
+        Delivery delivery = track("d1", "agent1", DeliveryPriority.HIGH, LocalDate.of(2026, 3, 2), 1);
+
+        // When
+        delivery.setStatus(DeliveryStatus.IN_TRANSIT);
+        dispatchQueue.track(delivery);
+
+        // Then
+        assertThat(dispatchQueue.size()).isZero();
+        assertThat(dispatchQueue.peek("agent1", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test claiming dispatches the head of the agent's queue")
+    void testClaimNext() {
+        // Given
+        track("low", "agent1", DeliveryPriority.LOW, LocalDate.of(2026, 3, 2), 1);
+        track("high", "agent1", DeliveryPriority.HIGH, LocalDate.of(2026, 3, 2), 2);
+        Delivery dispatched = new Delivery();
+        dispatched.setId("high");
+        dispatched.setStatus(DeliveryStatus.IN_TRANSIT);
+        given(deliveryService.updateDeliveryStatus("high", DeliveryStatus.IN_TRANSIT)).willReturn(dispatched);
+
+        // When
+        Delivery claimed = dispatchQueue.claimNext("agent1");
+
+        // Then
+        assertThat(claimed.getId()).isEqualTo("high");
+        assertThat(dispatchQueue.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test a delivery that fails to dispatch is parked and the next one is claimed")
+    void testFailedClaimParksDelivery() {
+        // Given
+        track("broken", "agent1", DeliveryPriority.URGENT, LocalDate.of(2026, 3, 2), 1);
+        track("next", "agent1", DeliveryPriority.HIGH, LocalDate.of(2026, 3, 2), 2);
+        Delivery dispatched = new Delivery();
+        dispatched.setId("next");
+        dispatched.setStatus(DeliveryStatus.IN_TRANSIT);
+        given(deliveryService.updateDeliveryStatus("broken", DeliveryStatus.IN_TRANSIT))
+                .willThrow(new RuntimeException("Insufficient stock"));
+        given(deliveryService.updateDeliveryStatus("next", DeliveryStatus.IN_TRANSIT)).willReturn(dispatched);
+
+        // When
+        Delivery claimed = dispatchQueue.claimNext("agent1");
+
+        // Then
+        assertThat(claimed.getId()).isEqualTo("next");
+        assertThat(dispatchQueue.size()).isEqualTo(1);
+        assertThat(dispatchQueue.claimNext("agent1")).isNull();
+        verify(deliveryService).updateDeliveryStatus("broken", DeliveryStatus.IN_TRANSIT);
+    }
+
+    private Delivery track(String id, String agentId, DeliveryPriority priority, LocalDate scheduledDate, int minute) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setDeliveryAgentId(agentId);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setPriority(priority);
+        delivery.setScheduledDate(scheduledDate);
+        delivery.setCreatedAt(LocalDateTime.of(2026, 3, 1, 8, minute));
+        deliveries.put(id, delivery);
+        dispatchQueue.track(delivery);
+        return delivery;
+    }
+}
@@ -0,0 +1,114 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.config.MeteredConcurrentMapCache;
+import com.devcoders.dlvery.dto.RecordingInfo;
+import com.devcoders.dlvery.exception.ResourceNotFoundException;
+import com.devcoders.dlvery.jfr.DeliveryAssignEvent;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FlightRecorderServiceTest {
+
+    private final FlightRecorderService flightRecorderService = new FlightRecorderService(60, 10, 1, 60, 5);
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test a dump holds the application events with their fields")
+    void testDumpContainsApplicationEvents() throws Exception {
+        // Given
+        RecordingInfo recording = flightRecorderService.start("default", 3600, true);
+        Delivery delivery = new Delivery();
+        delivery.setId("d1");
+        DeliveryItem item = new DeliveryItem();
+        item.setQuantity(3);
+        delivery.setItems(List.of(item, item));
+        DeliveryAssignEvent event = new DeliveryAssignEvent();
+        event.begin();
+        event.complete(delivery, true);
+        MeteredConcurrentMapCache cache = new MeteredConcurrentMapCache("products", false);
+        cache.get("missing");
+
+        // When
+        Path dump = flightRecorderService.dump(recording.getId());
+
+        // Then
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.devcoders.dlvery.DeliveryAssign"))
+                    .singleElement()
+                    .satisfies(e -> {
+                        assertThat(e.getString("deliveryId")).isEqualTo("d1");
+                        assertThat(e.getInt("itemCount")).isEqualTo(2);
+                        assertThat(e.getInt("totalQuantity")).isEqualTo(6);
+                        assertThat(e.getBoolean("reserved")).isTrue();
+                    });
+            assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.devcoders.dlvery.CacheLookup"))
+                    .singleElement()
+                    .satisfies(e -> {
+                        assertThat(e.getString("cacheName")).isEqualTo("products");
+                        assertThat(e.getBoolean("hit")).isFalse();
+                    });
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        assertThat(recording.getDurationSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Test recordings are limited in number and unknown ones are rejected")
+    void testLimits() throws Exception {
+        // Given
+        RecordingInfo recording = flightRecorderService.start("default", 30, false);
+
+        // When / Then
+        assertThatThrownBy(() -> flightRecorderService.start("default", 30, false))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> flightRecorderService.start("custom", 30, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        flightRecorderService.close(recording.getId());
+        assertThat(flightRecorderService.getRecordings()).isEmpty();
+        assertThatThrownBy(() -> flightRecorderService.dump(recording.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Test stopped recordings are closed after the retention period")
+    void testStoppedRecordingsExpire() throws Exception {
+        // Given
+        FlightRecorderService shortRetention = new FlightRecorderService(60, 10, 1, 0, 5);
+        try {
+            RecordingInfo recording = shortRetention.start("default", 1, false);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!shortRetention.getRecordings().get(0).getState().equals("STOPPED")
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+
+            // When
+            shortRetention.closeExpired();
+
+            // Then
+            assertThat(shortRetention.getRecordings()).isEmpty();
+            assertThatThrownBy(() -> shortRetention.dump(recording.getId()))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        } finally {
+            shortRetention.shutdown();
+        }
+    }
+}
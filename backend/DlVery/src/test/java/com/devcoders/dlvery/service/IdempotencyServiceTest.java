@@ -0,0 +1,178 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.IdempotencyRecord;
+import com.devcoders.dlvery.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(recordRepository, mongoTemplate, 100, 2000, 120);
+    }
+
+    @Test
+    @DisplayName("Test first request acquires the key and a retry replays it")
+    void testReplayAfterCompletion() {
+        // Given
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        IdempotencyService.Acquisition first = idempotencyService.begin("agent:key-1", "hash");
+        idempotencyService.complete(first.record(), 200, "application/json", "{\"success\":true}");
+        IdempotencyService.Acquisition retry = idempotencyService.begin("agent:key-1", "hash");
+
+        // Then
+        assertThat(first.outcome()).isEqualTo(IdempotencyService.Outcome.ACQUIRED);
+        assertThat(retry.outcome()).isEqualTo(IdempotencyService.Outcome.REPLAY);
+        assertThat(retry.record().getResponseBody()).isEqualTo("{\"success\":true}");
+        verify(recordRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Test reusing a key for a different request is rejected")
+    void testMismatch() {
+        // Given
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+        IdempotencyService.Acquisition first = idempotencyService.begin("agent:key-2", "hash-a");
+        idempotencyService.complete(first.record(), 200, "application/json", "{}");
+
+        // When
+        IdempotencyService.Acquisition other = idempotencyService.begin("agent:key-2", "hash-b");
+
+        // Then
+        assertThat(other.outcome()).isEqualTo(IdempotencyService.Outcome.MISMATCH);
+    }
+
+    @Test
+    @DisplayName("Test a duplicate in flight waits for the first request and replays its response")
+    void testConcurrentDuplicateWaitsForLeader() throws Exception {
+        // Given
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+        IdempotencyService.Acquisition leader = idempotencyService.begin("agent:key-3", "hash");
+        CountDownLatch started = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<IdempotencyService.Acquisition> duplicate = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            return idempotencyService.begin("agent:key-3", "hash");
+        });
+        started.await();
+        Thread.sleep(50);
+        idempotencyService.complete(leader.record(), 201, "application/json", "{\"id\":\"1\"}");
+
+        // Then
+        IdempotencyService.Acquisition result = duplicate.get(2, TimeUnit.SECONDS);
+        assertThat(result.outcome()).isEqualTo(IdempotencyService.Outcome.REPLAY);
+        assertThat(result.record().getResponseStatus()).isEqualTo(201);
+        verify(recordRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Test a key claimed on another node is reported as in progress")
+    void testClaimedByAnotherNode() {
+        // Given
+        IdempotencyRecord pending = new IdempotencyRecord();
+        pending.setId("agent:key-4");
+        pending.setRequestHash("hash");
+        pending.setCreatedAt(LocalDateTime.now());
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("E11000"));
+        given(recordRepository.findById("agent:key-4")).willReturn(Optional.of(pending));
+
+        // When
+        IdempotencyService.Acquisition acquisition = idempotencyService.begin("agent:key-4", "hash");
+
+        // Then
+        assertThat(acquisition.outcome()).isEqualTo(IdempotencyService.Outcome.IN_PROGRESS);
+    }
+
+    @Test
+    @DisplayName("Test an abandoned attempt can be retried with the same key")
+    void testAbandonReleasesKey() {
+        // Given
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+        IdempotencyService.Acquisition first = idempotencyService.begin("agent:key-5", "hash");
+
+        // When
+        idempotencyService.abandon(first.record().getId());
+        IdempotencyService.Acquisition retry = idempotencyService.begin("agent:key-5", "hash");
+
+        // Then
+        assertThat(retry.outcome()).isEqualTo(IdempotencyService.Outcome.ACQUIRED);
+        verify(recordRepository).deleteById("agent:key-5");
+    }
+
+    @Test
+    @DisplayName("Test a stale claim is taken over only if it is unchanged since it was read")
+    void testStaleClaimTakeover() {
+        // Given
+        IdempotencyRecord stale = new IdempotencyRecord();
+        stale.setId("agent:key-6");
+        stale.setRequestHash("hash");
+        stale.setCreatedAt(LocalDateTime.now().minusMinutes(10));
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("E11000"));
+        given(recordRepository.findById("agent:key-6")).willReturn(Optional.of(stale));
+        given(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(IdempotencyRecord.class))).willReturn(stale);
+
+        // When
+        IdempotencyService.Acquisition acquisition = idempotencyService.begin("agent:key-6", "hash");
+
+        // Then
+        assertThat(acquisition.outcome()).isEqualTo(IdempotencyService.Outcome.ACQUIRED);
+        verify(recordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Test a stale claim another node took over first is reported as in progress")
+    void testStaleClaimTakenOverElsewhere() {
+        // Given
+        IdempotencyRecord stale = new IdempotencyRecord();
+        stale.setId("agent:key-7");
+        stale.setRequestHash("hash");
+        stale.setCreatedAt(LocalDateTime.now().minusMinutes(10));
+        given(recordRepository.insert(any(IdempotencyRecord.class))).willThrow(new DuplicateKeyException("E11000"));
+        given(recordRepository.findById("agent:key-7")).willReturn(Optional.of(stale));
+        given(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(IdempotencyRecord.class))).willReturn(null);
+
+        // When
+        IdempotencyService.Acquisition acquisition = idempotencyService.begin("agent:key-7", "hash");
+
+        // Then
+        assertThat(acquisition.outcome()).isEqualTo(IdempotencyService.Outcome.IN_PROGRESS);
+    }
+}
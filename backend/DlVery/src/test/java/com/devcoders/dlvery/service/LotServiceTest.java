@@ -0,0 +1,188 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.StockLotOpenedEvent;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.repository.StockLotRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LotServiceTest {
+
+    @Mock
+    private StockLotRepository lotRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LotService lotService;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        lotService = new LotService(lotRepository, mongoTemplate, stockLedger, eventPublisher);
+        given(lotRepository.insert(any(StockLot.class))).willAnswer(invocation -> {
+            StockLot lot = invocation.getArgument(0);
+            lot.setId(String.format("lot-%06d", ids.incrementAndGet()));
+            return lot;
+        });
+        given(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(StockLot.class))).willReturn(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("Test allocation takes the earliest expiring lots first")
+    void testAllocateFirstExpiredFirstOut() {
+        // Given
+        receive("MILK-1", LocalDate.of(2026, 5, 20), 10);
+        receive("MILK-1", LocalDate.of(2026, 5, 10), 4);
+        receive("MILK-1", null, 50);
+        receive("MILK-1", LocalDate.of(2026, 5, 15), 6);
+
+        // When
+        List<LotAllocation> allocations = lotService.allocate("MILK-1", 12);
+
+        // Then
+        assertThat(allocations).extracting(LotAllocation::getExpiryDate)
+                .containsExactly(LocalDate.of(2026, 5, 10), LocalDate.of(2026, 5, 15), LocalDate.of(2026, 5, 20));
+        assertThat(allocations).extracting(LotAllocation::getQuantity).containsExactly(4, 6, 2);
+        assertThat(lotService.getOpenLots("MILK-1")).extracting(StockLot::getRemaining).containsExactly(8, 50);
+    }
+
+    @Test
+    @DisplayName("Test restored allocations reopen depleted lots")
+    void testRestore() {
+        // Given
+        receive("MILK-1", LocalDate.of(2026, 5, 10), 4);
+        receive("MILK-1", LocalDate.of(2026, 5, 20), 10);
+        List<LotAllocation> allocations = lotService.allocate("MILK-1", 6);
+        StockLot depleted = new StockLot();
+        depleted.setId(allocations.get(0).getLotId());
+        depleted.setSku("MILK-1");
+        depleted.setExpiryDate(LocalDate.of(2026, 5, 10));
+        given(lotRepository.findById(depleted.getId())).willReturn(Optional.of(depleted));
+
+        // When
+        lotService.restore(allocations);
+
+        // Then
+        assertThat(lotService.getOpenLots("MILK-1")).extracting(StockLot::getRemaining).containsExactly(4, 10);
+    }
+
+    @Test
+    @DisplayName("Test units are taken from a named lot even if another lot expires earlier")
+    void testAllocateNamedLot() {
+        // Given
+        receive("MILK-1", LocalDate.of(2026, 5, 10), 4);
+        receive("MILK-1", LocalDate.of(2026, 5, 20), 10);
+        StockLot later = lotService.getOpenLots("MILK-1").get(1);
+
+        // When
+        List<LotAllocation> allocations = lotService.allocate(List.of(new LotAllocation(later.getId(), 12, null)));
+
+        // Then
+        assertThat(allocations).extracting(LotAllocation::getQuantity).containsExactly(10);
+        assertThat(lotService.getOpenLots("MILK-1")).extracting(StockLot::getExpiryDate)
+                .containsExactly(LocalDate.of(2026, 5, 10));
+        assertThat(lotService.getOpenLot(later.getId())).isNull();
+        verify(eventPublisher, times(2)).publishEvent(any(StockLotOpenedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Test FEFO order holds for a SKU with thousands of lots")
+    void testAllocateAcrossThousandsOfLots() {
+        // Given
+        Random random = new Random(42);
+        List<LocalDate> expiries = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate expiry = LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365));
+            expiries.add(expiry);
+            receive("BREAD-1", expiry, 3);
+        }
+        Collections.sort(expiries);
+
+        // When
+        List<LocalDate> allocated = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            lotService.allocate("BREAD-1", 6).forEach(allocation -> allocated.add(allocation.getExpiryDate()));
+        }
+
+        // Then
+        assertThat(allocated).containsExactlyElementsOf(expiries.subList(0, allocated.size()));
+        assertThat(allocated).hasSize(5_000);
+        assertThat(lotService.getOpenLots("BREAD-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test a hold on a lot the ledger has not written yet inserts the lot before drawing it down")
+    void testAllocateUnwrittenLedgerLot() {
+        // Given
+        given(stockLedger.isEnabled()).willReturn(true);
+        InventoryTransaction receipt = new InventoryTransaction();
+        receipt.setId("t1");
+        receipt.setProductId("p-MILK-1");
+        receipt.setSku("MILK-1");
+        StockLot opened = lotService.open(receipt, LocalDate.of(2026, 5, 10), 10);
+
+        // When
+        lotService.allocate("MILK-1", 3);
+
+        // Then
+        InOrder inOrder = inOrder(bulkOperations);
+        inOrder.verify(bulkOperations).upsert(any(Query.class), any(Update.class));
+        inOrder.verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        inOrder.verify(bulkOperations).execute();
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.ORDERED, StockLot.class);
+        assertThat(LotService.openingFields(opened).getUpdateObject().get("$setOnInsert", Document.class)
+                .getInteger("remaining")).isEqualTo(10);
+    }
+
+    private void receive(String sku, LocalDate expiryDate, int quantity) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId("p-" + sku);
+        transaction.setSku(sku);
+        transaction.setTimestamp(LocalDateTime.of(2026, 1, 1, 0, 0));
+        lotService.receive(transaction, expiryDate, quantity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.PinningSite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PinningMonitorTest {
+
+    private final Object lock = new Object();
+    private PinningMonitor pinningMonitor;
+
+    @AfterEach
+    void tearDown() {
+        pinningMonitor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test a virtual thread sleeping inside a synchronized block is reported at its application frame")
+    void testReportsSynchronizedPinning() throws Exception {
+        // Given
+        pinningMonitor = new PinningMonitor(true, 10, 100);
+        pinningMonitor.afterPropertiesSet();
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            Thread.ofVirtual().start(this::sleepHoldingLock).join();
+        }
+        List<PinningSite> sites = awaitSites();
+
+        // Then
+        assertThat(sites).singleElement().satisfies(site -> {
+            assertThat(site.getSite()).startsWith(PinningMonitorTest.class.getName() + ".sleepHoldingLock");
+            assertThat(site.getCount()).isEqualTo(2);
+            assertThat(site.getMaxMs()).isGreaterThanOrEqualTo(40);
+            assertThat(site.getStack()).isNotEmpty();
+        });
+    }
+
+    @Test
+    @DisplayName("Test nothing is watched when the monitor is off")
+    void testDisabled() throws Exception {
+        // Given
+        pinningMonitor = new PinningMonitor(false, 10, 100);
+        pinningMonitor.afterPropertiesSet();
+
+        // When
+        Thread.ofVirtual().start(this::sleepHoldingLock).join();
+
+        // Then
+        assertThat(pinningMonitor.isEnabled()).isFalse();
+        assertThat(pinningMonitor.getSites()).isEmpty();
+    }
+
+    private void sleepHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Events reach the stream about once a second
+    private List<PinningSite> awaitSites() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<PinningSite> sites = pinningMonitor.getSites();
+        while ((sites.isEmpty() || sites.get(0).getCount() < 2) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            sites = pinningMonitor.getSites();
+        }
+        return sites;
+    }
+}
@@ -0,0 +1,76 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.support.MongoCommandTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Expiry of perishable stock that was set on the product through the API rather than received
+ * into a lot.
+ */
+@MongoCommandTest
+public class ProductExpiryApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductExpiryService expiryService;
+
+    @Test
+    @WithMockUser(roles = "INVTEAM")
+    @DisplayName("Test stock of a perishable product created through the API expires with the product")
+    void testCreatedProductStockExpires() throws Exception {
+        // Given
+        Product product = new Product();
+        product.setSku("EXPIRY-" + UUID.randomUUID().toString().substring(0, 8));
+        product.setName("Expiring product");
+        product.setCategory(ProductCategory.OTHER);
+        product.setPerishable(true);
+        product.setQuantity(6);
+        product.setExpiryDate(LocalDate.now().minusDays(1));
+
+        String response = mockMvc.perform(post("/api/products")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(response).path("data");
+        String productId = created.path("id").asText();
+        assertThat(expiryService.isProductScheduled(productId)).isTrue();
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer(null, productId,
+                ProductExpiryService.Kind.EXPIRY)));
+
+        // Then
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.quantity", is(0)));
+        assertThat(expiryService.isProductScheduled(productId)).isFalse();
+    }
+}
@@ -0,0 +1,209 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.ProductChangedEvent;
+import com.devcoders.dlvery.event.ProductExpiryWarningEvent;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExpiryServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private InventoryTransactionService inventoryTransactionService;
+
+    @Mock
+    private LotService lotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductExpiryService expiryService;
+    private Product product;
+    private StockLot lot;
+
+    @BeforeEach
+    void setUp() {
+        expiryService = new ProductExpiryService(productService, inventoryTransactionService, lotService,
+                eventPublisher, 3, 60);
+
+        product = new Product();
+        product.setId("p1");
+        product.setSku("MILK-1");
+        product.setPerishable(true);
+        product.setExpiryDate(LocalDate.now().plusDays(20));
+        product.setQuantity(12);
+
+        lot = new StockLot();
+        lot.setId("lot-1");
+        lot.setProductId("p1");
+        lot.setSku("MILK-1");
+        lot.setQuantity(8);
+        lot.setRemaining(5);
+        lot.setExpiryDate(LocalDate.now().minusDays(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        expiryService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test an expiry timer takes out only the units left in its lot")
+    void testExpiryCreatesExpiredTransactionForLot() {
+        // Given
+        given(lotService.getOpenLot("lot-1")).willReturn(lot);
+        given(productService.getProductById("p1")).willReturn(product);
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer("lot-1", "p1",
+                ProductExpiryService.Kind.EXPIRY)));
+
+        // Then
+        ArgumentCaptor<InventoryTransaction> captor = ArgumentCaptor.forClass(InventoryTransaction.class);
+        verify(inventoryTransactionService).createTransaction(captor.capture());
+        assertThat(captor.getValue().getType()).isEqualTo(TransactionType.EXPIRED);
+        assertThat(captor.getValue().getQuantity()).isEqualTo(5);
+        assertThat(captor.getValue().getLotAllocations()).extracting(LotAllocation::getLotId).containsExactly("lot-1");
+        assertThat(captor.getValue().getUserId()).isEqualTo(ProductExpiryService.SYSTEM_USER);
+    }
+
+    @Test
+    @DisplayName("Test timers of a lot that ran out are ignored")
+    void testDepletedLotIgnored() {
+        // Given
+        given(lotService.getOpenLot("lot-1")).willReturn(null);
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer("lot-1", "p1",
+                ProductExpiryService.Kind.EXPIRY)));
+
+        // Then
+        verify(inventoryTransactionService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test warning timers publish an early-warning event with the lot's units")
+    void testWarningPublishesEvent() {
+        // Given
+        lot.setExpiryDate(LocalDate.now().plusDays(2));
+        given(lotService.getOpenLot("lot-1")).willReturn(lot);
+        given(productService.getProductById("p1")).willReturn(product);
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer("lot-1", "p1",
+                ProductExpiryService.Kind.WARNING)));
+
+        // Then
+        ArgumentCaptor<ProductExpiryWarningEvent> captor = ArgumentCaptor.forClass(ProductExpiryWarningEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().quantity()).isEqualTo(5);
+        assertThat(captor.getValue().expiryDate()).isEqualTo(lot.getExpiryDate());
+        verify(inventoryTransactionService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test each opened lot is scheduled once and deleting the product cancels its lots")
+    void testTrackFollowsLots() {
+        // Given
+        lot.setExpiryDate(LocalDate.now().plusDays(10));
+        StockLot undated = new StockLot();
+        undated.setId("lot-2");
+        undated.setProductId("p1");
+        undated.setRemaining(3);
+
+        // When
+        expiryService.track(lot);
+        expiryService.track(lot);
+        expiryService.track(undated);
+
+        // Then
+        assertThat(expiryService.getScheduledCount()).isEqualTo(1);
+
+        // When
+        expiryService.onProductChanged(ProductChangedEvent.deleted(product));
+
+        // Then
+        assertThat(expiryService.getScheduledCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test an expiry timer that takes nothing out is still unscheduled")
+    void testExpiryOfNonPerishableUnschedules() {
+        // Given
+        lot.setExpiryDate(LocalDate.now().plusDays(10));
+        product.setPerishable(false);
+        expiryService.track(lot);
+        given(lotService.getOpenLot("lot-1")).willReturn(lot);
+        given(productService.getProductById("p1")).willReturn(product);
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer("lot-1", "p1",
+                ProductExpiryService.Kind.EXPIRY)));
+
+        // Then
+        assertThat(expiryService.getScheduledCount()).isZero();
+        verify(inventoryTransactionService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test a product's own expiry takes out only the units its lots do not cover")
+    void testProductExpiryTakesStockOutsideLots() {
+        // Given
+        given(productService.getProductById("p1")).willReturn(product);
+        given(lotService.getOpenLots("MILK-1")).willReturn(List.of(lot));
+
+        // When
+        expiryService.onTimers(List.of(new ProductExpiryService.ExpiryTimer(null, "p1",
+                ProductExpiryService.Kind.EXPIRY)));
+
+        // Then
+        ArgumentCaptor<InventoryTransaction> captor = ArgumentCaptor.forClass(InventoryTransaction.class);
+        verify(inventoryTransactionService).createTransaction(captor.capture());
+        assertThat(captor.getValue().getType()).isEqualTo(TransactionType.EXPIRED);
+        assertThat(captor.getValue().getQuantity()).isEqualTo(7);
+        assertThat(captor.getValue().getLotAllocations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test product timers follow the product's expiry date and perishable flag")
+    void testTrackProductFollowsChanges() {
+        // When
+        expiryService.onProductChanged(ProductChangedEvent.saved(product));
+
+        // Then
+        assertThat(expiryService.isProductScheduled("p1")).isTrue();
+
+        // When
+        product.setExpiryDate(LocalDate.now().plusDays(5));
+        expiryService.onProductChanged(ProductChangedEvent.saved(product));
+        product.setPerishable(false);
+        expiryService.onProductChanged(ProductChangedEvent.saved(product));
+
+        // Then
+        assertThat(expiryService.isProductScheduled("p1")).isFalse();
+    }
+}
@@ -0,0 +1,195 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockReservation;
+import com.devcoders.dlvery.model.TransactionType;
+import com.devcoders.dlvery.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private InventoryTransactionService inventoryTransactionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CommittedStockIndex committedStockIndex;
+
+    @Mock
+    private LotService lotService;
+
+    private ReservationService reservationService;
+    private Product product;
+    private final Map<String, Product> products = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationService(reservationRepository, productService,
+                inventoryTransactionService, mongoTemplate, committedStockIndex, lotService, 60);
+
+        product = new Product();
+        product.setId("p1");
+        product.setSku("SKU-1");
+        product.setQuantity(10);
+        lenient().when(productService.getProductBySku("SKU-1")).thenReturn(product);
+        lenient().when(productService.getProductsBySkus(anyList())).thenAnswer(invocation ->
+                products.values().stream().filter(known -> invocation.<List<String>>getArgument(0)
+                        .contains(known.getSku())).toList());
+        lenient().when(lotService.allocateItems(anyList())).thenAnswer(invocation ->
+                invocation.<List<DeliveryItem>>getArgument(0).stream().map(item -> List.<LotAllocation>of()).toList());
+        products.put(product.getSku(), product);
+    }
+
+    @Test
+    @DisplayName("Test reserve holds stock and reduces available-to-promise")
+    void testReserveReducesAvailableToPromise() {
+        // Given
+        given(reservationRepository.insert(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        // When
+        reservationService.reserve(delivery("d1", 4));
+
+        // Then
+        assertThat(reservationService.getHeldQuantity("SKU-1")).isEqualTo(4);
+        assertThat(reservationService.getAvailableToPromise("SKU-1")).isEqualTo(6);
+        verify(inventoryTransactionService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test reserve rejects quantities above available-to-promise")
+    void testReserveRejectsOverbooking() {
+        // Given
+        given(reservationRepository.insert(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+        reservationService.reserve(delivery("d1", 8));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> reservationService.reserve(delivery("d2", 3)));
+        assertThat(reservationService.getHeldQuantity("SKU-1")).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Test commit converts holds into STOCK_OUT transactions")
+    void testCommitCreatesStockOut() {
+        // Given
+        given(reservationRepository.insert(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+        Delivery delivery = delivery("d1", 5);
+        reservationService.reserve(delivery);
+
+        // When
+        reservationService.commit(delivery);
+
+        // Then
+        ArgumentCaptor<InventoryTransaction> captor = ArgumentCaptor.forClass(InventoryTransaction.class);
+        verify(inventoryTransactionService).createTransaction(captor.capture());
+        assertThat(captor.getValue().getType()).isEqualTo(TransactionType.STOCK_OUT);
+        assertThat(captor.getValue().getQuantity()).isEqualTo(5);
+        assertThat(reservationService.getHeldQuantity("SKU-1")).isZero();
+    }
+
+    @Test
+    @DisplayName("Test a commit that fails part way takes out the remaining items when retried")
+    void testCommitRetriesAfterPartialStockOut() {
+        // Given
+        Product second = new Product();
+        second.setId("p2");
+        second.setSku("SKU-2");
+        second.setQuantity(10);
+        products.put(second.getSku(), second);
+        given(reservationRepository.insert(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+        Delivery delivery = delivery("d1", 2);
+        DeliveryItem secondItem = new DeliveryItem();
+        secondItem.setSku("SKU-2");
+        secondItem.setQuantity(3);
+        delivery.getItems().add(secondItem);
+        reservationService.reserve(delivery);
+
+        List<InventoryTransaction> written = new ArrayList<>();
+        AtomicBoolean failNext = new AtomicBoolean();
+        given(inventoryTransactionService.createTransaction(any())).willAnswer(invocation -> {
+            if (failNext.getAndSet(false)) {
+                throw new RuntimeException("Write failed");
+            }
+            InventoryTransaction transaction = invocation.getArgument(0);
+            written.add(transaction);
+            failNext.set(written.size() == 1);
+            return transaction;
+        });
+        given(inventoryTransactionService.getTransactionsByDeliveryId("d1")).willAnswer(invocation -> List.copyOf(written));
+
+        // When
+        assertThrows(RuntimeException.class, () -> reservationService.commit(delivery));
+        reservationService.commit(delivery);
+
+        // Then
+        assertThat(written).extracting(InventoryTransaction::getSku).containsExactlyInAnyOrder("SKU-1", "SKU-2");
+        assertThat(reservationService.getHeldQuantity("SKU-1")).isZero();
+        assertThat(reservationService.getHeldQuantity("SKU-2")).isZero();
+    }
+
+    @Test
+    @DisplayName("Test release gives the held stock back")
+    void testRelease() {
+        // Given
+        given(reservationRepository.insert(anyList())).willAnswer(invocation -> withIds(invocation.getArgument(0)));
+        reservationService.reserve(delivery("d1", 5));
+
+        // When
+        reservationService.release("d1");
+
+        // Then
+        assertThat(reservationService.getHeldQuantity("SKU-1")).isZero();
+        verify(inventoryTransactionService, never()).createTransaction(any());
+    }
+
+    private Delivery delivery(String id, int quantity) {
+        DeliveryItem item = new DeliveryItem();
+        item.setSku("SKU-1");
+        item.setQuantity(quantity);
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setItems(new ArrayList<>(List.of(item)));
+        return delivery;
+    }
+
+    private static List<StockReservation> withIds(List<StockReservation> reservations) {
+        for (StockReservation reservation : reservations) {
+            reservation.setId(reservation.getDeliveryId() + "-" + reservation.getSku());
+        }
+        return reservations;
+    }
+}
@@ -0,0 +1,142 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.event.DeliveryChangedEvent;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.RouteSheet;
+import com.devcoders.dlvery.model.RouteStop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class RouteSheetServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private RouteSheetService routeSheetService;
+
+    @BeforeEach
+    void setUp() {
+        routeSheetService = new RouteSheetService(mongoTemplate, new ConcurrentMapCacheManager("routeSheets"));
+    }
+
+    @Test
+    @DisplayName("Test a missing sheet is built once, in dispatch order, and then served from cache")
+    void testBuildsOnFirstReadAndCaches() {
+        // Given
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willReturn(List.of(
+                delivery("d1", DeliveryPriority.LOW, 1),
+                delivery("d2", DeliveryPriority.URGENT, 2),
+                delivery("d3", DeliveryPriority.NORMAL, 3)));
+        given(mongoTemplate.save(any(RouteSheet.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        RouteSheet first = routeSheetService.getSheet("agent1", TODAY);
+        RouteSheet second = routeSheetService.getSheet("agent1", TODAY);
+
+        // Then
+        assertThat(first.getStops()).extracting(RouteStop::getDeliveryId).containsExactly("d2", "d3", "d1");
+        assertThat(second).isSameAs(first);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Delivery.class));
+    }
+
+    @Test
+    @DisplayName("Test a delivery change marks the sheet dirty without touching Mongo and the next read rebuilds it")
+    void testDeliveryChangeMarksSheetDirty() throws Exception {
+        // Given
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willReturn(List.of());
+        given(mongoTemplate.save(any(RouteSheet.class))).willAnswer(invocation -> invocation.getArgument(0));
+        RouteSheet cached = routeSheetService.getSheet("agent1", TODAY);
+        clearInvocations(mongoTemplate);
+        Thread.sleep(2);
+
+        // When
+        routeSheetService.onDeliveryChanged(DeliveryChangedEvent.saved(delivery("d9", DeliveryPriority.HIGH, 9)));
+
+        // Then
+        verifyNoInteractions(mongoTemplate);
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class)))
+                .willReturn(List.of(delivery("d9", DeliveryPriority.HIGH, 9)));
+        RouteSheet reloaded = routeSheetService.getSheet("agent1", TODAY);
+        assertThat(reloaded.getStops()).extracting(RouteStop::getDeliveryId).containsExactly("d9");
+        assertThat(reloaded.getEtag()).isNotEqualTo(cached.getEtag());
+        assertThat(routeSheetService.getSheet("agent1", TODAY)).isSameAs(reloaded);
+    }
+
+    @Test
+    @DisplayName("Test a change that lands while a sheet is being built leaves the sheet dirty")
+    void testChangeDuringBuildKeepsSheetDirty() {
+        // Given
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willAnswer(invocation -> {
+            // Reassigned to another agent after the deliveries were read
+            Delivery moved = delivery("d1", DeliveryPriority.LOW, 1);
+            moved.setDeliveryAgentId("agent2");
+            routeSheetService.onDeliveryChanged(DeliveryChangedEvent.saved(moved));
+            return List.of(delivery("d1", DeliveryPriority.LOW, 1));
+        });
+        given(mongoTemplate.save(any(RouteSheet.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        routeSheetService.getSheet("agent1", TODAY);
+        routeSheetService.getSheet("agent1", TODAY);
+
+        // Then
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Delivery.class));
+    }
+
+    @Test
+    @DisplayName("Test a reassignment marks the sheet that carried the delivery dirty")
+    void testReassignmentMarksPreviousSheetDirty() {
+        // Given
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class)))
+                .willReturn(List.of(delivery("d1", DeliveryPriority.LOW, 1)));
+        given(mongoTemplate.save(any(RouteSheet.class))).willAnswer(invocation -> invocation.getArgument(0));
+        RouteSheet before = routeSheetService.getSheet("agent1", TODAY);
+        Delivery moved = delivery("d1", DeliveryPriority.LOW, 1);
+        moved.setDeliveryAgentId("agent2");
+
+        // When
+        routeSheetService.onDeliveryChanged(DeliveryChangedEvent.saved(moved));
+        given(mongoTemplate.find(any(Query.class), eq(Delivery.class))).willReturn(List.of());
+        RouteSheet after = routeSheetService.getSheet("agent1", TODAY);
+
+        // Then
+        assertThat(before.getStops()).hasSize(1);
+        assertThat(after.getStops()).isEmpty();
+    }
+
+    private static Delivery delivery(String id, DeliveryPriority priority, int minute) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setDeliveryAgentId("agent1");
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setPriority(priority);
+        delivery.setScheduledDate(TODAY);
+        delivery.setCreatedAt(LocalDateTime.of(2026, 5, 31, 9, minute));
+        return delivery;
+    }
+}
@@ -0,0 +1,165 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.dto.SlowCommand;
+import com.devcoders.dlvery.dto.SlowCommandShape;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class SlowCommandProfilerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Mock
+    private ObjectProvider<MongoTemplate> mongoTemplateProvider;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabaseFactory databaseFactory;
+
+    @Mock
+    private MongoDatabase database;
+
+    private SlowCommandProfiler profiler;
+    private int requestId;
+
+    @BeforeEach
+    void setUp() {
+        profiler = new SlowCommandProfiler(mongoTemplateProvider, 100, 3, 10, 5, true, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Test slow commands are recorded with their shape once sampled and fast ones are ignored")
+    void testRecordsSlowCommands() {
+        // Given
+        givenExplain(new Document("queryPlanner", new Document("winningPlan", new Document("stage", "COLLSCAN"))));
+
+        // When
+        run("find", "{find: 'deliveries', filter: {status: 'PENDING'}, $db: 'dlvery'}", "{cursor: {firstBatch: [{}, {}]}}", 20);
+        run("find", "{find: 'deliveries', filter: {status: 'ASSIGNED'}, $db: 'dlvery'}", "{cursor: {firstBatch: []}}", 200);
+        run("find", "{find: 'deliveries', filter: {status: 'DELIVERED'}, $db: 'dlvery'}", "{cursor: {firstBatch: [{}]}}", 250);
+
+        // Then
+        List<SlowCommand> recent = profiler.getRecent(10);
+        assertThat(recent).hasSize(2);
+        assertThat(recent.get(1).getShape()).isEqualTo("{\"find\": \"deliveries\"}");
+        SlowCommand slow = recent.get(0);
+        assertThat(slow.getCollection()).isEqualTo("deliveries");
+        assertThat(slow.getDurationMs()).isEqualTo(250);
+        assertThat(slow.getDocsReturned()).isEqualTo(1);
+        assertThat(slow.getShape()).isEqualTo("{\"find\": \"deliveries\", \"filter\": {\"status\": \"?\"}}");
+        assertThat(slow.getCaller()).startsWith("SlowCommandProfilerTest.run");
+    }
+
+    @Test
+    @DisplayName("Test commands differing only in values are aggregated and explained once")
+    void testAggregatesByShape() {
+        // Given
+        givenExplain(new Document("queryPlanner", new Document("winningPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "status_1")))));
+
+        run("find", "{find: 'deliveries'}", "{cursor: {firstBatch: []}}", 100);
+        run("count", "{count: 'products'}", "{n: 0}", 100);
+        profiler.clear();
+
+        // When
+        run("find", "{find: 'deliveries', filter: {status: {$in: ['PENDING', 'ASSIGNED']}}, sort: {createdAt: -1}}", "{cursor: {firstBatch: []}}", 150);
+        run("find", "{find: 'deliveries', filter: {status: {$in: ['DELIVERED']}}, sort: {createdAt: -1}}", "{cursor: {firstBatch: []}}", 350);
+        run("count", "{count: 'products', query: {quantity: {$lt: 10}}}", "{n: 4}", 120);
+
+        // Then
+        List<SlowCommandShape> shapes = profiler.getShapes();
+        assertThat(shapes).hasSize(2);
+        SlowCommandShape find = shapes.get(0);
+        assertThat(find.getShape()).isEqualTo(
+                "{\"find\": \"deliveries\", \"filter\": {\"status\": {\"$in\": [\"?\"]}}, \"sort\": {\"createdAt\": -1}}");
+        assertThat(find.getCount()).isEqualTo(2);
+        assertThat(find.getTotalMs()).isEqualTo(500);
+        assertThat(find.getMaxMs()).isEqualTo(350);
+        assertThat(find.getPlan()).isEqualTo("FETCH > IXSCAN(status_1)");
+        assertThat(shapes.get(1).getTotalDocsReturned()).isEqualTo(4);
+        verify(database, times(2)).runCommand(any(Bson.class));
+    }
+
+    @Test
+    @DisplayName("Test query commands are not copied until their collection has turned up slow")
+    void testCopiesOnlySampledCommands() {
+        // Given
+        BsonDocument fast = spy(BsonDocument.parse("{find: 'products', filter: {sku: 'A-1'}}"));
+        BsonDocument sampled = spy(BsonDocument.parse("{find: 'products', filter: {sku: 'A-2'}}"));
+
+        // When
+        run("find", fast, "{cursor: {firstBatch: []}}", 5);
+        run("find", "{find: 'products', filter: {sku: 'A-3'}}", "{cursor: {firstBatch: []}}", 150);
+        run("find", sampled, "{cursor: {firstBatch: []}}", 5);
+
+        // Then
+        verify(fast, never()).forEach(any());
+        verify(sampled).forEach(any());
+    }
+
+    @Test
+    @DisplayName("Test the ring keeps only the most recent slow commands")
+    void testBoundedRing() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            run("insert", "{insert: 'agent_locations', documents: []}", "{n: " + i + "}", 200);
+        }
+
+        // Then
+        assertThat(profiler.getRecent(10)).extracting(SlowCommand::getDocsReturned).containsExactly(4L, 3L, 2L);
+        assertThat(profiler.getShapes()).singleElement()
+                .satisfies(shape -> assertThat(shape.getCount()).isEqualTo(5));
+        verifyNoInteractions(mongoTemplateProvider);
+    }
+
+    private void givenExplain(Document result) {
+        given(mongoTemplateProvider.getObject()).willReturn(mongoTemplate);
+        given(mongoTemplate.getMongoDatabaseFactory()).willReturn(databaseFactory);
+        given(databaseFactory.getMongoDatabase("dlvery")).willReturn(database);
+        given(database.runCommand(any(Bson.class))).willReturn(result);
+    }
+
+    private void run(String commandName, String command, String response, long durationMs) {
+        run(commandName, BsonDocument.parse(command), response, durationMs);
+    }
+
+    private void run(String commandName, BsonDocument command, String response, long durationMs) {
+        int id = ++requestId;
+        profiler.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "dlvery", commandName, command));
+        profiler.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "dlvery", commandName,
+                BsonDocument.parse(response), TimeUnit.MILLISECONDS.toNanos(durationMs)));
+    }
+}
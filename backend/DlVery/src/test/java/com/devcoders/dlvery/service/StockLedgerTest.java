@@ -0,0 +1,286 @@
+package com.devcoders.dlvery.service;
+
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.model.TransactionType;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class StockLedgerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private BulkOperations logBulk;
+
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    void setUp() {
+        // Constructed disabled so no recovery runs, the counters are seeded directly
+        stockLedger = new StockLedger(mongoTemplate, false, 1000);
+        stockLedger.reset("p1", 10);
+    }
+
+    @Test
+    @DisplayName("Test apply rejects movements that would make stock negative")
+    void testApplyRejectsNegativeStock() {
+        // When
+        stockLedger.apply("p1", -4);
+
+        // Then
+        assertThrows(RuntimeException.class, () -> stockLedger.apply("p1", -7));
+        assertThat(stockLedger.getQuantity("p1")).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Test concurrent stock outs never oversell")
+    void testConcurrentApplyNeverOversells() throws Exception {
+        // Given
+        stockLedger.reset("p2", 1000);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            executor.submit(() -> {
+                try {
+                    stockLedger.apply("p2", -1);
+                    accepted.incrementAndGet();
+                } catch (RuntimeException ignored) {
+                    // Out of stock
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(accepted.get()).isEqualTo(1000);
+        assertThat(stockLedger.getQuantity("p2")).isZero();
+    }
+
+    @Test
+    @DisplayName("Test flush logs the movements and coalesces them into one update per product")
+    void testFlushCoalescesMovements() {
+        // Given
+        StockLedger enabledLedger = new StockLedger(mongoTemplate, true, 1000);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).willReturn(bulkOperations);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryTransaction.class)).willReturn(logBulk);
+        for (int i = 0; i < 5; i++) {
+            InventoryTransaction transaction = new InventoryTransaction();
+            transaction.setProductId("p1");
+            transaction.setType(TransactionType.STOCK_OUT);
+            transaction.setQuantity(1);
+            enabledLedger.append(transaction, -1, false);
+        }
+
+        // When
+        enabledLedger.flush();
+
+        // Then
+        verify(logBulk).insert(ArgumentMatchers.<InventoryTransaction>anyList());
+        verify(logBulk).execute();
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(InventoryTransaction.class));
+        assertThat(enabledLedger.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test flush writes the lots opened and drawn down by the batch in one bulk")
+    void testFlushWritesLotChanges() {
+        // Given
+        StockLedger enabledLedger = new StockLedger(mongoTemplate, true, 1000);
+        BulkOperations lotBulk = mock(BulkOperations.class);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).willReturn(bulkOperations);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryTransaction.class)).willReturn(logBulk);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, StockLot.class)).willReturn(lotBulk);
+        InventoryTransaction receipt = new InventoryTransaction();
+        receipt.setProductId("p1");
+        receipt.setType(TransactionType.STOCK_IN);
+        receipt.setQuantity(5);
+        receipt.setLotAllocations(List.of(new LotAllocation("lot-new", 5, null)));
+        enabledLedger.append(receipt, 5, false);
+        for (int i = 0; i < 3; i++) {
+            InventoryTransaction transaction = stockOut("p1");
+            transaction.setLotAllocations(List.of(new LotAllocation("lot-old", 1, null)));
+            enabledLedger.append(transaction, -1, false);
+        }
+
+        // When
+        enabledLedger.flush();
+
+        // Then
+        verify(lotBulk, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(lotBulk, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(lotBulk).execute();
+    }
+
+    @Test
+    @DisplayName("Test a movement arriving during an overwrite is applied on top of the new quantity")
+    void testOverwriteHoldsBackMovements() throws Exception {
+        // Given
+        StockLedger enabledLedger = new StockLedger(mongoTemplate, true, 1000);
+        enabledLedger.reset("p1", 10);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).willReturn(bulkOperations);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryTransaction.class)).willReturn(logBulk);
+        enabledLedger.record(stockOut("p1"), -1, false);
+        Product product = new Product();
+        product.setId("p1");
+        product.setQuantity(50);
+
+        // When
+        CompletableFuture<?>[] concurrent = new CompletableFuture<?>[1];
+        Product saved = enabledLedger.overwrite("p1", () -> {
+            assertThat(enabledLedger.getPendingCount()).isZero();
+            concurrent[0] = CompletableFuture.runAsync(() -> enabledLedger.record(stockOut("p1"), -1, false));
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertThat(concurrent[0]).isNotDone();
+            return product;
+        });
+        concurrent[0].get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(saved).isSameAs(product);
+        assertThat(enabledLedger.getQuantity("p1")).isEqualTo(49);
+        assertThat(enabledLedger.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test a lot callback that fails leaves the counter as it was")
+    void testFailedCallbackRevertsCounter() {
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> stockLedger.record(stockOut("p1"), -3, false, () -> {
+            throw new IllegalStateException("Lot allocation failed");
+        }));
+        assertThat(stockLedger.getQuantity("p1")).isEqualTo(10);
+        assertThat(stockLedger.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test flush applies movements to a product stored before the ledger wrote to it")
+    void testFlushAppliesToProductWithoutSequence() {
+        withStandIn(template -> {
+            // Given
+            template.getCollection("products").insertOne(new Document("_id", "legacy-1").append("sku", "LEGACY-1")
+                    .append("quantity", 10));
+            StockLedger enabledLedger = new StockLedger(template, true, 1000);
+            enabledLedger.record(stockOut("legacy-1"), -1, false);
+            enabledLedger.record(stockOut("legacy-1"), -1, false);
+
+            // When
+            enabledLedger.flush();
+
+            // Then
+            Document stored = template.getCollection("products").find(new Document("_id", "legacy-1")).first();
+            assertThat(stored.getInteger("quantity")).isEqualTo(8);
+            assertThat(template.count(Query.query(Criteria.where("pendingApply").is(true)),
+                    InventoryTransaction.class)).isZero();
+        });
+    }
+
+    @Test
+    @DisplayName("Test a movement logged by a failed earlier attempt does not block the flush")
+    void testFlushSkipsAlreadyLoggedMovements() {
+        withStandIn(template -> {
+            // Given
+            template.getCollection("products").insertOne(new Document("_id", "logged-1").append("sku", "LOGGED-1")
+                    .append("quantity", 10).append("ledgerSequence", 0L));
+            StockLedger enabledLedger = new StockLedger(template, true, 1000);
+            InventoryTransaction first = enabledLedger.record(stockOut("logged-1"), -1, false);
+            enabledLedger.record(stockOut("logged-1"), -1, false);
+            template.insert(first);
+
+            // When
+            enabledLedger.flush();
+
+            // Then
+            assertThat(enabledLedger.getPendingCount()).isZero();
+            Document stored = template.getCollection("products").find(new Document("_id", "logged-1")).first();
+            assertThat(stored.getInteger("quantity")).isEqualTo(8);
+            assertThat(template.count(new Query(), InventoryTransaction.class)).isEqualTo(2);
+        });
+    }
+
+    @Test
+    @DisplayName("Test recovery loads counters for products whose ids are not ObjectIds")
+    void testRecoverWithStringIds() {
+        // Given
+        StockLedger enabledLedger = new StockLedger(mongoTemplate, true, 1000);
+        given(mongoTemplate.getCollectionName(Product.class)).willReturn("products");
+        // Lenient, the pending log is read through the same find overload
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString()))
+                .thenReturn(List.of(new Document("_id", "imported-sku-1").append("quantity", 7)));
+
+        // When
+        enabledLedger.afterPropertiesSet();
+
+        // Then
+        assertThat(enabledLedger.getQuantity("imported-sku-1")).isEqualTo(7);
+    }
+
+    private static void withStandIn(Consumer<MongoTemplate> test) {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind();
+        try (MongoClient client = MongoClients.create(server.getConnectionString())) {
+            test.accept(new MongoTemplate(client, "ledger-test"));
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    private InventoryTransaction stockOut(String productId) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductId(productId);
+        transaction.setType(TransactionType.STOCK_OUT);
+        transaction.setQuantity(1);
+        return transaction;
+    }
+}
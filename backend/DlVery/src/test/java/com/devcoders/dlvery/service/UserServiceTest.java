@@ -12,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -37,6 +39,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -68,10 +73,8 @@ public class UserServiceTest {
     @DisplayName("Test registerUser with valid data")
     void testRegisterUser() {
         // Given
-        given(userRepository.existsByUsername(anyString())).willReturn(false);
-        given(userRepository.existsByEmail(anyString())).willReturn(false);
         given(passwordEncoder.encode(anyString())).willReturn("encodedPassword");
-        given(userRepository.save(any(User.class))).willReturn(user);
+        given(userRepository.insert(any(User.class))).willReturn(user);
 
         // When
         User savedUser = userService.registerUser(registerRequest);
@@ -80,23 +83,44 @@ public class UserServiceTest {
         assertThat(savedUser).isNotNull();
         assertThat(savedUser.getUsername()).isEqualTo("testuser");
         assertThat(savedUser.getEmail()).isEqualTo("test@example.com");
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).insert(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
     @DisplayName("Test registerUser with existing username")
     void testRegisterUserWithExistingUsername() {
         // Given
-        given(userRepository.existsByUsername(anyString())).willReturn(true);
+        given(passwordEncoder.encode(anyString())).willReturn("encodedPassword");
+        given(userRepository.insert(any(User.class))).willThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: dlverydb.users index: username dup key: { username: \"testuser\" }"));
 
         // When & Then
-        assertThrows(IllegalArgumentException.class, () -> {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             userService.registerUser(registerRequest);
         });
 
+        assertThat(exception.getMessage()).isEqualTo("Username is already taken");
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("Test registerUser with existing email")
+    void testRegisterUserWithExistingEmail() {
+        // Given
+        given(passwordEncoder.encode(anyString())).willReturn("encodedPassword");
+        given(userRepository.insert(any(User.class))).willThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: dlverydb.users index: email dup key: { email: \"test@example.com\" }"));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.registerUser(registerRequest);
+        });
+
+        assertThat(exception.getMessage()).isEqualTo("Email is already in use");
+    }
+
     @Test
     @DisplayName("Test getAllUsers")
     void testGetAllUsers() {
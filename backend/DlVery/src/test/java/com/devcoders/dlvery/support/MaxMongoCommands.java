@@ -0,0 +1,18 @@
+package com.devcoders.dlvery.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most Mongo commands any single request made by the test may issue. Commands are counted
+ * on the request thread, from the first filter to the response, so setup done through
+ * repositories and services outside a request does not count.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxMongoCommands {
+
+    int value();
+}
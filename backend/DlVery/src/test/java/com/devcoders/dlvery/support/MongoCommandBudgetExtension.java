@@ -0,0 +1,42 @@
+package com.devcoders.dlvery.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test annotated with {@link MaxMongoCommands} when any request it made issued more
+ * Mongo commands than the budget, listing the commands of the request that went over.
+ * Counting starts after the @BeforeEach methods, so their setup is never charged.
+ */
+public class MongoCommandBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        counter(context).reset();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        MaxMongoCommands budget = context.getRequiredTestMethod().getAnnotation(MaxMongoCommands.class);
+        if (budget == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        List<MongoCommandCounter.RequestCommands> requests = counter(context).getRequests();
+        assertThat(requests).as("requests made by a test with a Mongo command budget").isNotEmpty();
+        for (MongoCommandCounter.RequestCommands request : requests) {
+            assertThat(request.commands())
+                    .as("Mongo commands issued by %s, budget %d", request.request(), budget.value())
+                    .hasSizeLessThanOrEqualTo(budget.value());
+        }
+    }
+
+    private static MongoCommandCounter counter(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(MongoCommandCounter.class);
+    }
+}
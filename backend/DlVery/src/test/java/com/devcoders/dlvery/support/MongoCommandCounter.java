@@ -0,0 +1,63 @@
+package com.devcoders.dlvery.support;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonValue;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the Mongo commands each request issues. The filter marks the request thread and the
+ * command listener, which the synchronous driver calls on the thread running the command,
+ * attributes commands to the request in progress there. Work a request hands to another
+ * thread is not counted.
+ */
+public class MongoCommandCounter extends OncePerRequestFilter implements CommandListener {
+
+    public record RequestCommands(String request, List<String> commands) {
+    }
+
+    private final ThreadLocal<List<String>> current = new ThreadLocal<>();
+    private final List<RequestCommands> requests = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        List<String> commands = new ArrayList<>();
+        current.set(commands);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            current.remove();
+            requests.add(new RequestCommands(request.getMethod() + " " + request.getRequestURI(), commands));
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        List<String> commands = current.get();
+        if (commands != null) {
+            // Most commands name their collection, e.g. {find: "deliveries", ...}
+            BsonValue collection = event.getCommand().get(event.getCommandName());
+            commands.add(collection != null && collection.isString()
+                    ? event.getCommandName() + " " + collection.asString().getValue()
+                    : event.getCommandName());
+        }
+    }
+
+    public List<RequestCommands> getRequests() {
+        return List.copyOf(requests);
+    }
+
+    public void reset() {
+        requests.clear();
+    }
+}
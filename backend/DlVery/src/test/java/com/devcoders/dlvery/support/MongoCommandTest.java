@@ -0,0 +1,33 @@
+package com.devcoders.dlvery.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A full application context on the in-memory Mongo stand-in, driven through MockMvc, in which
+ * test methods can declare a {@link MaxMongoCommands} budget. Test classes share the context,
+ * and so the database; give the data each test creates its own ids and names.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "app.tracing.file=",
+        "app.mongo.profiler.explain=false",
+        "logging.level.com.devcoders.dlvery=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.de.bwaldvogel.mongo=ERROR"
+})
+@AutoConfigureMockMvc
+@Import(MongoStandInConfiguration.class)
+@ExtendWith(MongoCommandBudgetExtension.class)
+public @interface MongoCommandTest {
+}
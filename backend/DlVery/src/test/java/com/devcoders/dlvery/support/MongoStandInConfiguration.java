@@ -0,0 +1,51 @@
+package com.devcoders.dlvery.support;
+
+import com.mongodb.ConnectionString;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Runs the application on an in-memory MongoDB wire protocol server and counts the commands
+ * each request sends to it.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class MongoStandInConfiguration {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public MongoServer mongoStandIn() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind();
+        return server;
+    }
+
+    // Replaces the connection details Boot reads from spring.data.mongodb.uri
+    @Bean
+    public MongoConnectionDetails mongoConnectionDetails(MongoServer mongoStandIn) {
+        ConnectionString connectionString = new ConnectionString(mongoStandIn.getConnectionString() + "/dlvery-test");
+        return () -> connectionString;
+    }
+
+    @Bean
+    public MongoCommandCounter mongoCommandCounter() {
+        return new MongoCommandCounter();
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandCounterCustomizer(MongoCommandCounter counter) {
+        return settings -> settings.addCommandListener(counter);
+    }
+
+    // Outermost, so commands issued by the security filters are counted too
+    @Bean
+    public FilterRegistrationBean<MongoCommandCounter> mongoCommandCounterFilter(MongoCommandCounter counter) {
+        FilterRegistrationBean<MongoCommandCounter> registration = new FilterRegistrationBean<>(counter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
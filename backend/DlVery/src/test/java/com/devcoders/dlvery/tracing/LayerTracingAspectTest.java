@@ -0,0 +1,97 @@
+package com.devcoders.dlvery.tracing;
+
+import com.devcoders.dlvery.model.Delivery;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LayerTracingAspectTest {
+
+    private final List<Observation.Context> stopped = new ArrayList<>();
+    private DeliveryTestService service;
+
+    @BeforeEach
+    void setUp() {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        AspectJProxyFactory factory = new AspectJProxyFactory(new DeliveryTestService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LayerTracingAspect(registry));
+        service = factory.getProxy();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("agent-7", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Test service methods are observed with the principal and delivery id")
+    void testObservesServiceMethod() {
+        // When
+        service.assign("d1", "agent-7");
+
+        // Then
+        assertThat(stopped).hasSize(1);
+        Observation.Context context = stopped.get(0);
+        assertThat(context.getName()).isEqualTo(LayerTracingAspect.OBSERVATION_NAME);
+        assertThat(context.getContextualName()).isEqualTo("DeliveryTestService.assign");
+        assertThat(context.getLowCardinalityKeyValue("layer")).isEqualTo(KeyValue.of("layer", "service"));
+        assertThat(context.getHighCardinalityKeyValue("enduser.id").getValue()).isEqualTo("agent-7");
+        assertThat(context.getHighCardinalityKeyValue("delivery.id").getValue()).isEqualTo("d1");
+    }
+
+    @Test
+    @DisplayName("Test errors are recorded on the observation and rethrown")
+    void testRecordsError() {
+        // Given
+        Delivery delivery = new Delivery();
+        delivery.setId("d2");
+
+        // When / Then
+        assertThatThrownBy(() -> service.fail(delivery)).isInstanceOf(IllegalStateException.class);
+        assertThat(stopped).singleElement().satisfies(context -> {
+            assertThat(context.getError()).isInstanceOf(IllegalStateException.class);
+            assertThat(context.getHighCardinalityKeyValue("delivery.id").getValue()).isEqualTo("d2");
+        });
+    }
+
+    @Service
+    static class DeliveryTestService {
+
+        public String assign(String id, String agentId) {
+            return id + ":" + agentId;
+        }
+
+        public void fail(Delivery delivery) {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.devcoders.dlvery.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RouteSamplerTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final RouteSampler sampler = new RouteSampler(1.0,
+            RouteSampler.parseRoutes("/api/dlteam/location/**=0, /api/dlteam/**=1"));
+
+    @AfterEach
+    void tearDown() {
+        RouteSampler.clearPath();
+    }
+
+    @Test
+    @DisplayName("Test routes are parsed in order")
+    void testParseRoutes() {
+        // When
+        List<RouteSampler.Route> routes = RouteSampler.parseRoutes("/api/batch=1.0,, /api/**=0.25 ");
+
+        // Then
+        assertThat(routes).extracting(RouteSampler.Route::pattern).containsExactly("/api/batch", "/api/**");
+        assertThat(routes).extracting(RouteSampler.Route::probability).containsExactly(1.0, 0.25);
+        assertThatThrownBy(() -> RouteSampler.parseRoutes("/api/batch"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the first matching route decides and unmatched paths use the default")
+    void testSamplesByRoute() {
+        // When
+        RouteSampler.bindPath("/api/dlteam/location");
+        SamplingDecision location = decide();
+        RouteSampler.bindPath("/api/dlteam/sync");
+        SamplingDecision sync = decide();
+        RouteSampler.clearPath();
+        SamplingDecision background = decide();
+
+        // Then
+        assertThat(location).isEqualTo(SamplingDecision.DROP);
+        assertThat(sync).isEqualTo(SamplingDecision.RECORD_AND_SAMPLE);
+        assertThat(background).isEqualTo(SamplingDecision.RECORD_AND_SAMPLE);
+    }
+
+    private SamplingDecision decide() {
+        return sampler.shouldSample(Context.root(), TRACE_ID, "http post", SpanKind.SERVER, Attributes.empty(),
+                List.of()).getDecision();
+    }
+}
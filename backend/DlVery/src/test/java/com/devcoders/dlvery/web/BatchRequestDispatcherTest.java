@@ -0,0 +1,178 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.dto.BatchRequestItem;
+import com.devcoders.dlvery.dto.BatchResponseItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchRequestDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private BatchRequestDispatcher dispatcher;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        Filter passThrough = (req, res, chain) -> chain.doFilter(req, res);
+        dispatcher = new BatchRequestDispatcher(passThrough, new FakeApi(), objectMapper, "Authorization", 20, 8);
+        request = new MockHttpServletRequest("POST", BatchRequestDispatcher.BATCH_PATH);
+        request.addHeader("Authorization", "Bearer token");
+        request.addHeader("Accept-Language", "si");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test independent GETs run in parallel and come back in request order")
+    void testParallelReads() {
+        // Given
+        List<BatchRequestItem> items = List.of(get("a", "/slow?n=1"), get("b", "/slow?n=2"),
+                get("c", "/slow?n=3"), get("d", "/slow?n=4"));
+
+        // When
+        long start = System.nanoTime();
+        List<BatchResponseItem> responses = dispatcher.dispatch(request, new MockHttpServletResponse(), items);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(responses).extracting(BatchResponseItem::getId).containsExactly("a", "b", "c", "d");
+        assertThat(responses).extracting(response -> response.getBody().get("n").asText())
+                .containsExactly("1", "2", "3", "4");
+        assertThat(elapsedMillis).isLessThan(4 * 200);
+    }
+
+    @Test
+    @DisplayName("Test in virtual-thread mode every read gets its own thread whatever the parallelism")
+    void testVirtualThreadReads() {
+        // Given
+        Filter passThrough = (req, res, chain) -> chain.doFilter(req, res);
+        BatchRequestDispatcher virtual = new BatchRequestDispatcher(passThrough, new FakeApi(), objectMapper,
+                "Authorization", 20, 1, true);
+        List<BatchRequestItem> items = List.of(get("a", "/slow?n=1"), get("b", "/slow?n=2"),
+                get("c", "/slow?n=3"), get("d", "/slow?n=4"));
+
+        // When
+        long start = System.nanoTime();
+        List<BatchResponseItem> responses;
+        try {
+            responses = virtual.dispatch(request, new MockHttpServletResponse(), items);
+        } finally {
+            virtual.shutdown();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(responses).extracting(response -> response.getBody().get("n").asText())
+                .containsExactly("1", "2", "3", "4");
+        assertThat(elapsedMillis).isLessThan(4 * 200);
+    }
+
+    @Test
+    @DisplayName("Test a write is a barrier between the reads before and after it")
+    void testWritesAreOrdered() {
+        // Given
+        List<BatchRequestItem> items = List.of(get("before", "/slow"),
+                new BatchRequestItem("write", "POST", "/inc", null, objectMapper.valueToTree(Map.of("by", 1))),
+                get("after", "/slow"));
+
+        // When
+        List<BatchResponseItem> responses = dispatcher.dispatch(request, new MockHttpServletResponse(), items);
+
+        // Then
+        assertThat(responses.get(0).getBody().get("counter").asInt()).isZero();
+        assertThat(responses.get(1).getStatus()).isEqualTo(201);
+        assertThat(responses.get(1).getBody().get("by").asInt()).isEqualTo(1);
+        assertThat(responses.get(2).getBody().get("counter").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test sub-requests get the caller's context but not the batch's token, errors are per item")
+    void testSubRequestIsolation() {
+        // Given
+        List<BatchRequestItem> items = List.of(get("headers", "/headers"), get("missing", "/missing"),
+                new BatchRequestItem("nested", "POST", BatchRequestDispatcher.BATCH_PATH, null, null));
+
+        // When
+        List<BatchResponseItem> responses = dispatcher.dispatch(request, new MockHttpServletResponse(), items);
+
+        // Then
+        assertThat(responses.get(0).getBody().get("authorization").isNull()).isTrue();
+        assertThat(responses.get(0).getBody().get("language").asText()).isEqualTo("si");
+        assertThat(responses.get(1).getStatus()).isEqualTo(404);
+        assertThat(responses.get(2).getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Test an oversized batch is rejected")
+    void testRejectsOversizedBatch() {
+        List<BatchRequestItem> items = Collections.nCopies(21, get("x", "/slow"));
+        assertThatThrownBy(() -> dispatcher.dispatch(request, new MockHttpServletResponse(), items))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BatchRequestItem get(String id, String path) {
+        return new BatchRequestItem(id, null, path, null, null);
+    }
+
+    private class FakeApi extends HttpServlet {
+
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            switch (req.getServletPath()) {
+                case "/slow" -> {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    write(resp, 200, Map.of("n", String.valueOf(req.getParameter("n")), "counter", counter.get()));
+                }
+                case "/inc" -> {
+                    Map<?, ?> body = objectMapper.readValue(req.getInputStream(), Map.class);
+                    counter.addAndGet((Integer) body.get("by"));
+                    write(resp, 201, body);
+                }
+                case "/headers" -> {
+                    Map<String, Object> seen = new HashMap<>();
+                    seen.put("authorization", req.getHeader("Authorization"));
+                    seen.put("language", req.getHeader("Accept-Language"));
+                    seen.put("context", req.getAttribute(
+                            RequestAttributeSecurityContextRepository.DEFAULT_REQUEST_ATTR_NAME) != null);
+                    write(resp, 200, seen);
+                }
+                default -> resp.sendError(404, "No route");
+            }
+        }
+
+        private void write(HttpServletResponse resp, int status, Object body) throws IOException {
+            resp.setStatus(status);
+            resp.setContentType("application/json");
+            objectMapper.writeValue(resp.getOutputStream(), body);
+        }
+    }
+}
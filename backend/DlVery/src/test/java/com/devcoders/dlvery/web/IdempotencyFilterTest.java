@@ -0,0 +1,145 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.dto.LoginRequest;
+import com.devcoders.dlvery.dto.RegisterRequest;
+import com.devcoders.dlvery.model.IdempotencyRecord;
+import com.devcoders.dlvery.model.UserRole;
+import com.devcoders.dlvery.repository.IdempotencyRecordRepository;
+import com.devcoders.dlvery.repository.ProductRepository;
+import com.devcoders.dlvery.support.MongoCommandTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@MongoCommandTest
+public class IdempotencyFilterTest {
+
+    private static final String DISPATCHER = "idempotency-dispatcher";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @WithMockUser(username = DISPATCHER, roles = "INVTEAM")
+    @DisplayName("Test a retried request replays the first response without running it again")
+    void testRetryIsReplayed() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        String sku = "IDEMPOTENT-" + key.substring(0, 8);
+        String body = productJson(sku, "First");
+
+        // When
+        MvcResult first = mockMvc.perform(post("/api/products").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn();
+        MvcResult retry = mockMvc.perform(post("/api/products").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        // Then
+        assertThat(productId(retry)).isEqualTo(productId(first));
+        assertThat(productRepository.findBySku(sku)).isPresent();
+        assertThat(recordRepository.findById(DISPATCHER + ":" + key))
+                .hasValueSatisfying(record -> assertThat(record.isCompleted()).isTrue());
+    }
+
+    @Test
+    @WithMockUser(username = DISPATCHER, roles = "INVTEAM")
+    @DisplayName("Test reusing a key for a different body is rejected")
+    void testKeyReuseWithDifferentBody() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/products").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(productJson("REUSE-" + key.substring(0, 8), "A")))
+                .andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(post("/api/products").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(productJson("REUSE-" + key.substring(0, 8), "B")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = DISPATCHER, roles = "INVTEAM")
+    @DisplayName("Test a claim left behind by a node that died is taken over once")
+    void testStaleClaimIsTakenOver() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        String sku = "STALE-" + key.substring(0, 8);
+        recordRepository.insert(new IdempotencyRecord(DISPATCHER + ":" + key, "other-hash", false, 0, null, null,
+                LocalDateTime.now().minusHours(1)));
+
+        // When
+        mockMvc.perform(post("/api/products").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(productJson(sku, "Stale")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Then
+        assertThat(productRepository.findBySku(sku)).isPresent();
+        assertThat(recordRepository.findById(DISPATCHER + ":" + key)).hasValueSatisfying(record -> {
+            assertThat(record.isCompleted()).isTrue();
+            assertThat(record.getRequestHash()).isNotEqualTo("other-hash");
+        });
+    }
+
+    @Test
+    @DisplayName("Test register and login responses are not recorded")
+    void testAuthEndpointsAreNotRecorded() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        String username = "idem" + key.substring(0, 8);
+        RegisterRequest register = new RegisterRequest(username, "password123", username + "@example.com",
+                "Idempotency Test", UserRole.DLTEAM, null);
+        mockMvc.perform(post("/api/auth/register").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(register)))
+                .andExpect(status().is2xxSuccessful());
+
+        // When
+        mockMvc.perform(post("/api/auth/login").header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(username, "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Then
+        assertThat(recordRepository.findAll()).noneMatch(record -> record.getId().endsWith(":" + key));
+    }
+
+    private String productJson(String sku, String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("sku", sku, "name", name, "category", "OTHER"));
+    }
+
+    private String productId(MvcResult result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.path("data").path("id").asText();
+    }
+}
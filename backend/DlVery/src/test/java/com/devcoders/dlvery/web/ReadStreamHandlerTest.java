@@ -0,0 +1,178 @@
+package com.devcoders.dlvery.web;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.repository.DeliveryRepository;
+import com.devcoders.dlvery.repository.ProductRepository;
+import com.devcoders.dlvery.support.MongoCommandTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@MongoCommandTest
+public class ReadStreamHandlerTest {
+
+    private static final String AGENT = "stream-agent";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @WithMockUser(username = AGENT, roles = "DLTEAM")
+    @DisplayName("Test today's deliveries of the signed in agent stream one document per line")
+    void testStreamsTodayDeliveries() throws Exception {
+        // Given
+        deliveryRepository.save(delivery(AGENT, LocalDate.now()));
+        deliveryRepository.save(delivery(AGENT, LocalDate.now()));
+        deliveryRepository.save(delivery(AGENT, LocalDate.now().plusDays(1)));
+        deliveryRepository.save(delivery("another-agent", LocalDate.now()));
+
+        // When
+        List<JsonNode> lines = stream("/api/dlteam/stream/deliveries/my/today");
+
+        // Then
+        assertThat(lines).hasSize(2).allSatisfy(line -> {
+            assertThat(line.path("deliveryAgentId").asText()).isEqualTo(AGENT);
+            assertThat(line.path("scheduledDate").asText()).isEqualTo(LocalDate.now().toString());
+        });
+    }
+
+    @Test
+    @WithMockUser(username = AGENT, roles = "DLTEAM")
+    @DisplayName("Test streamed deliveries leave out the customer's signature")
+    void testStreamsDeliveriesWithoutSignature() throws Exception {
+        // Given
+        Delivery signed = delivery(AGENT, LocalDate.now().plusDays(2));
+        signed.setCustomerSignature("data:image/png;base64,c2lnbmF0dXJl");
+        String id = deliveryRepository.save(signed).getId();
+
+        // When
+        List<JsonNode> mine = stream("/api/dlteam/stream/deliveries/my");
+
+        // Then
+        assertThat(mine).filteredOn(line -> line.path("id").asText().equals(id)).singleElement()
+                .satisfies(line -> {
+                    assertThat(line.path("customerName").asText()).isEqualTo("Stream Customer");
+                    assertThat(line.hasNonNull("customerSignature")).isFalse();
+                });
+    }
+
+    @Test
+    @WithMockUser(roles = "INVTEAM")
+    @DisplayName("Test every delivery streams without the customer's signature")
+    void testStreamsAllDeliveriesWithoutSignature() throws Exception {
+        // Given
+        Delivery signed = delivery("signed-agent", LocalDate.now());
+        signed.setCustomerSignature("data:image/png;base64,c2lnbmF0dXJl");
+        deliveryRepository.save(signed);
+
+        // When
+        List<JsonNode> lines = stream("/api/invteam/stream/deliveries");
+
+        // Then
+        assertThat(lines).isNotEmpty().noneMatch(line -> line.hasNonNull("customerSignature"));
+    }
+
+    @Test
+    @WithMockUser(roles = "DLTEAM")
+    @DisplayName("Test products stream filtered by category")
+    void testStreamsProductsByCategory() throws Exception {
+        // Given
+        String batch = UUID.randomUUID().toString().substring(0, 8);
+        productRepository.save(product("STREAM-" + batch + "-1", ProductCategory.BOOKS));
+        productRepository.save(product("STREAM-" + batch + "-2", ProductCategory.BOOKS));
+        productRepository.save(product("STREAM-" + batch + "-3", ProductCategory.TOYS));
+
+        // When
+        List<JsonNode> lines = stream("/api/stream/products?category=BOOKS");
+
+        // Then
+        assertThat(lines).extracting(line -> line.path("sku").asText())
+                .contains("STREAM-" + batch + "-1", "STREAM-" + batch + "-2")
+                .doesNotContain("STREAM-" + batch + "-3");
+    }
+
+    @Test
+    @WithMockUser(roles = "INVTEAM")
+    @DisplayName("Test an unknown status is rejected before anything is streamed")
+    void testUnknownStatus() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/api/invteam/stream/deliveries").param("status", "LOST"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "DLTEAM")
+    @DisplayName("Test agents cannot stream every delivery")
+    void testInventoryRouteForbiddenToAgents() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/api/invteam/stream/deliveries"))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<JsonNode> stream(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private static Delivery delivery(String agentId, LocalDate scheduledDate) {
+        Delivery delivery = new Delivery();
+        delivery.setDeliveryAgentId(agentId);
+        delivery.setCustomerName("Stream Customer");
+        delivery.setCustomerAddress("12 Galle Road, Colombo 3");
+        delivery.setCustomerPhone("+94771234567");
+        delivery.setPriority(DeliveryPriority.NORMAL);
+        delivery.setScheduledDate(scheduledDate);
+        delivery.setItems(new ArrayList<>());
+        return delivery;
+    }
+
+    private static Product product(String sku, ProductCategory category) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName("Stream product " + sku);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,95 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.dto.BatchAssignmentResult;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.service.AgentWorkloadService;
+import com.devcoders.dlvery.service.DeliveryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AgentWorkloadService auto-assigning a day of 50,000 deliveries across 500 agents, heaviest
+ * first, on a fresh workload board each time. Some of the agents can be made ineligible first
+ * (disabled or no longer DLTEAM), as happens over a day, to show that picking the least-loaded
+ * agent does not slow down with them. Saving the delivery is left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgentWorkloadBenchmark {
+
+    private static final int DELIVERIES = 50_000;
+    private static final int AGENTS = 500;
+    private static final LocalDate DATE = LocalDate.of(2026, 4, 1);
+
+    @Param({"0", "250"})
+    private int ineligibleAgents;
+
+    private DeliveryService deliveryService;
+    private List<Delivery> batch;
+    private AgentWorkloadService workloadService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only the assignment itself is benchmarked, not the stock holds or the save behind it
+        deliveryService = new DeliveryService(null, null, null, null, null, null, event -> {
+        }, null) {
+            @Override
+            public Delivery assignDelivery(Delivery delivery) {
+                return delivery;
+            }
+        };
+
+        Random random = new Random(7L);
+        DeliveryPriority[] priorities = DeliveryPriority.values();
+        batch = new ArrayList<>(DELIVERIES);
+        for (int i = 0; i < DELIVERIES; i++) {
+            DeliveryItem item = new DeliveryItem();
+            item.setSku("SKU-" + random.nextInt(200));
+            item.setQuantity(1 + random.nextInt(10));
+            Delivery delivery = new Delivery();
+            delivery.setId(String.format("%024x", i));
+            delivery.setPriority(priorities[random.nextInt(priorities.length)]);
+            delivery.setScheduledDate(DATE);
+            delivery.setItems(List.of(item));
+            batch.add(delivery);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newBoard() {
+        workloadService = new AgentWorkloadService(null, null, deliveryService);
+        for (int i = 0; i < AGENTS; i++) {
+            workloadService.addAgent(String.format("agent-%03d", i));
+        }
+        for (int i = 0; i < ineligibleAgents; i++) {
+            workloadService.removeAgent(String.format("agent-%03d", i));
+        }
+    }
+
+    @Benchmark
+    public BatchAssignmentResult autoAssignDay() {
+        return workloadService.autoAssignAll(batch);
+    }
+}
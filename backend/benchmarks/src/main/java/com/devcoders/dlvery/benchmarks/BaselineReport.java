@@ -0,0 +1,133 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result against a baseline run and prints a Markdown table of the change
+ * per benchmark and parameter set. A change counts as a regression when the score got worse
+ * by more than the threshold and by more than the two runs' error margins combined.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.BaselineReport
+ * baseline.json target/jmh-result.json [threshold-percent] [report.md]}. Exits with 1 when
+ * anything regressed, so it can gate a build.
+ */
+public final class BaselineReport {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BaselineReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineReport <baseline.json> <result.json> [threshold-percent] [report.md]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Score> baseline = read(objectMapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, Score> current = read(objectMapper.readTree(Path.of(args[1]).toFile()));
+
+        List<Row> rows = compare(baseline, current, threshold);
+        String report = render(rows, threshold);
+        System.out.print(report);
+        if (args.length > 3) {
+            Files.writeString(Path.of(args[3]), report);
+        }
+        if (rows.stream().anyMatch(row -> row.verdict() == Verdict.REGRESSION)) {
+            System.exit(1);
+        }
+    }
+
+    static Map<String, Score> read(JsonNode results) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String benchmark = result.path("benchmark").asText();
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String key = params.isEmpty() ? benchmark : benchmark + " " + params;
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key, new Score(result.path("mode").asText(), metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    static List<Row> compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        List<Row> rows = new ArrayList<>();
+        current.forEach((key, score) -> {
+            Score before = baseline.get(key);
+            if (before == null || !before.unit().equals(score.unit()) || before.score() == 0) {
+                rows.add(new Row(key, before, score, Double.NaN, Verdict.NEW));
+                return;
+            }
+            double change = (score.score() - before.score()) / before.score() * 100;
+            // Throughput is better when higher; every time-based mode is better when lower
+            double worsening = score.mode().equals("thrpt") ? -change : change;
+            boolean beyondNoise = Math.abs(score.score() - before.score()) > score.error() + before.error();
+            Verdict verdict = !beyondNoise || Math.abs(change) <= threshold ? Verdict.SAME
+                    : worsening > 0 ? Verdict.REGRESSION : Verdict.IMPROVEMENT;
+            rows.add(new Row(key, before, score, change, verdict));
+        });
+        baseline.forEach((key, score) -> {
+            if (!current.containsKey(key)) {
+                rows.add(new Row(key, score, null, Double.NaN, Verdict.MISSING));
+            }
+        });
+        return rows;
+    }
+
+    static String render(List<Row> rows, double threshold) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Benchmark comparison (threshold %.1f%%)%n%n", threshold));
+        report.append("| Benchmark | Baseline | Current | Change | Verdict |\n");
+        report.append("|---|---:|---:|---:|---|\n");
+        for (Row row : rows) {
+            report.append("| ").append(row.key())
+                    .append(" | ").append(format(row.baseline()))
+                    .append(" | ").append(format(row.current()))
+                    .append(" | ").append(Double.isNaN(row.change()) ? "" : String.format("%+.1f%%", row.change()))
+                    .append(" | ").append(row.verdict())
+                    .append(" |\n");
+        }
+        long regressions = rows.stream().filter(row -> row.verdict() == Verdict.REGRESSION).count();
+        report.append(String.format("%n%d regression(s), %d improvement(s) across %d benchmark(s)%n", regressions,
+                rows.stream().filter(row -> row.verdict() == Verdict.IMPROVEMENT).count(), rows.size()));
+        return report.toString();
+    }
+
+    private static String format(Score score) {
+        return score == null ? "" : String.format("%.3f +/- %.3f %s", score.score(), score.error(), score.unit());
+    }
+
+    record Score(String mode, double score, double error, String unit) {
+    }
+
+    record Row(String key, Score baseline, Score current, double change, Verdict verdict) {
+    }
+
+    enum Verdict {
+        SAME,
+        IMPROVEMENT,
+        REGRESSION,
+        NEW,
+        MISSING
+    }
+}
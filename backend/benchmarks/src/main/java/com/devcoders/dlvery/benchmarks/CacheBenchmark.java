@@ -0,0 +1,77 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.config.CacheConfig;
+import com.devcoders.dlvery.model.Delivery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CacheManager from CacheConfig, with the hit/miss counting its caches do for metrics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+    private static final int ENTRIES = 1_000;
+
+    private Cache cache;
+    private List<Delivery> deliveries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new CacheConfig().cacheManager().getCache("deliveries");
+        deliveries = Fixtures.deliveries(ENTRIES, 7L);
+        deliveries.forEach(delivery -> cache.put(delivery.getId(), delivery));
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return cache.get(randomDelivery().getId());
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return cache.get("missing-" + ThreadLocalRandom.current().nextInt(ENTRIES));
+    }
+
+    @Benchmark
+    public Delivery getLoadingHit() {
+        Delivery delivery = randomDelivery();
+        return cache.get(delivery.getId(), () -> delivery);
+    }
+
+    @Benchmark
+    public void put() {
+        Delivery delivery = randomDelivery();
+        cache.put(delivery.getId(), delivery);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object getHitContended() {
+        return cache.get(randomDelivery().getId());
+    }
+
+    private Delivery randomDelivery() {
+        return deliveries.get(ThreadLocalRandom.current().nextInt(ENTRIES));
+    }
+}
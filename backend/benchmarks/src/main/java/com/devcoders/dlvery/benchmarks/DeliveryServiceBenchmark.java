@@ -0,0 +1,108 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.service.CommittedStockIndex;
+import com.devcoders.dlvery.service.DeliveryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeliveryService over an in-memory repository: the service's own work on each call (timestamps,
+ * the committed stock index, change events) without the round trip to Mongo. Status updates
+ * move deliveries between IN_TRANSIT and DOOR_LOCK, which involve no stock movements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeliveryServiceBenchmark {
+
+    private static final int DELIVERIES = 2_000;
+
+    private DeliveryService deliveryService;
+    private List<Delivery> deliveries;
+    private List<String> inTransitIds;
+    private List<Delivery> templates;
+
+    @Setup
+    public void setUp() {
+        deliveries = Fixtures.deliveries(DELIVERIES, 11L);
+        inTransitIds = new ArrayList<>();
+        templates = new ArrayList<>();
+        for (int i = 0; i < DELIVERIES; i++) {
+            if (i % 4 == 0) {
+                deliveries.get(i).setStatus(DeliveryStatus.IN_TRANSIT);
+                inTransitIds.add(deliveries.get(i).getId());
+            } else {
+                templates.add(deliveries.get(i));
+            }
+        }
+        CommittedStockIndex committedStockIndex = new CommittedStockIndex(null);
+        deliveries.forEach(committedStockIndex::track);
+
+        // Only the collaborators the benchmarked paths reach are provided
+        deliveryService = new DeliveryService(InMemoryDeliveryRepository.create(deliveries), null, null, null,
+                committedStockIndex, null, event -> {
+        }, address -> Optional.empty());
+    }
+
+    @Benchmark
+    public Delivery createDelivery() {
+        Delivery template = templates.get(ThreadLocalRandom.current().nextInt(templates.size()));
+        Delivery delivery = new Delivery();
+        // Reusing ids keeps the repository at a constant size; the in-transit ones are left alone
+        delivery.setId(template.getId());
+        delivery.setDeliveryAgentId(template.getDeliveryAgentId());
+        delivery.setItems(template.getItems());
+        delivery.setCustomerName(template.getCustomerName());
+        delivery.setCustomerAddress(template.getCustomerAddress());
+        delivery.setLocation(template.getLocation());
+        delivery.setPriority(template.getPriority());
+        delivery.setScheduledDate(template.getScheduledDate());
+        return deliveryService.createDelivery(delivery);
+    }
+
+    @Benchmark
+    public Delivery getDeliveryById() {
+        return deliveryService.getDeliveryById(randomDelivery().getId());
+    }
+
+    @Benchmark
+    public List<Delivery> getDeliveriesByAgentId() {
+        return deliveryService.getDeliveriesByAgentId("agent-" + ThreadLocalRandom.current().nextInt(Fixtures.AGENTS));
+    }
+
+    @Benchmark
+    public List<Delivery> getDeliveriesByStatus() {
+        return deliveryService.getDeliveriesByStatus(DeliveryStatus.DELIVERED);
+    }
+
+    @Benchmark
+    public Delivery updateDeliveryStatus() {
+        String id = inTransitIds.get(ThreadLocalRandom.current().nextInt(inTransitIds.size()));
+        DeliveryStatus next = deliveryService.getDeliveryById(id).getStatus() == DeliveryStatus.IN_TRANSIT
+                ? DeliveryStatus.DOOR_LOCK : DeliveryStatus.IN_TRANSIT;
+        return deliveryService.updateDeliveryStatus(id, next, "Benchmark");
+    }
+
+    private Delivery randomDelivery() {
+        return deliveries.get(ThreadLocalRandom.current().nextInt(DELIVERIES));
+    }
+}
@@ -0,0 +1,80 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.LotAllocation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deliveries shaped like production data: a few items each with their lot allocations, a
+ * located address, and a signature image on the ones already delivered.
+ */
+final class Fixtures {
+
+    static final int AGENTS = 25;
+
+    private static final String[] STREETS = {"Galle Road", "Duplication Road", "Baseline Road", "High Level Road",
+            "Havelock Road", "Kandy Road", "Negombo Road", "Parliament Road"};
+    private static final DeliveryStatus[] STATUSES = DeliveryStatus.values();
+    private static final DeliveryPriority[] PRIORITIES = DeliveryPriority.values();
+
+    private Fixtures() {
+    }
+
+    static List<Delivery> deliveries(int count, long seed) {
+        Random random = new Random(seed);
+        byte[] signature = new byte[6 * 1024];
+        random.nextBytes(signature);
+        String encodedSignature = Base64.getEncoder().encodeToString(signature);
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 9, 30);
+
+        List<Delivery> deliveries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setId(String.format("65f0c2a1b4e%013d", i));
+            delivery.setDeliveryAgentId("agent-" + random.nextInt(AGENTS));
+            delivery.setItems(items(random, 1 + random.nextInt(6)));
+            delivery.setCustomerName("Customer " + i);
+            delivery.setCustomerAddress((1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)]
+                    + ", Colombo " + (1 + random.nextInt(15)));
+            delivery.setLocation(new GeoJsonPoint(79.84 + random.nextDouble() * 0.1, 6.85 + random.nextDouble() * 0.1));
+            delivery.setCustomerPhone("+9477" + (1000000 + random.nextInt(8999999)));
+            delivery.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            delivery.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            delivery.setScheduledDate(LocalDate.of(2026, 3, 2).plusDays(random.nextInt(3)));
+            if (delivery.getStatus() == DeliveryStatus.DELIVERED) {
+                delivery.setDeliveredAt(now.plusMinutes(random.nextInt(480)));
+                delivery.setCustomerSignature(encodedSignature);
+            }
+            delivery.setNotes(random.nextInt(4) == 0 ? "Call before arriving, gate code " + random.nextInt(9999) : null);
+            delivery.setCreatedAt(now.minusHours(random.nextInt(72)));
+            delivery.setUpdatedAt(now);
+            deliveries.add(delivery);
+        }
+        return deliveries;
+    }
+
+    private static List<DeliveryItem> items(Random random, int count) {
+        List<DeliveryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int sku = random.nextInt(500);
+            int quantity = 1 + random.nextInt(12);
+            List<LotAllocation> lots = new ArrayList<>();
+            lots.add(new LotAllocation("lot-" + sku + "-a", quantity - quantity / 3, LocalDate.of(2026, 6, 1)));
+            if (quantity / 3 > 0) {
+                lots.add(new LotAllocation("lot-" + sku + "-b", quantity / 3, LocalDate.of(2026, 9, 1)));
+            }
+            items.add(new DeliveryItem("product-" + sku, "SKU-" + sku, "Product " + sku, quantity, false, false, lots));
+        }
+        return items;
+    }
+}
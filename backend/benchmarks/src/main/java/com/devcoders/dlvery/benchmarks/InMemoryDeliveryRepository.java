@@ -0,0 +1,60 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.repository.DeliveryRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A DeliveryRepository over a map, covering the methods DeliveryService calls, so benchmarks
+ * measure the service rather than the database. Anything else is unsupported.
+ */
+final class InMemoryDeliveryRepository {
+
+    private InMemoryDeliveryRepository() {
+    }
+
+    static DeliveryRepository create(Collection<Delivery> deliveries) {
+        Map<String, Delivery> store = new ConcurrentHashMap<>();
+        deliveries.forEach(delivery -> store.put(delivery.getId(), delivery));
+
+        return (DeliveryRepository) Proxy.newProxyInstance(DeliveryRepository.class.getClassLoader(),
+                new Class<?>[]{DeliveryRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Delivery delivery = (Delivery) args[0];
+                        store.put(delivery.getId(), delivery);
+                        yield delivery;
+                    }
+                    case "findById" -> Optional.ofNullable(store.get((String) args[0]));
+                    case "findAll" -> new ArrayList<>(store.values());
+                    case "delete" -> {
+                        store.remove(((Delivery) args[0]).getId());
+                        yield null;
+                    }
+                    case "findByStatus" -> filter(store, delivery -> delivery.getStatus() == args[0]);
+                    case "findByDeliveryAgentId" ->
+                            filter(store, delivery -> Objects.equals(delivery.getDeliveryAgentId(), args[0]));
+                    case "findByDeliveryAgentIdAndStatus" -> filter(store, delivery ->
+                            Objects.equals(delivery.getDeliveryAgentId(), args[0]) && delivery.getStatus() == args[1]);
+                    case "findByDeliveryAgentIdAndScheduledDate" -> filter(store, delivery ->
+                            Objects.equals(delivery.getDeliveryAgentId(), args[0])
+                                    && Objects.equals(delivery.getScheduledDate(), args[1]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryDeliveryRepository(" + store.size() + " deliveries)";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<Delivery> filter(Map<String, Delivery> store, Predicate<Delivery> predicate) {
+        return store.values().stream().filter(predicate).toList();
+    }
+}
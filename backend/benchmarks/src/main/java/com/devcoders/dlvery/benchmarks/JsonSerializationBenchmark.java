@@ -0,0 +1,70 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.dto.ApiResponse;
+import com.devcoders.dlvery.model.Delivery;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as the controllers write them: delivery lists wrapped in ApiResponse, with
+ * the ObjectMapper configured the way Spring Boot configures it for the app.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private static final TypeReference<ApiResponse<List<Delivery>>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    // An agent's day, a dispatcher's page, and the full board
+    @Param({"20", "100", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Delivery> deliveries;
+    private ApiResponse<List<Delivery>> response;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new GeoJsonModule()).build();
+        deliveries = Fixtures.deliveries(size, 42L);
+        response = ApiResponse.success(deliveries);
+        responseJson = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeDeliveries() throws Exception {
+        return objectMapper.writeValueAsBytes(deliveries);
+    }
+
+    @Benchmark
+    public byte[] serializeApiResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApiResponse<List<Delivery>> deserializeApiResponse() throws Exception {
+        return objectMapper.readValue(responseJson, RESPONSE_TYPE);
+    }
+}
@@ -0,0 +1,83 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.geo.KMeansClusterer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KMeansClusterer on a day of deliveries: 20,000 points around a few dense areas of one city,
+ * with the iteration limit the backend uses. clusterAllCores runs the parallel streams on the
+ * common pool. clusterOneCore runs the same call inside a one-thread pool, which the parallel
+ * streams then run on, to show what the parallelism buys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KMeansBenchmark {
+
+    private static final int POINTS = 20_000;
+    private static final int AREAS = 12;
+    private static final int MAX_ITERATIONS = 50;
+
+    @Param({"16", "64"})
+    private int clusters;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private KMeansClusterer clusterer;
+    private ForkJoinPool oneCore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        double[] areaLatitudes = new double[AREAS];
+        double[] areaLongitudes = new double[AREAS];
+        for (int a = 0; a < AREAS; a++) {
+            areaLatitudes[a] = 6.85 + random.nextDouble() * 0.1;
+            areaLongitudes[a] = 79.84 + random.nextDouble() * 0.1;
+        }
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            int area = random.nextInt(AREAS);
+            latitudes[i] = areaLatitudes[area] + random.nextGaussian() * 0.01;
+            longitudes[i] = areaLongitudes[area] + random.nextGaussian() * 0.01;
+        }
+        clusterer = new KMeansClusterer(MAX_ITERATIONS, 42L);
+        oneCore = new ForkJoinPool(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        oneCore.shutdown();
+    }
+
+    @Benchmark
+    public KMeansClusterer.Result clusterAllCores() {
+        return clusterer.cluster(latitudes, longitudes, clusters);
+    }
+
+    @Benchmark
+    public KMeansClusterer.Result clusterOneCore() throws ExecutionException, InterruptedException {
+        return oneCore.submit(() -> clusterer.cluster(latitudes, longitudes, clusters)).get();
+    }
+}
@@ -0,0 +1,82 @@
+package com.devcoders.dlvery.benchmarks;
+
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.service.LotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LotService's in-memory lot queues for one SKU holding thousands of lots, as in ledger mode
+ * where the lots are written by the ledger's flush. Each stock out is followed by a receipt of
+ * the same size, so the number of lots stays level. sortOpenLots is what every allocation cost
+ * when the SKU's lots were sorted by expiry on each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LotBenchmark {
+
+    private static final String SKU = "BENCH-LOTS";
+    private static final int UNITS_PER_LOT = 3;
+
+    @Param({"1000", "10000"})
+    private int lots;
+
+    private LotService lotService;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only the in-memory paths are benchmarked, they never reach the repository or Mongo
+        lotService = new LotService(null, null, null, event -> {
+        });
+        today = LocalDate.now();
+        for (int i = 0; i < lots; i++) {
+            receive();
+        }
+    }
+
+    @Benchmark
+    public StockLot stockOutAndReceive() {
+        List<LotAllocation> allocations = lotService.drawDown(SKU, UNITS_PER_LOT);
+        if (allocations.isEmpty()) {
+            throw new IllegalStateException("Lots ran out");
+        }
+        return receive();
+    }
+
+    @Benchmark
+    public List<StockLot> sortOpenLots() {
+        return lotService.getOpenLots(SKU);
+    }
+
+    private StockLot receive() {
+        InventoryTransaction receipt = new InventoryTransaction();
+        receipt.setProductId("bench-product");
+        receipt.setSku(SKU);
+        receipt.setTimestamp(LocalDateTime.now());
+        LocalDate expiryDate = today.plusDays(ThreadLocalRandom.current().nextInt(1, 365));
+        return lotService.open(receipt, expiryDate, UNITS_PER_LOT);
+    }
+}
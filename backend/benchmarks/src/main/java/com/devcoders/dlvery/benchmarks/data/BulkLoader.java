@@ -0,0 +1,107 @@
+package com.devcoders.dlvery.benchmarks.data;
+
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers model objects per collection and writes them in unordered insertMany batches on a
+ * fixed pool of threads. Objects are mapped with the template's converter, so the documents
+ * are the ones the application would have saved. Entities must not change once added.
+ */
+final class BulkLoader implements AutoCloseable {
+
+    private final MongoTemplate template;
+    private final int batchSize;
+    private final int threads;
+    private final ExecutorService executor;
+    // Caps the batches converted or in flight, so generation cannot run far ahead of the database
+    private final Semaphore inFlight;
+    private final Map<Class<?>, List<Object>> pending = new LinkedHashMap<>();
+    private final Map<String, LongAdder> inserted = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    BulkLoader(MongoTemplate template, int batchSize, int threads) {
+        this.template = template;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.inFlight = new Semaphore(threads * 2);
+    }
+
+    void add(Object entity) {
+        List<Object> batch = pending.computeIfAbsent(entity.getClass(), type -> new ArrayList<>(batchSize));
+        batch.add(entity);
+        if (batch.size() >= batchSize) {
+            pending.remove(entity.getClass());
+            submit(entity.getClass(), batch);
+        }
+    }
+
+    /**
+     * Writes everything added so far and waits for it.
+     */
+    void flush() {
+        pending.forEach(this::submit);
+        pending.clear();
+        inFlight.acquireUninterruptibly(threads * 2);
+        inFlight.release(threads * 2);
+        checkFailure();
+    }
+
+    Map<String, Long> insertedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        inserted.forEach((collection, count) -> counts.put(collection, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void submit(Class<?> type, List<Object> batch) {
+        checkFailure();
+        inFlight.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                MongoConverter converter = template.getConverter();
+                List<Document> documents = new ArrayList<>(batch.size());
+                for (Object entity : batch) {
+                    Document document = new Document();
+                    converter.write(entity, document);
+                    documents.add(document);
+                }
+                String collection = template.getCollectionName(type);
+                template.getCollection(collection).insertMany(documents, new InsertManyOptions().ordered(false));
+                inserted.computeIfAbsent(collection, name -> new LongAdder()).add(documents.size());
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("Bulk insert failed", cause);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.devcoders.dlvery.benchmarks.data;
+
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.InventoryTransaction;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.model.ReservationStatus;
+import com.devcoders.dlvery.model.StockLot;
+import com.devcoders.dlvery.model.StockReservation;
+import com.devcoders.dlvery.model.TransactionType;
+import com.devcoders.dlvery.model.User;
+import com.devcoders.dlvery.model.UserRole;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a database with a synthetic but consistent history: users, products, deliveries with
+ * their items, lot allocations and signatures, the stock reservations and inventory
+ * transactions those deliveries caused, and the stock lots left over. Every document is built
+ * from the model classes and follows the rules of the services that would have written it,
+ * so the application starts on the result and keeps working. The same seed, end date and
+ * options always produce the same documents, ids included.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.data.DatasetGenerator
+ * [--mongo-uri=mongodb://localhost:27017/dlvery-scale] [--drop=true] [--deliveries=300000]
+ * [--transactions=2000000] [--agents=2000] [--agents-per-day=1200] [--products=5000]
+ * [--sku-skew=1.1] [--status-mix=DELIVERED=82,DOOR_LOCK=6,PARTIALLY_DELIVERED=5,RETURNED=4,DAMAGED=3]
+ * [--end-date=2026-03-02] [--seed=42]}. See {@link DatasetProfile} for the rest.
+ */
+public final class DatasetGenerator {
+
+    private static final String[] STREETS = {"Galle Road", "Duplication Road", "Baseline Road", "High Level Road",
+            "Havelock Road", "Kandy Road", "Negombo Road", "Parliament Road"};
+    private static final String[] FIRST_NAMES = {"Nimal", "Kamala", "Sunil", "Priya", "Ruwan", "Dilani", "Asanka",
+            "Chamari", "Tharindu", "Ishara", "Mahesh", "Nadeesha"};
+    private static final String[] LAST_NAMES = {"Perera", "Fernando", "Silva", "Jayasinghe", "Bandara",
+            "Wickramasinghe", "Gunawardena", "Ranasinghe", "Dissanayake", "Herath"};
+    private static final DeliveryPriority[] PRIORITIES = {DeliveryPriority.LOW, DeliveryPriority.NORMAL,
+            DeliveryPriority.NORMAL, DeliveryPriority.NORMAL, DeliveryPriority.HIGH, DeliveryPriority.URGENT};
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    // Matches app.inventory.reservation.ttl-minutes
+    private static final Duration HOLD_TTL = Duration.ofMinutes(240);
+    // Share of today's unfinished deliveries already on the road
+    private static final double TODAY_IN_TRANSIT = 0.4;
+    private static final int SIGNATURES = 16;
+
+    // Second id field, so ids of different collections never look alike
+    private static final int USERS = 1;
+    private static final int PRODUCTS = 2;
+    private static final int DELIVERIES = 3;
+    private static final int TRANSACTIONS = 4;
+    private static final int LOTS = 5;
+    private static final int RESERVATIONS = 6;
+
+    private static final List<Class<?>> COLLECTIONS = List.of(User.class, Product.class, Delivery.class,
+            InventoryTransaction.class, StockLot.class, StockReservation.class);
+
+    private final DatasetProfile profile;
+    private final BulkLoader loader;
+    private final ZipfSampler popularity;
+    private final LotBook lots;
+    private final SplittableRandom root;
+    private final int[] sequences = new int[RESERVATIONS + 1];
+    private final List<String> agents = new ArrayList<>();
+    private final List<String> dispatchers = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final int[] onHand;
+    private final double[] dailyDemand;
+    private final String[] signatures = new String[SIGNATURES];
+    private final Map<DeliveryStatus, Integer> statusCounts = new EnumMap<>(DeliveryStatus.class);
+    private final Map<TransactionType, Integer> transactionCounts = new EnumMap<>(TransactionType.class);
+    private long transactions;
+
+    DatasetGenerator(DatasetProfile profile, BulkLoader loader) {
+        this.profile = profile;
+        this.loader = loader;
+        this.popularity = new ZipfSampler(profile.products(), profile.skuSkew());
+        this.lots = new LotBook(profile.products());
+        this.root = new SplittableRandom(profile.seed());
+        this.onHand = new int[profile.products()];
+        this.dailyDemand = new double[profile.products()];
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetProfile profile = DatasetProfile.parse(args);
+        ConnectionString connectionString = new ConnectionString(profile.mongoUri());
+        String database = connectionString.getDatabase() != null ? connectionString.getDatabase() : "dlvery-scale";
+        long started = System.nanoTime();
+
+        try (MongoClient client = MongoClients.create(connectionString)) {
+            MongoTemplate template = new MongoTemplate(client, database);
+            prepare(template, profile.drop());
+            System.out.printf("Generating %d deliveries over %d + %d days for %d agents and %d products into %s%n",
+                    profile.deliveries(), profile.days(), profile.futureDays(), profile.agents(), profile.products(),
+                    database);
+
+            DatasetGenerator generator;
+            try (BulkLoader loader = new BulkLoader(template, profile.batchSize(), profile.threads())) {
+                generator = new DatasetGenerator(profile, loader);
+                generator.generate();
+                loader.flush();
+                loader.insertedCounts().forEach((collection, count) ->
+                        System.out.printf("%-24s %,12d documents%n", collection, count));
+            }
+            System.out.println("Deliveries by status: " + generator.statusCounts);
+            System.out.println("Transactions by type: " + generator.transactionCounts);
+
+            System.out.println("Creating the indexes the model declares");
+            createIndexes(template);
+        }
+        System.out.printf("Done in %d s%n", Duration.ofNanos(System.nanoTime() - started).toSeconds());
+    }
+
+    void generate() {
+        createUsers(root.split());
+        createCatalog(root.split());
+        for (int day = 0; day < profile.totalDays(); day++) {
+            generateDay(day, root.split());
+        }
+        lots.drainAll().forEach(loader::add);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setQuantity(onHand[i]);
+            loader.add(products.get(i));
+        }
+    }
+
+    // Refuses to mix generated documents into existing ones unless asked to drop them
+    private static void prepare(MongoTemplate template, boolean drop) {
+        for (Class<?> type : COLLECTIONS) {
+            if (drop) {
+                template.dropCollection(type);
+            } else if (template.getCollection(template.getCollectionName(type)).estimatedDocumentCount() > 0) {
+                throw new IllegalStateException("Collection " + template.getCollectionName(type)
+                        + " is not empty; pass --drop=true to replace it");
+            }
+        }
+    }
+
+    // After the load, which is faster than maintaining them during it; the application then finds them in place
+    private static void createIndexes(MongoTemplate template) {
+        MongoMappingContext mappingContext = (MongoMappingContext) template.getConverter().getMappingContext();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> type : COLLECTIONS) {
+            IndexOperations indexOperations = template.indexOps(type);
+            resolver.resolveIndexFor(type).forEach(indexOperations::createIndex);
+        }
+    }
+
+    private void createUsers(SplittableRandom random) {
+        String password = BCrypt.hashpw(profile.password(), BCrypt.gensalt(10, secureRandom(random.nextLong())));
+        LocalDateTime registered = profile.startDate().minusDays(30).atTime(9, 0);
+        for (int i = 1; i <= profile.dispatchers(); i++) {
+            dispatchers.add(createUser(random, String.format("dispatcher%04d", i), UserRole.INVTEAM, password, registered));
+        }
+        for (int i = 1; i <= profile.agents(); i++) {
+            agents.add(createUser(random, String.format("agent%05d", i), UserRole.DLTEAM, password, registered));
+        }
+    }
+
+    private String createUser(SplittableRandom random, String username, UserRole role, String password,
+                              LocalDateTime registered) {
+        User user = new User();
+        user.setId(nextId(USERS, registered));
+        user.setUsername(username);
+        user.setPassword(password);
+        user.setEmail(username + "@dlvery.test");
+        user.setFullName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        user.setPhoneNumber(phone(random));
+        user.setRole(role);
+        loader.add(user);
+        return username;
+    }
+
+    private void createCatalog(SplittableRandom random) {
+        for (int i = 0; i < SIGNATURES; i++) {
+            byte[] signature = new byte[profile.signatureBytes()];
+            random.nextBytes(signature);
+            signatures[i] = Base64.getEncoder().encodeToString(signature);
+        }
+
+        // Units ordered per day, split by popularity; stock receipts are sized from it
+        double unitsPerDay = (double) profile.deliveries() / profile.totalDays()
+                * (1 + profile.maxItemsPerDelivery()) / 2.0 * (1 + profile.maxQuantityPerItem()) / 2.0;
+        LocalDate created = profile.startDate().minusDays(30);
+        LocalDateTime opening = profile.startDate().minusDays(1).atTime(7, 0);
+        for (int i = 0; i < profile.products(); i++) {
+            ProductCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            boolean perishable = category == ProductCategory.FOOD || category == ProductCategory.MEDICINE;
+            Product product = new Product();
+            product.setId(nextId(PRODUCTS, created.atStartOfDay()));
+            // SKU-000001 is the most ordered
+            product.setSku(String.format("SKU-%06d", i + 1));
+            product.setName(category.name().charAt(0) + category.name().substring(1).toLowerCase()
+                    + " product " + (i + 1));
+            product.setDescription("Synthetic " + category.name().toLowerCase() + " product");
+            product.setCategory(category);
+            product.setPerishable(perishable);
+            product.setExpiryDate(perishable ? profile.endDate().plusDays(30 + random.nextInt(335)) : null);
+            product.setCreatedAt(created);
+            product.setUpdatedAt(profile.endDate());
+            products.add(product);
+
+            dailyDemand[i] = unitsPerDay * popularity.share(i);
+            // A week of demand to start with
+            receive(i, (int) Math.ceil(7 * dailyDemand[i]) + 20, dispatchers.get(i % dispatchers.size()),
+                    opening.plusSeconds(i % 3600), "Opening stock");
+        }
+    }
+
+    private void generateDay(int day, SplittableRandom random) {
+        LocalDate date = profile.startDate().plusDays(day);
+        int historyDaysLeft = profile.days() - day;
+
+        if (historyDaysLeft > 0) {
+            // Receipts make up whatever the deliveries leave of the transaction total
+            double expectedFromDeliveries = (double) profile.deliveries() / profile.totalDays()
+                    * (1 + profile.maxItemsPerDelivery()) / 2.0 * 1.1;
+            long receipts = Math.max(0, Math.round((profile.transactions() - transactions) / (double) historyDaysLeft
+                    - expectedFromDeliveries));
+            double unitsPerReceipt = receipts > 0 ? 1.1 * totalDailyDemand() / receipts : 0;
+            LocalDateTime receiving = date.atTime(5, 0);
+            for (long i = 0; i < receipts; i++) {
+                int product = popularity.sample(random);
+                int quantity = Math.max(1, (int) Math.round(unitsPerReceipt * (0.5 + random.nextDouble())));
+                receive(product, quantity, dispatchers.get(random.nextInt(dispatchers.size())),
+                        receiving.plusSeconds(random.nextInt(3600)), "Supplier delivery");
+            }
+        }
+
+        String[] workingAgents = workingAgents(random);
+        int deliveries = profile.deliveries() / profile.totalDays()
+                + (day < profile.deliveries() % profile.totalDays() ? 1 : 0);
+        for (int i = 0; i < deliveries; i++) {
+            createDelivery(date, workingAgents[random.nextInt(workingAgents.length)], random);
+        }
+        lots.drainExhausted().forEach(loader::add);
+    }
+
+    private void createDelivery(LocalDate date, String agent, SplittableRandom random) {
+        LocalDate assignedOn = date.isAfter(profile.endDate()) ? profile.endDate() : date;
+        LocalDateTime createdAt = assignedOn.atTime(6, 0).plusSeconds(random.nextInt(2 * 3600));
+        Delivery delivery = new Delivery();
+        delivery.setId(nextId(DELIVERIES, createdAt));
+        delivery.setDeliveryAgentId(agent);
+        delivery.setCustomerName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        delivery.setCustomerAddress((1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)]
+                + ", Colombo " + (1 + random.nextInt(15)));
+        delivery.setLocation(new GeoJsonPoint(79.84 + random.nextDouble() * 0.1, 6.85 + random.nextDouble() * 0.1));
+        delivery.setCustomerPhone(phone(random));
+        delivery.setScheduledDate(date);
+        delivery.setCreatedAt(createdAt);
+        delivery.setUpdatedAt(createdAt);
+        delivery.setStatus(DeliveryStatus.PENDING);
+
+        // Distinct SKUs, each allocated to lots at assignment
+        int itemCount = 1 + random.nextInt(profile.maxItemsPerDelivery());
+        List<Integer> picked = new ArrayList<>(itemCount);
+        List<DeliveryItem> items = new ArrayList<>(itemCount);
+        boolean perishable = false;
+        while (items.size() < itemCount) {
+            int product = popularity.sample(random);
+            if (picked.contains(product)) {
+                continue;
+            }
+            Product catalogItem = products.get(product);
+            int quantity = 1 + random.nextInt(profile.maxQuantityPerItem());
+            ensureStock(product, quantity, quantity, createdAt);
+            picked.add(product);
+            items.add(new DeliveryItem(catalogItem.getId(), catalogItem.getSku(), catalogItem.getName(), quantity,
+                    false, false, lots.allocate(product, quantity)));
+            perishable |= catalogItem.isPerishable();
+        }
+        delivery.setItems(items);
+        delivery.setPriority(perishable ? DeliveryPriority.PERISHABLE : PRIORITIES[random.nextInt(PRIORITIES.length)]);
+
+        DeliveryStatus status = status(date, random);
+        if (status == DeliveryStatus.PENDING) {
+            // Held until the end of the scheduled day, so the application starts with the holds active
+            reserve(delivery, picked, ReservationStatus.ACTIVE, createdAt, date.plusDays(1).atStartOfDay());
+        } else {
+            LocalDateTime departedAt = date.atTime(8, 0).plusSeconds(random.nextInt(2 * 3600));
+            reserve(delivery, picked, ReservationStatus.COMMITTED, departedAt, createdAt.plus(HOLD_TTL));
+            for (int i = 0; i < items.size(); i++) {
+                DeliveryItem item = items.get(i);
+                ensureStock(picked.get(i), 0, item.getQuantity(), departedAt);
+                record(picked.get(i), TransactionType.STOCK_OUT, item.getQuantity(), agent, delivery.getId(),
+                        "Dispatched for delivery #" + delivery.getId(), departedAt);
+            }
+            delivery.setUpdatedAt(departedAt);
+            if (status != DeliveryStatus.IN_TRANSIT) {
+                finish(delivery, picked, status, departedAt.plusSeconds(1200 + random.nextInt(8 * 3600)), random);
+            } else {
+                delivery.setStatus(status);
+            }
+        }
+        statusCounts.merge(delivery.getStatus(), 1, Integer::sum);
+        loader.add(delivery);
+    }
+
+    private void finish(Delivery delivery, List<Integer> picked, DeliveryStatus status, LocalDateTime finishedAt,
+                        SplittableRandom random) {
+        List<DeliveryItem> items = delivery.getItems();
+        if (status == DeliveryStatus.PARTIALLY_DELIVERED && items.size() == 1) {
+            status = DeliveryStatus.RETURNED;
+        }
+        switch (status) {
+            case DELIVERED -> {
+                delivery.setDeliveredAt(finishedAt);
+                delivery.setCustomerSignature(signatures[random.nextInt(SIGNATURES)]);
+            }
+            case DOOR_LOCK -> delivery.setNotes("Customer not available");
+            case RETURNED -> {
+                items.forEach(item -> item.setReturned(true));
+                delivery.setNotes("Customer refused the delivery");
+            }
+            case PARTIALLY_DELIVERED -> {
+                int returned = 1 + random.nextInt(items.size() - 1);
+                for (int i = 0; i < returned; i++) {
+                    items.get(i).setReturned(true);
+                }
+                delivery.setNotes(returned + " items refused");
+            }
+            case DAMAGED -> {
+                int damaged = 1 + random.nextInt(items.size());
+                for (int i = 0; i < damaged; i++) {
+                    items.get(i).setDamaged(true);
+                }
+                delivery.setNotes("Damaged in transit");
+            }
+            default -> throw new IllegalArgumentException("Not a final status: " + status);
+        }
+        delivery.setStatus(status);
+        delivery.setUpdatedAt(finishedAt);
+
+        // As DeliveryService.updateDeliveryStatus books them
+        for (int i = 0; i < items.size(); i++) {
+            DeliveryItem item = items.get(i);
+            int product = picked.get(i);
+            if (item.isDamaged()) {
+                ensureStock(product, 0, item.getQuantity(), finishedAt);
+                record(product, TransactionType.DAMAGED, item.getQuantity(), delivery.getDeliveryAgentId(),
+                        delivery.getId(), "Returned from delivery #" + delivery.getId() + " (Damaged)", finishedAt);
+                products.get(product).setDamaged(true);
+            } else if (item.isReturned()) {
+                record(product, TransactionType.RETURN, item.getQuantity(), delivery.getDeliveryAgentId(),
+                        delivery.getId(), "Returned from delivery #" + delivery.getId(), finishedAt);
+                lots.restore(product, item.getLotAllocations());
+            }
+        }
+    }
+
+    private DeliveryStatus status(LocalDate date, SplittableRandom random) {
+        if (date.isAfter(profile.endDate())) {
+            return DeliveryStatus.PENDING;
+        }
+        if (date.isEqual(profile.endDate()) && random.nextDouble() >= profile.todayFinished()) {
+            return random.nextDouble() < TODAY_IN_TRANSIT ? DeliveryStatus.IN_TRANSIT : DeliveryStatus.PENDING;
+        }
+        double total = profile.statusMix().values().stream().mapToDouble(Double::doubleValue).sum();
+        double pick = random.nextDouble() * total;
+        DeliveryStatus chosen = DeliveryStatus.DELIVERED;
+        for (Map.Entry<DeliveryStatus, Double> entry : profile.statusMix().entrySet()) {
+            if (entry.getValue() > 0) {
+                chosen = entry.getKey();
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    break;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    private void reserve(Delivery delivery, List<Integer> picked, ReservationStatus status, LocalDateTime updatedAt,
+                         LocalDateTime expiresAt) {
+        for (int i = 0; i < picked.size(); i++) {
+            DeliveryItem item = delivery.getItems().get(i);
+            StockReservation reservation = new StockReservation();
+            reservation.setId(nextId(RESERVATIONS, delivery.getCreatedAt()));
+            reservation.setDeliveryId(delivery.getId());
+            reservation.setProductId(item.getProductId());
+            reservation.setSku(item.getSku());
+            reservation.setQuantity(item.getQuantity());
+            reservation.setLotAllocations(List.copyOf(item.getLotAllocations()));
+            reservation.setStatus(status);
+            reservation.setExpiresAt(expiresAt);
+            reservation.setCreatedAt(delivery.getCreatedAt());
+            reservation.setUpdatedAt(updatedAt);
+            loader.add(reservation);
+        }
+    }
+
+    // Tops a product up with an extra receipt when its lots or its on-hand count would run short
+    private void ensureStock(int product, int fromLots, int fromOnHand, LocalDateTime at) {
+        int shortfall = Math.max(fromLots - lots.remaining(product), fromOnHand - onHand[product]);
+        if (shortfall > 0) {
+            receive(product, shortfall + (int) Math.ceil(7 * dailyDemand[product]),
+                    dispatchers.get(product % dispatchers.size()), at.minusMinutes(1), "Urgent replenishment");
+        }
+    }
+
+    private void receive(int product, int quantity, String dispatcher, LocalDateTime at, String notes) {
+        InventoryTransaction transaction = record(product, TransactionType.STOCK_IN, quantity, dispatcher, null,
+                notes, at);
+        Product catalogItem = products.get(product);
+        StockLot lot = new StockLot();
+        lot.setId(nextId(LOTS, at));
+        lot.setProductId(catalogItem.getId());
+        lot.setSku(catalogItem.getSku());
+        lot.setTransactionId(transaction.getId());
+        lot.setQuantity(quantity);
+        lot.setRemaining(quantity);
+        lot.setExpiryDate(catalogItem.getExpiryDate());
+        lot.setReceivedAt(at);
+        lots.receive(product, lot);
+    }
+
+    private InventoryTransaction record(int product, TransactionType type, int quantity, String userId,
+                                        String deliveryId, String notes, LocalDateTime at) {
+        Product catalogItem = products.get(product);
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setId(nextId(TRANSACTIONS, at));
+        transaction.setProductId(catalogItem.getId());
+        transaction.setSku(catalogItem.getSku());
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setUserId(userId);
+        transaction.setDeliveryId(deliveryId);
+        transaction.setNotes(notes);
+        transaction.setTimestamp(at);
+        if (type == TransactionType.STOCK_IN) {
+            transaction.setExpiryDate(catalogItem.getExpiryDate());
+        }
+        // Signs as InventoryTransactionService.quantityChangeOf
+        onHand[product] += type == TransactionType.STOCK_IN || type == TransactionType.RETURN ? quantity : -quantity;
+        transactions++;
+        transactionCounts.merge(type, 1, Integer::sum);
+        loader.add(transaction);
+        return transaction;
+    }
+
+    // A different subset of the agents works each day
+    private String[] workingAgents(SplittableRandom random) {
+        String[] pool = agents.toArray(String[]::new);
+        for (int i = 0; i < profile.agentsPerDay(); i++) {
+            int j = i + random.nextInt(pool.length - i);
+            String swap = pool[i];
+            pool[i] = pool[j];
+            pool[j] = swap;
+        }
+        String[] working = new String[profile.agentsPerDay()];
+        System.arraycopy(pool, 0, working, 0, working.length);
+        return working;
+    }
+
+    private double totalDailyDemand() {
+        double total = 0;
+        for (double demand : dailyDemand) {
+            total += demand;
+        }
+        return total;
+    }
+
+    // Timestamp of the document's creation, then collection and sequence, so ids sort like real ones
+    private String nextId(int collection, LocalDateTime at) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt((int) at.toEpochSecond(ZoneOffset.UTC));
+        bytes.putInt(collection);
+        bytes.putInt(++sequences[collection]);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static String phone(SplittableRandom random) {
+        return "+9477" + (1000000 + random.nextInt(8999999));
+    }
+
+    // BCrypt salts come from a SecureRandom; a seeded SHA1PRNG makes the hash repeatable too
+    private static SecureRandom secureRandom(long seed) {
+        try {
+            SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+            random.setSeed(seed);
+            return random;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.devcoders.dlvery.benchmarks.data;
+
+import com.devcoders.dlvery.model.DeliveryStatus;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shape of the generated dataset. Deliveries are spread evenly over the history days
+ * ending at the end date plus the days after it; inventory transactions are the movements the
+ * deliveries cause, topped up with stock receipts until the total is reached.
+ */
+record DatasetProfile(int agents,
+                      int dispatchers,
+                      int products,
+                      int deliveries,
+                      long transactions,
+                      int days,
+                      int futureDays,
+                      int agentsPerDay,
+                      int maxItemsPerDelivery,
+                      int maxQuantityPerItem,
+                      double skuSkew,
+                      Map<DeliveryStatus, Double> statusMix,
+                      double todayFinished,
+                      int signatureBytes,
+                      String password,
+                      LocalDate endDate,
+                      long seed,
+                      int batchSize,
+                      int threads,
+                      String mongoUri,
+                      boolean drop) {
+
+    private static final Set<String> OPTIONS = Set.of("agents", "dispatchers", "products", "deliveries",
+            "transactions", "days", "future-days", "agents-per-day", "max-items", "max-quantity", "sku-skew",
+            "status-mix", "today-finished", "signature-bytes", "password", "end-date", "seed", "batch-size",
+            "threads", "mongo-uri", "drop");
+
+    // Finished deliveries only; today's unfinished ones and the future days are PENDING or IN_TRANSIT
+    private static final Set<DeliveryStatus> FINAL_STATUSES = Set.of(DeliveryStatus.DELIVERED,
+            DeliveryStatus.DOOR_LOCK, DeliveryStatus.RETURNED, DeliveryStatus.PARTIALLY_DELIVERED,
+            DeliveryStatus.DAMAGED);
+
+    static DatasetProfile parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !OPTIONS.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name one of "
+                        + OPTIONS);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        DatasetProfile profile = new DatasetProfile(
+                Integer.parseInt(options.getOrDefault("agents", "2000")),
+                Integer.parseInt(options.getOrDefault("dispatchers", "50")),
+                Integer.parseInt(options.getOrDefault("products", "5000")),
+                Integer.parseInt(options.getOrDefault("deliveries", "300000")),
+                Long.parseLong(options.getOrDefault("transactions", "2000000")),
+                Integer.parseInt(options.getOrDefault("days", "90")),
+                Integer.parseInt(options.getOrDefault("future-days", "2")),
+                Integer.parseInt(options.getOrDefault("agents-per-day", "1200")),
+                Integer.parseInt(options.getOrDefault("max-items", "5")),
+                Integer.parseInt(options.getOrDefault("max-quantity", "3")),
+                Double.parseDouble(options.getOrDefault("sku-skew", "1.1")),
+                parseStatusMix(options.getOrDefault("status-mix",
+                        "DELIVERED=82,DOOR_LOCK=6,PARTIALLY_DELIVERED=5,RETURNED=4,DAMAGED=3")),
+                Double.parseDouble(options.getOrDefault("today-finished", "0.5")),
+                Integer.parseInt(options.getOrDefault("signature-bytes", "4096")),
+                options.getOrDefault("password", "password123"),
+                options.containsKey("end-date") ? LocalDate.parse(options.get("end-date")) : LocalDate.now(),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("batch-size", "1000")),
+                Integer.parseInt(options.getOrDefault("threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                options.getOrDefault("mongo-uri", "mongodb://localhost:27017/dlvery-scale"),
+                Boolean.parseBoolean(options.getOrDefault("drop", "false")));
+        if (profile.agents() < 1 || profile.dispatchers() < 1 || profile.products() < 1 || profile.days() < 1
+                || profile.maxItemsPerDelivery() < 1 || profile.maxQuantityPerItem() < 1 || profile.batchSize() < 1
+                || profile.threads() < 1) {
+            throw new IllegalArgumentException(
+                    "agents, dispatchers, products, days, max-items, max-quantity, batch-size and threads must be positive");
+        }
+        if (profile.agentsPerDay() < 1 || profile.agentsPerDay() > profile.agents()) {
+            throw new IllegalArgumentException("agents-per-day must be between 1 and agents");
+        }
+        if (profile.maxItemsPerDelivery() > profile.products()) {
+            throw new IllegalArgumentException("max-items cannot exceed products, items of a delivery are distinct SKUs");
+        }
+        if (profile.todayFinished() < 0 || profile.todayFinished() > 1) {
+            throw new IllegalArgumentException("today-finished must be between 0 and 1");
+        }
+        return profile;
+    }
+
+    int totalDays() {
+        return days + futureDays;
+    }
+
+    LocalDate startDate() {
+        return endDate.minusDays(days - 1L);
+    }
+
+    // e.g. DELIVERED=82,DOOR_LOCK=6,RETURNED=4; the weights need not add up to 100
+    private static Map<DeliveryStatus, Double> parseStatusMix(String value) {
+        Map<DeliveryStatus, Double> mix = new EnumMap<>(DeliveryStatus.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            DeliveryStatus status = DeliveryStatus.valueOf(parts[0].trim());
+            if (parts.length != 2 || !FINAL_STATUSES.contains(status)) {
+                throw new IllegalArgumentException("status-mix entries must be STATUS=weight with STATUS one of "
+                        + FINAL_STATUSES + ", got " + entry);
+            }
+            double weight = Double.parseDouble(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("status-mix weights cannot be negative, got " + entry);
+            }
+            mix.put(status, weight);
+        }
+        if (mix.values().stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+            throw new IllegalArgumentException("status-mix needs at least one positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,103 @@
+package com.devcoders.dlvery.benchmarks.data;
+
+import com.devcoders.dlvery.model.LotAllocation;
+import com.devcoders.dlvery.model.StockLot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The open lots of every product while the history is generated, allocated oldest first the
+ * way LotService does when every lot of a product shares its expiry date. Lots that run out
+ * are handed back by {@link #drainExhausted()} so only the open ones stay in memory.
+ */
+final class LotBook {
+
+    private final List<ArrayDeque<StockLot>> open;
+    private final int[] remaining;
+    private final Map<String, StockLot> live = new HashMap<>();
+    private final Map<String, StockLot> exhausted = new LinkedHashMap<>();
+
+    LotBook(int products) {
+        open = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            open.add(new ArrayDeque<>());
+        }
+        remaining = new int[products];
+    }
+
+    void receive(int product, StockLot lot) {
+        open.get(product).addLast(lot);
+        live.put(lot.getId(), lot);
+        remaining[product] += lot.getRemaining();
+    }
+
+    int remaining(int product) {
+        return remaining[product];
+    }
+
+    /**
+     * Takes the quantity from the product's oldest lots; the caller makes sure there is enough.
+     */
+    List<LotAllocation> allocate(int product, int quantity) {
+        if (quantity > remaining[product]) {
+            throw new IllegalStateException("Lots of product " + product + " hold " + remaining[product]
+                    + ", cannot allocate " + quantity);
+        }
+        ArrayDeque<StockLot> lots = open.get(product);
+        List<LotAllocation> allocations = new ArrayList<>();
+        int needed = quantity;
+        while (needed > 0) {
+            StockLot lot = lots.peekFirst();
+            int taken = Math.min(lot.getRemaining(), needed);
+            lot.setRemaining(lot.getRemaining() - taken);
+            needed -= taken;
+            allocations.add(new LotAllocation(lot.getId(), taken, lot.getExpiryDate()));
+            if (lot.getRemaining() == 0) {
+                lots.pollFirst();
+                exhausted.put(lot.getId(), lot);
+            }
+        }
+        remaining[product] -= quantity;
+        return allocations;
+    }
+
+    /**
+     * Puts returned units back into the lots they were allocated from.
+     */
+    void restore(int product, List<LotAllocation> allocations) {
+        ArrayDeque<StockLot> lots = open.get(product);
+        for (LotAllocation allocation : allocations) {
+            StockLot lot = live.get(allocation.getLotId());
+            if (lot.getRemaining() == 0) {
+                // Emptied today and back in stock; it is the oldest, so it is picked first again
+                exhausted.remove(lot.getId());
+                lots.addFirst(lot);
+            }
+            lot.setRemaining(lot.getRemaining() + allocation.getQuantity());
+            remaining[product] += allocation.getQuantity();
+        }
+    }
+
+    /**
+     * The lots emptied since the last call. Their allocations can no longer be restored.
+     */
+    List<StockLot> drainExhausted() {
+        List<StockLot> drained = new ArrayList<>(exhausted.values());
+        exhausted.clear();
+        drained.forEach(lot -> live.remove(lot.getId()));
+        return drained;
+    }
+
+    List<StockLot> drainAll() {
+        List<StockLot> drained = new ArrayList<>(live.values());
+        live.clear();
+        exhausted.clear();
+        open.forEach(ArrayDeque::clear);
+        return drained;
+    }
+}
@@ -0,0 +1,322 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.devcoders.dlvery.DlVeryApplication;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.repository.DeliveryRepository;
+import com.devcoders.dlvery.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what POST /api/batch saves a mobile client on a slow network. An agent's shift-start
+ * screen needs its profile, today's route sheet, its pending deliveries, the product catalog and
+ * the first few pending deliveries. Each load of that screen is made three ways: as sequential
+ * calls, as concurrent calls on separate connections, and as one batch. The simulated round trip
+ * is added on the client around every exchange, half on the way out and half on the way back.
+ * Connections are kept alive and warmed up first, so no handshakes are counted.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.load.BatchLatencyComparison
+ * [--rtt-ms=300] [--iterations=30] [--deliveries=20] [--products=200]
+ * [--mongo-uri=mongodb://localhost:27017/dlvery-batch] [--report-dir=target/batch-latency-comparison]}.
+ */
+public final class BatchLatencyComparison {
+
+    private static final Set<String> OPTIONS = Set.of("rtt-ms", "iterations", "deliveries", "products", "mongo-uri",
+            "report-dir");
+    private static final String AGENT = "batch-agent";
+    private static final String PASSWORD = "password123";
+    private static final int DELIVERY_DETAILS = 3;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final String[] MODES = {"sequential", "concurrent", "batch"};
+
+    private BatchLatencyComparison() {
+    }
+
+    // Ends the JVM explicitly for the same reason as LoadTest
+    public static void main(String[] args) {
+        try {
+            run(parse(args));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void run(Map<String, String> options) throws Exception {
+        long rttMillis = Long.parseLong(options.getOrDefault("rtt-ms", "300"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "30"));
+        int deliveries = Integer.parseInt(options.getOrDefault("deliveries", "20"));
+        int products = Integer.parseInt(options.getOrDefault("products", "200"));
+        Path reportDir = Path.of(options.getOrDefault("report-dir", "target/batch-latency-comparison"));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        MongoServer standIn = null;
+        String mongoUri = options.get("mongo-uri");
+        if (mongoUri == null) {
+            standIn = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = standIn.bind();
+            mongoUri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/dlvery-batch";
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DlVeryApplication.class)
+                .run(LoadTest.applicationArguments(mongoUri, standIn != null, false))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI api = URI.create("http://localhost:" + port + "/api");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            System.out.printf("Seeding %d deliveries and %d products, simulating a %d ms round trip%n", deliveries,
+                    products, rttMillis);
+            String token = account(client, api, objectMapper);
+            List<String> paths = shiftStartPaths(seed(context, deliveries, products));
+            Exchange exchange = new Exchange(client, api, token, objectMapper);
+
+            // Untimed, without the delay, so every mode starts on warm code and open connections
+            for (int i = 0; i < 20; i++) {
+                for (String mode : MODES) {
+                    exchange.load(mode, paths, 0);
+                }
+            }
+
+            ArrayNode results = objectMapper.createArrayNode();
+            System.out.printf("%-11s %6s %10s %10s %10s %10s %8s%n", "Mode", "calls", "mean ms", "p50 ms", "p99 ms",
+                    "max ms", "errors");
+            for (String mode : MODES) {
+                Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+                int errors = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    errors += exchange.load(mode, paths, rttMillis);
+                    histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                }
+                ObjectNode result = results.addObject()
+                        .put("mode", mode)
+                        .put("calls", mode.equals("batch") ? 1 : paths.size())
+                        .put("loads", iterations)
+                        .put("meanMs", round(histogram.getMean() / 1000.0))
+                        .put("p50Ms", round(histogram.getValueAtPercentile(50) / 1000.0))
+                        .put("p99Ms", round(histogram.getValueAtPercentile(99) / 1000.0))
+                        .put("maxMs", round(histogram.getMaxValue() / 1000.0))
+                        .put("errors", errors);
+                System.out.printf("%-11s %6d %10.1f %10.1f %10.1f %10.1f %8d%n", mode, result.path("calls").asInt(),
+                        result.path("meanMs").asDouble(), result.path("p50Ms").asDouble(),
+                        result.path("p99Ms").asDouble(), result.path("maxMs").asDouble(), errors);
+            }
+
+            ObjectNode report = objectMapper.createObjectNode();
+            report.putObject("profile")
+                    .put("rttMs", rttMillis).put("iterations", iterations).put("deliveries", deliveries)
+                    .put("products", products).put("standIn", standIn != null);
+            report.putPOJO("paths", paths);
+            report.set("results", results);
+            Files.createDirectories(reportDir);
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(reportDir.resolve("batch-latency-comparison.json").toFile(), report);
+            System.out.println("Report written to " + reportDir.toAbsolutePath());
+        } finally {
+            if (standIn != null) {
+                standIn.shutdownNow();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !OPTIONS.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name one of "
+                        + OPTIONS);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static List<String> shiftStartPaths(List<String> pendingIds) {
+        List<String> paths = new ArrayList<>(List.of(
+                "/api/users/profile?username=" + AGENT,
+                "/api/dlteam/deliveries/my/today",
+                "/api/dlteam/deliveries/my/pending",
+                "/api/products"));
+        pendingIds.stream().limit(DELIVERY_DETAILS).forEach(id -> paths.add("/api/dlteam/deliveries/" + id));
+        return paths;
+    }
+
+    // Written straight to the repositories; only the reads are of interest here
+    private static List<String> seed(ConfigurableApplicationContext context, int deliveries, int products) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 1; i <= products; i++) {
+            Product product = new Product();
+            product.setSku(String.format("BL-%05d", i));
+            product.setName("Batch latency product " + i);
+            product.setCategory(ProductCategory.values()[random.nextInt(ProductCategory.values().length)]);
+            product.setQuantity(random.nextInt(1000));
+            product.setCreatedAt(LocalDate.now());
+            product.setUpdatedAt(LocalDate.now());
+            catalog.add(product);
+        }
+        catalog = context.getBean(ProductRepository.class).saveAll(catalog);
+
+        List<Delivery> route = new ArrayList<>();
+        for (int i = 0; i < deliveries; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setDeliveryAgentId(AGENT);
+            delivery.setCustomerName("Customer " + i);
+            delivery.setCustomerAddress(i + " Galle Road, Colombo 3");
+            delivery.setCustomerPhone("+9477" + String.format("%07d", random.nextInt(10_000_000)));
+            delivery.setPriority(DeliveryPriority.NORMAL);
+            delivery.setStatus(DeliveryStatus.PENDING);
+            delivery.setScheduledDate(LocalDate.now());
+            Product product = catalog.get(random.nextInt(catalog.size()));
+            DeliveryItem item = new DeliveryItem();
+            item.setProductId(product.getId());
+            item.setSku(product.getSku());
+            item.setProductName(product.getName());
+            item.setQuantity(1 + random.nextInt(3));
+            delivery.setItems(List.of(item));
+            route.add(delivery);
+        }
+        return context.getBean(DeliveryRepository.class).saveAll(route).stream().map(Delivery::getId).toList();
+    }
+
+    private static String account(HttpClient client, URI api, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        post(client, api.resolve("/api/auth/register"), objectMapper.createObjectNode()
+                .put("username", AGENT)
+                .put("password", PASSWORD)
+                .put("email", AGENT + "@batch.dlvery.local")
+                .put("fullName", "Batch Latency Agent")
+                .put("role", "DLTEAM"), objectMapper);
+        return post(client, api.resolve("/api/auth/login"), objectMapper.createObjectNode()
+                .put("username", AGENT)
+                .put("password", PASSWORD), objectMapper).path("token").asText();
+    }
+
+    private static JsonNode post(HttpClient client, URI uri, JsonNode body, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !json.path("success").asBoolean()) {
+            throw new IllegalStateException("POST " + uri.getPath() + " failed during seeding with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return json.path("data");
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private record Exchange(HttpClient client, URI api, String token, ObjectMapper objectMapper) {
+
+        /**
+         * Loads the screen once in the given mode.
+         *
+         * @return the number of calls that failed
+         */
+        int load(String mode, List<String> paths, long rtt) throws Exception {
+            return switch (mode) {
+                case "sequential" -> {
+                    int errors = 0;
+                    for (String path : paths) {
+                        errors += get(path, rtt);
+                    }
+                    yield errors;
+                }
+                case "concurrent" -> {
+                    try (ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor()) {
+                        List<Future<Integer>> futures = new ArrayList<>();
+                        for (String path : paths) {
+                            futures.add(calls.submit(() -> get(path, rtt)));
+                        }
+                        int errors = 0;
+                        for (Future<Integer> future : futures) {
+                            errors += future.get();
+                        }
+                        yield errors;
+                    }
+                }
+                case "batch" -> batch(paths, rtt);
+                default -> throw new IllegalArgumentException("Unknown mode " + mode);
+            };
+        }
+
+        private int get(String path, long rtt) throws IOException, InterruptedException {
+            HttpResponse<String> response = exchange(HttpRequest.newBuilder(api.resolve(path)).GET(), rtt);
+            return response.statusCode() == 200 ? 0 : 1;
+        }
+
+        private int batch(List<String> paths, long rtt) throws IOException, InterruptedException {
+            ArrayNode items = objectMapper.createArrayNode();
+            for (int i = 0; i < paths.size(); i++) {
+                items.addObject().put("id", String.valueOf(i)).put("method", "GET").put("path", paths.get(i));
+            }
+            HttpResponse<String> response = exchange(HttpRequest.newBuilder(api.resolve(
+                            "/api/batch")).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(items.toString())), rtt);
+            if (response.statusCode() != 200) {
+                return paths.size();
+            }
+            int errors = 0;
+            for (JsonNode item : objectMapper.readTree(response.body()).path("data")) {
+                errors += item.path("status").asInt() == 200 ? 0 : 1;
+            }
+            return errors;
+        }
+
+        // The body is read to the end before the return half of the round trip
+        private HttpResponse<String> exchange(HttpRequest.Builder request, long rtt)
+                throws IOException, InterruptedException {
+            Thread.sleep(rtt / 2);
+            HttpResponse<String> response = client.send(request
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Authorization", "Bearer " + token)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Thread.sleep(rtt - rtt / 2);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The simulated day: how many people use the system and how often they act. Inventory traffic
+ * is an open model, arriving at the given rates whatever the response times; every agent polls
+ * its route sheet on its own schedule and acts on what it sees.
+ */
+record LoadProfile(int dispatchers,
+                   int agents,
+                   int products,
+                   double deliveriesPerMinute,
+                   double transactionsPerMinute,
+                   int agentPollSeconds,
+                   double returnRatio,
+                   int maxItemsPerDelivery,
+                   int signatureBytes,
+                   int warmupSeconds,
+                   int durationSeconds,
+                   long seed,
+                   String mongoUri,
+                   boolean virtualThreads,
+                   Path reportDir) {
+
+    private static final Set<String> OPTIONS = Set.of("dispatchers", "agents", "products", "deliveries-per-minute",
+            "transactions-per-minute", "agent-poll-seconds", "return-ratio", "max-items", "signature-bytes",
+            "warmup-seconds", "duration-seconds", "seed", "mongo-uri", "virtual-threads", "report-dir");
+
+    static LoadProfile parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !OPTIONS.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name one of "
+                        + OPTIONS);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        LoadProfile profile = new LoadProfile(
+                Integer.parseInt(options.getOrDefault("dispatchers", "5")),
+                Integer.parseInt(options.getOrDefault("agents", "100")),
+                Integer.parseInt(options.getOrDefault("products", "200")),
+                Double.parseDouble(options.getOrDefault("deliveries-per-minute", "300")),
+                Double.parseDouble(options.getOrDefault("transactions-per-minute", "60")),
+                Integer.parseInt(options.getOrDefault("agent-poll-seconds", "15")),
+                Double.parseDouble(options.getOrDefault("return-ratio", "0.1")),
+                Integer.parseInt(options.getOrDefault("max-items", "4")),
+                Integer.parseInt(options.getOrDefault("signature-bytes", "4096")),
+                Integer.parseInt(options.getOrDefault("warmup-seconds", "30")),
+                Integer.parseInt(options.getOrDefault("duration-seconds", "300")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                options.get("mongo-uri"),
+                Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false")),
+                Path.of(options.getOrDefault("report-dir", "target/load-report")));
+        if (profile.dispatchers() < 1 || profile.agents() < 1 || profile.products() < 1
+                || profile.maxItemsPerDelivery() < 1 || profile.agentPollSeconds() < 1) {
+            throw new IllegalArgumentException("dispatchers, agents, products, max-items and agent-poll-seconds must be positive");
+        }
+        return profile;
+    }
+}
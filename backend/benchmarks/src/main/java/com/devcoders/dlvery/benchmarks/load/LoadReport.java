@@ -0,0 +1,136 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes a load run as load-report.json and a self-contained load-report.html: per route the
+ * throughput over the measured period, latency percentiles in milliseconds, the error rate and
+ * the count of each response status.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private LoadReport() {
+    }
+
+    static ObjectNode toJson(LoadResult result, ObjectMapper objectMapper) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("measuredFrom", result.measuredFrom().toString());
+        report.put("measuredSeconds", round(result.measuredSeconds()));
+        report.set("profile", objectMapper.valueToTree(result.profile()));
+        ((ObjectNode) report.get("profile")).put("reportDir", result.profile().reportDir().toString());
+
+        Histogram all = null;
+        long errors = 0;
+        ArrayNode routes = report.putArray("routes");
+        for (RouteStats stats : result.routes()) {
+            Histogram histogram = stats.histogram();
+            if (all == null) {
+                all = histogram.copy();
+            } else {
+                all.add(histogram);
+            }
+            errors += stats.errors();
+            ObjectNode route = routes.addObject().put("route", stats.route());
+            summarize(route, histogram, stats.errors(), result.measuredSeconds());
+            ObjectNode outcomes = route.putObject("statuses");
+            stats.outcomes().forEach(outcomes::put);
+        }
+        if (all != null) {
+            summarize(report.putObject("total"), all, errors, result.measuredSeconds());
+        }
+        return report;
+    }
+
+    static String toHtml(JsonNode report) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>DlVery load test</title>\n")
+                .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+                .append("th,td{border:1px solid #ccc;padding:4px 10px;text-align:right}th:first-child,")
+                .append("td:first-child{text-align:left}.bad{color:#b00020;font-weight:bold}</style></head><body>\n")
+                .append("<h1>DlVery load test</h1>\n")
+                .append("<p>").append(report.path("measuredSeconds").asDouble()).append(" s measured from ")
+                .append(escape(report.path("measuredFrom").asText())).append("</p>\n<table>\n<tr>");
+        for (String heading : new String[]{"Route", "Requests", "Throughput (req/s)", "Errors", "Error rate",
+                "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9 (ms)", "Max (ms)", "Statuses"}) {
+            html.append("<th>").append(heading).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (JsonNode route : report.path("routes")) {
+            row(html, route.path("route").asText(), route);
+        }
+        if (report.has("total")) {
+            row(html, "All routes", report.path("total"));
+        }
+        html.append("</table>\n<h2>Profile</h2>\n<table>\n");
+        Iterator<Map.Entry<String, JsonNode>> profile = report.path("profile").fields();
+        while (profile.hasNext()) {
+            Map.Entry<String, JsonNode> field = profile.next();
+            html.append("<tr><td>").append(escape(field.getKey())).append("</td><td>")
+                    .append(escape(field.getValue().asText())).append("</td></tr>\n");
+        }
+        return html.append("</table>\n</body></html>\n").toString();
+    }
+
+    static void write(JsonNode report, Path directory, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("load-report.json").toFile(), report);
+        Files.writeString(directory.resolve("load-report.html"), toHtml(report));
+    }
+
+    private static void summarize(ObjectNode node, Histogram histogram, long errors, double seconds) {
+        long requests = histogram.getTotalCount();
+        node.put("requests", requests);
+        node.put("throughputPerSecond", round(seconds > 0 ? requests / seconds : 0));
+        node.put("errors", errors);
+        node.put("errorRate", requests == 0 ? 0 : round((double) errors / requests));
+        ObjectNode latency = node.putObject("latencyMs");
+        latency.put("mean", millis(histogram.getMean()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            latency.put(PERCENTILE_NAMES[i], millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+    }
+
+    private static void row(StringBuilder html, String name, JsonNode route) {
+        JsonNode latency = route.path("latencyMs");
+        html.append("<tr><td>").append(escape(name)).append("</td>")
+                .append("<td>").append(route.path("requests").asLong()).append("</td>")
+                .append("<td>").append(route.path("throughputPerSecond").asDouble()).append("</td>")
+                .append("<td>").append(route.path("errors").asLong()).append("</td>")
+                .append(route.path("errorRate").asDouble() > 0.01 ? "<td class=\"bad\">" : "<td>")
+                .append(String.format("%.2f%%", route.path("errorRate").asDouble() * 100)).append("</td>");
+        for (String field : PERCENTILE_NAMES) {
+            html.append("<td>").append(latency.path(field).asDouble()).append("</td>");
+        }
+        html.append("<td>").append(latency.path("max").asDouble()).append("</td>");
+        StringBuilder statuses = new StringBuilder();
+        route.path("statuses").fields().forEachRemaining(status -> statuses.append(statuses.isEmpty() ? "" : ", ")
+                .append(status.getKey()).append(": ").append(status.getValue().asLong()));
+        html.append("<td>").append(escape(statuses.toString())).append("</td></tr>\n");
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,7 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import java.time.Instant;
+import java.util.List;
+
+record LoadResult(LoadProfile profile, Instant measuredFrom, double measuredSeconds, List<RouteStats> routes) {
+}
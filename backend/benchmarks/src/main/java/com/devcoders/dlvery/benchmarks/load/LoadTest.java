@@ -0,0 +1,129 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.devcoders.dlvery.DlVeryApplication;
+import com.devcoders.dlvery.dto.PinningSite;
+import com.devcoders.dlvery.service.PinningMonitor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application in this JVM and runs a simulated day of warehouse and agent traffic
+ * against it over HTTP, then writes the report to target/load-report. Without --mongo-uri the
+ * application runs on an in-memory MongoDB stand-in, which measures the application rather
+ * than the database; pass the URI of a real, empty database to include Mongo in the picture.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.load.LoadTest
+ * [--agents=100] [--dispatchers=5] [--deliveries-per-minute=300] [--transactions-per-minute=60]
+ * [--agent-poll-seconds=15] [--return-ratio=0.1] [--warmup-seconds=30] [--duration-seconds=300]
+ * [--mongo-uri=mongodb://localhost:27017/dlvery-load] [--virtual-threads=false] [--report-dir=target/load-report]}.
+ * See {@link LoadProfile} for the rest.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    // The JVM is ended explicitly: with netty on the classpath, which the stand-in brings, Boot gives the
+    // blocking and the reactive Mongo client an event loop group each and shuts down only one of them
+    public static void main(String[] args) {
+        try {
+            run(LoadProfile.parse(args));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadProfile profile) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        MongoServer standIn = null;
+        String mongoUri = profile.mongoUri();
+        if (mongoUri == null) {
+            standIn = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = standIn.bind();
+            mongoUri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/dlvery-load";
+        }
+
+        // As command line arguments, so they take precedence over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DlVeryApplication.class)
+                .run(applicationArguments(mongoUri, standIn != null, profile.virtualThreads()))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            WarehouseTraffic traffic = new WarehouseTraffic(URI.create("http://localhost:" + port + "/"), profile,
+                    objectMapper);
+            System.out.printf("Seeding %d dispatchers, %d agents and %d products%n", profile.dispatchers(),
+                    profile.agents(), profile.products());
+            traffic.seed();
+            System.out.printf("Running %d s of warm-up and %d s measured%n", profile.warmupSeconds(),
+                    profile.durationSeconds());
+
+            ObjectNode report = LoadReport.toJson(traffic.run(), objectMapper);
+            report.set("jvm", jvmStats(context, objectMapper));
+            LoadReport.write(report, profile.reportDir(), objectMapper);
+            for (JsonNode route : report.path("routes")) {
+                JsonNode latency = route.path("latencyMs");
+                System.out.printf("%-42s %8d req %9.2f/s  p50 %8.2f  p99 %8.2f  p99.9 %8.2f ms  errors %.2f%%%n",
+                        route.path("route").asText(), route.path("requests").asLong(),
+                        route.path("throughputPerSecond").asDouble(), latency.path("p50").asDouble(),
+                        latency.path("p99").asDouble(), latency.path("p999").asDouble(),
+                        route.path("errorRate").asDouble() * 100);
+            }
+            System.out.printf("Peak platform threads %d, pinned virtual thread sites %d%n",
+                    report.path("jvm").path("peakPlatformThreads").asInt(),
+                    report.path("jvm").path("pinnedSites").size());
+            System.out.println("Report written to " + profile.reportDir().toAbsolutePath());
+        } finally {
+            if (standIn != null) {
+                standIn.shutdownNow();
+            }
+        }
+    }
+
+    // Point the application at the database and quieten it for a load run
+    static String[] applicationArguments(String mongoUri, boolean standIn, boolean virtualThreads) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--server.port=0",
+                "--management.server.port=0",
+                // Google sign-in is not exercised, but the registration must be complete to start
+                "--spring.security.oauth2.client.registration.google.client-id=load-test",
+                "--spring.security.oauth2.client.registration.google.client-secret=load-test",
+                // The defaults log every request at DEBUG, which would dominate the profile
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.com.devcoders.dlvery=INFO",
+                "--spring.threads.virtual.enabled=" + virtualThreads));
+        if (standIn) {
+            // The stand-in has no explain command and warns about every index it cannot build
+            arguments.add("--app.mongo.profiler.explain=false");
+            arguments.add("--logging.level.de.bwaldvogel.mongo=ERROR");
+        }
+        return arguments.toArray(String[]::new);
+    }
+
+    // Virtual threads never show up in the thread MXBean, so the peak is the carriers plus whatever
+    // still runs on platform threads
+    private static ObjectNode jvmStats(ConfigurableApplicationContext context, ObjectMapper objectMapper) {
+        ObjectNode jvm = objectMapper.createObjectNode();
+        jvm.put("peakPlatformThreads", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        jvm.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        ArrayNode pinned = jvm.putArray("pinnedSites");
+        for (PinningSite site : context.getBean(PinningMonitor.class).getSites()) {
+            pinned.addObject().put("site", site.getSite()).put("count", site.getCount())
+                    .put("totalMs", site.getTotalMs()).put("maxMs", site.getMaxMs());
+        }
+        return jvm;
+    }
+}
@@ -0,0 +1,352 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.devcoders.dlvery.DlVeryApplication;
+import com.devcoders.dlvery.model.Delivery;
+import com.devcoders.dlvery.model.DeliveryItem;
+import com.devcoders.dlvery.model.DeliveryPriority;
+import com.devcoders.dlvery.model.DeliveryStatus;
+import com.devcoders.dlvery.model.Product;
+import com.devcoders.dlvery.model.ProductCategory;
+import com.devcoders.dlvery.repository.DeliveryRepository;
+import com.devcoders.dlvery.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the same reads on the blocking MVC controllers and on the streamed NDJSON routes
+ * backed by the reactive repositories, one after the other in the same application. Each read
+ * runs as a closed loop: every client sends its next request as soon as the previous response
+ * has been read to the end. Besides throughput and latency, each phase records the bytes
+ * allocated per request, the peak heap, GC activity and the peak number of platform threads.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.load.ReadStackComparison
+ * [--agents=200] [--deliveries-per-agent=20] [--dispatchers=10] [--products=2000] [--signature-bytes=4096]
+ * [--warmup-seconds=10] [--duration-seconds=60] [--virtual-threads=false]
+ * [--mongo-uri=mongodb://localhost:27017/dlvery-read] [--report-dir=target/read-stack-comparison]}.
+ * As with {@link LoadTest}, the default in-memory stand-in measures the application rather than
+ * the database.
+ */
+public final class ReadStackComparison {
+
+    private static final Set<String> OPTIONS = Set.of("agents", "deliveries-per-agent", "dispatchers", "products",
+            "signature-bytes", "warmup-seconds", "duration-seconds", "virtual-threads", "mongo-uri", "report-dir");
+    private static final String PASSWORD = "password123";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private record Read(String name, String blockingPath, String streamPath, boolean agent) {
+    }
+
+    private static final List<Read> READS = List.of(
+            new Read("Agent's deliveries", "/dlteam/deliveries/my", "/dlteam/stream/deliveries/my", true),
+            new Read("Product catalog", "/products", "/stream/products", true),
+            new Read("All deliveries", "/invteam/deliveries", "/invteam/stream/deliveries", false));
+
+    private ReadStackComparison() {
+    }
+
+    // Ends the JVM explicitly for the same reason as LoadTest
+    public static void main(String[] args) {
+        try {
+            run(parse(args));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void run(Map<String, String> options) throws Exception {
+        int agents = Integer.parseInt(options.getOrDefault("agents", "200"));
+        int deliveriesPerAgent = Integer.parseInt(options.getOrDefault("deliveries-per-agent", "20"));
+        int dispatchers = Integer.parseInt(options.getOrDefault("dispatchers", "10"));
+        int products = Integer.parseInt(options.getOrDefault("products", "2000"));
+        int signatureBytes = Integer.parseInt(options.getOrDefault("signature-bytes", "4096"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "60"));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        Path reportDir = Path.of(options.getOrDefault("report-dir", "target/read-stack-comparison"));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        MongoServer standIn = null;
+        String mongoUri = options.get("mongo-uri");
+        if (mongoUri == null) {
+            standIn = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = standIn.bind();
+            mongoUri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/dlvery-read";
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DlVeryApplication.class)
+                .run(LoadTest.applicationArguments(mongoUri, standIn != null, virtualThreads))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI api = URI.create("http://localhost:" + port + "/api");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            System.out.printf("Seeding %d agents with %d deliveries each and %d products%n", agents,
+                    deliveriesPerAgent, products);
+            List<String> agentTokens = new ArrayList<>();
+            for (int i = 1; i <= agents; i++) {
+                agentTokens.add(account(client, api, objectMapper, "reader" + i, "DLTEAM"));
+            }
+            String dispatcherToken = account(client, api, objectMapper, "read-dispatcher", "INVTEAM");
+            seed(context, agents, deliveriesPerAgent, products, signatureBytes);
+
+            ArrayNode phases = objectMapper.createArrayNode();
+            System.out.printf("%-20s %-9s %8s %10s %9s %9s %12s %10s %6s %8s%n", "Read", "Stack", "Clients",
+                    "req/s", "p50 ms", "p99 ms", "alloc/req", "peak heap", "GCs", "threads");
+            for (Read read : READS) {
+                List<String> tokens = read.agent() ? agentTokens : List.of(dispatcherToken);
+                int clients = read.agent() ? agents : dispatchers;
+                for (boolean streamed : new boolean[]{false, true}) {
+                    ObjectNode phase = phases.addObject()
+                            .put("read", read.name())
+                            .put("stack", streamed ? "streamed" : "blocking")
+                            .put("path", streamed ? read.streamPath() : read.blockingPath())
+                            .put("clients", clients);
+                    measure(client, api.resolve("/api" + (streamed ? read.streamPath() : read.blockingPath())),
+                            tokens, clients, warmupSeconds, durationSeconds, phase);
+                    System.out.printf("%-20s %-9s %8d %10.1f %9.2f %9.2f %10.1fKB %8.1fMB %6d %8d%n", read.name(),
+                            phase.path("stack").asText(), clients, phase.path("throughputPerSecond").asDouble(),
+                            phase.path("p50Ms").asDouble(), phase.path("p99Ms").asDouble(),
+                            phase.path("allocatedBytesPerRequest").asDouble() / 1024,
+                            phase.path("peakHeapBytes").asDouble() / (1024 * 1024), phase.path("gcCount").asLong(),
+                            phase.path("peakPlatformThreads").asInt());
+                }
+            }
+
+            ObjectNode report = objectMapper.createObjectNode();
+            report.putObject("profile")
+                    .put("agents", agents).put("deliveriesPerAgent", deliveriesPerAgent)
+                    .put("dispatchers", dispatchers).put("products", products)
+                    .put("signatureBytes", signatureBytes).put("warmupSeconds", warmupSeconds)
+                    .put("durationSeconds", durationSeconds).put("virtualThreads", virtualThreads)
+                    .put("standIn", standIn != null);
+            report.set("phases", phases);
+            Files.createDirectories(reportDir);
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(reportDir.resolve("read-stack-comparison.json").toFile(), report);
+            System.out.println("Report written to " + reportDir.toAbsolutePath());
+        } finally {
+            if (standIn != null) {
+                standIn.shutdownNow();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !OPTIONS.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name one of "
+                        + OPTIONS);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    // Written straight to the repositories; only the reads are of interest here
+    private static void seed(ConfigurableApplicationContext context, int agents, int deliveriesPerAgent,
+                             int products, int signatureBytes) {
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] image = new byte[signatureBytes];
+        random.nextBytes(image);
+        String signature = "data:image/png;base64," + Base64.getEncoder().encodeToString(image);
+
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 1; i <= products; i++) {
+            Product product = new Product();
+            product.setSku(String.format("RS-%05d", i));
+            product.setName("Read stack product " + i);
+            product.setDescription("Seeded for the read stack comparison");
+            product.setCategory(ProductCategory.values()[random.nextInt(ProductCategory.values().length)]);
+            product.setQuantity(random.nextInt(1000));
+            product.setCreatedAt(LocalDate.now());
+            product.setUpdatedAt(LocalDate.now());
+            catalog.add(product);
+        }
+        catalog = context.getBean(ProductRepository.class).saveAll(catalog);
+
+        DeliveryRepository deliveryRepository = context.getBean(DeliveryRepository.class);
+        for (int agent = 1; agent <= agents; agent++) {
+            List<Delivery> deliveries = new ArrayList<>();
+            for (int i = 0; i < deliveriesPerAgent; i++) {
+                Delivery delivery = new Delivery();
+                delivery.setDeliveryAgentId("reader" + agent);
+                delivery.setCustomerName("Customer " + agent + "-" + i);
+                delivery.setCustomerAddress(i + " Galle Road, Colombo 3");
+                delivery.setCustomerPhone("+9477" + String.format("%07d", random.nextInt(10_000_000)));
+                delivery.setPriority(DeliveryPriority.NORMAL);
+                delivery.setScheduledDate(LocalDate.now());
+                boolean delivered = random.nextBoolean();
+                delivery.setStatus(delivered ? DeliveryStatus.DELIVERED : DeliveryStatus.PENDING);
+                if (delivered) {
+                    delivery.setCustomerSignature(signature);
+                }
+                List<DeliveryItem> items = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    Product product = catalog.get(random.nextInt(catalog.size()));
+                    DeliveryItem item = new DeliveryItem();
+                    item.setProductId(product.getId());
+                    item.setSku(product.getSku());
+                    item.setProductName(product.getName());
+                    item.setQuantity(1 + random.nextInt(3));
+                    items.add(item);
+                }
+                delivery.setItems(items);
+                deliveries.add(delivery);
+            }
+            deliveryRepository.saveAll(deliveries);
+        }
+    }
+
+    private static String account(HttpClient client, URI api, ObjectMapper objectMapper, String username,
+                                  String role) throws IOException, InterruptedException {
+        post(client, api.resolve("/api/auth/register"), objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", PASSWORD)
+                .put("email", username + "@readstack.dlvery.local")
+                .put("fullName", "Read Stack " + username)
+                .put("role", role), objectMapper);
+        return post(client, api.resolve("/api/auth/login"), objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", PASSWORD), objectMapper).path("token").asText();
+    }
+
+    private static JsonNode post(HttpClient client, URI uri, JsonNode body, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !json.path("success").asBoolean()) {
+            throw new IllegalStateException("POST " + uri.getPath() + " failed during seeding with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return json.path("data");
+    }
+
+    private static void measure(HttpClient client, URI uri, List<String> tokens, int clients, int warmupSeconds,
+                                int durationSeconds, ObjectNode phase) throws InterruptedException {
+        RouteStats stats = new RouteStats(uri.getPath());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicLong peakHeap = new AtomicLong();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                String token = tokens.get(i % tokens.size());
+                users.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        read(client, uri, token, stats);
+                    }
+                });
+            }
+
+            // Starts every phase from the same heap, so the peaks are comparable
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(Math.max(0, measureFrom - System.nanoTime())));
+            System.gc();
+            stats.reset();
+            long allocatedBefore = allocatedBytes();
+            long[] gcBefore = gcTotals();
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            long measuredFrom = System.nanoTime();
+            while (System.nanoTime() < end) {
+                peakHeap.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                        Math::max);
+                Thread.sleep(50);
+            }
+            double seconds = (System.nanoTime() - measuredFrom) / 1e9;
+            Histogram histogram = stats.histogram();
+            long requests = histogram.getTotalCount();
+            long[] gcAfter = gcTotals();
+            phase.put("requests", requests)
+                    .put("errors", stats.errors())
+                    .put("throughputPerSecond", round(requests / seconds))
+                    .put("p50Ms", round(histogram.getValueAtPercentile(50) / 1000.0))
+                    .put("p99Ms", round(histogram.getValueAtPercentile(99) / 1000.0))
+                    .put("maxMs", round(histogram.getMaxValue() / 1000.0))
+                    .put("allocatedBytesPerRequest", requests == 0 ? 0
+                            : round((double) (allocatedBytes() - allocatedBefore) / requests))
+                    .put("peakHeapBytes", peakHeap.get())
+                    .put("gcCount", gcAfter[0] - gcBefore[0])
+                    .put("gcMillis", gcAfter[1] - gcBefore[1])
+                    .put("peakPlatformThreads", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            phase.putPOJO("statuses", stats.outcomes());
+        }
+    }
+
+    private static void read(HttpClient client, URI uri, String token, RouteStats stats) {
+        long sent = System.nanoTime();
+        try {
+            // Reads the body to the end, so a streamed response is timed until its last document
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            stats.record(sent, System.nanoTime(), String.valueOf(response.statusCode()), response.statusCode() >= 400);
+        } catch (IOException e) {
+            stats.record(sent, System.nanoTime(), e.getClass().getSimpleName(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Includes the client threads, which do the same work for both stacks
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getTotalThreadAllocatedBytes();
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
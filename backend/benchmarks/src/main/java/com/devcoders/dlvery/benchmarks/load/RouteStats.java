@@ -0,0 +1,65 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one route. Latency runs from when a request was due to start,
+ * not from when it was sent, so time spent queued behind a slow server is counted.
+ */
+final class RouteStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String route;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private Histogram measured = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    RouteStats(String route) {
+        this.route = route;
+    }
+
+    String route() {
+        return route;
+    }
+
+    void record(long dueNanos, long doneNanos, String outcome, boolean error) {
+        long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, (doneNanos - dueNanos) / 1000));
+        recorder.recordValue(micros);
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    // Drops everything recorded so far, at the end of the warm-up
+    synchronized void reset() {
+        recorder.getIntervalHistogram();
+        outcomes.clear();
+        errors.reset();
+        measured = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+
+    synchronized Histogram histogram() {
+        measured.add(recorder.getIntervalHistogram());
+        return measured.copy();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
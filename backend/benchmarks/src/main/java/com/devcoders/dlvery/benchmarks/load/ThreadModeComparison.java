@@ -0,0 +1,98 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the same simulated day twice, once on Tomcat's platform thread pool and once with
+ * spring.threads.virtual.enabled, each in a fresh JVM so thread peaks and heap do not carry
+ * over, and writes both reports side by side with comparison.json. Defaults to 2000 agents;
+ * every {@link LoadProfile} option except --virtual-threads and --report-dir is passed through.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.devcoders.dlvery.benchmarks.load.ThreadModeComparison
+ * [--agents=2000] [--duration-seconds=300] [--mongo-uri=...] [--report-dir=target/thread-mode-comparison]}.
+ */
+public final class ThreadModeComparison {
+
+    private static final String[] MODES = {"platform", "virtual"};
+
+    private ThreadModeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path reportDir = Path.of("target/thread-mode-comparison");
+        List<String> passThrough = new ArrayList<>();
+        boolean agentsGiven = false;
+        for (String arg : args) {
+            if (arg.startsWith("--report-dir=")) {
+                reportDir = Path.of(arg.substring("--report-dir=".length()));
+            } else if (arg.startsWith("--virtual-threads=")) {
+                throw new IllegalArgumentException("Both thread modes are run, drop " + arg);
+            } else {
+                agentsGiven |= arg.startsWith("--agents=");
+                passThrough.add(arg);
+            }
+        }
+        if (!agentsGiven) {
+            passThrough.add("--agents=2000");
+        }
+        // Fails fast on a bad option instead of in the first child
+        LoadProfile.parse(passThrough.toArray(String[]::new));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode comparison = objectMapper.createObjectNode();
+        for (String mode : MODES) {
+            Path modeDir = reportDir.resolve(mode);
+            List<String> command = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    LoadTest.class.getName()));
+            command.addAll(passThrough);
+            command.add("--virtual-threads=" + mode.equals("virtual"));
+            command.add("--report-dir=" + modeDir);
+            System.out.println("Running the " + mode + " thread load test");
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                throw new IllegalStateException("The " + mode + " run exited with " + exit);
+            }
+            comparison.set(mode, summary(objectMapper.readTree(modeDir.resolve("load-report.json").toFile()),
+                    objectMapper));
+        }
+
+        Files.createDirectories(reportDir);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("comparison.json").toFile(),
+                comparison);
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s %8s%n", "Threads", "req/s", "p50 ms", "p99 ms",
+                "p99.9 ms", "errors", "peak thr", "pinned");
+        for (String mode : MODES) {
+            JsonNode summary = comparison.path(mode);
+            System.out.printf("%-10s %10.2f %10.2f %10.2f %10.2f %9.2f%% %10d %8d%n", mode,
+                    summary.path("throughputPerSecond").asDouble(), summary.path("p50Ms").asDouble(),
+                    summary.path("p99Ms").asDouble(), summary.path("p999Ms").asDouble(),
+                    summary.path("errorRate").asDouble() * 100, summary.path("peakPlatformThreads").asInt(),
+                    summary.path("pinnedSites").asInt());
+        }
+        System.out.println("Reports written to " + reportDir.toAbsolutePath());
+    }
+
+    private static ObjectNode summary(JsonNode report, ObjectMapper objectMapper) {
+        JsonNode total = report.path("total");
+        JsonNode jvm = report.path("jvm");
+        return objectMapper.createObjectNode()
+                .put("requests", total.path("requests").asLong())
+                .put("throughputPerSecond", total.path("throughputPerSecond").asDouble())
+                .put("p50Ms", total.path("latencyMs").path("p50").asDouble())
+                .put("p99Ms", total.path("latencyMs").path("p99").asDouble())
+                .put("p999Ms", total.path("latencyMs").path("p999").asDouble())
+                .put("errorRate", total.path("errorRate").asDouble())
+                .put("peakPlatformThreads", jvm.path("peakPlatformThreads").asInt())
+                .put("heapUsedBytes", jvm.path("heapUsedBytes").asLong())
+                .put("pinnedSites", jvm.path("pinnedSites").size());
+    }
+}
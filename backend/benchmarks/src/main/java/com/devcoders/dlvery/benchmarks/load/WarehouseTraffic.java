@@ -0,0 +1,368 @@
+package com.devcoders.dlvery.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Drives the HTTP API the way the web and agent apps do. Dispatchers create deliveries for
+ * today and post stock receipts at Poisson arrival rates; each agent polls its route sheet
+ * with the last ETag, starts the next pending stop and finishes the one in transit, either
+ * completing it with a signature or reporting a partial return.
+ */
+final class WarehouseTraffic {
+
+    static final String CREATE_DELIVERY = "POST /api/invteam/deliveries";
+    static final String POST_TRANSACTION = "POST /api/inventory/transactions";
+    static final String POLL_TODAY = "GET /api/dlteam/deliveries/my/today";
+    static final String START = "PUT /api/dlteam/deliveries/{id}/start";
+    static final String COMPLETE = "PUT /api/dlteam/deliveries/{id}/complete";
+    static final String UPDATE_ITEMS = "PUT /api/dlteam/deliveries/{id}/items";
+    static final String UPDATE_STATUS = "PUT /api/dlteam/deliveries/{id}/status";
+
+    private static final String PASSWORD = "load-test-password";
+    private static final String[] STREETS = {"Galle Road", "Duplication Road", "Baseline Road", "High Level Road",
+            "Havelock Road", "Kandy Road", "Negombo Road", "Parliament Road"};
+    private static final String[] PRIORITIES = {"LOW", "NORMAL", "NORMAL", "NORMAL", "HIGH", "URGENT"};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private record Account(String username, String token) {
+    }
+
+    private record CatalogItem(String id, String sku, String name) {
+    }
+
+    private record Response(int status, String etag, JsonNode data) {
+    }
+
+    private record Body(String contentType, String content) {
+    }
+
+    private final URI api;
+    private final LoadProfile profile;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+    private final Map<String, RouteStats> stats = new LinkedHashMap<>();
+    private final List<Account> dispatchers = new ArrayList<>();
+    private final List<Account> agents = new ArrayList<>();
+    private final List<CatalogItem> catalog = new ArrayList<>();
+    private final String signature;
+
+    WarehouseTraffic(URI api, LoadProfile profile, ObjectMapper objectMapper) {
+        this.api = api;
+        this.profile = profile;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        byte[] image = new byte[profile.signatureBytes()];
+        new SplittableRandom(profile.seed()).nextBytes(image);
+        this.signature = "data:image/png;base64," + Base64.getEncoder().encodeToString(image);
+        for (String route : List.of(CREATE_DELIVERY, POST_TRANSACTION, POLL_TODAY, START, COMPLETE, UPDATE_ITEMS,
+                UPDATE_STATUS)) {
+            stats.put(route, new RouteStats(route));
+        }
+    }
+
+    /** Registers the users and stocks the catalog; none of this is measured. */
+    void seed() throws IOException, InterruptedException {
+        for (int i = 1; i <= profile.dispatchers(); i++) {
+            dispatchers.add(account("dispatcher" + i, "INVTEAM"));
+        }
+        for (int i = 1; i <= profile.agents(); i++) {
+            agents.add(account("agent" + i, "DLTEAM"));
+        }
+
+        SplittableRandom random = new SplittableRandom(profile.seed());
+        String token = dispatchers.get(0).token();
+        for (int i = 1; i <= profile.products(); i++) {
+            ObjectNode product = objectMapper.createObjectNode()
+                    .put("sku", String.format("LT-%05d", i))
+                    .put("name", "Load test product " + i)
+                    .put("category", random.nextInt(4) == 0 ? "FOOD" : "ELECTRONICS")
+                    .put("quantity", 0);
+            JsonNode created = seedCall("POST", "/products", json(product), token);
+            catalog.add(new CatalogItem(created.path("id").asText(), created.path("sku").asText(),
+                    created.path("name").asText()));
+            // Received as a lot so deliveries can be picked from it
+            seedCall("POST", "/inventory/transactions", json(objectMapper.createObjectNode()
+                    .put("productId", created.path("id").asText())
+                    .put("sku", created.path("sku").asText())
+                    .put("type", "STOCK_IN")
+                    .put("quantity", 1_000_000)
+                    .put("userId", dispatchers.get(0).username())
+                    .put("notes", "Opening stock")), token);
+        }
+    }
+
+    /** Runs the warm-up and then the measured period, and returns what the measured period saw. */
+    LoadResult run() {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(profile.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(profile.durationSeconds());
+        Instant measuredAt;
+        long measuredNanos;
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            users.submit(() -> arrivals(profile.deliveriesPerMinute(), end, new SplittableRandom(profile.seed() + 1),
+                    users, this::createDelivery));
+            users.submit(() -> arrivals(profile.transactionsPerMinute(), end, new SplittableRandom(profile.seed() + 2),
+                    users, this::postTransaction));
+            for (int i = 0; i < agents.size(); i++) {
+                int index = i;
+                users.submit(() -> agent(index, start, end));
+            }
+
+            sleepUntil(measureFrom);
+            stats.values().forEach(RouteStats::reset);
+            measuredAt = Instant.now();
+            sleepUntil(end);
+            measuredNanos = System.nanoTime() - measureFrom;
+            // Closing waits for the requests still in flight
+        }
+        return new LoadResult(profile, measuredAt, measuredNanos / 1e9, List.copyOf(stats.values()));
+    }
+
+    private void arrivals(double perMinute, long end, SplittableRandom random, ExecutorService users,
+                          LongConsumer request) {
+        if (perMinute <= 0) {
+            return;
+        }
+        double meanGapNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        long due = System.nanoTime();
+        while (true) {
+            // Exponential gaps make a Poisson process; a slow server does not hold arrivals back
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (due >= end) {
+                return;
+            }
+            sleepUntil(due);
+            long arrival = due;
+            users.submit(() -> request.accept(arrival));
+        }
+    }
+
+    private void createDelivery(long due) {
+        SplittableRandom random = new SplittableRandom();
+        Account dispatcher = dispatchers.get(random.nextInt(dispatchers.size()));
+        Account agent = agents.get(random.nextInt(agents.size()));
+
+        ObjectNode delivery = objectMapper.createObjectNode()
+                .put("deliveryAgentId", agent.username())
+                .put("customerName", "Customer " + random.nextInt(1_000_000))
+                .put("customerAddress", (1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)]
+                        + ", Colombo " + (1 + random.nextInt(15)))
+                .put("customerPhone", "+9477" + (1_000_000 + random.nextInt(8_999_999)))
+                .put("priority", PRIORITIES[random.nextInt(PRIORITIES.length)])
+                .put("scheduledDate", LocalDate.now().toString());
+        ArrayNode items = delivery.putArray("items");
+        Set<CatalogItem> picked = new HashSet<>();
+        int itemCount = 1 + random.nextInt(profile.maxItemsPerDelivery());
+        while (picked.size() < Math.min(itemCount, catalog.size())) {
+            // Squaring a uniform draw skews demand towards the front of the catalog
+            double draw = random.nextDouble();
+            CatalogItem product = catalog.get((int) (draw * draw * catalog.size()));
+            if (picked.add(product)) {
+                items.addObject()
+                        .put("productId", product.id())
+                        .put("sku", product.sku())
+                        .put("productName", product.name())
+                        .put("quantity", 1 + random.nextInt(3));
+            }
+        }
+        call(CREATE_DELIVERY, "POST", "/invteam/deliveries", json(delivery), dispatcher.token(), null, due);
+    }
+
+    private void postTransaction(long due) {
+        SplittableRandom random = new SplittableRandom();
+        Account dispatcher = dispatchers.get(random.nextInt(dispatchers.size()));
+        CatalogItem product = catalog.get(random.nextInt(catalog.size()));
+        ObjectNode transaction = objectMapper.createObjectNode()
+                .put("productId", product.id())
+                .put("sku", product.sku())
+                .put("type", "STOCK_IN")
+                .put("quantity", 10 + random.nextInt(190))
+                .put("userId", dispatcher.username())
+                .put("notes", "Supplier delivery");
+        call(POST_TRANSACTION, "POST", "/inventory/transactions", json(transaction), dispatcher.token(), null, due);
+    }
+
+    private void agent(int index, long start, long end) {
+        Account agent = agents.get(index);
+        SplittableRandom random = new SplittableRandom(profile.seed() * 31 + index);
+        long interval = TimeUnit.SECONDS.toNanos(profile.agentPollSeconds());
+        // The sheet can lag behind the agent's own updates, so those are remembered here
+        Set<String> started = new HashSet<>();
+        Set<String> finished = new HashSet<>();
+        String etag = null;
+        JsonNode stops = objectMapper.createArrayNode();
+
+        // Polls are spread over the first interval rather than arriving together
+        long due = start + random.nextLong(interval);
+        while (due < end) {
+            sleepUntil(due);
+            Response poll = call(POLL_TODAY, "GET", "/dlteam/deliveries/my/today", null, agent.token(), etag, due);
+            if (poll != null && poll.status() == 200) {
+                etag = poll.etag();
+                stops = poll.data();
+            }
+
+            JsonNode next = null;
+            for (JsonNode stop : stops) {
+                String id = stop.path("id").asText();
+                if (finished.contains(id)) {
+                    continue;
+                }
+                if (started.contains(id) || "IN_TRANSIT".equals(stop.path("status").asText())) {
+                    next = stop;
+                    break;
+                }
+                if (next == null && "PENDING".equals(stop.path("status").asText())) {
+                    next = stop;
+                }
+            }
+            if (next != null) {
+                String id = next.path("id").asText();
+                if ("PENDING".equals(next.path("status").asText()) && !started.contains(id)) {
+                    call(START, "PUT", "/dlteam/deliveries/" + id + "/start", null, agent.token(), null,
+                            System.nanoTime());
+                    started.add(id);
+                } else {
+                    finish(agent, next, random);
+                    finished.add(id);
+                }
+            }
+            due += interval;
+        }
+    }
+
+    private void finish(Account agent, JsonNode stop, SplittableRandom random) {
+        String id = stop.path("id").asText();
+        if (random.nextDouble() >= profile.returnRatio()) {
+            String form = "customerName=" + URLEncoder.encode(stop.path("customerName").asText(), StandardCharsets.UTF_8)
+                    + "&customerSignature=" + URLEncoder.encode(signature, StandardCharsets.UTF_8);
+            call(COMPLETE, "PUT", "/dlteam/deliveries/" + id + "/complete",
+                    new Body("application/x-www-form-urlencoded", form), agent.token(), null, System.nanoTime());
+            return;
+        }
+
+        // The customer refused the first item; the rest were delivered
+        ArrayNode items = stop.path("items").deepCopy();
+        ((ObjectNode) items.get(0)).put("returned", true);
+        call(UPDATE_ITEMS, "PUT", "/dlteam/deliveries/" + id + "/items", json(items), agent.token(), null,
+                System.nanoTime());
+        String status = items.size() == 1 ? "RETURNED" : "PARTIALLY_DELIVERED";
+        call(UPDATE_STATUS, "PUT", "/dlteam/deliveries/" + id + "/status?status=" + status
+                + "&notes=Customer+refused+an+item", null, agent.token(), null, System.nanoTime());
+    }
+
+    private Account account(String username, String role) throws IOException, InterruptedException {
+        seedCall("POST", "/auth/register", json(objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", PASSWORD)
+                .put("email", username + "@loadtest.dlvery.local")
+                .put("fullName", "Load Test " + username)
+                .put("role", role)), null);
+        JsonNode login = seedCall("POST", "/auth/login", json(objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", PASSWORD)), null);
+        return new Account(username, login.path("token").asText());
+    }
+
+    private JsonNode seedCall(String method, String path, Body body, String token)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request(method, path, body, token, null),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !json.path("success").asBoolean()) {
+            throw new IllegalStateException(method + " " + path + " failed during seeding with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return json.path("data");
+    }
+
+    private Response call(String route, String method, String path, Body body, String token, String etag,
+                          long dueNanos) {
+        RouteStats routeStats = stats.get(route);
+        try {
+            HttpResponse<String> response = client.send(request(method, path, body, token, etag),
+                    HttpResponse.BodyHandlers.ofString());
+            long done = System.nanoTime();
+            int status = response.statusCode();
+            JsonNode json = status == 304 || response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+            // Some handlers answer 200 with success=false, e.g. for another agent's delivery
+            boolean rejected = json != null && json.has("success") && !json.path("success").asBoolean();
+            boolean error = status >= 400 || rejected;
+            routeStats.record(dueNanos, done, rejected && status < 400 ? status + " rejected" : String.valueOf(status),
+                    error);
+            return error ? null : new Response(status, response.headers().firstValue("ETag").orElse(null),
+                    json == null ? null : json.path("data"));
+        } catch (IOException e) {
+            routeStats.record(dueNanos, System.nanoTime(), e.getClass().getSimpleName(), true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest request(String method, String path, Body body, String token, String etag) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(api.resolve("api" + path))
+                .timeout(REQUEST_TIMEOUT)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body.content()));
+        if (body != null) {
+            request.header("Content-Type", body.contentType());
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (!method.equals("GET")) {
+            // As the web and agent apps do, so retried writes are not applied twice
+            request.header("Idempotency-Key", UUID.randomUUID().toString());
+        }
+        return request.build();
+    }
+
+    private Body json(JsonNode content) {
+        return new Body("application/json", content.toString());
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
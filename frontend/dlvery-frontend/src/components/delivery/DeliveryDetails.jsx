@@ -51,12 +51,15 @@ const DeliveryDetails = () => {
   const { id } = useParams();
   const navigate = useNavigate();
   const location = useLocation();
-  const { user } = useAuth();
+  const { user, isInventoryTeam } = useAuth();
   const { enqueueSnackbar } = useSnackbar();
   const theme = useTheme();
   const isMobile = useMediaQuery(theme.breakpoints.down('sm'));
   
   const [delivery, setDelivery] = useState(null);
+  // Current stock of the delivery's products and its stock movements, inventory team only
+  const [products, setProducts] = useState([]);
+  const [transactions, setTransactions] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
 
@@ -74,8 +77,16 @@ const DeliveryDetails = () => {
       setLoading(true);
       setError('');
       
-      const response = await deliveryService.getDeliveryById(id);
-      setDelivery(response.data);
+      // The full view is inventory team only; agents read their own delivery
+      if (isInventoryTeam()) {
+        const response = await deliveryService.getDeliveryDetails(id);
+        setDelivery(response.data.delivery);
+        setProducts(response.data.products || []);
+        setTransactions(response.data.transactions || []);
+      } else {
+        const response = await deliveryService.getDeliveryById(id);
+        setDelivery(response.data);
+      }
     } catch (err) {
       console.error('Error fetching delivery details:', err);
       setError('Failed to fetch delivery details. Please try again.');
@@ -170,6 +181,8 @@ const DeliveryDetails = () => {
     );
   }
 
+  const productsBySku = Object.fromEntries(products.map((product) => [product.sku, product]));
+
   const isActionable = delivery.status === 'IN_TRANSIT' || delivery.status === 'PENDING';
 
   return (
@@ -277,6 +290,7 @@ const DeliveryDetails = () => {
                 <TableCell>SKU</TableCell>
                 <TableCell>Product</TableCell>
                 <TableCell align="right">Quantity</TableCell>
+                {products.length > 0 && <TableCell align="right">In Stock</TableCell>}
                 <TableCell align="center">Status</TableCell>
               </TableRow>
             </TableHead>
@@ -286,6 +300,16 @@ const DeliveryDetails = () => {
                   <TableCell>{item.sku}</TableCell>
                   <TableCell>{item.productName}</TableCell>
                   <TableCell align="right">{item.quantity}</TableCell>
+                  {products.length > 0 && (
+                    <TableCell align="right">
+                      {productsBySku[item.sku] ? productsBySku[item.sku].quantity : '-'}
+                      {productsBySku[item.sku]?.perishable && productsBySku[item.sku].expiryDate && (
+                        <Typography variant="caption" display="block" color="text.secondary">
+                          Expires {new Date(productsBySku[item.sku].expiryDate).toLocaleDateString()}
+                        </Typography>
+                      )}
+                    </TableCell>
+                  )}
                   <TableCell align="center">
                     {item.damaged && <Chip size="small" label="Damaged" color="error" />}
                     {item.returned && <Chip size="small" label="Returned" color="secondary" />}
@@ -297,6 +321,41 @@ const DeliveryDetails = () => {
           </Table>
         </TableContainer>
 
+        {transactions.length > 0 && (
+          <>
+            <Typography variant="h6" sx={{ mb: 2 }}>
+              Stock Movements
+            </Typography>
+
+            <TableContainer component={Paper} variant="outlined" sx={{ mb: 3 }}>
+              <Table size={isMobile ? "small" : "medium"}>
+                <TableHead>
+                  <TableRow>
+                    <TableCell>Date</TableCell>
+                    <TableCell>SKU</TableCell>
+                    <TableCell>Type</TableCell>
+                    <TableCell align="right">Quantity</TableCell>
+                    <TableCell>Notes</TableCell>
+                  </TableRow>
+                </TableHead>
+                <TableBody>
+                  {transactions.map((transaction) => (
+                    <TableRow key={transaction.id}>
+                      <TableCell>{new Date(transaction.timestamp).toLocaleString()}</TableCell>
+                      <TableCell>{transaction.sku}</TableCell>
+                      <TableCell>
+                        <Chip size="small" variant="outlined" label={transaction.type.replace(/_/g, ' ')} />
+                      </TableCell>
+                      <TableCell align="right">{transaction.quantity}</TableCell>
+                      <TableCell>{transaction.notes}</TableCell>
+                    </TableRow>
+                  ))}
+                </TableBody>
+              </Table>
+            </TableContainer>
+          </>
+        )}
+
         {delivery.customerSignature && (
           <>
             <Typography variant="h6" sx={{ mb: 1 }}>
@@ -15,6 +15,10 @@ const api = axios.create({
   retryDelay: 1000,
 });
 
+const MUTATING_METHODS = ['post', 'put', 'patch', 'delete'];
+// The backend does not record auth calls, their responses carry tokens
+const isAuthCall = (url) => url?.startsWith('/auth/');
+
 // Add request interceptor to add auth token to requests
 api.interceptors.request.use(
   (config) => {
@@ -22,6 +26,12 @@ api.interceptors.request.use(
     if (token) {
       config.headers['Authorization'] = `Bearer ${token}`;
     }
+    // The key travels with the config, so a retry of the same request reuses it
+    // and the backend replays the first response instead of applying it twice
+    if (MUTATING_METHODS.includes(config.method) && !isAuthCall(config.url)
+        && !config.headers['Idempotency-Key']) {
+      config.headers['Idempotency-Key'] = crypto.randomUUID();
+    }
     return config;
   },
   (error) => {
@@ -33,6 +33,16 @@ const deliveryService = {
     }
   },
 
+  // Delivery with current product state and inventory transactions, in one request
+  getDeliveryDetails: async (id) => {
+    try {
+      const response = await api.get(`/invteam/deliveries/${id}/full`);
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { message: 'Failed to fetch delivery details' };
+    }
+  },
+
   getDeliveriesByAgentId: async (agentId) => {
     try {
       const response = await api.get(`/invteam/deliveries/agent/${agentId}`);